@@ -3,7 +3,8 @@
 Qwen embedding FastAPI service.
 
 Features:
-- POST /embed: text embeddings
+- POST /embed: text embeddings (JSON, or little-endian float32 when the client sends
+  Accept: application/x-float32-le)
 - POST /models/preload: preload/download embedding model
 - POST /models/unload: unload embedding model manually
 - GET /health, GET /ready, GET /info
@@ -36,7 +37,7 @@ from typing import Dict, List
 
 import torch
 import torch.nn.functional as F
-from fastapi import FastAPI, HTTPException
+from fastapi import FastAPI, Header, HTTPException, Response
 from fastapi.middleware.cors import CORSMiddleware
 from pydantic import BaseModel, Field
 from transformers import AutoModel, AutoTokenizer
@@ -137,6 +138,9 @@ def _parse_cors_allow_origins() -> List[str]:
 
 CORS_ALLOW_ORIGINS = _parse_cors_allow_origins()
 
+# Binary /embed response: row-major little-endian float32, shape in the response headers.
+FLOAT32_LE_MEDIA_TYPE = "application/x-float32-le"
+
 REQUEST_SEMAPHORE = threading.Semaphore(MAX_CONCURRENT_REQUESTS)
 IDLE_UNLOAD_STOP = threading.Event()
 IDLE_UNLOAD_THREAD: threading.Thread | None = None
@@ -289,7 +293,7 @@ def _mean_pool(last_hidden_state: torch.Tensor, attention_mask: torch.Tensor) ->
     return summed / count
 
 
-def _embedding_forward(texts: List[str], normalize: bool) -> List[List[float]]:
+def _embedding_forward(texts: List[str], normalize: bool) -> torch.Tensor:
     with REQUEST_SEMAPHORE:
         tokenizer, model = registry.acquire_for_request()
         try:
@@ -315,11 +319,21 @@ def _embedding_forward(texts: List[str], normalize: bool) -> List[List[float]]:
                 if normalize:
                     pooled = F.normalize(pooled, p=2, dim=1)
 
-            return pooled.cpu().tolist()
+            return pooled.to(torch.float32).cpu()
         finally:
             registry.release_after_request()
 
 
+def _accepts_float32_le(accept: str | None) -> bool:
+    if not accept:
+        return False
+    return any(part.split(";")[0].strip().lower() == FLOAT32_LE_MEDIA_TYPE for part in accept.split(","))
+
+
+def _to_float32_le_bytes(vectors: torch.Tensor) -> bytes:
+    return vectors.contiguous().numpy().astype("<f4", copy=False).tobytes()
+
+
 def _idle_unload_worker() -> None:
     while not IDLE_UNLOAD_STOP.wait(IDLE_CHECK_INTERVAL_SECONDS):
         try:
@@ -455,7 +469,7 @@ def unload_models() -> Dict[str, object]:
 
 
 @app.post("/embed", response_model=EmbeddingResponse)
-def embed(request: EmbeddingRequest) -> EmbeddingResponse:
+def embed(request: EmbeddingRequest, accept: str | None = Header(default=None)):
     if len(request.texts) > MAX_BATCH_SIZE:
         raise HTTPException(
             status_code=400,
@@ -470,9 +484,21 @@ def embed(request: EmbeddingRequest) -> EmbeddingResponse:
         raise HTTPException(status_code=500, detail="embedding request failed") from exc
 
     elapsed = (time.time() - start) * 1000
-    dimension = len(vectors[0]) if vectors else 0
+    if _accepts_float32_le(accept):
+        rows, dimension = (int(size) for size in vectors.shape)
+        return Response(
+            content=_to_float32_le_bytes(vectors),
+            media_type=FLOAT32_LE_MEDIA_TYPE,
+            headers={
+                "X-Embedding-Count": str(rows),
+                "X-Embedding-Dimension": str(dimension),
+                "X-Processing-Time-Ms": f"{elapsed:.2f}",
+            },
+        )
+    values = vectors.tolist()
+    dimension = len(values[0]) if values else 0
     return EmbeddingResponse(
-        embeddings=vectors,
+        embeddings=values,
         model=EMBEDDING_MODEL_ID,
         dimension=dimension,
         batch_size=len(request.texts),
@@ -1,6 +1,7 @@
 import contextlib
 import importlib.util
 import os
+import struct
 import sys
 import types
 import unittest
@@ -76,8 +77,19 @@ def _install_stubs() -> None:
 
             return decorator
 
+    class Response:
+        def __init__(self, content=None, media_type=None, headers=None):
+            self.body = content
+            self.media_type = media_type
+            self.headers = headers or {}
+
+    def Header(default=None, **kwargs):
+        return default
+
     fastapi_module.FastAPI = FastAPI
     fastapi_module.HTTPException = HTTPException
+    fastapi_module.Response = Response
+    fastapi_module.Header = Header
 
     middleware_module = types.ModuleType("fastapi.middleware")
     cors_module = types.ModuleType("fastapi.middleware.cors")
@@ -264,5 +276,55 @@ class EmbeddingServiceEmbedErrorTest(unittest.TestCase):
         self.assertEqual("embedding request failed", ctx.exception.detail)
 
 
+class FakeTensor:
+    def __init__(self, rows):
+        self.rows = rows
+        self.shape = (len(rows), len(rows[0]) if rows else 0)
+
+    def tolist(self):
+        return [list(row) for row in self.rows]
+
+    def contiguous(self):
+        return self
+
+
+class EmbeddingServiceResponseFormatTest(unittest.TestCase):
+    def setUp(self):
+        self.module = _load_module_with_env(MAX_BATCH_SIZE="8")
+        self.module._embedding_forward = lambda texts, normalize: FakeTensor([[0.5, -1.0], [2.0, 4.0]])
+
+    def test_embed_returns_json_by_default(self):
+        module = self.module
+        module.EmbeddingResponse = lambda **kwargs: kwargs
+
+        response = module.embed(types.SimpleNamespace(texts=["a", "b"], normalize=True))
+
+        self.assertEqual([[0.5, -1.0], [2.0, 4.0]], response["embeddings"])
+        self.assertEqual(2, response["dimension"])
+
+    def test_accepts_float32_le_media_type(self):
+        self.assertTrue(self.module._accepts_float32_le("application/x-float32-le, application/json"))
+        self.assertTrue(self.module._accepts_float32_le("application/json;q=0.9, Application/X-Float32-LE;q=1"))
+        self.assertFalse(self.module._accepts_float32_le("application/json"))
+        self.assertFalse(self.module._accepts_float32_le(None))
+
+    def test_embed_returns_float32_le_when_negotiated(self):
+        module = self.module
+        module._to_float32_le_bytes = lambda vectors: struct.pack(
+            "<%df" % (vectors.shape[0] * vectors.shape[1]),
+            *[value for row in vectors.rows for value in row],
+        )
+
+        response = module.embed(
+            types.SimpleNamespace(texts=["a", "b"], normalize=True),
+            accept="application/x-float32-le, application/json",
+        )
+
+        self.assertEqual(module.FLOAT32_LE_MEDIA_TYPE, response.media_type)
+        self.assertEqual("2", response.headers["X-Embedding-Count"])
+        self.assertEqual("2", response.headers["X-Embedding-Dimension"])
+        self.assertEqual((0.5, -1.0, 2.0, 4.0), struct.unpack("<4f", response.body))
+
+
 if __name__ == "__main__":
     unittest.main()
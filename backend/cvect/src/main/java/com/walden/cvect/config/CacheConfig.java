@@ -23,6 +23,7 @@ import java.util.List;
 public class CacheConfig {
     public static final String SEARCH_QUERY_EMBEDDING_CACHE = "searchQueryEmbeddings";
     public static final String SEARCH_RESPONSE_CACHE = "semanticSearchResponses";
+    public static final String CONTENT_EMBEDDING_CACHE = "contentEmbeddings";
 
     @Bean
     public CacheManager cacheManager(
@@ -38,12 +39,16 @@ public class CacheConfig {
         CaffeineCache searchResponseCache = buildCache(
                 SEARCH_RESPONSE_CACHE,
                 properties.getSearch().getResponse());
+        CaffeineCache contentEmbeddingCache = buildCache(
+                CONTENT_EMBEDDING_CACHE,
+                properties.getEmbedding());
         SimpleCacheManager cacheManager = new SimpleCacheManager();
-        cacheManager.setCaches(List.of(queryEmbeddingCache, searchResponseCache));
+        cacheManager.setCaches(List.of(queryEmbeddingCache, searchResponseCache, contentEmbeddingCache));
         MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable();
         if (meterRegistry != null) {
             bindMetrics(queryEmbeddingCache, meterRegistry);
             bindMetrics(searchResponseCache, meterRegistry);
+            bindMetrics(contentEmbeddingCache, meterRegistry);
         }
         return cacheManager;
     }
@@ -9,6 +9,8 @@ public class CacheProperties {
 
     private boolean enabled = true;
     private final Search search = new Search();
+    // 内容 embedding 缓存的进程内前置层，持久层见 embedding_cache 表
+    private final CacheSpec embedding = new CacheSpec(Duration.ofHours(6), 5000);
 
     public boolean isEnabled() {
         return enabled;
@@ -22,9 +24,13 @@ public class CacheProperties {
         return search;
     }
 
+    public CacheSpec getEmbedding() {
+        return embedding;
+    }
+
     public static class Search {
         private final CacheSpec queryEmbedding = new CacheSpec(Duration.ofMinutes(30), 128);
-        private final CacheSpec response = new CacheSpec(Duration.ofSeconds(10), 256);
+        private final CacheSpec response = new CacheSpec(Duration.ofHours(6), 256);
 
         public CacheSpec getQueryEmbedding() {
             return queryEmbedding;
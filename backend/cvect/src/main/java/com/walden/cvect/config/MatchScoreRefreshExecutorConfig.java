@@ -0,0 +1,32 @@
+package com.walden.cvect.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class MatchScoreRefreshExecutorConfig {
+
+    @Bean(name = "matchScoreRefreshExecutor")
+    public TaskExecutor matchScoreRefreshExecutor(
+            @Value("${app.match-scores.refresh.worker.executor.core-pool-size:2}") int corePoolSize,
+            @Value("${app.match-scores.refresh.worker.executor.max-pool-size:4}") int maxPoolSize,
+            @Value("${app.match-scores.refresh.worker.executor.queue-capacity:16}") int queueCapacity,
+            @Value("${app.match-scores.refresh.worker.executor.thread-name-prefix:match-score-refresh-}") String threadNamePrefix,
+            TaskDecorator mdcTaskDecorator) {
+        int normalizedCorePoolSize = Math.max(1, corePoolSize);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(normalizedCorePoolSize);
+        executor.setMaxPoolSize(Math.max(normalizedCorePoolSize, maxPoolSize));
+        executor.setQueueCapacity(Math.max(1, queueCapacity));
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setTaskDecorator(mdcTaskDecorator);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,38 @@
+package com.walden.cvect.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class SearchRetrievalExecutorConfig {
+
+    /**
+     * 混合检索中与向量检索并发的词法检索；队列满时由调用线程执行，退化为串行而不是拒绝请求
+     */
+    @Bean(name = "searchRetrievalExecutor")
+    public TaskExecutor searchRetrievalExecutor(
+            @Value("${app.vector.search-executor.core-pool-size:4}") int corePoolSize,
+            @Value("${app.vector.search-executor.max-pool-size:8}") int maxPoolSize,
+            @Value("${app.vector.search-executor.queue-capacity:64}") int queueCapacity,
+            @Value("${app.vector.search-executor.thread-name-prefix:search-retrieval-}") String threadNamePrefix,
+            TaskDecorator mdcTaskDecorator) {
+        int normalizedCorePoolSize = Math.max(1, corePoolSize);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(normalizedCorePoolSize);
+        executor.setMaxPoolSize(Math.max(normalizedCorePoolSize, maxPoolSize));
+        executor.setQueueCapacity(Math.max(1, queueCapacity));
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setTaskDecorator(mdcTaskDecorator);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+}
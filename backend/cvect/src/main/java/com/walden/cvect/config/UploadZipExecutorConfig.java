@@ -0,0 +1,37 @@
+package com.walden.cvect.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class UploadZipExecutorConfig {
+
+    /**
+     * zip 条目并行解压/落存储的有界线程池；队列满时由请求线程自己执行，形成背压
+     */
+    @Bean(name = "uploadZipExtractExecutor")
+    public TaskExecutor uploadZipExtractExecutor(
+            @Value("${app.upload.zip.extract-threads:4}") int extractThreads,
+            @Value("${app.upload.zip.queue-capacity:64}") int queueCapacity,
+            @Value("${app.upload.zip.thread-name-prefix:upload-zip-}") String threadNamePrefix,
+            TaskDecorator mdcTaskDecorator) {
+        int normalizedThreads = Math.max(1, extractThreads);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(normalizedThreads);
+        executor.setMaxPoolSize(normalizedThreads);
+        executor.setQueueCapacity(Math.max(0, queueCapacity));
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setTaskDecorator(mdcTaskDecorator);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+}
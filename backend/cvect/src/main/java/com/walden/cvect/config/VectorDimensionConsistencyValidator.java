@@ -6,11 +6,15 @@ import jakarta.annotation.PostConstruct;
 import org.springframework.stereotype.Component;
 
 /**
- * 启动期维度守卫：启用向量检索时，embedding/vector 维度必须一致。
+ * 启动期维度守卫：启用向量检索时，embedding/vector 维度必须一致；
+ * 开启两阶段检索时，粗召回维度必须小于全维且不超过 pgvector HNSW 的索引上限。
  */
 @Component
 public class VectorDimensionConsistencyValidator {
 
+    // pgvector 对 vector 类型建 HNSW/IVFFlat 索引的维度上限
+    private static final int MAX_INDEXED_DIMENSION = 2000;
+
     private final EmbeddingConfig embeddingConfig;
     private final VectorStoreConfig vectorStoreConfig;
 
@@ -38,5 +42,27 @@ public class VectorDimensionConsistencyValidator {
                             + ", app.vector.dimension=" + vectorDimension
                             + ". Keep them identical (e.g. set CVECT_VECTOR_DIMENSION to CVECT_EMBEDDING_DIMENSION).");
         }
+        validateCoarseDimension(vectorDimension);
+    }
+
+    private void validateCoarseDimension(int vectorDimension) {
+        int coarseDimension = vectorStoreConfig.getCoarseDimension();
+        if (!vectorStoreConfig.isEnabled() || coarseDimension == 0) {
+            return;
+        }
+        if (coarseDimension < 0 || coarseDimension >= vectorDimension) {
+            throw new IllegalStateException(
+                    "Invalid app.vector.coarse-dimension=" + coarseDimension
+                            + ": must be between 1 and app.vector.dimension - 1 (" + (vectorDimension - 1)
+                            + "), or 0 to disable two-stage search.");
+        }
+        if (coarseDimension > MAX_INDEXED_DIMENSION) {
+            throw new IllegalStateException(
+                    "Invalid app.vector.coarse-dimension=" + coarseDimension
+                            + ": pgvector indexes at most " + MAX_INDEXED_DIMENSION + " dimensions.");
+        }
+        if (vectorStoreConfig.getCoarseRescoreSize() <= 0) {
+            throw new IllegalStateException("app.vector.coarse-rescore-size must be > 0 when app.vector.coarse-dimension > 0");
+        }
     }
 }
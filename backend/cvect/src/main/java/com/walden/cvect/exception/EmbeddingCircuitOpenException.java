@@ -0,0 +1,13 @@
+package com.walden.cvect.exception;
+
+/**
+ * embedding 熔断器处于打开状态，请求未发出
+ */
+public class EmbeddingCircuitOpenException extends EmbeddingUnavailableException {
+
+    private static final long serialVersionUID = 1L;
+
+    public EmbeddingCircuitOpenException(String message, long retryAfterMs) {
+        super(message, retryAfterMs);
+    }
+}
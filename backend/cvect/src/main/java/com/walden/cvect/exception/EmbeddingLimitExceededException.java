@@ -0,0 +1,13 @@
+package com.walden.cvect.exception;
+
+/**
+ * embedding 在途请求已达自适应并发上限，请求未发出
+ */
+public class EmbeddingLimitExceededException extends EmbeddingUnavailableException {
+
+    private static final long serialVersionUID = 1L;
+
+    public EmbeddingLimitExceededException(String message, long retryAfterMs) {
+        super(message, retryAfterMs);
+    }
+}
@@ -0,0 +1,18 @@
+package com.walden.cvect.exception;
+
+/**
+ * embedding 服务调用失败
+ * 封装 HTTP 错误、超时以及响应校验失败，调用方 (向量入库、匹配打分) 据此决定重试或降级
+ */
+public class EmbeddingRequestException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public EmbeddingRequestException(String message) {
+        super(message);
+    }
+
+    public EmbeddingRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,33 @@
+package com.walden.cvect.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * embedding 服务暂时不可用：超时、连接失败、5xx，或请求在本地被熔断/限流拒绝
+ * 调用方应在 retryAfterMs 之后重试，而不是把任务计为失败
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class EmbeddingUnavailableException extends EmbeddingRequestException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterMs;
+
+    public EmbeddingUnavailableException(String message, long retryAfterMs) {
+        super(message);
+        this.retryAfterMs = Math.max(0L, retryAfterMs);
+    }
+
+    public EmbeddingUnavailableException(String message, long retryAfterMs, Throwable cause) {
+        super(message, cause);
+        this.retryAfterMs = Math.max(0L, retryAfterMs);
+    }
+
+    /**
+     * @return 建议的最短重试间隔，0 表示没有建议
+     */
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
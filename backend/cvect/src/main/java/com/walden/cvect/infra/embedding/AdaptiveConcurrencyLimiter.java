@@ -0,0 +1,148 @@
+package com.walden.cvect.infra.embedding;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * embedding 请求的 AIMD 自适应并发上限
+ *
+ * 固定并发数要么在模型服务变慢时放大排队与超时，要么在空闲时浪费吞吐；这里按结果调整上限：
+ * 请求成功且在途数接近上限时每轮 (约 limit 次成功) 加 1，暂时性失败或慢请求时乘以 backoffRatio。
+ * 超过上限的请求立即拒绝 (load shedding)，由调用方退避，不在本地排队。
+ */
+final class AdaptiveConcurrencyLimiter {
+
+    private static final Permit NOOP_PERMIT = new Permit(null);
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long slowCallThresholdNanos;
+    private final Counter rejectionCounter;
+    private double limit;
+    private int inFlight;
+
+    AdaptiveConcurrencyLimiter(EmbeddingConfig.Limiter config, MeterRegistry meterRegistry) {
+        this.enabled = config.isEnabled();
+        this.minLimit = Math.max(1, config.getMinLimit());
+        this.maxLimit = Math.max(minLimit, config.getMaxLimit());
+        this.backoffRatio = Math.min(0.99, Math.max(0.1, config.getBackoffRatio()));
+        this.slowCallThresholdNanos = config.getSlowCallThresholdMs() > 0
+                ? TimeUnit.MILLISECONDS.toNanos(config.getSlowCallThresholdMs())
+                : Long.MAX_VALUE;
+        this.limit = Math.min(maxLimit, Math.max(minLimit, config.getInitialLimit()));
+        if (enabled && meterRegistry != null) {
+            Gauge.builder("cvect.embedding.limiter.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current adaptive concurrency limit for embedding requests")
+                    .register(meterRegistry);
+            Gauge.builder("cvect.embedding.limiter.inflight", this, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("Embedding requests currently holding a limiter permit")
+                    .register(meterRegistry);
+            this.rejectionCounter = Counter.builder("cvect.embedding.limiter.rejections")
+                    .description("Embedding requests rejected by the adaptive concurrency limit")
+                    .register(meterRegistry);
+        } else {
+            this.rejectionCounter = null;
+        }
+    }
+
+    /**
+     * @return 许可；在途数已达上限时返回 null
+     */
+    Permit tryAcquire() {
+        if (!enabled) {
+            return NOOP_PERMIT;
+        }
+        synchronized (this) {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return new Permit(this);
+            }
+        }
+        if (rejectionCounter != null) {
+            rejectionCounter.increment();
+        }
+        return null;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private synchronized void onSuccess(long latencyNanos) {
+        int inFlightBeforeRelease = inFlight--;
+        if (latencyNanos > slowCallThresholdNanos) {
+            decrease();
+            return;
+        }
+        // 只有真正用到接近上限时才增长，避免低负载期间上限无限上浮
+        if (inFlightBeforeRelease * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    private synchronized void onDropped() {
+        inFlight--;
+        decrease();
+    }
+
+    private synchronized void onIgnored() {
+        inFlight--;
+    }
+
+    private void decrease() {
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+
+    /**
+     * 单次请求持有的许可，success / dropped / ignore 三者只有第一次调用生效
+     */
+    static final class Permit {
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Permit(AdaptiveConcurrencyLimiter limiter) {
+            this.limiter = limiter;
+        }
+
+        /**
+         * 服务正常响应 (包括 4xx 等与负载无关的失败)
+         */
+        void success(long latencyNanos) {
+            if (limiter != null && released.compareAndSet(false, true)) {
+                limiter.onSuccess(latencyNanos);
+            }
+        }
+
+        /**
+         * 超时、连接失败或 5xx：视为过载信号
+         */
+        void dropped() {
+            if (limiter != null && released.compareAndSet(false, true)) {
+                limiter.onDropped();
+            }
+        }
+
+        /**
+         * 请求被取消，结果不反映服务负载
+         */
+        void ignore() {
+            if (limiter != null && released.compareAndSet(false, true)) {
+                limiter.onIgnored();
+            }
+        }
+    }
+}
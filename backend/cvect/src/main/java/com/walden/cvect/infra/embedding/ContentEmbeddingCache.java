@@ -0,0 +1,254 @@
+package com.walden.cvect.infra.embedding;
+
+import com.walden.cvect.config.CacheConfig;
+import com.walden.cvect.infra.digest.Sha256Digests;
+import com.walden.cvect.repository.EmbeddingCacheRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 文本内容 embedding 缓存：进程内 Caffeine 前置层 + embedding_cache 持久层
+ *
+ * key = 模型名 + 维度 + 规范化文本 SHA-256；两层都未命中的文本才交给模型，批内重复文本只请求一次。
+ * 持久层读写失败只记录日志并回退到模型调用，不影响 ingest。
+ * 前置层命中率由 CacheConfig 绑定的 cache 指标暴露，持久层命中通过 cvect.embedding.cache.lookups 计数。
+ */
+@Component
+@ConditionalOnProperty(name = "app.embedding.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ContentEmbeddingCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentEmbeddingCache.class);
+
+    private final EmbeddingCacheRepository repository;
+    private final Cache frontCache;
+    private final String modelName;
+    private final int dimension;
+    private final boolean persistentEnabled;
+    private final Counter memoryHitCounter;
+    private final Counter databaseHitCounter;
+    private final Counter missCounter;
+
+    @Autowired
+    public ContentEmbeddingCache(
+            EmbeddingConfig config,
+            CacheManager cacheManager,
+            EmbeddingCacheRepository repository,
+            ObjectProvider<MeterRegistry> meterRegistryProvider,
+            @Value("${app.embedding.cache.persistent-enabled:true}") boolean persistentEnabled) {
+        this(config, cacheManager.getCache(CacheConfig.CONTENT_EMBEDDING_CACHE), repository,
+                meterRegistryProvider.getIfAvailable(), persistentEnabled);
+    }
+
+    ContentEmbeddingCache(
+            EmbeddingConfig config,
+            Cache frontCache,
+            EmbeddingCacheRepository repository,
+            MeterRegistry meterRegistry,
+            boolean persistentEnabled) {
+        this.repository = repository;
+        this.frontCache = frontCache;
+        this.modelName = config.getModelName() == null ? "" : config.getModelName();
+        this.dimension = config.getDimension();
+        this.persistentEnabled = persistentEnabled && repository != null;
+        this.memoryHitCounter = lookupCounter(meterRegistry, "memory");
+        this.databaseHitCounter = lookupCounter(meterRegistry, "database");
+        this.missCounter = lookupCounter(meterRegistry, "miss");
+    }
+
+    /**
+     * 按输入顺序返回向量；未命中的文本 (去重后) 一次性交给 loader，结果写回两层缓存
+     */
+    public List<float[]> getOrCompute(List<String> texts, Function<List<String>, List<float[]>> loader) {
+        if (texts == null || texts.isEmpty()) {
+            return List.of();
+        }
+        Lookup lookup = lookup(texts);
+        if (lookup.isComplete()) {
+            return lookup.results();
+        }
+        return lookup.complete(loader.apply(lookup.missingTexts()));
+    }
+
+    /**
+     * 异步版本：缓存读写是阻塞 JDBC，放在 boundedElastic 上执行，loader 返回的 Mono 不被阻塞
+     */
+    public Mono<List<float[]>> getOrComputeAsync(
+            List<String> texts,
+            Function<List<String>, Mono<List<float[]>>> loader) {
+        if (texts == null || texts.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return Mono.fromCallable(() -> lookup(texts))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(lookup -> lookup.isComplete()
+                        ? Mono.just(lookup.results())
+                        : loader.apply(lookup.missingTexts())
+                                .publishOn(Schedulers.boundedElastic())
+                                .map(lookup::complete));
+    }
+
+    private Lookup lookup(List<String> texts) {
+        Lookup lookup = new Lookup(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            String hash = contentHash(texts.get(i));
+            lookup.hashes[i] = hash;
+            if (lookup.resolved.containsKey(hash) || lookup.pending.containsKey(hash)) {
+                continue;
+            }
+            float[] cached = getFront(hash);
+            if (cached != null) {
+                lookup.resolved.put(hash, cached);
+                increment(memoryHitCounter);
+            } else {
+                lookup.pending.put(hash, texts.get(i));
+            }
+        }
+
+        if (!lookup.pending.isEmpty()) {
+            findPersistent(lookup.pending.keySet()).forEach((hash, vector) -> {
+                if (lookup.pending.remove(hash) != null) {
+                    lookup.resolved.put(hash, vector);
+                    putFront(hash, vector);
+                    increment(databaseHitCounter);
+                }
+            });
+        }
+        return lookup;
+    }
+
+    static String contentHash(String text) {
+        String normalized = text == null ? "" : text.trim().replaceAll("\\s+", " ");
+        return Sha256Digests.hex(normalized);
+    }
+
+    private float[] getFront(String hash) {
+        if (frontCache == null) {
+            return null;
+        }
+        float[] cached = frontCache.get(frontKey(hash), float[].class);
+        return isExpectedDimension(cached) ? cached : null;
+    }
+
+    private void putFront(String hash, float[] vector) {
+        if (frontCache != null) {
+            frontCache.put(frontKey(hash), vector);
+        }
+    }
+
+    private String frontKey(String hash) {
+        return modelName + ":" + dimension + ":" + hash;
+    }
+
+    private Map<String, float[]> findPersistent(Iterable<String> hashes) {
+        if (!persistentEnabled) {
+            return Map.of();
+        }
+        try {
+            List<String> keys = new ArrayList<>();
+            hashes.forEach(keys::add);
+            return repository.findAll(modelName, dimension, keys);
+        } catch (RuntimeException ex) {
+            log.warn("Embedding cache lookup failed, fallback to model: {}", ex.getMessage());
+            return Map.of();
+        }
+    }
+
+    private void storePersistent(Map<String, float[]> embeddings) {
+        if (!persistentEnabled || embeddings.isEmpty()) {
+            return;
+        }
+        try {
+            repository.insertAll(modelName, dimension, embeddings);
+        } catch (RuntimeException ex) {
+            log.warn("Embedding cache write failed for {} entries: {}", embeddings.size(), ex.getMessage());
+        }
+    }
+
+    private boolean isExpectedDimension(float[] vector) {
+        return vector != null && vector.length > 0 && (dimension <= 0 || vector.length == dimension);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        if (meterRegistry == null) {
+            return null;
+        }
+        return Counter.builder("cvect.embedding.cache.lookups")
+                .tag("result", result)
+                .description("Content embedding cache lookups by resolving tier")
+                .register(meterRegistry);
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * 一次批量查找的中间状态：hashes 保持输入顺序，pending 为去重后仍需请求模型的文本
+     */
+    private final class Lookup {
+        private final String[] hashes;
+        private final Map<String, float[]> resolved = new HashMap<>();
+        private final Map<String, String> pending = new LinkedHashMap<>();
+
+        private Lookup(int size) {
+            this.hashes = new String[size];
+        }
+
+        private boolean isComplete() {
+            return pending.isEmpty();
+        }
+
+        private List<String> missingTexts() {
+            return List.copyOf(pending.values());
+        }
+
+        private List<float[]> complete(List<float[]> computed) {
+            if (computed == null || computed.size() != pending.size()) {
+                throw new IllegalStateException("Embedding count mismatch: expected "
+                        + pending.size() + ", got " + (computed == null ? 0 : computed.size()));
+            }
+            Map<String, float[]> fresh = new LinkedHashMap<>();
+            int index = 0;
+            for (String hash : pending.keySet()) {
+                float[] vector = computed.get(index++);
+                resolved.put(hash, vector);
+                increment(missCounter);
+                if (isExpectedDimension(vector)) {
+                    fresh.put(hash, vector);
+                    putFront(hash, vector);
+                }
+            }
+            pending.clear();
+            storePersistent(fresh);
+            return results();
+        }
+
+        private List<float[]> results() {
+            List<float[]> results = new ArrayList<>(hashes.length);
+            for (String hash : hashes) {
+                results.add(resolved.get(hash));
+            }
+            return results;
+        }
+    }
+}
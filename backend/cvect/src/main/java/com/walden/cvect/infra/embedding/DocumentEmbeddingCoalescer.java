@@ -0,0 +1,242 @@
+package com.walden.cvect.infra.embedding;
+
+import com.walden.cvect.exception.EmbeddingUnavailableException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/**
+ * 文档 embedding 微批合并器
+ *
+ * 多个 ingest 线程并发调用 embedDocument 时，每次只发一条文本会让模型服务逐条前向计算。
+ * 这里由单个派发线程收集请求：凑满 maxBatchSize 或最早的请求等待超过 maxLinger 即发出一次批量请求，
+ * 再把结果按顺序回填给各调用方。批量请求异步发出，在途批数不超过 maxInFlight (随限流上限或副本数变化)；
+ * 在途已满时新请求继续排队，天然形成更大的批。
+ * 调用方最多等待 maxWait (与 HTTP 请求超时一致)，派发线程卡住时按暂时不可用失败，交由上层重试。
+ */
+final class DocumentEmbeddingCoalescer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentEmbeddingCoalescer.class);
+
+    private final Function<List<String>, CompletableFuture<List<float[]>>> batchEmbedder;
+    private final int maxBatchSize;
+    private final long maxLingerNanos;
+    private final IntSupplier maxInFlight;
+    private final long maxWaitNanos;
+    private final BlockingQueue<PendingEmbedding> queue = new LinkedBlockingQueue<>();
+    private final Object inFlightLock = new Object();
+    private int inFlight;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final DistributionSummary batchSizeSummary;
+    private final Timer lingerTimer;
+    private volatile boolean closed;
+    private volatile Thread dispatcher;
+
+    DocumentEmbeddingCoalescer(
+            Function<List<String>, CompletableFuture<List<float[]>>> batchEmbedder,
+            int maxBatchSize,
+            long maxLingerMs,
+            IntSupplier maxInFlight,
+            Duration maxWait,
+            MeterRegistry meterRegistry) {
+        this.batchEmbedder = batchEmbedder;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxLingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, maxLingerMs));
+        this.maxInFlight = maxInFlight;
+        this.maxWaitNanos = Math.max(1L, maxWait.toNanos());
+        if (meterRegistry != null) {
+            this.batchSizeSummary = DistributionSummary.builder("cvect.embedding.coalesce.batch.size")
+                    .description("Texts per coalesced document embedding request")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.lingerTimer = Timer.builder("cvect.embedding.coalesce.linger")
+                    .description("Time the oldest text waited before its batch was dispatched")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            Gauge.builder("cvect.embedding.coalesce.queue.size", queue, BlockingQueue::size)
+                    .description("Document embedding requests waiting to be coalesced")
+                    .register(meterRegistry);
+            Gauge.builder("cvect.embedding.coalesce.inflight", this, DocumentEmbeddingCoalescer::getInFlight)
+                    .description("Coalesced document embedding batches currently in flight")
+                    .register(meterRegistry);
+        } else {
+            this.batchSizeSummary = null;
+            this.lingerTimer = null;
+        }
+    }
+
+    float[] embed(String text) {
+        if (closed) {
+            throw new IllegalStateException("Document embedding coalescer is closed");
+        }
+        ensureStarted();
+        PendingEmbedding pending = new PendingEmbedding(text, System.nanoTime(), new CompletableFuture<>());
+        queue.add(pending);
+        try {
+            return pending.result().get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            pending.result().cancel(false);
+            throw new EmbeddingUnavailableException(
+                    "Coalesced embedding timed out after " + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + "ms", 0L, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.result().cancel(false);
+            throw new IllegalStateException("Interrupted while waiting for coalesced embedding", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Embedding generation failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Thread current = dispatcher;
+        if (current != null) {
+            current.interrupt();
+        }
+        List<PendingEmbedding> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        failAll(remaining, new IllegalStateException("Document embedding coalescer is closed"));
+    }
+
+    private void ensureStarted() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(this::dispatchLoop, "embedding-coalescer");
+        thread.setDaemon(true);
+        dispatcher = thread;
+        thread.start();
+    }
+
+    int getInFlight() {
+        synchronized (inFlightLock) {
+            return inFlight;
+        }
+    }
+
+    private void dispatchLoop() {
+        while (!closed) {
+            List<PendingEmbedding> batch;
+            try {
+                // 先等在途名额再收集：等待期间排队的请求会并入同一批；只有派发线程占用名额，不会被抢走
+                awaitDispatchSlot();
+                batch = collectBatch();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            dispatch(batch);
+        }
+    }
+
+    private void awaitDispatchSlot() throws InterruptedException {
+        synchronized (inFlightLock) {
+            while (inFlight >= Math.max(1, maxInFlight.getAsInt())) {
+                inFlightLock.wait();
+            }
+        }
+    }
+
+    private void releaseDispatchSlot() {
+        synchronized (inFlightLock) {
+            inFlight--;
+            inFlightLock.notifyAll();
+        }
+    }
+
+    private List<PendingEmbedding> collectBatch() throws InterruptedException {
+        PendingEmbedding first = queue.take();
+        List<PendingEmbedding> batch = new ArrayList<>(maxBatchSize);
+        batch.add(first);
+        long deadline = first.enqueuedAtNanos() + maxLingerNanos;
+        while (batch.size() < maxBatchSize) {
+            if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            PendingEmbedding next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void dispatch(List<PendingEmbedding> batch) {
+        List<PendingEmbedding> live = batch.stream()
+                .filter(pending -> !pending.result().isDone())
+                .toList();
+        if (live.isEmpty()) {
+            return;
+        }
+        synchronized (inFlightLock) {
+            inFlight++;
+        }
+        if (batchSizeSummary != null) {
+            batchSizeSummary.record(live.size());
+            lingerTimer.record(System.nanoTime() - live.get(0).enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+        }
+        CompletableFuture<List<float[]>> request;
+        try {
+            request = batchEmbedder.apply(live.stream().map(PendingEmbedding::text).toList());
+        } catch (Throwable ex) {
+            request = CompletableFuture.failedFuture(ex);
+        }
+        request.whenComplete((embeddings, error) -> {
+            releaseDispatchSlot();
+            complete(live, embeddings, error);
+        });
+    }
+
+    private static void complete(List<PendingEmbedding> live, List<float[]> embeddings, Throwable error) {
+        Throwable failure = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause()
+                : error;
+        if (failure == null && (embeddings == null || embeddings.size() != live.size())) {
+            failure = new IllegalStateException("Embedding response size mismatch");
+        }
+        if (failure != null) {
+            log.debug("Coalesced embedding batch failed: size={}, reason={}", live.size(), failure.getMessage());
+            failAll(live, failure);
+            return;
+        }
+        for (int i = 0; i < live.size(); i++) {
+            live.get(i).result().complete(embeddings.get(i));
+        }
+    }
+
+    private static void failAll(List<PendingEmbedding> pendings, Throwable ex) {
+        for (PendingEmbedding pending : pendings) {
+            pending.result().completeExceptionally(ex);
+        }
+    }
+
+    private record PendingEmbedding(String text, long enqueuedAtNanos, CompletableFuture<float[]> result) {
+    }
+}
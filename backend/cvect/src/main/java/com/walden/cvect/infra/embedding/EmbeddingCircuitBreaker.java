@@ -0,0 +1,143 @@
+package com.walden.cvect.infra.embedding;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * embedding 服务熔断器
+ *
+ * CLOSED：正常放行，连续 failureThreshold 次暂时性失败后进入 OPEN；
+ * OPEN：openMs 内所有请求直接失败，不占用连接和模型服务；
+ * HALF_OPEN：到期后只放行一个探测请求，成功则 CLOSED，失败则重新 OPEN。
+ */
+final class EmbeddingCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddingCircuitBreaker.class);
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final boolean enabled;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final Counter rejectionCounter;
+    private final Counter openedCounter;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean probeInFlight;
+
+    EmbeddingCircuitBreaker(EmbeddingConfig.CircuitBreaker config, MeterRegistry meterRegistry) {
+        this.enabled = config.isEnabled();
+        this.failureThreshold = Math.max(1, config.getFailureThreshold());
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, config.getOpenMs()));
+        if (enabled && meterRegistry != null) {
+            Gauge.builder("cvect.embedding.circuit.state", this, breaker -> breaker.getState().ordinal())
+                    .description("Embedding circuit breaker state: 0=closed, 1=open, 2=half-open")
+                    .register(meterRegistry);
+            this.rejectionCounter = Counter.builder("cvect.embedding.circuit.rejections")
+                    .description("Embedding requests failed fast while the circuit was open")
+                    .register(meterRegistry);
+            this.openedCounter = Counter.builder("cvect.embedding.circuit.opened")
+                    .description("Times the embedding circuit breaker opened")
+                    .register(meterRegistry);
+        } else {
+            this.rejectionCounter = null;
+            this.openedCounter = null;
+        }
+    }
+
+    /**
+     * @return 是否放行本次请求；放行后必须以 onSuccess / onFailure / onIgnored 之一结束
+     */
+    boolean tryAcquire() {
+        if (!enabled) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openNanos) {
+                state = State.HALF_OPEN;
+                probeInFlight = false;
+            }
+            if (state == State.HALF_OPEN && !probeInFlight) {
+                probeInFlight = true;
+                return true;
+            }
+        }
+        if (rejectionCounter != null) {
+            rejectionCounter.increment();
+        }
+        return false;
+    }
+
+    synchronized void onSuccess() {
+        if (!enabled) {
+            return;
+        }
+        if (state != State.CLOSED) {
+            log.info("Embedding circuit breaker closed after a successful probe");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    synchronized void onFailure() {
+        if (!enabled) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state == State.CLOSED && ++consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * 请求被取消，既不代表成功也不代表失败；half-open 时允许下一个探测请求
+     */
+    synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return OPEN 状态剩余时间；其它状态返回 0
+     */
+    synchronized long retryAfterMs() {
+        if (state != State.OPEN) {
+            return 0L;
+        }
+        long remaining = openNanos - (System.nanoTime() - openedAtNanos);
+        return Math.max(0L, TimeUnit.NANOSECONDS.toMillis(remaining));
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtNanos = System.nanoTime();
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        if (openedCounter != null) {
+            openedCounter.increment();
+        }
+        log.warn("Embedding circuit breaker opened for {} ms", TimeUnit.NANOSECONDS.toMillis(openNanos));
+    }
+}
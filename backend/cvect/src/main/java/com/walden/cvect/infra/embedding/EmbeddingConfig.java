@@ -3,17 +3,31 @@ package com.walden.cvect.infra.embedding;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 @ConfigurationProperties(prefix = "app.embedding")
 public class EmbeddingConfig {
 
     private String modelName = "Qwen/Qwen3-Embedding-0.6B";
     private String serviceUrl = "http://localhost:8001/embed";
+    // 多副本部署时的端点列表；为空时只使用 serviceUrl
+    private List<String> serviceUrls = new ArrayList<>();
     private String apiFormat = "auto";
     private String healthUrl;
     private int batchSize = 1;
     private int dimension = 1024;
     private int timeoutSeconds = 60;
+    // 原生 /embed 通过 Accept 协商 little-endian float32 二进制响应；服务端不支持时自动退回 JSON
+    private boolean binaryResponse = true;
+    // OpenAI 兼容接口的 encoding_format：float 或 base64
+    private String openAiEncodingFormat = "float";
+    private final Coalescing coalescing = new Coalescing();
+    private final Http http = new Http();
+    private final Routing routing = new Routing();
+    private final Limiter limiter = new Limiter();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
 
     public String getModelName() {
         return modelName;
@@ -31,6 +45,26 @@ public class EmbeddingConfig {
         this.serviceUrl = serviceUrl;
     }
 
+    public List<String> getServiceUrls() {
+        return serviceUrls;
+    }
+
+    public void setServiceUrls(List<String> serviceUrls) {
+        this.serviceUrls = serviceUrls == null ? new ArrayList<>() : new ArrayList<>(serviceUrls);
+    }
+
+    /**
+     * 实际参与路由的端点：优先 serviceUrls (去空白、去重)，否则退回单个 serviceUrl
+     */
+    public List<String> resolveServiceUrls() {
+        List<String> resolved = serviceUrls.stream()
+                .filter(url -> url != null && !url.isBlank())
+                .map(String::trim)
+                .distinct()
+                .toList();
+        return resolved.isEmpty() ? List.of(serviceUrl) : resolved;
+    }
+
     public String getApiFormat() {
         return apiFormat;
     }
@@ -70,4 +104,309 @@ public class EmbeddingConfig {
     public void setTimeoutSeconds(int timeoutSeconds) {
         this.timeoutSeconds = timeoutSeconds;
     }
+
+    public Coalescing getCoalescing() {
+        return coalescing;
+    }
+
+    public boolean isBinaryResponse() {
+        return binaryResponse;
+    }
+
+    public void setBinaryResponse(boolean binaryResponse) {
+        this.binaryResponse = binaryResponse;
+    }
+
+    public String getOpenAiEncodingFormat() {
+        return openAiEncodingFormat;
+    }
+
+    public void setOpenAiEncodingFormat(String openAiEncodingFormat) {
+        this.openAiEncodingFormat = openAiEncodingFormat;
+    }
+
+    public Http getHttp() {
+        return http;
+    }
+
+    public Routing getRouting() {
+        return routing;
+    }
+
+    public Limiter getLimiter() {
+        return limiter;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * 文档侧 embedding 微批合并：并发的 embedDocument 调用在 maxLingerMs 内合并为一次批量请求，
+     * 每批上限沿用 batchSize (与模型服务 MAX_BATCH_SIZE 一致)
+     */
+    public static class Coalescing {
+        private boolean enabled = true;
+        private long maxLingerMs = 5;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxLingerMs() {
+            return maxLingerMs;
+        }
+
+        public void setMaxLingerMs(long maxLingerMs) {
+            this.maxLingerMs = maxLingerMs;
+        }
+    }
+
+    /**
+     * embedding HTTP 客户端：所有端点共享一个 keep-alive 连接池 (按远端地址分池)，
+     * llamaCppConcurrency 限制 llama.cpp 逐条请求的并行扇出
+     */
+    public static class Http {
+        private int maxConnections = 32;
+        private int pendingAcquireMaxCount = 256;
+        private long pendingAcquireTimeoutMs = 5000;
+        private long maxIdleTimeMs = 30000;
+        private boolean http2 = false;
+        private int llamaCppConcurrency = 4;
+        private long maxResponseBytes = 16L * 1024 * 1024;
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getPendingAcquireMaxCount() {
+            return pendingAcquireMaxCount;
+        }
+
+        public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) {
+            this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+        }
+
+        public long getPendingAcquireTimeoutMs() {
+            return pendingAcquireTimeoutMs;
+        }
+
+        public void setPendingAcquireTimeoutMs(long pendingAcquireTimeoutMs) {
+            this.pendingAcquireTimeoutMs = pendingAcquireTimeoutMs;
+        }
+
+        public long getMaxIdleTimeMs() {
+            return maxIdleTimeMs;
+        }
+
+        public void setMaxIdleTimeMs(long maxIdleTimeMs) {
+            this.maxIdleTimeMs = maxIdleTimeMs;
+        }
+
+        public boolean isHttp2() {
+            return http2;
+        }
+
+        public void setHttp2(boolean http2) {
+            this.http2 = http2;
+        }
+
+        public int getLlamaCppConcurrency() {
+            return llamaCppConcurrency;
+        }
+
+        public void setLlamaCppConcurrency(int llamaCppConcurrency) {
+            this.llamaCppConcurrency = llamaCppConcurrency;
+        }
+
+        public long getMaxResponseBytes() {
+            return maxResponseBytes;
+        }
+
+        public void setMaxResponseBytes(long maxResponseBytes) {
+            this.maxResponseBytes = maxResponseBytes;
+        }
+    }
+
+    /**
+     * 多端点路由：按在途请求数最少选择端点；连续失败或健康检查失败的端点被摘除 ejectionMs，
+     * 健康检查恢复后提前放回。hedge 开启时 query 侧请求超过近期 p95 仍未返回，向另一副本补发一次。
+     */
+    public static class Routing {
+        private long healthCheckIntervalMs = 10000;
+        private int ejectAfterFailures = 3;
+        private long ejectionMs = 30000;
+        private final Hedge hedge = new Hedge();
+
+        public long getHealthCheckIntervalMs() {
+            return healthCheckIntervalMs;
+        }
+
+        public void setHealthCheckIntervalMs(long healthCheckIntervalMs) {
+            this.healthCheckIntervalMs = healthCheckIntervalMs;
+        }
+
+        public int getEjectAfterFailures() {
+            return ejectAfterFailures;
+        }
+
+        public void setEjectAfterFailures(int ejectAfterFailures) {
+            this.ejectAfterFailures = ejectAfterFailures;
+        }
+
+        public long getEjectionMs() {
+            return ejectionMs;
+        }
+
+        public void setEjectionMs(long ejectionMs) {
+            this.ejectionMs = ejectionMs;
+        }
+
+        public Hedge getHedge() {
+            return hedge;
+        }
+    }
+
+    public static class Hedge {
+        private boolean enabled = false;
+        // 样本不足时使用的补发延迟
+        private long initialDelayMs = 200;
+        private long minDelayMs = 20;
+        private long maxDelayMs = 2000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getInitialDelayMs() {
+            return initialDelayMs;
+        }
+
+        public void setInitialDelayMs(long initialDelayMs) {
+            this.initialDelayMs = initialDelayMs;
+        }
+
+        public long getMinDelayMs() {
+            return minDelayMs;
+        }
+
+        public void setMinDelayMs(long minDelayMs) {
+            this.minDelayMs = minDelayMs;
+        }
+
+        public long getMaxDelayMs() {
+            return maxDelayMs;
+        }
+
+        public void setMaxDelayMs(long maxDelayMs) {
+            this.maxDelayMs = maxDelayMs;
+        }
+    }
+
+    /**
+     * 自适应并发上限 (AIMD)：成功且在途接近上限时加性增长，超时/连接失败/5xx 或慢于 slowCallThresholdMs 时乘性回退；
+     * 超过上限的请求立即拒绝，不在本地排队。
+     */
+    public static class Limiter {
+        private boolean enabled = true;
+        private int initialLimit = 8;
+        private int minLimit = 1;
+        private int maxLimit = 64;
+        private double backoffRatio = 0.9;
+        private long slowCallThresholdMs = 10000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+
+        public long getSlowCallThresholdMs() {
+            return slowCallThresholdMs;
+        }
+
+        public void setSlowCallThresholdMs(long slowCallThresholdMs) {
+            this.slowCallThresholdMs = slowCallThresholdMs;
+        }
+    }
+
+    /**
+     * 熔断器：连续 failureThreshold 次暂时性失败后打开 openMs，期间请求直接失败；
+     * 到期后放行一个探测请求 (half-open)，成功则关闭，失败则重新打开。
+     */
+    public static class CircuitBreaker {
+        private boolean enabled = true;
+        private int failureThreshold = 5;
+        private long openMs = 30000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public long getOpenMs() {
+            return openMs;
+        }
+
+        public void setOpenMs(long openMs) {
+            this.openMs = openMs;
+        }
+    }
 }
@@ -0,0 +1,317 @@
+package com.walden.cvect.infra.embedding;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * 多副本 embedding 端点路由
+ *
+ * 每个副本 (embedding_service.py, MAX_CONCURRENT_REQUESTS=1) 同时只处理一个请求，按在途请求数最少选择端点，
+ * 平手时轮转。连续失败 ejectAfterFailures 次或健康检查 (与 /api/vector/health 相同的 health-url 推导) 失败的端点
+ * 被摘除 ejectionMs，健康检查恢复后提前放回；所有端点都被摘除时退回在途最少的端点，不直接拒绝请求。
+ * hedge 只用于 query 侧：请求超过近期 p95 仍未返回时向另一副本补发，先返回者胜出，另一个被取消。
+ */
+final class EmbeddingEndpointRouter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddingEndpointRouter.class);
+    private static final int LATENCY_WINDOW = 128;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+
+    private final List<Endpoint> endpoints;
+    private final Function<String, Mono<Boolean>> healthProbe;
+    private final int ejectAfterFailures;
+    private final long ejectionNanos;
+    private final EmbeddingConfig.Hedge hedge;
+    private final LatencyWindow queryLatencies = new LatencyWindow(LATENCY_WINDOW);
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+    private final Counter hedgeCounter;
+    private final Counter ejectionCounter;
+
+    EmbeddingEndpointRouter(
+            List<String> urls,
+            EmbeddingConfig.Routing routing,
+            Function<String, Mono<Boolean>> healthProbe,
+            MeterRegistry meterRegistry) {
+        if (urls == null || urls.isEmpty()) {
+            throw new IllegalArgumentException("At least one embedding endpoint is required");
+        }
+        this.endpoints = urls.stream().map(Endpoint::new).toList();
+        this.healthProbe = healthProbe;
+        this.ejectAfterFailures = Math.max(1, routing.getEjectAfterFailures());
+        this.ejectionNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, routing.getEjectionMs()));
+        this.hedge = routing.getHedge();
+        if (meterRegistry != null) {
+            for (Endpoint endpoint : endpoints) {
+                Gauge.builder("cvect.embedding.endpoint.outstanding", endpoint.outstanding, AtomicInteger::get)
+                        .tag("endpoint", endpoint.url)
+                        .description("In-flight requests per embedding endpoint")
+                        .register(meterRegistry);
+                Gauge.builder("cvect.embedding.endpoint.available", endpoint,
+                                current -> current.isAvailable(System.nanoTime()) ? 1 : 0)
+                        .tag("endpoint", endpoint.url)
+                        .description("Whether the embedding endpoint is currently routable")
+                        .register(meterRegistry);
+            }
+            this.hedgeCounter = Counter.builder("cvect.embedding.hedged.requests")
+                    .description("Query embedding requests re-sent to a second replica")
+                    .register(meterRegistry);
+            this.ejectionCounter = Counter.builder("cvect.embedding.endpoint.ejections")
+                    .description("Embedding endpoints ejected after failures or failed health checks")
+                    .register(meterRegistry);
+        } else {
+            this.hedgeCounter = null;
+            this.ejectionCounter = null;
+        }
+        // 单端点无可切换的副本，不做健康检查
+        long intervalMs = routing.getHealthCheckIntervalMs();
+        if (endpoints.size() > 1 && intervalMs > 0 && healthProbe != null) {
+            this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "embedding-health-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            healthChecker.scheduleWithFixedDelay(this::checkHealthQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.healthChecker = null;
+        }
+    }
+
+    List<String> urls() {
+        return endpoints.stream().map(endpoint -> endpoint.url).toList();
+    }
+
+    boolean isHedgingEnabled() {
+        return hedge.isEnabled() && endpoints.size() > 1;
+    }
+
+    <T> Mono<T> route(Function<String, Mono<T>> request) {
+        return route(request, null, null);
+    }
+
+    /**
+     * 主请求超过 hedge 延迟仍未返回时向另一端点补发；主请求先失败时补发请求相当于一次换副本重试
+     */
+    <T> Mono<T> routeHedged(Function<String, Mono<T>> request) {
+        Function<String, Mono<T>> timed = timed(request);
+        if (!isHedgingEnabled()) {
+            return route(timed, null, null);
+        }
+        AtomicReference<Endpoint> primaryEndpoint = new AtomicReference<>();
+        Mono<T> primary = route(timed, primaryEndpoint, null);
+        Mono<T> hedged = Mono.delay(Duration.ofMillis(hedgeDelayMs()))
+                .then(Mono.defer(() -> {
+                    increment(hedgeCounter);
+                    return route(timed, null, primaryEndpoint.get());
+                }));
+        return Mono.firstWithValue(primary, hedged)
+                .onErrorMap(NoSuchElementException.class, EmbeddingEndpointRouter::firstCause);
+    }
+
+    long hedgeDelayMs() {
+        long p95 = queryLatencies.percentile(0.95);
+        long delay = p95 < 0 ? hedge.getInitialDelayMs() : p95;
+        return Math.min(Math.max(delay, hedge.getMinDelayMs()), Math.max(hedge.getMinDelayMs(), hedge.getMaxDelayMs()));
+    }
+
+    boolean isAvailable(String url) {
+        long now = System.nanoTime();
+        return endpoints.stream().anyMatch(endpoint -> endpoint.url.equals(url) && endpoint.isAvailable(now));
+    }
+
+    /**
+     * 同步执行一轮健康检查：失败的端点被摘除，已摘除但恢复的端点提前放回
+     */
+    void checkHealth() {
+        for (Endpoint endpoint : endpoints) {
+            Boolean healthy;
+            try {
+                healthy = healthProbe.apply(endpoint.url).block();
+            } catch (RuntimeException ex) {
+                healthy = false;
+            }
+            if (Boolean.TRUE.equals(healthy)) {
+                if (endpoint.ejected) {
+                    endpoint.readmit();
+                    log.info("Embedding endpoint {} passed health check, back in rotation", endpoint.url);
+                }
+            } else if (!endpoint.isEjectedAt(System.nanoTime())) {
+                eject(endpoint, "health check failed");
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+    }
+
+    private <T> Mono<T> route(
+            Function<String, Mono<T>> request,
+            AtomicReference<Endpoint> chosen,
+            Endpoint exclude) {
+        return Mono.defer(() -> {
+            Endpoint endpoint = select(exclude);
+            if (chosen != null) {
+                chosen.set(endpoint);
+            }
+            endpoint.outstanding.incrementAndGet();
+            return request.apply(endpoint.url)
+                    .doOnSuccess(ignored -> endpoint.consecutiveFailures.set(0))
+                    .doOnError(error -> recordFailure(endpoint, error))
+                    .doFinally(signal -> endpoint.outstanding.decrementAndGet());
+        });
+    }
+
+    private <T> Function<String, Mono<T>> timed(Function<String, Mono<T>> request) {
+        return url -> Mono.defer(() -> {
+            long startedAt = System.nanoTime();
+            return request.apply(url).doOnSuccess(ignored -> queryLatencies.record(
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)));
+        });
+    }
+
+    private Endpoint select(Endpoint exclude) {
+        long now = System.nanoTime();
+        int size = endpoints.size();
+        int start = Math.floorMod(roundRobin.getAndIncrement(), size);
+        Endpoint best = null;
+        Endpoint fallback = null;
+        for (int i = 0; i < size; i++) {
+            Endpoint endpoint = endpoints.get((start + i) % size);
+            if (endpoint == exclude && size > 1) {
+                continue;
+            }
+            int outstanding = endpoint.outstanding.get();
+            if (fallback == null || outstanding < fallback.outstanding.get()) {
+                fallback = endpoint;
+            }
+            if (endpoint.isAvailable(now) && (best == null || outstanding < best.outstanding.get())) {
+                best = endpoint;
+            }
+        }
+        return best != null ? best : fallback;
+    }
+
+    private void recordFailure(Endpoint endpoint, Throwable error) {
+        // 4xx 是请求本身的问题，不代表副本不健康
+        if (error instanceof WebClientResponseException responseException
+                && responseException.getStatusCode().is4xxClientError()) {
+            return;
+        }
+        if (endpoint.consecutiveFailures.incrementAndGet() >= ejectAfterFailures) {
+            eject(endpoint, ejectAfterFailures + " consecutive failures");
+        }
+    }
+
+    private void eject(Endpoint endpoint, String reason) {
+        if (endpoints.size() <= 1) {
+            return;
+        }
+        endpoint.eject(System.nanoTime() + ejectionNanos);
+        increment(ejectionCounter);
+        log.warn("Ejected embedding endpoint {} for {} ms: {}",
+                endpoint.url, TimeUnit.NANOSECONDS.toMillis(ejectionNanos), reason);
+    }
+
+    private void checkHealthQuietly() {
+        try {
+            checkHealth();
+        } catch (RuntimeException ex) {
+            log.warn("Embedding endpoint health check failed", ex);
+        }
+    }
+
+    private static Throwable firstCause(NoSuchElementException ex) {
+        List<Throwable> causes = Exceptions.unwrapMultiple(ex.getCause());
+        return causes.isEmpty() || causes.get(0) == null ? ex : causes.get(0);
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private static final class Endpoint {
+        private final String url;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile boolean ejected;
+        private volatile long ejectedUntilNanos;
+
+        private Endpoint(String url) {
+            this.url = url;
+        }
+
+        private boolean isAvailable(long now) {
+            return !isEjectedAt(now);
+        }
+
+        private boolean isEjectedAt(long now) {
+            return ejected && now - ejectedUntilNanos < 0;
+        }
+
+        private void eject(long untilNanos) {
+            ejectedUntilNanos = untilNanos;
+            ejected = true;
+            consecutiveFailures.set(0);
+        }
+
+        private void readmit() {
+            ejected = false;
+            consecutiveFailures.set(0);
+        }
+    }
+
+    /**
+     * 最近 N 次 query 请求耗时的滑动窗口，用于估算 hedge 延迟
+     */
+    private static final class LatencyWindow {
+        private final long[] samples;
+        private int next;
+        private int count;
+
+        private LatencyWindow(int size) {
+            this.samples = new long[size];
+        }
+
+        private synchronized void record(long latencyMs) {
+            samples[next] = latencyMs;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        /**
+         * @return 样本不足时返回 -1
+         */
+        private synchronized long percentile(double quantile) {
+            if (count < MIN_LATENCY_SAMPLES) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(quantile * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, index))];
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.walden.cvect.infra.embedding;
+
+import java.net.URI;
+
+/**
+ * embedding 服务健康检查地址推导：显式配置优先，否则由服务端点路径推导出同主机的 /ready
+ */
+public final class EmbeddingHealthUrls {
+
+    private static final String DEFAULT_EMBEDDING_HEALTH_URL = "http://localhost:8001/ready";
+
+    private EmbeddingHealthUrls() {
+    }
+
+    public static String resolve(String configuredHealthUrl, String embeddingServiceUrl) {
+        if (configuredHealthUrl != null && !configuredHealthUrl.isBlank()) {
+            return configuredHealthUrl;
+        }
+        try {
+            URI uri = URI.create(embeddingServiceUrl);
+            String path = uri.getPath();
+            if (path == null || path.isBlank() || "/".equals(path)) {
+                path = "/ready";
+            } else if (path.endsWith("/v1/embeddings") || path.endsWith("/embeddings")) {
+                path = "/ready";
+            } else if (path.endsWith("/embedding")) {
+                path = path.substring(0, path.length() - "/embedding".length()) + "/ready";
+            } else if (path.endsWith("/embed")) {
+                path = path.substring(0, path.length() - "/embed".length()) + "/ready";
+            } else {
+                path = path.replaceAll("/+$", "") + "/ready";
+            }
+            URI healthUri = new URI(
+                    uri.getScheme(),
+                    uri.getUserInfo(),
+                    uri.getHost(),
+                    uri.getPort(),
+                    path,
+                    null,
+                    null);
+            return healthUri.toString();
+        } catch (Exception ex) {
+            return DEFAULT_EMBEDDING_HEALTH_URL;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.walden.cvect.infra.embedding;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * embedding 响应解码：向量直接写入 float[]，不经过 List&lt;Float&gt;
+ *
+ * 1024 维向量按 List&lt;Float&gt; 反序列化会产生上千个装箱对象，批量入库时 JSON 解码与 GC 占比明显。
+ * JSON 使用 Jackson streaming parser 逐个读取数值；OpenAI 兼容接口可返回 encoding_format=base64；
+ * 原生 /embed 可协商行优先的 little-endian float32 二进制 (application/x-float32-le)。
+ */
+final class EmbeddingResponseDecoder {
+
+    static final MediaType FLOAT32_LE = MediaType.parseMediaType("application/x-float32-le");
+    static final String DIMENSION_HEADER = "X-Embedding-Dimension";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private EmbeddingResponseDecoder() {
+    }
+
+    /**
+     * 原生服务 JSON：{"embeddings": [[...], ...], ...}
+     */
+    static List<float[]> decodeNativeJson(byte[] body, int dimensionHint) {
+        try (JsonParser parser = open(body, "Embedding service returned empty response")) {
+            if (!moveToField(parser, "embeddings") || parser.currentToken() != JsonToken.START_ARRAY) {
+                throw new IllegalStateException("Embedding service returned empty response");
+            }
+            List<float[]> vectors = new ArrayList<>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                vectors.add(readFloatArray(parser, dimensionHint));
+            }
+            return vectors;
+        } catch (IOException ex) {
+            throw new IllegalStateException("Malformed embedding response: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * OpenAI 兼容 JSON：{"data": [{"embedding": [...] | "base64", "index": 0}, ...]}，按 index 排序
+     */
+    static List<float[]> decodeOpenAiJson(byte[] body, int dimensionHint) {
+        try (JsonParser parser = open(body, "OpenAI embedding service returned empty response")) {
+            if (!moveToField(parser, "data") || parser.currentToken() != JsonToken.START_ARRAY) {
+                throw new IllegalStateException("OpenAI embedding service returned empty response");
+            }
+            List<IndexedVector> items = new ArrayList<>();
+            boolean indexed = true;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                IndexedVector item = readOpenAiItem(parser, dimensionHint);
+                indexed &= item.index() >= 0;
+                items.add(item);
+            }
+            if (indexed) {
+                items.sort((left, right) -> Integer.compare(left.index(), right.index()));
+            }
+            List<float[]> vectors = new ArrayList<>(items.size());
+            for (IndexedVector item : items) {
+                vectors.add(item.vector());
+            }
+            return vectors;
+        } catch (IOException ex) {
+            throw new IllegalStateException("Malformed OpenAI embedding response: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * llama.cpp /embedding：{"embedding": [...]}
+     */
+    static float[] decodeLlamaCppJson(byte[] body, int dimensionHint) {
+        try (JsonParser parser = open(body, "llama.cpp embedding service returned empty response")) {
+            if (!moveToField(parser, "embedding") || parser.currentToken() != JsonToken.START_ARRAY) {
+                throw new IllegalStateException("llama.cpp embedding service returned empty response");
+            }
+            return readFloatArray(parser, dimensionHint);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Malformed llama.cpp embedding response: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * 行优先 little-endian float32，每行 dimension 个值
+     */
+    static List<float[]> decodeFloat32Le(byte[] body, int dimension) {
+        if (body == null || body.length == 0) {
+            throw new IllegalStateException("Embedding service returned empty response");
+        }
+        int rowBytes = dimension * Float.BYTES;
+        if (dimension <= 0 || body.length % rowBytes != 0) {
+            throw new IllegalStateException("Binary embedding response length " + body.length
+                    + " is not a multiple of dimension " + dimension);
+        }
+        FloatBuffer floats = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+        List<float[]> vectors = new ArrayList<>(body.length / rowBytes);
+        while (floats.hasRemaining()) {
+            float[] vector = new float[dimension];
+            floats.get(vector);
+            vectors.add(vector);
+        }
+        return vectors;
+    }
+
+    static float[] decodeBase64Float32(String encoded) {
+        byte[] bytes = Base64.getDecoder().decode(encoded);
+        if (bytes.length % Float.BYTES != 0) {
+            throw new IllegalStateException("Base64 embedding length " + bytes.length + " is not a multiple of 4");
+        }
+        float[] vector = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    private static JsonParser open(byte[] body, String emptyMessage) throws IOException {
+        if (body == null || body.length == 0) {
+            throw new IllegalStateException(emptyMessage);
+        }
+        JsonParser parser = JSON_FACTORY.createParser(body);
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            parser.close();
+            throw new IllegalStateException(emptyMessage);
+        }
+        return parser;
+    }
+
+    /**
+     * 在当前对象内前进到指定字段的值，跳过其它字段
+     */
+    private static boolean moveToField(JsonParser parser, String name) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (name.equals(field)) {
+                return value != JsonToken.VALUE_NULL;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private static IndexedVector readOpenAiItem(JsonParser parser, int dimensionHint) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new IllegalStateException("OpenAI embedding service returned empty response");
+        }
+        int index = -1;
+        float[] vector = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("embedding".equals(field) && value == JsonToken.START_ARRAY) {
+                vector = readFloatArray(parser, dimensionHint);
+            } else if ("embedding".equals(field) && value == JsonToken.VALUE_STRING) {
+                vector = decodeBase64Float32(parser.getText());
+            } else if ("index".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                index = parser.getIntValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (vector == null) {
+            throw new IllegalStateException("OpenAI embedding service returned empty response");
+        }
+        return new IndexedVector(index, vector);
+    }
+
+    /**
+     * 当前 token 为 START_ARRAY；按预期维度预分配，维度一致时不产生额外拷贝
+     */
+    private static float[] readFloatArray(JsonParser parser, int dimensionHint) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IllegalStateException("Expected an embedding array but found " + parser.currentToken());
+        }
+        float[] values = new float[Math.max(1, dimensionHint)];
+        int size = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.VALUE_NUMBER_FLOAT && token != JsonToken.VALUE_NUMBER_INT) {
+                throw new IllegalStateException("Unexpected embedding value " + token);
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = parser.getFloatValue();
+        }
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    private record IndexedVector(int index, float[] vector) {
+    }
+}
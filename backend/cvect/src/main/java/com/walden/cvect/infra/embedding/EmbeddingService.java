@@ -1,17 +1,40 @@
 package com.walden.cvect.infra.embedding;
 
+import com.walden.cvect.exception.EmbeddingCircuitOpenException;
+import com.walden.cvect.exception.EmbeddingLimitExceededException;
+import com.walden.cvect.exception.EmbeddingRequestException;
+import com.walden.cvect.exception.EmbeddingUnavailableException;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.net.URI;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Embedding 服务 - 调用 Python embedding 服务
@@ -33,25 +56,156 @@ public class EmbeddingService {
     private static final String QWEN3_EMBEDDING_MODEL_MARKER = "qwen3-embedding";
     private static final String DEFAULT_QWEN3_QUERY_INSTRUCTION =
             "Given a job description, retrieve resume passages and candidate evidence that best match the role requirements";
+    // 被并发上限拒绝时建议的退避时间
+    private static final long LIMIT_EXCEEDED_RETRY_AFTER_MS = 1000L;
+    private static final String OPENAI_ENCODING_BASE64 = "base64";
 
-    private final WebClient webClient;
+    private final Map<String, WebClient> webClients = new ConcurrentHashMap<>();
     private final Function<String, WebClient> webClientFactory;
+    private final ConnectionProvider connectionProvider;
     private final EmbeddingConfig config;
     private final Duration requestTimeout;
+    private final int llamaCppConcurrency;
+    private final DocumentEmbeddingCoalescer documentCoalescer;
+    private final ContentEmbeddingCache contentCache;
+    private final EmbeddingEndpointRouter router;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final EmbeddingCircuitBreaker circuitBreaker;
 
     @Autowired
-    public EmbeddingService(EmbeddingConfig config) {
-        this(config, serviceUrl -> WebClient.builder().baseUrl(serviceUrl).build());
+    public EmbeddingService(
+            EmbeddingConfig config,
+            ObjectProvider<MeterRegistry> meterRegistryProvider,
+            ObjectProvider<ContentEmbeddingCache> contentCacheProvider) {
+        this(config,
+                newConnectionProvider(config.getHttp()),
+                meterRegistryProvider.getIfAvailable(),
+                contentCacheProvider.getIfAvailable());
+    }
+
+    private EmbeddingService(
+            EmbeddingConfig config,
+            ConnectionProvider connectionProvider,
+            MeterRegistry meterRegistry,
+            ContentEmbeddingCache contentCache) {
+        this(config,
+                serviceUrl -> pooledWebClient(serviceUrl, connectionProvider, config.getHttp()),
+                meterRegistry,
+                contentCache,
+                connectionProvider);
     }
 
     EmbeddingService(EmbeddingConfig config, Function<String, WebClient> webClientFactory) {
+        this(config, webClientFactory, null, null);
+    }
+
+    EmbeddingService(
+            EmbeddingConfig config,
+            Function<String, WebClient> webClientFactory,
+            MeterRegistry meterRegistry) {
+        this(config, webClientFactory, meterRegistry, null);
+    }
+
+    EmbeddingService(
+            EmbeddingConfig config,
+            Function<String, WebClient> webClientFactory,
+            MeterRegistry meterRegistry,
+            ContentEmbeddingCache contentCache) {
+        this(config, webClientFactory, meterRegistry, contentCache, null);
+    }
+
+    private EmbeddingService(
+            EmbeddingConfig config,
+            Function<String, WebClient> webClientFactory,
+            MeterRegistry meterRegistry,
+            ContentEmbeddingCache contentCache,
+            ConnectionProvider connectionProvider) {
         this.config = config;
+        this.contentCache = contentCache;
         this.webClientFactory = webClientFactory;
-        this.webClient = webClientFactory.apply(config.getServiceUrl());
+        this.connectionProvider = connectionProvider;
         this.requestTimeout = Duration.ofSeconds(Math.max(1, config.getTimeoutSeconds()));
+        this.llamaCppConcurrency = Math.max(1, config.getHttp().getLlamaCppConcurrency());
+        this.router = new EmbeddingEndpointRouter(
+                config.resolveServiceUrls(), config.getRouting(), this::probeHealth, meterRegistry);
+        router.urls().forEach(this::webClient);
+        this.limiter = new AdaptiveConcurrencyLimiter(config.getLimiter(), meterRegistry);
+        this.circuitBreaker = new EmbeddingCircuitBreaker(config.getCircuitBreaker(), meterRegistry);
+        // 单次请求上限与模型服务 MAX_BATCH_SIZE 对齐 (app.embedding.batch-size)，为 1 (默认) 时不创建合并器
+        EmbeddingConfig.Coalescing coalescing = config.getCoalescing();
+        this.documentCoalescer = coalescing.isEnabled() && config.getBatchSize() > 1
+                ? new DocumentEmbeddingCoalescer(
+                        texts -> requestBatchAsync(texts).toFuture(),
+                        config.getBatchSize(),
+                        coalescing.getMaxLingerMs(),
+                        this::maxCoalescedBatchesInFlight,
+                        requestTimeout,
+                        meterRegistry)
+                : null;
         log.info("EmbeddingService initialized with model: {}", config.getModelName());
-        log.info("Connecting to embedding service at: {}", config.getServiceUrl());
+        log.info("Connecting to embedding service at: {}", router.urls());
         log.info("Embedding API format: {}", normalizeApiFormat(config.getApiFormat()));
+        if (coalescing.isEnabled() && documentCoalescer == null) {
+            log.info("Document embedding coalescing is inactive because app.embedding.batch-size={}; "
+                    + "raise it together with the model service MAX_BATCH_SIZE to enable it.", config.getBatchSize());
+        }
+    }
+
+    /**
+     * 所有端点共享一个连接池：reactor-netty 按远端地址分池，keep-alive 连接在请求间复用
+     */
+    private static ConnectionProvider newConnectionProvider(EmbeddingConfig.Http http) {
+        return ConnectionProvider.builder("cvect-embedding")
+                .maxConnections(Math.max(1, http.getMaxConnections()))
+                .pendingAcquireMaxCount(Math.max(1, http.getPendingAcquireMaxCount()))
+                .pendingAcquireTimeout(Duration.ofMillis(Math.max(1L, http.getPendingAcquireTimeoutMs())))
+                .maxIdleTime(Duration.ofMillis(Math.max(1L, http.getMaxIdleTimeMs())))
+                .build();
+    }
+
+    private static WebClient pooledWebClient(
+            String serviceUrl,
+            ConnectionProvider connectionProvider,
+            EmbeddingConfig.Http http) {
+        HttpClient httpClient = HttpClient.create(connectionProvider).keepAlive(true);
+        if (http.isHttp2()) {
+            // https 走 ALPN 协商 h2，明文端点使用 h2c (prior knowledge)，均保留 HTTP/1.1 回退
+            httpClient = serviceUrl != null && serviceUrl.startsWith("https")
+                    ? httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11).secure()
+                    : httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+        // 批量响应 (32 x 1024 维 JSON) 超过默认 256KB 的内存缓冲上限
+        int maxResponseBytes = (int) Math.min(Integer.MAX_VALUE, Math.max(256 * 1024L, http.getMaxResponseBytes()));
+        return WebClient.builder()
+                .baseUrl(serviceUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxResponseBytes))
+                .build();
+    }
+
+    /**
+     * 合并批的在途上限：开启自适应限流时跟随当前上限，超出的批只会被限流拒绝；否则每个副本一批
+     */
+    private int maxCoalescedBatchesInFlight() {
+        return limiter.isEnabled() ? limiter.getLimit() : router.urls().size();
+    }
+
+    private WebClient webClient(String url) {
+        return webClients.computeIfAbsent(url, webClientFactory);
+    }
+
+    /**
+     * 路由器的主动健康检查，health-url 推导与 /api/vector/health 一致；显式配置的 health-url 只对单端点生效
+     */
+    private Mono<Boolean> probeHealth(String serviceUrl) {
+        String configuredHealthUrl = config.resolveServiceUrls().size() == 1 ? config.getHealthUrl() : null;
+        return webClient(EmbeddingHealthUrls.resolve(configuredHealthUrl, serviceUrl))
+                .get()
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(requestTimeout)
+                .map(response -> true)
+                .onErrorReturn(false);
     }
 
     /**
@@ -66,194 +220,309 @@ public class EmbeddingService {
      * 为检索 query 生成 embedding。
      * Qwen3-Embedding 在 query 侧使用 instruction-aware 格式效果更稳定；
      * 文档侧保持原文，避免污染已索引的 resume chunk 表达。
+     * query 不进入内容缓存：query 向量只由 SearchQueryEmbeddingCacheService 缓存，并受其保留期清理。
      */
     public float[] embedQuery(String text) {
         if (text == null || text.isBlank()) {
             throw new IllegalArgumentException("jobDescription must not be blank");
         }
-        return embed(prepareQueryText(text));
+        List<String> queryTexts = List.of(prepareQueryText(text));
+        // query 位于检索请求的同步路径上，多副本时对慢请求做 hedge
+        List<float[]> results = router.isHedgingEnabled()
+                ? requestHedgedBatch(queryTexts)
+                : requestBatch(queryTexts);
+        return results.isEmpty() ? new float[0] : results.get(0);
     }
 
     /**
      * 为检索文档生成 embedding。
+     * 开启 app.embedding.coalescing 且 batch-size > 1 时，并发调用会被合并为批量请求。
      */
     public float[] embedDocument(String text) {
-        return embed(text);
+        if (documentCoalescer == null) {
+            return embed(text);
+        }
+        if (contentCache == null) {
+            return documentCoalescer.embed(text);
+        }
+        // 先查内容缓存，未命中才进入微批合并
+        return contentCache.getOrCompute(List.of(text),
+                misses -> List.of(documentCoalescer.embed(misses.get(0)))).get(0);
     }
 
     /**
      * 批量生成 embedding 向量
-     * 使用 WebClient 调用 Python embedding 服务
+     * 开启内容缓存时，只有缓存未命中的文本才会调用 embedding 服务
      */
     public List<float[]> embedBatch(List<String> texts) {
         if (texts == null || texts.isEmpty()) {
             return List.of();
         }
+        if (contentCache == null) {
+            return requestBatch(texts);
+        }
+        return List.copyOf(contentCache.getOrCompute(texts, this::requestBatch));
+    }
+
+    /**
+     * 非阻塞批量 embedding：请求在共享连接池上异步执行，调用线程不等待响应
+     */
+    public Mono<List<float[]>> embedBatchAsync(List<String> texts) {
+        if (texts == null || texts.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        if (contentCache == null) {
+            return requestBatchAsync(texts);
+        }
+        return contentCache.getOrComputeAsync(texts, this::requestBatchAsync).map(List::copyOf);
+    }
+
+    public CompletableFuture<List<float[]>> embedBatchFuture(List<String> texts) {
+        return embedBatchAsync(texts).toFuture();
+    }
 
+    /**
+     * 阻塞调用方保留的同步入口，内部复用异步请求链路
+     */
+    private List<float[]> requestBatch(List<String> texts) {
+        if (texts == null || texts.isEmpty()) {
+            return List.of();
+        }
+        return requestBatchAsync(texts).block();
+    }
+
+    private List<float[]> requestHedgedBatch(List<String> texts) {
+        return requestBatchAsync(texts, true).block();
+    }
+
+    private Mono<List<float[]>> requestBatchAsync(List<String> texts) {
+        return requestBatchAsync(texts, false);
+    }
+
+    /**
+     * 使用 WebClient 调用 Python embedding 服务，不经过内容缓存；每个批次由路由器选择端点
+     */
+    private Mono<List<float[]>> requestBatchAsync(List<String> texts, boolean hedged) {
         String apiFormat = normalizeApiFormat(config.getApiFormat());
         int batchSize = Math.max(1, config.getBatchSize());
-        List<float[]> results = new ArrayList<>(texts.size());
-        try {
-            for (int start = 0; start < texts.size(); start += batchSize) {
-                List<String> batch = texts.subList(start, Math.min(texts.size(), start + batchSize));
-                results.addAll(requestEmbeddings(batch, apiFormat));
+        List<List<String>> batches = new ArrayList<>();
+        for (int start = 0; start < texts.size(); start += batchSize) {
+            batches.add(texts.subList(start, Math.min(texts.size(), start + batchSize)));
+        }
+        return Flux.fromIterable(batches)
+                .concatMap(batch -> {
+                    Function<String, Mono<List<float[]>>> request = url -> requestEmbeddings(batch, apiFormat, url)
+                            .onErrorResume(WebClientResponseException.NotFound.class,
+                                    notFound -> fallbackOnNotFound(batch, apiFormat, url, notFound));
+                    return guarded(() -> hedged ? router.routeHedged(request) : router.route(request));
+                })
+                .<List<float[]>>collect(() -> new ArrayList<>(texts.size()), List::addAll)
+                .map(List::copyOf)
+                .onErrorMap(error -> !(error instanceof EmbeddingRequestException), error -> {
+                    log.error("Failed to generate embeddings: {}", error.getMessage());
+                    return toEmbeddingException(error);
+                });
+    }
+
+    /**
+     * 熔断与自适应并发上限：拒绝时请求不会发出，以 EmbeddingUnavailableException 子类通知调用方退避；
+     * 只有暂时性失败 (超时、连接失败、5xx/429) 计入熔断和限流回退，4xx 与响应校验失败说明服务仍在正常响应。
+     */
+    private <T> Mono<T> guarded(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                return Mono.error(new EmbeddingCircuitOpenException(
+                        "Embedding service circuit is open", circuitBreaker.retryAfterMs()));
             }
-            return List.copyOf(results);
-        } catch (WebClientResponseException.NotFound notFound) {
-            if (API_FORMAT_OPENAI.equals(apiFormat) || API_FORMAT_LLAMA_CPP.equals(apiFormat)) {
-                log.error("Failed to generate embeddings: {}", notFound.getMessage());
-                throw new RuntimeException("Embedding generation failed: " + notFound.getMessage(), notFound);
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+            if (permit == null) {
+                circuitBreaker.onIgnored();
+                return Mono.error(new EmbeddingLimitExceededException(
+                        "Embedding concurrency limit reached (" + limiter.getLimit() + ")",
+                        LIMIT_EXCEEDED_RETRY_AFTER_MS));
             }
-            String fallbackOpenAiUrl = resolveFallbackOpenAiUrl(config.getServiceUrl(), apiFormat);
-            if (fallbackOpenAiUrl == null) {
-                log.error("Failed to generate embeddings: {}", notFound.getMessage());
-                throw new RuntimeException("Embedding generation failed: " + notFound.getMessage(), notFound);
+            long startedAt = System.nanoTime();
+            return call.get()
+                    .doOnSuccess(ignored -> {
+                        permit.success(System.nanoTime() - startedAt);
+                        circuitBreaker.onSuccess();
+                    })
+                    .doOnError(error -> {
+                        if (isTransientFailure(error)) {
+                            permit.dropped();
+                            circuitBreaker.onFailure();
+                        } else {
+                            permit.success(System.nanoTime() - startedAt);
+                            circuitBreaker.onSuccess();
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        permit.ignore();
+                        circuitBreaker.onIgnored();
+                    });
+        });
+    }
+
+    private static EmbeddingRequestException toEmbeddingException(Throwable error) {
+        String message = "Embedding generation failed: " + error.getMessage();
+        return isTransientFailure(error)
+                ? new EmbeddingUnavailableException(message, 0L, error)
+                : new EmbeddingRequestException(message, error);
+    }
+
+    static boolean isTransientFailure(Throwable error) {
+        for (Throwable cursor = error; cursor != null; cursor = cursor.getCause()) {
+            if (cursor instanceof EmbeddingUnavailableException
+                    || cursor instanceof WebClientRequestException
+                    || cursor instanceof TimeoutException) {
+                return true;
             }
-            log.warn("Embedding endpoint {} returned 404, fallback to {}",
-                    config.getServiceUrl(), fallbackOpenAiUrl);
-            try {
-                OpenAiEmbeddingResponse response = requestOpenAiEmbedding(fallbackOpenAiUrl, texts);
-                return validateAndConvertOpenAi(texts, response);
-            } catch (Exception fallbackEx) {
-                log.error("Failed to generate embeddings with OpenAI fallback: {}", fallbackEx.getMessage());
-                throw new RuntimeException("Embedding generation failed: " + fallbackEx.getMessage(), fallbackEx);
+            if (cursor instanceof WebClientResponseException responseException) {
+                return responseException.getStatusCode().is5xxServerError()
+                        || responseException.getStatusCode().value() == 429;
             }
-        } catch (Exception e) {
-            log.error("Failed to generate embeddings: {}", e.getMessage());
-            throw new RuntimeException("Embedding generation failed: " + e.getMessage(), e);
         }
+        return false;
+    }
+
+    private Mono<List<float[]>> fallbackOnNotFound(
+            List<String> texts,
+            String apiFormat,
+            String serviceUrl,
+            WebClientResponseException.NotFound notFound) {
+        if (API_FORMAT_OPENAI.equals(apiFormat) || API_FORMAT_LLAMA_CPP.equals(apiFormat)) {
+            return Mono.error(notFound);
+        }
+        String fallbackOpenAiUrl = resolveFallbackOpenAiUrl(serviceUrl, apiFormat);
+        if (fallbackOpenAiUrl == null) {
+            return Mono.error(notFound);
+        }
+        log.warn("Embedding endpoint {} returned 404, fallback to {}", serviceUrl, fallbackOpenAiUrl);
+        return requestOpenAiEmbeddings(fallbackOpenAiUrl, texts)
+                .onErrorMap(fallbackEx -> {
+                    log.error("Failed to generate embeddings with OpenAI fallback: {}", fallbackEx.getMessage());
+                    return toEmbeddingException(fallbackEx);
+                });
     }
 
-    private List<float[]> requestEmbeddings(List<String> texts, String apiFormat) {
+    private Mono<List<float[]>> requestEmbeddings(List<String> texts, String apiFormat, String url) {
         return switch (apiFormat) {
-            case API_FORMAT_NATIVE -> requestNativeEmbeddings(texts);
-            case API_FORMAT_OPENAI -> requestOpenAiEmbeddings(config.getServiceUrl(), texts);
-            case API_FORMAT_LLAMA_CPP -> requestLlamaCppEmbeddings(config.getServiceUrl(), texts);
-            default -> requestAutoDetectedEmbeddings(texts);
+            case API_FORMAT_NATIVE -> requestNativeEmbeddings(url, texts);
+            case API_FORMAT_OPENAI -> requestOpenAiEmbeddings(url, texts);
+            case API_FORMAT_LLAMA_CPP -> requestLlamaCppEmbeddings(url, texts);
+            default -> requestAutoDetectedEmbeddings(url, texts);
         };
     }
 
-    private List<float[]> requestNativeEmbeddings(List<String> texts) {
-        EmbeddingResponse response = requestNativeEmbedding(texts);
-        return validateAndConvert(texts, response);
+    private Mono<List<float[]>> requestNativeEmbeddings(String url, List<String> texts) {
+        return requestNativeEmbedding(url, texts).map(vectors -> validateEmbeddings(texts, vectors, "native"));
     }
 
-    private List<float[]> requestOpenAiEmbeddings(String url, List<String> texts) {
-        OpenAiEmbeddingResponse response = requestOpenAiEmbedding(url, texts);
-        return validateAndConvertOpenAi(texts, response);
+    private Mono<List<float[]>> requestOpenAiEmbeddings(String url, List<String> texts) {
+        return requestOpenAiEmbedding(url, texts).map(vectors -> validateEmbeddings(texts, vectors, "openai-compatible"));
     }
 
-    private List<float[]> requestAutoDetectedEmbeddings(List<String> texts) {
-        if (looksLikeOpenAiEndpoint(config.getServiceUrl())) {
-            return requestOpenAiEmbeddings(config.getServiceUrl(), texts);
+    private Mono<List<float[]>> requestAutoDetectedEmbeddings(String url, List<String> texts) {
+        if (looksLikeOpenAiEndpoint(url)) {
+            return requestOpenAiEmbeddings(url, texts);
         }
-        if (looksLikeLlamaCppEndpoint(config.getServiceUrl())) {
-            return requestLlamaCppEmbeddings(config.getServiceUrl(), texts);
+        if (looksLikeLlamaCppEndpoint(url)) {
+            return requestLlamaCppEmbeddings(url, texts);
         }
-        return requestNativeEmbeddings(texts);
+        return requestNativeEmbeddings(url, texts);
     }
 
-    private List<float[]> requestLlamaCppEmbeddings(String url, List<String> texts) {
-        List<float[]> embeddings = new ArrayList<>(texts.size());
-        for (String text : texts) {
-            LlamaCppEmbeddingResponse response = requestLlamaCppEmbedding(url, text);
-            embeddings.add(validateAndConvertLlamaCpp(response));
-        }
-        log.info("Generated {} embeddings (llama.cpp)", embeddings.size());
-        return embeddings;
+    /**
+     * llama.cpp /embedding 每次只接受一条文本：按 llamaCppConcurrency 有界并行扇出，结果保持输入顺序
+     */
+    private Mono<List<float[]>> requestLlamaCppEmbeddings(String url, List<String> texts) {
+        return Flux.fromIterable(texts)
+                .flatMapSequential(
+                        text -> requestLlamaCppEmbedding(url, text).map(this::validateVector),
+                        llamaCppConcurrency)
+                .collectList()
+                .doOnNext(embeddings -> log.info("Generated {} embeddings (llama.cpp)", embeddings.size()));
     }
 
-    private EmbeddingResponse requestNativeEmbedding(List<String> texts) {
+    /**
+     * 开启 binary-response 时通过 Accept 协商 float32 二进制；服务端不支持时仍返回 JSON，按 Content-Type 解码
+     */
+    private Mono<List<float[]>> requestNativeEmbedding(String url, List<String> texts) {
         EmbeddingRequest request = new EmbeddingRequest(texts);
-        return webClient.post()
+        MediaType[] accept = config.isBinaryResponse()
+                ? new MediaType[] {EmbeddingResponseDecoder.FLOAT32_LE, MediaType.APPLICATION_JSON}
+                : new MediaType[] {MediaType.APPLICATION_JSON};
+        return webClient(url)
+                .post()
+                .accept(accept)
                 .bodyValue(request)
                 .retrieve()
-                .bodyToMono(EmbeddingResponse.class)
+                .toEntity(byte[].class)
                 .timeout(requestTimeout)
-                .block();
+                .map(this::decodeNativeResponse);
+    }
+
+    private List<float[]> decodeNativeResponse(ResponseEntity<byte[]> response) {
+        MediaType contentType = response.getHeaders().getContentType();
+        if (contentType != null && EmbeddingResponseDecoder.FLOAT32_LE.isCompatibleWith(contentType)) {
+            String dimensionHeader = response.getHeaders().getFirst(EmbeddingResponseDecoder.DIMENSION_HEADER);
+            int dimension = dimensionHeader == null ? config.getDimension() : Integer.parseInt(dimensionHeader.trim());
+            return EmbeddingResponseDecoder.decodeFloat32Le(response.getBody(), dimension);
+        }
+        return EmbeddingResponseDecoder.decodeNativeJson(response.getBody(), config.getDimension());
     }
 
-    private OpenAiEmbeddingResponse requestOpenAiEmbedding(String url, List<String> texts) {
-        OpenAiEmbeddingRequest request = new OpenAiEmbeddingRequest(config.getModelName(), texts);
-        return webClientFactory.apply(url)
+    private Mono<List<float[]>> requestOpenAiEmbedding(String url, List<String> texts) {
+        OpenAiEmbeddingRequest request = new OpenAiEmbeddingRequest(
+                config.getModelName(), texts, openAiEncodingFormat());
+        return webClient(url)
                 .post()
                 .bodyValue(request)
                 .retrieve()
-                .bodyToMono(OpenAiEmbeddingResponse.class)
+                .bodyToMono(byte[].class)
                 .timeout(requestTimeout)
-                .block();
+                .defaultIfEmpty(new byte[0])
+                .map(body -> EmbeddingResponseDecoder.decodeOpenAiJson(body, config.getDimension()));
     }
 
-    private LlamaCppEmbeddingResponse requestLlamaCppEmbedding(String url, String text) {
+    private Mono<float[]> requestLlamaCppEmbedding(String url, String text) {
         LlamaCppEmbeddingRequest request = new LlamaCppEmbeddingRequest(text);
-        return webClientFactory.apply(url)
+        return webClient(url)
                 .post()
                 .bodyValue(request)
                 .retrieve()
-                .bodyToMono(LlamaCppEmbeddingResponse.class)
+                .bodyToMono(byte[].class)
                 .timeout(requestTimeout)
-                .block();
-    }
-
-    private List<float[]> validateAndConvert(List<String> texts, EmbeddingResponse response) {
-        if (response == null || response.embeddings() == null) {
-            throw new IllegalStateException("Embedding service returned empty response");
-        }
-        if (response.embeddings().size() != texts.size()) {
-            throw new IllegalStateException("Embedding response size mismatch");
-        }
-        for (List<Float> vector : response.embeddings()) {
-            validateVectorDimension(vector);
-        }
-        log.info("Generated {} embeddings", response.embeddings().size());
-        return toFloatArrays(response.embeddings());
+                .defaultIfEmpty(new byte[0])
+                .map(body -> EmbeddingResponseDecoder.decodeLlamaCppJson(body, config.getDimension()));
     }
 
-    private List<float[]> validateAndConvertOpenAi(List<String> texts, OpenAiEmbeddingResponse response) {
-        if (response == null || response.data() == null) {
-            throw new IllegalStateException("OpenAI embedding service returned empty response");
-        }
-        if (response.data().size() != texts.size()) {
-            throw new IllegalStateException("OpenAI embedding response size mismatch");
-        }
-        List<List<Float>> vectors = response.data().stream().map(OpenAiEmbeddingData::embedding).toList();
-        for (List<Float> vector : vectors) {
-            validateVectorDimension(vector);
-        }
-        log.info("Generated {} embeddings (openai-compatible)", vectors.size());
-        return toFloatArrays(vectors);
+    /**
+     * float 为默认格式，不写入请求体，保持与只认 model/input 的服务兼容
+     */
+    private String openAiEncodingFormat() {
+        String format = config.getOpenAiEncodingFormat();
+        return format != null && OPENAI_ENCODING_BASE64.equalsIgnoreCase(format.trim()) ? OPENAI_ENCODING_BASE64 : null;
     }
 
-    private float[] validateAndConvertLlamaCpp(LlamaCppEmbeddingResponse response) {
-        if (response == null || response.embedding() == null) {
-            throw new IllegalStateException("llama.cpp embedding service returned empty response");
+    private List<float[]> validateEmbeddings(List<String> texts, List<float[]> vectors, String source) {
+        if (vectors.size() != texts.size()) {
+            throw new IllegalStateException("Embedding response size mismatch");
         }
-        validateVectorDimension(response.embedding());
-        float[] vector = new float[response.embedding().size()];
-        for (int i = 0; i < response.embedding().size(); i++) {
-            vector[i] = response.embedding().get(i);
+        for (float[] vector : vectors) {
+            validateVector(vector);
         }
-        return vector;
+        log.info("Generated {} embeddings ({})", vectors.size(), source);
+        return vectors;
     }
 
-    private void validateVectorDimension(List<Float> vector) {
-        if (vector == null || vector.size() != config.getDimension()) {
+    private float[] validateVector(float[] vector) {
+        if (vector == null || vector.length != config.getDimension()) {
             throw new IllegalStateException(
                     "Embedding dimension mismatch, expected=" + config.getDimension()
-                            + ", actual=" + (vector == null ? 0 : vector.size()));
+                            + ", actual=" + (vector == null ? 0 : vector.length));
         }
-    }
-
-    private List<float[]> toFloatArrays(List<List<Float>> vectors) {
-        return vectors.stream()
-                .map(list -> {
-                    float[] arr = new float[list.size()];
-                    for (int i = 0; i < list.size(); i++) {
-                        arr[i] = list.get(i);
-                    }
-                    return arr;
-                })
-                .toList();
+        return vector;
     }
 
     private String resolveFallbackOpenAiUrl(String rawServiceUrl, String apiFormat) {
@@ -338,6 +607,17 @@ public class EmbeddingService {
         return config.getDimension();
     }
 
+    @PreDestroy
+    void shutdown() {
+        if (documentCoalescer != null) {
+            documentCoalescer.close();
+        }
+        router.close();
+        if (connectionProvider != null) {
+            connectionProvider.disposeLater().block(Duration.ofSeconds(5));
+        }
+    }
+
     String prepareQueryText(String text) {
         if (!usesQwenInstructionAwareQueryPrompt()) {
             return text;
@@ -360,21 +640,13 @@ public class EmbeddingService {
     public record EmbeddingRequest(List<String> texts) {
     }
 
-    public record EmbeddingResponse(List<List<Float>> embeddings) {
-    }
-
-    public record OpenAiEmbeddingRequest(String model, List<String> input) {
-    }
-
-    public record OpenAiEmbeddingData(List<Float> embedding) {
-    }
-
-    public record OpenAiEmbeddingResponse(List<OpenAiEmbeddingData> data) {
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record OpenAiEmbeddingRequest(
+            String model,
+            List<String> input,
+            @JsonProperty("encoding_format") String encodingFormat) {
     }
 
     public record LlamaCppEmbeddingRequest(String content) {
     }
-
-    public record LlamaCppEmbeddingResponse(List<Float> embedding) {
-    }
 }
@@ -0,0 +1,214 @@
+package com.walden.cvect.infra.queue;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PostgreSQL LISTEN/NOTIFY 队列唤醒
+ *
+ * 入队触发器 (V8) 在 upload_items / vector_ingest_tasks 出现待处理行时发出 NOTIFY，
+ * 这里用一条专用连接 LISTEN，并唤醒阻塞在 {@link #awaitNotification} 上的 worker。
+ * 非 PostgreSQL 或连接中断时 {@link #isListening()} 为 false，worker 退回原有的 idle-sleep 轮询。
+ */
+@Component
+public class QueueNotificationListener {
+
+    public static final String UPLOAD_ITEMS_CHANNEL = "cvect_upload_items";
+    public static final String VECTOR_INGEST_TASKS_CHANNEL = "cvect_vector_ingest_tasks";
+
+    private static final Logger log = LoggerFactory.getLogger(QueueNotificationListener.class);
+    private static final List<String> CHANNELS = List.of(UPLOAD_ITEMS_CHANNEL, VECTOR_INGEST_TASKS_CHANNEL);
+    private static final int NOTIFICATION_POLL_TIMEOUT_MS = 1000;
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final long reconnectDelayMs;
+    private final Map<String, ChannelSignal> signals = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    private volatile boolean listening;
+    private volatile Thread listenerThread;
+
+    public QueueNotificationListener(
+            DataSource dataSource,
+            @Value("${app.queue.notify.enabled:true}") boolean enabled,
+            @Value("${app.queue.notify.reconnect-delay-ms:5000}") long reconnectDelayMs) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.reconnectDelayMs = Math.max(100L, reconnectDelayMs);
+        for (String channel : CHANNELS) {
+            signals.put(channel, new ChannelSignal());
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            log.info("Queue LISTEN/NOTIFY disabled by configuration; workers use idle-sleep polling");
+            return;
+        }
+        if (!isPostgreSql(dataSource)) {
+            log.info("Queue LISTEN/NOTIFY unavailable on non-PostgreSQL database; workers use idle-sleep polling");
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::listenLoop, "queue-notify-listener");
+        thread.setDaemon(true);
+        listenerThread = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        listening = false;
+        Thread thread = listenerThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    public boolean isListening() {
+        return listening;
+    }
+
+    /**
+     * 读取当前通知序号；worker 在 claim 之前读取，claim 为空后再据此等待，避免错过两者之间到达的通知
+     */
+    public long currentSequence(String channel) {
+        return signal(channel).sequence();
+    }
+
+    /**
+     * 等待 channel 上序号变化 (收到通知) 或超时；被中断时保留中断标记并立即返回
+     */
+    public void awaitNotification(String channel, long observedSequence, long timeoutMs) {
+        if (timeoutMs <= 0) {
+            return;
+        }
+        try {
+            signal(channel).await(observedSequence, timeoutMs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void signal(String channel, String source) {
+        ChannelSignal signal = signals.get(channel);
+        if (signal == null) {
+            log.debug("Ignore notification on unknown channel {} from {}", channel, source);
+            return;
+        }
+        signal.signal();
+    }
+
+    private void signalAll() {
+        for (ChannelSignal signal : signals.values()) {
+            signal.signal();
+        }
+    }
+
+    private ChannelSignal signal(String channel) {
+        ChannelSignal signal = signals.get(channel);
+        if (signal == null) {
+            throw new IllegalArgumentException("Unknown queue notification channel: " + channel);
+        }
+        return signal;
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    for (String channel : CHANNELS) {
+                        statement.execute("LISTEN " + channel);
+                    }
+                }
+                listening = true;
+                // 断线期间可能错过通知，重连后统一唤醒一次让 worker 补偿 claim
+                signalAll();
+                log.info("Listening for queue notifications on {}", CHANNELS);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(NOTIFICATION_POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        signal(notification.getName(), "pid=" + notification.getPID());
+                    }
+                }
+            } catch (SQLException ex) {
+                if (running) {
+                    log.warn("Queue notification listener connection failed, retry in {} ms: {}",
+                            reconnectDelayMs, ex.getMessage());
+                }
+            } catch (RuntimeException ex) {
+                if (running) {
+                    log.warn("Queue notification listener failed, retry in {} ms", reconnectDelayMs, ex);
+                }
+            } finally {
+                listening = false;
+            }
+            if (!running) {
+                return;
+            }
+            // 退回轮询期间也唤醒一次，避免 worker 在失效的监听上等待整个回退周期
+            signalAll();
+            try {
+                Thread.sleep(reconnectDelayMs);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static boolean isPostgreSql(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            String productName = connection.getMetaData().getDatabaseProductName();
+            return productName != null && productName.toLowerCase(Locale.ROOT).contains("postgresql");
+        } catch (Exception ex) {
+            return false;
+        }
+    }
+
+    private static final class ChannelSignal {
+        private long sequence;
+
+        synchronized long sequence() {
+            return sequence;
+        }
+
+        synchronized void signal() {
+            sequence++;
+            notifyAll();
+        }
+
+        synchronized void await(long observedSequence, long timeoutMs) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            while (sequence == observedSequence) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.walden.cvect.infra.storage;
+
+import com.walden.cvect.infra.digest.Sha256Digests;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+
+/**
+ * 单次流式复制：边写边算 SHA-256 并校验大小上限，不在堆内缓冲整个文件
+ */
+final class ContentDigestCopier {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ContentDigestCopier() {
+    }
+
+    /**
+     * 复制 input 到 output；不关闭 input (zip entry 等调用方持有的流需要继续读取)
+     */
+    static CopyResult copy(InputStream input, OutputStream output, long maxBytes) throws IOException {
+        MessageDigest digest = Sha256Digests.newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long total = 0L;
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            total += read;
+            if (total > maxBytes) {
+                throw new StorageSizeLimitExceededException(maxBytes);
+            }
+            digest.update(buffer, 0, read);
+            output.write(buffer, 0, read);
+        }
+        return new CopyResult(Sha256Digests.toHex(digest.digest()), total);
+    }
+
+    record CopyResult(String sha256Hex, long sizeBytes) {
+    }
+}
@@ -7,6 +7,13 @@ public interface FileStorageService {
 
     String save(String storageKey, InputStream inputStream) throws IOException;
 
+    /**
+     * 单次流式写入内容寻址存储：同时计算 SHA-256、校验 maxBytes，最终以内容哈希为 key。
+     * 相同内容已存在时直接复用；超限抛出 {@link StorageSizeLimitExceededException} 且不留下对象。
+     * 不关闭 inputStream，由调用方负责。
+     */
+    StoredContent saveContentAddressed(InputStream inputStream, long maxBytes) throws IOException;
+
     InputStream load(String storageKey) throws IOException;
 
     boolean exists(String storageKey) throws IOException;
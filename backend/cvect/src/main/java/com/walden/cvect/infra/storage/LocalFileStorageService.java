@@ -2,14 +2,20 @@ package com.walden.cvect.infra.storage;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.Objects;
+import java.util.UUID;
 
 public class LocalFileStorageService implements FileStorageService {
 
+    private static final String INCOMING_DIRECTORY = ".incoming";
+
     private final Path rootDirectory;
 
     public LocalFileStorageService(String rootDirectory) {
@@ -30,6 +36,29 @@ public class LocalFileStorageService implements FileStorageService {
         return normalizeStorageKey(storageKey);
     }
 
+    @Override
+    public StoredContent saveContentAddressed(InputStream inputStream, long maxBytes) throws IOException {
+        // 先写同一文件系统下的临时文件，得到哈希后 rename 到最终 key，避免二次读写
+        Path incomingDirectory = rootDirectory.resolve(INCOMING_DIRECTORY);
+        Files.createDirectories(incomingDirectory);
+        Path incoming = incomingDirectory.resolve(UUID.randomUUID() + ".tmp");
+        try {
+            ContentDigestCopier.CopyResult copied;
+            try (OutputStream output = Files.newOutputStream(incoming)) {
+                copied = ContentDigestCopier.copy(inputStream, output, maxBytes);
+            }
+            String storageKey = normalizeStorageKey(copied.sha256Hex());
+            Path target = resolveStoragePath(storageKey);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                moveIntoPlace(incoming, target);
+            }
+            return new StoredContent(storageKey, copied.sha256Hex(), copied.sizeBytes());
+        } finally {
+            Files.deleteIfExists(incoming);
+        }
+    }
+
     @Override
     public InputStream load(String storageKey) throws IOException {
         return Files.newInputStream(resolveStoragePath(storageKey));
@@ -45,6 +74,16 @@ public class LocalFileStorageService implements FileStorageService {
         Files.deleteIfExists(resolveStoragePath(storageKey));
     }
 
+    private void moveIntoPlace(Path incoming, Path target) throws IOException {
+        try {
+            Files.move(incoming, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException ex) {
+            // 并发上传了相同内容，对象已就位
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(incoming, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     private Path resolveStoragePath(String storageKey) {
         String normalizedStorageKey = normalizeStorageKey(storageKey);
         Path relativePath = Paths.get(normalizedStorageKey).normalize();
@@ -16,6 +16,9 @@ import software.amazon.awssdk.services.s3.model.S3Exception;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Objects;
 
 public class S3FileStorageService implements FileStorageService {
@@ -49,17 +52,35 @@ public class S3FileStorageService implements FileStorageService {
     @Override
     public String save(String storageKey, InputStream inputStream) throws IOException {
         String normalizedStorageKey = normalizeStorageKey(storageKey);
-        byte[] bytes;
-        try (InputStream input = inputStream) {
-            bytes = input.readAllBytes();
+        Path spooled = Files.createTempFile("cvect-s3-upload-", ".bin");
+        try {
+            try (InputStream input = inputStream; OutputStream output = Files.newOutputStream(spooled)) {
+                input.transferTo(output);
+            }
+            putObject(normalizedStorageKey, spooled);
+            return normalizedStorageKey;
+        } finally {
+            Files.deleteIfExists(spooled);
+        }
+    }
+
+    @Override
+    public StoredContent saveContentAddressed(InputStream inputStream, long maxBytes) throws IOException {
+        // PutObject 需要预知长度：落本地临时文件的同时计算哈希，对象已存在时跳过上传
+        Path spooled = Files.createTempFile("cvect-s3-upload-", ".bin");
+        try {
+            ContentDigestCopier.CopyResult copied;
+            try (OutputStream output = Files.newOutputStream(spooled)) {
+                copied = ContentDigestCopier.copy(inputStream, output, maxBytes);
+            }
+            String storageKey = normalizeStorageKey(copied.sha256Hex());
+            if (!exists(storageKey)) {
+                putObject(storageKey, spooled);
+            }
+            return new StoredContent(storageKey, copied.sha256Hex(), copied.sizeBytes());
+        } finally {
+            Files.deleteIfExists(spooled);
         }
-        s3Client.putObject(
-                PutObjectRequest.builder()
-                        .bucket(bucket())
-                        .key(normalizedStorageKey)
-                        .build(),
-                RequestBody.fromBytes(bytes));
-        return normalizedStorageKey;
     }
 
     @Override
@@ -99,6 +120,15 @@ public class S3FileStorageService implements FileStorageService {
                 .build());
     }
 
+    private void putObject(String storageKey, Path source) {
+        s3Client.putObject(
+                PutObjectRequest.builder()
+                        .bucket(bucket())
+                        .key(storageKey)
+                        .build(),
+                RequestBody.fromFile(source));
+    }
+
     private void createBucket() {
         s3Client.createBucket(CreateBucketRequest.builder().bucket(bucket()).build());
     }
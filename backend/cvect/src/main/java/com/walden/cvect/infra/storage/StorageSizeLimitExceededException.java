@@ -0,0 +1,20 @@
+package com.walden.cvect.infra.storage;
+
+import java.io.IOException;
+
+/**
+ * 流式写入时超过大小上限；抛出时不会留下任何存储对象
+ */
+public class StorageSizeLimitExceededException extends IOException {
+
+    private final long maxBytes;
+
+    public StorageSizeLimitExceededException(long maxBytes) {
+        super("File size limit exceeded");
+        this.maxBytes = maxBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
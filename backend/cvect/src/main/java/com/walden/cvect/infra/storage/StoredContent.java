@@ -0,0 +1,7 @@
+package com.walden.cvect.infra.storage;
+
+/**
+ * 内容寻址写入结果：storageKey 即内容 SHA-256 (hex)
+ */
+public record StoredContent(String storageKey, String contentHash, long sizeBytes) {
+}
@@ -16,6 +16,19 @@ public class VectorStoreConfig {
     private int dimension = 1024;
     private int maxConcurrentWrites = 2;
     private long writeAcquireTimeoutMs = 2000;
+    // 租户/JD 过滤后行数不超过该值时走精确扫描，否则走 ANN 索引；<= 0 表示总是走 ANN
+    private int exactScanMaxRows = 20000;
+    // 上述判断所需的有上限计数按 租户/JD/chunk 类型 缓存的时长；<= 0 表示每次检索都重新计数
+    private long exactScanCacheTtlMs = 60000;
+    // HNSW 查询的 ef_search 下限/上限 (pgvector 上限 1000)；自适应模式下结果不足 topK 时按上限、iterative scan 逐级放大
+    private int efSearch = 40;
+    private int efSearchMax = 1000;
+    private boolean adaptiveSearchEnabled = true;
+    private int adaptiveSearchMaxEscalations = 2;
+    // 两阶段检索：> 0 时额外存储截断到该维度并重新归一化的 Matryoshka 前缀向量，ANN 索引建在前缀列上，
+    // 粗召回 coarseRescoreSize 行后用全维向量重算距离；0 表示关闭
+    private int coarseDimension = 0;
+    private int coarseRescoreSize = 400;
 
     public boolean isEnabled() {
         return enabled;
@@ -88,4 +101,68 @@ public class VectorStoreConfig {
     public void setWriteAcquireTimeoutMs(long writeAcquireTimeoutMs) {
         this.writeAcquireTimeoutMs = writeAcquireTimeoutMs;
     }
+
+    public int getExactScanMaxRows() {
+        return exactScanMaxRows;
+    }
+
+    public void setExactScanMaxRows(int exactScanMaxRows) {
+        this.exactScanMaxRows = exactScanMaxRows;
+    }
+
+    public long getExactScanCacheTtlMs() {
+        return exactScanCacheTtlMs;
+    }
+
+    public void setExactScanCacheTtlMs(long exactScanCacheTtlMs) {
+        this.exactScanCacheTtlMs = exactScanCacheTtlMs;
+    }
+
+    public int getEfSearch() {
+        return efSearch;
+    }
+
+    public void setEfSearch(int efSearch) {
+        this.efSearch = efSearch;
+    }
+
+    public int getEfSearchMax() {
+        return efSearchMax;
+    }
+
+    public void setEfSearchMax(int efSearchMax) {
+        this.efSearchMax = efSearchMax;
+    }
+
+    public boolean isAdaptiveSearchEnabled() {
+        return adaptiveSearchEnabled;
+    }
+
+    public void setAdaptiveSearchEnabled(boolean adaptiveSearchEnabled) {
+        this.adaptiveSearchEnabled = adaptiveSearchEnabled;
+    }
+
+    public int getAdaptiveSearchMaxEscalations() {
+        return adaptiveSearchMaxEscalations;
+    }
+
+    public void setAdaptiveSearchMaxEscalations(int adaptiveSearchMaxEscalations) {
+        this.adaptiveSearchMaxEscalations = adaptiveSearchMaxEscalations;
+    }
+
+    public int getCoarseDimension() {
+        return coarseDimension;
+    }
+
+    public void setCoarseDimension(int coarseDimension) {
+        this.coarseDimension = coarseDimension;
+    }
+
+    public int getCoarseRescoreSize() {
+        return coarseRescoreSize;
+    }
+
+    public void setCoarseRescoreSize(int coarseRescoreSize) {
+        this.coarseRescoreSize = coarseRescoreSize;
+    }
 }
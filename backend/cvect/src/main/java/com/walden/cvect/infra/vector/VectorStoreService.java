@@ -1,19 +1,30 @@
 package com.walden.cvect.infra.vector;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.walden.cvect.infra.embedding.EmbeddingService;
 import com.walden.cvect.model.ChunkType;
-import com.walden.cvect.model.entity.vector.ResumeChunkVector;
-import jakarta.persistence.EntityManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 import java.util.regex.Pattern;
 
 /**
@@ -29,9 +40,27 @@ public class VectorStoreService {
 
     private static final Logger log = LoggerFactory.getLogger(VectorStoreService.class);
     private static final Pattern SAFE_SQL_IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    // 原生 pgvector 列；旧的 TEXT 列 embedding 仅保留给回滚使用
+    private static final String EMBEDDING_COLUMN = "embedding_vector";
+    // 两阶段检索的 Matryoshka 前缀列 (app.vector.coarse-dimension > 0 时由启动后的回填任务创建)
+    private static final String COARSE_EMBEDDING_COLUMN = "embedding_coarse";
+    // 回填按行读取全维向量，单批控制在约 500 x dimension 个 float
+    private static final int COARSE_BACKFILL_BATCH_SIZE = 500;
+    // 回填期间克隆可能复制尚未回填的行，最多补扫几轮
+    private static final int COARSE_BACKFILL_MAX_PASSES = 3;
+    private static final int BACKFILL_BATCH_SIZE = 5000;
+    private static final int PGVECTOR_MAX_EF_SEARCH = 1000;
+    private static final int MAX_LEXICAL_QUERY_TERMS = 256;
+    // 与 SearchResult.score() 相同：余弦距离换算为 [0, 1] 相似度
+    private static final String CHUNK_SCORE_SQL = "GREATEST(0, LEAST(1, 1 - distance))";
+    // 每个候选人每种打分 chunk 类型一条均值池化向量 (Flyway V12)
+    private static final String SUMMARY_TABLE = "candidate_chunk_summaries";
+    private static final String SCORED_CHUNK_TYPES = "'EXPERIENCE', 'SKILL'";
+    // 多查询打分时单条语句携带的查询向量上限，避免 VALUES 列表与绑定参数过大
+    private static final int MULTI_QUERY_BATCH_SIZE = 128;
+    private static final int EXACT_SCAN_CACHE_MAX_SIZE = 10_000;
 
     private final JdbcTemplate jdbcTemplate;
-    private final EntityManager entityManager;
     private final EmbeddingService embeddingService;
     private final VectorStoreConfig config;
     private final String tableName;
@@ -39,20 +68,68 @@ public class VectorStoreService {
     private final AtomicBoolean indexCompatibilityChecked = new AtomicBoolean(false);
     private final Semaphore writeSemaphore;
     private final long writeAcquireTimeoutMs;
+    // 租户/JD/chunk 类型 -> 是否走精确扫描；短 TTL 内容忍新增 chunk 带来的轻微偏差，null 表示关闭缓存
+    private final Cache<ExactScanScope, Boolean> exactScanDecisions;
     private volatile boolean vectorAvailable;
+    // tenant_id / jd_id 已冗余到向量表 (Flyway V11)；缺失时 (自定义表名) 退回 JOIN candidates 过滤
+    private volatile boolean scopeColumnsAvailable;
+    // pgvector >= 0.8 支持 hnsw.iterative_scan，作为放大 ef_search 之后的最后一级
+    private volatile boolean iterativeScanSupported;
+    private volatile boolean candidateSummaryAvailable;
+    // content_tsv 词法索引列 (Flyway V17)；缺失时混合检索退回纯向量检索
+    private volatile boolean lexicalSearchAvailable;
+    // embedding_coarse 前缀列维度与配置一致时写入；全部回填且前缀索引可用后才启用两阶段检索
+    private volatile boolean coarseColumnAvailable;
+    private volatile boolean coarseBackfillComplete;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary annEscalationSummary;
+    private final Counter annUnderfilledCounter;
 
+    @Autowired
     public VectorStoreService(
             JdbcTemplate jdbcTemplate,
-            EntityManager entityManager,
+            EmbeddingService embeddingService,
+            VectorStoreConfig config,
+            ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this(jdbcTemplate, embeddingService, config, meterRegistryProvider.getIfAvailable());
+    }
+
+    VectorStoreService(
+            JdbcTemplate jdbcTemplate,
             EmbeddingService embeddingService,
             VectorStoreConfig config) {
+        this(jdbcTemplate, embeddingService, config, (MeterRegistry) null);
+    }
+
+    VectorStoreService(
+            JdbcTemplate jdbcTemplate,
+            EmbeddingService embeddingService,
+            VectorStoreConfig config,
+            MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        if (meterRegistry != null) {
+            this.annEscalationSummary = DistributionSummary.builder("cvect.vector.search.ann.escalations")
+                    .description("ef_search / iterative scan escalations per filtered ANN query")
+                    .register(meterRegistry);
+            this.annUnderfilledCounter = Counter.builder("cvect.vector.search.ann.underfilled")
+                    .description("Filtered ANN queries still returning fewer rows than topK after escalation")
+                    .register(meterRegistry);
+        } else {
+            this.annEscalationSummary = null;
+            this.annUnderfilledCounter = null;
+        }
         this.jdbcTemplate = jdbcTemplate;
-        this.entityManager = entityManager;
         this.embeddingService = embeddingService;
         this.config = config;
         this.tableName = validateSqlIdentifier(config.getTableName(), "app.vector.table-name");
         this.writeSemaphore = new Semaphore(Math.max(1, config.getMaxConcurrentWrites()), true);
         this.writeAcquireTimeoutMs = Math.max(0L, config.getWriteAcquireTimeoutMs());
+        this.exactScanDecisions = config.getExactScanCacheTtlMs() > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(EXACT_SCAN_CACHE_MAX_SIZE)
+                        .expireAfterWrite(Duration.ofMillis(config.getExactScanCacheTtlMs()))
+                        .build()
+                : null;
         this.vectorAvailable = initializeVectorSupport();
         ensureIndexCompatibility();
     }
@@ -73,6 +150,10 @@ public class VectorStoreService {
             logVectorUnavailableOnce("save");
             return false;
         }
+        // embedding 在写入许可之外生成：并发调用可被 EmbeddingService 合并成批，许可只约束数据库写入
+        float[] embedding = embeddingService.embedDocument(content);
+        validateVectorInput(embedding, "embedding");
+
         boolean permitAcquired = false;
         try {
             permitAcquired = writeSemaphore.tryAcquire(writeAcquireTimeoutMs, TimeUnit.MILLISECONDS);
@@ -88,13 +169,7 @@ public class VectorStoreService {
         }
         try {
             ensureIndexCompatibility();
-            // 生成 embedding
-            float[] embedding = embeddingService.embedDocument(content);
-            validateVectorInput(embedding, "embedding");
-
-            // 保存到数据库
-            ResumeChunkVector vector = new ResumeChunkVector(candidateId, chunkType, content, embedding);
-            entityManager.persist(vector);
+            insertChunks(List.of(new ChunkWrite(candidateId, chunkType, content)), List.of(embedding));
 
             log.debug("Saved vector chunk: candidateId={}, chunkType={}, contentLength={}",
                     candidateId, chunkType, content.length());
@@ -104,6 +179,136 @@ public class VectorStoreService {
         }
     }
 
+    /**
+     * 批量保存 chunk：一次 embedBatch 请求 + 一条多行 INSERT
+     *
+     * 任一条 embedding 非法或写入失败时整体抛出异常并回滚，由调用方决定是否逐条重试。
+     *
+     * @return 写入的行数；向量库不可用或写入被限流时返回 0
+     */
+    @Transactional
+    public int saveAll(List<ChunkWrite> chunks) {
+        List<float[]> embeddings = embedChunks(chunks);
+        if (embeddings.isEmpty()) {
+            return 0;
+        }
+        return saveEmbedded(chunks, embeddings);
+    }
+
+    /**
+     * 只生成 embedding 不写库：调用方可在批量写入失败后用同一批向量逐条重试，避免重复请求模型服务
+     *
+     * @return 与 chunks 一一对应的向量；向量库不可用时返回空列表
+     */
+    public List<float[]> embedChunks(List<ChunkWrite> chunks) {
+        if (chunks == null || chunks.isEmpty()) {
+            return List.of();
+        }
+        for (ChunkWrite chunk : chunks) {
+            if (chunk == null || chunk.content() == null) {
+                throw new IllegalArgumentException("content must not be null");
+            }
+        }
+        if (!config.isEnabled()) {
+            log.info("Vector store disabled, skipping batch save of {} chunks", chunks.size());
+            return List.of();
+        }
+        if (!vectorAvailable) {
+            logVectorUnavailableOnce("saveAll");
+            return List.of();
+        }
+        List<float[]> embeddings = embeddingService.embedBatch(chunks.stream().map(ChunkWrite::content).toList());
+        if (embeddings == null || embeddings.size() != chunks.size()) {
+            throw new IllegalStateException("Embedding response size mismatch");
+        }
+        for (float[] embedding : embeddings) {
+            validateVectorInput(embedding, "embedding");
+        }
+        return embeddings;
+    }
+
+    /**
+     * 用已生成的向量批量写入 chunk (embedChunks 的结果)
+     *
+     * @return 写入的行数；向量库不可用或写入被限流时返回 0
+     */
+    @Transactional
+    public int saveEmbedded(List<ChunkWrite> chunks, List<float[]> embeddings) {
+        if (chunks == null || chunks.isEmpty()) {
+            return 0;
+        }
+        if (embeddings == null || embeddings.size() != chunks.size()) {
+            throw new IllegalArgumentException("embeddings must match chunks one to one");
+        }
+        if (!config.isEnabled()) {
+            log.info("Vector store disabled, skipping batch save of {} chunks", chunks.size());
+            return 0;
+        }
+        if (!vectorAvailable) {
+            logVectorUnavailableOnce("saveAll");
+            return 0;
+        }
+        for (float[] embedding : embeddings) {
+            validateVectorInput(embedding, "embedding");
+        }
+
+        boolean permitAcquired = false;
+        try {
+            permitAcquired = writeSemaphore.tryAcquire(writeAcquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting vector write permit, skip batch save of {} chunks", chunks.size());
+            return 0;
+        }
+        if (!permitAcquired) {
+            log.warn("Vector write is throttled (permit timeout), skip batch save of {} chunks", chunks.size());
+            return 0;
+        }
+        try {
+            ensureIndexCompatibility();
+            int inserted = insertChunks(chunks, embeddings);
+            log.debug("Saved {} vector chunks in one batch", inserted);
+            return inserted;
+        } finally {
+            writeSemaphore.release();
+        }
+    }
+
+    private int insertChunks(List<ChunkWrite> chunks, List<float[]> embeddings) {
+        // 直接写入原生 vector 列，避免 TEXT 往返
+        boolean twoStage = writeCoarseColumn();
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName)
+                .append(" (id, candidate_id, chunk_type, content, ").append(EMBEDDING_COLUMN);
+        if (twoStage) {
+            sql.append(", ").append(COARSE_EMBEDDING_COLUMN);
+        }
+        sql.append(", created_at) VALUES ");
+        String vectorType = vectorType();
+        LocalDateTime now = LocalDateTime.now();
+        List<Object> args = new ArrayList<>(chunks.size() * 7);
+        for (int i = 0; i < chunks.size(); i++) {
+            ChunkWrite chunk = chunks.get(i);
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(?, ?, ?, ?, ?::").append(vectorType);
+            if (twoStage) {
+                sql.append(", ?::").append(coarseVectorType());
+            }
+            sql.append(", ?)");
+            args.add(UUID.randomUUID());
+            args.add(chunk.candidateId());
+            args.add(chunk.chunkType().name());
+            args.add(chunk.content());
+            args.add(vectorToString(embeddings.get(i)));
+            if (twoStage) {
+                args.add(coarseVectorToString(embeddings.get(i)));
+            }
+            args.add(now);
+        }
+        return jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
     /**
      * 相似度搜索 - 基于 pgvector 的向量检索
      *
@@ -133,11 +338,10 @@ public class VectorStoreService {
         ensureIndexCompatibility();
         validateVectorInput(queryEmbedding, "queryEmbedding");
         StringBuilder sql = new StringBuilder();
-        String queryVectorType = "vector(" + positiveDimension() + ")";
         sql.append("SELECT id, candidate_id, chunk_type, content, ");
-        sql.append(normalizedEmbeddingExpression()).append(" <=> ?::").append(queryVectorType).append(" AS distance ");
+        sql.append(EMBEDDING_COLUMN).append(" <=> ?::").append(vectorType()).append(" AS distance ");
         sql.append("FROM ").append(tableName).append(" ");
-        sql.append("WHERE embedding IS NOT NULL ");
+        sql.append("WHERE ").append(EMBEDDING_COLUMN).append(" IS NOT NULL ");
 
         List<Object> args = new ArrayList<>();
         args.add(vectorToString(queryEmbedding));
@@ -173,6 +377,7 @@ public class VectorStoreService {
         return executeSearch(sqlString, args);
     }
 
+    @Transactional(readOnly = true)
     public List<SearchResult> searchVisible(
             float[] queryEmbedding,
             int topK,
@@ -194,55 +399,395 @@ public class VectorStoreService {
         ensureIndexCompatibility();
         validateVectorInput(queryEmbedding, "queryEmbedding");
 
-        String queryVectorType = "vector(" + positiveDimension() + ")";
-        String distanceExpression = normalizedEmbeddingExpression() + " <=> ?::" + queryVectorType;
+        String chunkTypeFilter = chunkTypeInClause(chunkTypes);
+        boolean exactScan = scopeColumnsAvailable && preferExactScan(scope, chunkTypeFilter);
+        int coarseLimit = exactScan ? 0 : coarseRescoreLimit(topK);
+        List<Object> args = new ArrayList<>();
+        String scoped = scopedChunkQuery(queryEmbedding, scope, chunkTypeFilter, true, coarseLimit, args);
+
         StringBuilder sql = new StringBuilder();
-        sql.append("SELECT id, candidate_id, chunk_type, content, distance ");
-        sql.append("FROM (");
-        sql.append("SELECT r.id, r.candidate_id, r.chunk_type, r.content, ");
-        sql.append(distanceExpression).append(" AS distance ");
-        sql.append("FROM ").append(tableName).append(" r ");
-        sql.append("JOIN candidates c ON c.id = r.candidate_id ");
-        if (scope.createdByUserId() != null) {
-            sql.append("JOIN job_descriptions jd ON jd.id = c.jd_id ");
+        if (exactScan) {
+            // 过滤后的行数足够小：物化后精确排序，避免 HNSW 扫描全表后再按租户过滤导致召回不足
+            sql.append("WITH scoped AS MATERIALIZED (").append(scoped).append("), ");
+            sql.append("ranked AS (SELECT id, candidate_id, chunk_type, content, distance FROM scoped ");
+        } else {
+            sql.append("WITH ranked AS (SELECT id, candidate_id, chunk_type, content, distance FROM (")
+                    .append(scoped).append(") scoped ");
+        }
+        // ranked 是索引返回的前 topK 行，分数阈值在其后过滤；ranked_rows 供自适应放大判断索引是否填满
+        sql.append("ORDER BY distance ASC LIMIT ?) ");
+        args.add(topK);
+        sql.append("SELECT k.id, k.candidate_id, k.chunk_type, k.content, k.distance, n.ranked_rows ");
+        sql.append("FROM (SELECT count(*) AS ranked_rows FROM ranked) n ");
+        sql.append("LEFT JOIN ranked k ON k.distance <= ? ");
+        sql.append("ORDER BY k.distance ASC");
+        args.add(maxDistanceForMinScore(minScore));
+
+        log.debug("Visible vector search plan: {}, tenantId={}, jdId={}",
+                exactScan ? "exact" : "ann", scope.tenantId(), scope.jobDescriptionId());
+        recordSearchPlan(exactScan ? "exact" : "ann");
+        if (exactScan || !adaptiveAnnSearchEnabled()) {
+            return executeRankedSearch(sql.toString(), args).results();
+        }
+        return executeAdaptiveAnnSearch(
+                () -> executeRankedSearch(sql.toString(), args),
+                ChunkSearchRows::rankedRows,
+                topK,
+                initialEfSearch(Math.max(topK, coarseLimit), scopeFilterCount(scope, chunkTypeFilter))).results();
+    }
+
+    /**
+     * 候选人级检索：召回前 chunkTopK 个 chunk 后，在同一条 SQL 内按候选人取各 chunk 类型最高分、加权、
+     * 过滤低于 minScore 的候选人，并可选地用反连接排除向量任务未完成的候选人；
+     * 只有最终 candidateTopK 个候选人的命中 chunk 回表读取 content。
+     *
+     * 打分与 SemanticSearchExecutionService 的 Java 聚合一致：加权分不大于 0 时退回到最高 chunk 分。
+     */
+    @Transactional(readOnly = true)
+    public List<CandidateSearchResult> searchVisibleCandidates(
+            float[] queryEmbedding,
+            int chunkTopK,
+            SearchScope scope,
+            float minScore,
+            CandidateAggregation aggregation,
+            ChunkType... chunkTypes) {
+        if (!config.isEnabled()) {
+            throw new IllegalStateException("Vector store is disabled");
+        }
+        if (!vectorAvailable) {
+            throw new IllegalStateException("pgvector extension is unavailable");
+        }
+        if (chunkTopK <= 0) {
+            throw new IllegalArgumentException("chunkTopK must be > 0");
+        }
+        if (aggregation == null || aggregation.candidateTopK() <= 0) {
+            throw new IllegalArgumentException("aggregation.candidateTopK must be > 0");
+        }
+        if (scope == null || scope.tenantId() == null) {
+            throw new IllegalArgumentException("scope.tenantId must not be null");
+        }
+        ensureIndexCompatibility();
+        validateVectorInput(queryEmbedding, "queryEmbedding");
+
+        String chunkTypeFilter = chunkTypeInClause(chunkTypes);
+        boolean exactScan = scopeColumnsAvailable && preferExactScan(scope, chunkTypeFilter);
+        int coarseLimit = exactScan ? 0 : coarseRescoreLimit(chunkTopK);
+        List<Object> args = new ArrayList<>();
+        String scoped = scopedChunkQuery(queryEmbedding, scope, chunkTypeFilter, false, coarseLimit, args);
+
+        StringBuilder sql = new StringBuilder();
+        if (exactScan) {
+            sql.append("WITH scoped AS MATERIALIZED (").append(scoped).append("), ");
+            sql.append("ranked AS (SELECT id, candidate_id, chunk_type, distance FROM scoped ");
+        } else {
+            sql.append("WITH ranked AS (SELECT id, candidate_id, chunk_type, distance FROM (")
+                    .append(scoped).append(") scoped ");
+        }
+        // 与 searchVisible 相同：ranked 不带分数阈值，matched 才按 minScore 过滤
+        sql.append("ORDER BY distance ASC LIMIT ?), ");
+        args.add(chunkTopK);
+        sql.append("matched AS (SELECT id, candidate_id, chunk_type, distance FROM ranked WHERE distance <= ?), ");
+        args.add(maxDistanceForMinScore(minScore));
+
+        sql.append("candidate_scores AS (SELECT candidate_id, MIN(distance) AS best_distance, ");
+        sql.append("MAX(").append(CHUNK_SCORE_SQL).append(") AS max_overall, ");
+        sql.append("COALESCE(MAX(CASE WHEN chunk_type = '").append(ChunkType.EXPERIENCE.name())
+                .append("' THEN ").append(CHUNK_SCORE_SQL).append(" END), 0) AS max_experience, ");
+        sql.append("COALESCE(MAX(CASE WHEN chunk_type = '").append(ChunkType.SKILL.name())
+                .append("' THEN ").append(CHUNK_SCORE_SQL).append(" END), 0) AS max_skill ");
+        sql.append("FROM matched GROUP BY candidate_id), ");
+
+        sql.append("weighted AS (SELECT candidate_id, best_distance, max_overall, ");
+        sql.append("max_experience * ? + max_skill * ? AS weighted_score FROM candidate_scores), ");
+        args.add(aggregation.experienceWeight());
+        args.add(aggregation.skillWeight());
+
+        sql.append("scored AS (SELECT candidate_id, best_distance, ");
+        sql.append("CASE WHEN weighted_score > 0 THEN weighted_score ELSE max_overall END AS score FROM weighted), ");
+
+        sql.append("top_candidates AS (SELECT candidate_id, best_distance, score FROM scored s WHERE score >= ? ");
+        args.add(minScore);
+        if (aggregation.onlyVectorReadyCandidates()) {
+            appendVectorReadyCondition(sql, "s.candidate_id");
+        }
+        sql.append("ORDER BY score DESC, best_distance ASC LIMIT ?) ");
+        args.add(aggregation.candidateTopK());
+
+        // 没有候选人命中时仍返回一行 ranked_rows，避免把阈值过滤误判为索引未填满
+        sql.append("SELECT k.id, k.candidate_id, k.chunk_type, c.content, k.distance, t.score, n.ranked_rows ");
+        sql.append("FROM (SELECT count(*) AS ranked_rows FROM ranked) n ");
+        sql.append("LEFT JOIN (top_candidates t ");
+        sql.append("JOIN matched k ON k.candidate_id = t.candidate_id ");
+        sql.append("JOIN ").append(tableName).append(" c ON c.id = k.id) ON TRUE ");
+        sql.append("ORDER BY t.score DESC, t.best_distance ASC, k.distance ASC");
+
+        log.debug("Visible candidate search plan: {}, tenantId={}, jdId={}",
+                exactScan ? "exact" : "ann", scope.tenantId(), scope.jobDescriptionId());
+        recordSearchPlan(exactScan ? "exact" : "ann");
+        if (exactScan || !adaptiveAnnSearchEnabled()) {
+            return executeCandidateSearch(sql.toString(), args).candidates();
+        }
+        // 放大条件是索引返回的 chunk 行数 (阈值过滤前) 是否填满 chunkTopK
+        return executeAdaptiveAnnSearch(
+                () -> executeCandidateSearch(sql.toString(), args),
+                CandidateSearchRows::rankedRows,
+                chunkTopK,
+                initialEfSearch(Math.max(chunkTopK, coarseLimit), scopeFilterCount(scope, chunkTypeFilter))).candidates();
+    }
+
+    /**
+     * 词法检索：query 与 content 都经 cvect_lexical_terms 分词 (Flyway V17)，任一词项命中即召回，按 ts_rank 排序。
+     * 词法索引不可用时返回空列表，由调用方退回纯向量检索。
+     */
+    @Transactional(readOnly = true)
+    public List<LexicalMatch> searchVisibleLexical(
+            String queryText,
+            int topK,
+            SearchScope scope,
+            boolean onlyVectorReadyCandidates,
+            ChunkType... chunkTypes) {
+        if (!isLexicalSearchAvailable() || queryText == null || queryText.isBlank()) {
+            return List.of();
+        }
+        if (topK <= 0) {
+            throw new IllegalArgumentException("topK must be > 0");
+        }
+        if (scope == null || scope.tenantId() == null) {
+            throw new IllegalArgumentException("scope.tenantId must not be null");
         }
-        sql.append("WHERE r.embedding IS NOT NULL ");
-        sql.append("AND c.tenant_id = ? ");
 
         List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder();
+        // 长 JD 的词项很多，只取前 MAX_LEXICAL_QUERY_TERMS 个词项去重后组成 OR 查询
+        sql.append("WITH q AS (SELECT string_agg(DISTINCT quote_literal(term), ' | ')::tsquery AS query ");
+        sql.append("FROM unnest(cvect_lexical_terms(?)) WITH ORDINALITY AS terms(term, position) ");
+        sql.append("WHERE position <= ?) ");
+        args.add(queryText);
+        args.add(MAX_LEXICAL_QUERY_TERMS);
+
+        sql.append("SELECT r.id, r.candidate_id, r.chunk_type, r.content, ")
+                .append("ts_rank(r.content_tsv, q.query) AS rank ");
+        sql.append("FROM q CROSS JOIN ").append(tableName).append(" r ");
+        appendScopeJoins(sql, scope);
+        sql.append("WHERE r.content_tsv @@ q.query ");
+        appendScopeConditions(sql, scope, chunkTypeInClause(chunkTypes), args);
+        if (onlyVectorReadyCandidates) {
+            appendVectorReadyCondition(sql, "r.candidate_id");
+        }
+        sql.append("ORDER BY rank DESC LIMIT ?");
+        args.add(topK);
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql.toString(), args.toArray());
+        List<LexicalMatch> matches = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            ChunkType chunkType = parseChunkType(row.get("chunk_type"));
+            if (chunkType == null) {
+                log.warn("Skip invalid lexical search row with unknown chunk_type: {}", row.get("chunk_type"));
+                continue;
+            }
+            Object rank = row.get("rank");
+            matches.add(new LexicalMatch(
+                    (UUID) row.get("id"),
+                    (UUID) row.get("candidate_id"),
+                    chunkType,
+                    (String) row.get("content"),
+                    rank instanceof Number number ? number.floatValue() : 0.0f));
+        }
+        log.debug("Lexical search returned {} results", matches.size());
+        return matches;
+    }
+
+    public boolean isLexicalSearchAvailable() {
+        return config.isEnabled() && vectorAvailable && lexicalSearchAvailable;
+    }
+
+    /**
+     * 租户/JD/owner/chunk 类型过滤后的 chunk 距离查询，参数按占位符顺序追加到 args。
+     * coarseLimit > 0 时走两阶段：在前缀列上按 ANN 召回 coarseLimit 行，再用全维向量重算 distance。
+     */
+    private String scopedChunkQuery(
+            float[] queryEmbedding,
+            SearchScope scope,
+            String chunkTypeFilter,
+            boolean includeContent,
+            int coarseLimit,
+            List<Object> args) {
+        if (coarseLimit > 0) {
+            return coarseRescoredChunkQuery(queryEmbedding, scope, chunkTypeFilter, includeContent, coarseLimit, args);
+        }
+        StringBuilder scoped = new StringBuilder();
+        scoped.append("SELECT r.id, r.candidate_id, r.chunk_type, ");
+        if (includeContent) {
+            scoped.append("r.content, ");
+        }
+        scoped.append("r.").append(EMBEDDING_COLUMN).append(" <=> ?::").append(vectorType()).append(" AS distance ");
+        scoped.append("FROM ").append(tableName).append(" r ");
+        appendScopeJoins(scoped, scope);
+        scoped.append("WHERE r.").append(EMBEDDING_COLUMN).append(" IS NOT NULL ");
         args.add(vectorToString(queryEmbedding));
-        args.add(scope.tenantId());
+        appendScopeConditions(scoped, scope, chunkTypeFilter, args);
+        return scoped.toString();
+    }
+
+    private String coarseRescoredChunkQuery(
+            float[] queryEmbedding,
+            SearchScope scope,
+            String chunkTypeFilter,
+            boolean includeContent,
+            int coarseLimit,
+            List<Object> args) {
+        String contentColumn = includeContent ? "content, " : "";
+        StringBuilder scoped = new StringBuilder();
+        scoped.append("SELECT id, candidate_id, chunk_type, ").append(contentColumn);
+        scoped.append(EMBEDDING_COLUMN).append(" <=> ?::").append(vectorType()).append(" AS distance FROM (");
+        scoped.append("SELECT r.id, r.candidate_id, r.chunk_type, ").append(includeContent ? "r.content, " : "");
+        scoped.append("r.").append(EMBEDDING_COLUMN).append(", ");
+        scoped.append("r.").append(COARSE_EMBEDDING_COLUMN).append(" <=> ?::").append(coarseVectorType())
+                .append(" AS coarse_distance ");
+        scoped.append("FROM ").append(tableName).append(" r ");
+        appendScopeJoins(scoped, scope);
+        scoped.append("WHERE r.").append(COARSE_EMBEDDING_COLUMN).append(" IS NOT NULL ");
+        args.add(vectorToString(queryEmbedding));
+        args.add(coarseVectorToString(queryEmbedding));
+        appendScopeConditions(scoped, scope, chunkTypeFilter, args);
+        scoped.append("ORDER BY coarse_distance ASC LIMIT ?) coarse");
+        args.add(coarseLimit);
+        return scoped.toString();
+    }
 
+    /**
+     * 两阶段检索粗召回行数：不少于最终需要的 chunk 数，不超过 pgvector ef_search 上限
+     */
+    private int coarseRescoreLimit(int topK) {
+        if (!twoStageSearchEnabled()) {
+            return 0;
+        }
+        int rescoreSize = Math.max(topK, config.getCoarseRescoreSize());
+        return Math.min(rescoreSize, PGVECTOR_MAX_EF_SEARCH);
+    }
+
+    private void appendScopeJoins(StringBuilder sql, SearchScope scope) {
+        if (!scopeColumnsAvailable) {
+            sql.append("JOIN candidates c ON c.id = r.candidate_id ");
+        }
+        if (scope.createdByUserId() != null) {
+            sql.append("JOIN job_descriptions jd ON jd.id = ").append(scopeAlias()).append(".jd_id ");
+        }
+    }
+
+    private void appendScopeConditions(StringBuilder sql, SearchScope scope, String chunkTypeFilter, List<Object> args) {
+        String scopeAlias = scopeAlias();
+        sql.append("AND ").append(scopeAlias).append(".tenant_id = ? ");
+        args.add(scope.tenantId());
         if (scope.jobDescriptionId() != null) {
-            sql.append("AND c.jd_id = ? ");
+            sql.append("AND ").append(scopeAlias).append(".jd_id = ? ");
             args.add(scope.jobDescriptionId());
         }
         if (scope.createdByUserId() != null) {
             sql.append("AND jd.created_by_user_id = ? ");
             args.add(scope.createdByUserId());
         }
-        if (chunkTypes != null && chunkTypes.length > 0) {
-            sql.append("AND r.chunk_type IN (");
-            for (int i = 0; i < chunkTypes.length; i++) {
-                if (i > 0) {
-                    sql.append(", ");
-                }
-                String typeName = chunkTypes[i].name();
-                validateChunkType(typeName);
-                sql.append("'").append(typeName).append("'");
+        if (chunkTypeFilter != null) {
+            sql.append("AND r.chunk_type IN (").append(chunkTypeFilter).append(") ");
+        }
+    }
+
+    private String scopeAlias() {
+        return scopeColumnsAvailable ? "r" : "c";
+    }
+
+    /**
+     * 至少有一个 DONE 任务，且没有排队或执行中的任务
+     */
+    private static void appendVectorReadyCondition(StringBuilder sql, String candidateColumn) {
+        sql.append("AND EXISTS (SELECT 1 FROM vector_ingest_tasks t ")
+                .append("WHERE t.candidate_id = ").append(candidateColumn).append(" AND t.status = 'DONE') ");
+        sql.append("AND NOT EXISTS (SELECT 1 FROM vector_ingest_tasks t ")
+                .append("WHERE t.candidate_id = ").append(candidateColumn)
+                .append(" AND t.status IN ('PENDING', 'PROCESSING')) ");
+    }
+
+    private static int scopeFilterCount(SearchScope scope, String chunkTypeFilter) {
+        return (scope.jobDescriptionId() != null ? 1 : 0)
+                + (scope.createdByUserId() != null ? 1 : 0)
+                + (chunkTypeFilter != null ? 1 : 0);
+    }
+
+    /**
+     * 自适应 HNSW 查询：ef_search 按 topK 与过滤条件定初值；索引在租户等过滤后返回不足 topK 行时先放大到上限，
+     * 再 (pgvector >= 0.8) 打开 iterative scan。SET LOCAL 只在当前事务内生效，见 searchVisible 的事务注解。
+     */
+    private <T> T executeAdaptiveAnnSearch(
+            Supplier<T> query,
+            ToIntFunction<T> filledRows,
+            int topK,
+            int initialEfSearch) {
+        int maxEfSearch = maxEfSearch();
+        int maxEscalations = Math.max(0, config.getAdaptiveSearchMaxEscalations());
+        int efSearch = initialEfSearch;
+        boolean iterativeScan = false;
+        int escalations = 0;
+        T results;
+        int rows;
+        while (true) {
+            applyAnnSearchSettings(efSearch, iterativeScan);
+            results = query.get();
+            rows = filledRows.applyAsInt(results);
+            if (rows >= topK || escalations >= maxEscalations) {
+                break;
             }
-            sql.append(") ");
+            if (efSearch < maxEfSearch) {
+                efSearch = maxEfSearch;
+            } else if (iterativeScanSupported && !iterativeScan) {
+                iterativeScan = true;
+            } else {
+                break;
+            }
+            escalations++;
+        }
+        if (annEscalationSummary != null) {
+            annEscalationSummary.record(escalations);
+        }
+        if (rows < topK && annUnderfilledCounter != null) {
+            annUnderfilledCounter.increment();
+        }
+        if (escalations > 0) {
+            log.debug("Escalated filtered ANN search {} time(s): efSearch={}, iterativeScan={}, rows={}, topK={}",
+                    escalations, efSearch, iterativeScan, rows, topK);
+        }
+        return results;
+    }
+
+    private void applyAnnSearchSettings(int efSearch, boolean iterativeScan) {
+        jdbcTemplate.execute("SET LOCAL hnsw.ef_search = " + efSearch);
+        if (iterativeScan) {
+            // relaxed_order 可能轻微乱序，外层 ORDER BY distance 会重新排序
+            jdbcTemplate.execute("SET LOCAL hnsw.iterative_scan = relaxed_order");
         }
+    }
 
-        sql.append(") ranked ");
-        sql.append("WHERE distance <= ? ");
-        sql.append("ORDER BY distance ASC ");
-        sql.append("LIMIT ?");
+    /**
+     * HNSW 最多返回 ef_search 个近邻，过滤在其后发生；每多一个过滤条件按 topK 多预留一倍
+     */
+    int initialEfSearch(int topK, int filterCount) {
+        long sized = (long) topK * (2L + Math.max(0, filterCount));
+        long efSearch = Math.max(Math.max(1, config.getEfSearch()), sized);
+        return (int) Math.min(efSearch, maxEfSearch());
+    }
 
-        args.add(maxDistanceForMinScore(minScore));
-        args.add(topK);
+    private int maxEfSearch() {
+        int configured = config.getEfSearchMax() <= 0 ? PGVECTOR_MAX_EF_SEARCH : config.getEfSearchMax();
+        return Math.max(Math.max(1, config.getEfSearch()), Math.min(configured, PGVECTOR_MAX_EF_SEARCH));
+    }
+
+    private boolean adaptiveAnnSearchEnabled() {
+        return config.isAdaptiveSearchEnabled() && "hnsw".equals(getResolvedIndexType());
+    }
 
-        return executeSearch(sql.toString(), args);
+    private void recordSearchPlan(String plan) {
+        if (meterRegistry != null) {
+            meterRegistry.counter("cvect.vector.search.plan", "plan", plan).increment();
+        }
     }
 
     public Map<UUID, CandidateScoreBreakdown> scoreCandidates(float[] queryEmbedding, Collection<UUID> candidateIds) {
@@ -256,89 +801,396 @@ public class VectorStoreService {
         validateVectorInput(queryEmbedding, "queryEmbedding");
 
         StringBuilder sql = new StringBuilder();
-        String queryVectorType = "vector(" + positiveDimension() + ")";
         sql.append("SELECT candidate_id, chunk_type, ");
         sql.append("MAX(1 - (");
-        sql.append(normalizedEmbeddingExpression()).append(" <=> ?::").append(queryVectorType);
+        sql.append(EMBEDDING_COLUMN).append(" <=> ?::").append(vectorType());
         sql.append(")) AS score ");
         sql.append("FROM ").append(tableName).append(" ");
-        sql.append("WHERE embedding IS NOT NULL ");
+        sql.append("WHERE ").append(EMBEDDING_COLUMN).append(" IS NOT NULL ");
 
         List<Object> args = new ArrayList<>();
         args.add(vectorToString(queryEmbedding));
         if (candidateIds != null && !candidateIds.isEmpty()) {
-            sql.append("AND candidate_id IN (");
-            appendPlaceholders(sql, candidateIds.size());
-            sql.append(") ");
-            args.addAll(candidateIds);
+            sql.append("AND candidate_id = ANY (?::uuid[]) ");
+            args.add(uuidArrayToString(candidateIds));
+        }
+        sql.append("AND chunk_type IN (").append(SCORED_CHUNK_TYPES).append(") ");
+        sql.append("GROUP BY candidate_id, chunk_type");
+
+        return toScoreBreakdowns(jdbcTemplate.queryForList(sql.toString(), args.toArray()));
+    }
+
+    public boolean isCandidateSummaryAvailable() {
+        return config.isEnabled() && vectorAvailable && candidateSummaryAvailable;
+    }
+
+    /**
+     * 基于候选人均值池化向量打分：按 tenant_id 索引扫描，每个候选人每种类型一行，不再展开全部 chunk
+     *
+     * @param candidateIds 为空时对租户内全部候选人打分
+     */
+    public Map<UUID, CandidateScoreBreakdown> scoreCandidateSummaries(
+            float[] queryEmbedding,
+            UUID tenantId,
+            Collection<UUID> candidateIds) {
+        if (!isCandidateSummaryAvailable()) {
+            throw new IllegalStateException("Candidate summary vectors are unavailable");
+        }
+        if (tenantId == null) {
+            throw new IllegalArgumentException("tenantId must not be null");
+        }
+        validateVectorInput(queryEmbedding, "queryEmbedding");
+
+        StringBuilder sql = new StringBuilder();
+        sql.append("SELECT candidate_id, chunk_type, ");
+        sql.append("1 - (").append(EMBEDDING_COLUMN).append(" <=> ?::").append(vectorType()).append(") AS score ");
+        sql.append("FROM ").append(SUMMARY_TABLE).append(" ");
+        sql.append("WHERE tenant_id = ? ");
+        sql.append("AND chunk_type IN (").append(SCORED_CHUNK_TYPES).append(") ");
+
+        List<Object> args = new ArrayList<>();
+        args.add(vectorToString(queryEmbedding));
+        args.add(tenantId);
+        if (candidateIds != null && !candidateIds.isEmpty()) {
+            sql.append("AND candidate_id = ANY (?::uuid[]) ");
+            args.add(uuidArrayToString(candidateIds));
+        }
+        return toScoreBreakdowns(jdbcTemplate.queryForList(sql.toString(), args.toArray()));
+    }
+
+    /**
+     * 单个候选人对多条查询向量 (如租户下全部 JD) 打分：查询向量以 VALUES 列表传入，
+     * 一次扫描候选人的 chunk (或汇总向量) 得到 查询 × 类型 的得分矩阵
+     *
+     * @param queryEmbeddings key 为查询 ID (如 jdId)，返回结果同样以查询 ID 为 key
+     */
+    public Map<UUID, CandidateScoreBreakdown> scoreCandidateAgainstQueries(
+            UUID candidateId,
+            Map<UUID, float[]> queryEmbeddings) {
+        if (!config.isEnabled()) {
+            throw new IllegalStateException("Vector store is disabled");
+        }
+        if (!vectorAvailable) {
+            throw new IllegalStateException("pgvector extension is unavailable");
+        }
+        if (candidateId == null) {
+            throw new IllegalArgumentException("candidateId must not be null");
+        }
+        if (queryEmbeddings == null || queryEmbeddings.isEmpty()) {
+            return Map.of();
+        }
+        ensureIndexCompatibility();
+        for (float[] queryEmbedding : queryEmbeddings.values()) {
+            validateVectorInput(queryEmbedding, "queryEmbedding");
+        }
+
+        List<Map.Entry<UUID, float[]>> entries = new ArrayList<>(queryEmbeddings.entrySet());
+        Map<UUID, CandidateScoreBreakdown> scores = new LinkedHashMap<>();
+        for (int from = 0; from < entries.size(); from += MULTI_QUERY_BATCH_SIZE) {
+            List<Map.Entry<UUID, float[]>> batch = entries.subList(
+                    from,
+                    Math.min(entries.size(), from + MULTI_QUERY_BATCH_SIZE));
+            scores.putAll(scoreCandidateAgainstQueryBatch(candidateId, batch));
+        }
+        return scores;
+    }
+
+    private Map<UUID, CandidateScoreBreakdown> scoreCandidateAgainstQueryBatch(
+            UUID candidateId,
+            List<Map.Entry<UUID, float[]>> batch) {
+        String vectorType = vectorType();
+        boolean useSummaries = candidateSummaryAvailable;
+        StringBuilder sql = new StringBuilder();
+        sql.append("SELECT q.query_id, r.chunk_type, ");
+        sql.append("MAX(1 - (r.").append(EMBEDDING_COLUMN).append(" <=> q.embedding)) AS score ");
+        sql.append("FROM (VALUES ");
+        List<Object> args = new ArrayList<>(batch.size() * 2 + 1);
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(?::uuid, ?::").append(vectorType).append(")");
+            args.add(batch.get(i).getKey());
+            args.add(vectorToString(batch.get(i).getValue()));
+        }
+        sql.append(") AS q(query_id, embedding) ");
+        sql.append("CROSS JOIN ").append(useSummaries ? SUMMARY_TABLE : tableName).append(" r ");
+        sql.append("WHERE r.candidate_id = ? ");
+        args.add(candidateId);
+        if (!useSummaries) {
+            sql.append("AND r.").append(EMBEDDING_COLUMN).append(" IS NOT NULL ");
+        }
+        sql.append("AND r.chunk_type IN (").append(SCORED_CHUNK_TYPES).append(") ");
+        sql.append("GROUP BY q.query_id, r.chunk_type");
+        return toScoreBreakdowns(jdbcTemplate.queryForList(sql.toString(), args.toArray()), "query_id");
+    }
+
+    /**
+     * 重算候选人的均值池化向量；在候选人全部 chunk 入库完成后调用
+     */
+    @Transactional
+    public void refreshCandidateSummaries(UUID candidateId) {
+        if (candidateId == null || !isCandidateSummaryAvailable()) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM " + SUMMARY_TABLE + " WHERE candidate_id = ?", candidateId);
+        String sql = "INSERT INTO " + SUMMARY_TABLE
+                + " (candidate_id, chunk_type, tenant_id, jd_id, " + EMBEDDING_COLUMN + ", chunk_count, updated_at)"
+                + " SELECT r.candidate_id, r.chunk_type, c.tenant_id, c.jd_id, AVG(r." + EMBEDDING_COLUMN + "),"
+                + " COUNT(*), ?"
+                + " FROM " + tableName + " r JOIN candidates c ON c.id = r.candidate_id"
+                + " WHERE r.candidate_id = ? AND r." + EMBEDDING_COLUMN + " IS NOT NULL"
+                + " AND r.chunk_type IN (" + SCORED_CHUNK_TYPES + ")"
+                + " GROUP BY r.candidate_id, r.chunk_type, c.tenant_id, c.jd_id";
+        int refreshed = jdbcTemplate.update(sql, LocalDateTime.now(), candidateId);
+        log.debug("Refreshed {} summary vectors for candidate: {}", refreshed, candidateId);
+    }
+
+    /**
+     * 同一文件投递到其它 JD 时复制已入库的 chunk 向量，不再调用 embedding；
+     * tenant_id / jd_id 取目标候选人的归属
+     *
+     * @return 复制的行数；向量库不可用时返回 0
+     */
+    @Transactional
+    public int cloneCandidateChunks(UUID sourceCandidateId, UUID targetCandidateId) {
+        if (sourceCandidateId == null || targetCandidateId == null || !config.isEnabled()) {
+            return 0;
+        }
+        if (!vectorAvailable) {
+            logVectorUnavailableOnce("cloneCandidateChunks");
+            return 0;
+        }
+        boolean twoStage = writeCoarseColumn();
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName)
+                .append(" (id, candidate_id, chunk_type, content, ").append(EMBEDDING_COLUMN).append(", created_at");
+        if (scopeColumnsAvailable) {
+            sql.append(", tenant_id, jd_id");
+        }
+        if (twoStage) {
+            sql.append(", ").append(COARSE_EMBEDDING_COLUMN);
+        }
+        sql.append(") SELECT gen_random_uuid(), c.id, r.chunk_type, r.content, r.").append(EMBEDDING_COLUMN).append(", ?");
+        if (scopeColumnsAvailable) {
+            sql.append(", c.tenant_id, c.jd_id");
+        }
+        if (twoStage) {
+            sql.append(", r.").append(COARSE_EMBEDDING_COLUMN);
+        }
+        sql.append(" FROM ").append(tableName).append(" r JOIN candidates c ON c.id = ?")
+                .append(" WHERE r.candidate_id = ? AND r.").append(EMBEDDING_COLUMN).append(" IS NOT NULL");
+        int cloned = jdbcTemplate.update(sql.toString(), LocalDateTime.now(), targetCandidateId, sourceCandidateId);
+        log.debug("Cloned {} vector chunks from candidate {} to {}", cloned, sourceCandidateId, targetCandidateId);
+        return cloned;
+    }
+
+    private Map<UUID, CandidateScoreBreakdown> toScoreBreakdowns(List<Map<String, Object>> rows) {
+        return toScoreBreakdowns(rows, "candidate_id");
+    }
+
+    private Map<UUID, CandidateScoreBreakdown> toScoreBreakdowns(List<Map<String, Object>> rows, String keyColumn) {
+        Map<UUID, MutableCandidateScoreBreakdown> rawScores = new LinkedHashMap<>();
+        for (Map<String, Object> row : rows) {
+            Object rawCandidateId = row.get(keyColumn);
+            if (!(rawCandidateId instanceof UUID candidateId)) {
+                log.warn("Skip invalid vector score row with invalid {}: {}", keyColumn, rawCandidateId);
+                continue;
+            }
+            ChunkType chunkType = parseChunkType(row.get("chunk_type"));
+            if (chunkType == null) {
+                continue;
+            }
+            Object rawScore = row.get("score");
+            if (!(rawScore instanceof Number scoreValue)) {
+                log.warn("Skip invalid vector score row with non-numeric score: {}", rawScore);
+                continue;
+            }
+            float score = scoreValue.floatValue();
+            if (!Float.isFinite(score)) {
+                log.warn("Skip invalid vector score row with non-finite score: {}", rawScore);
+                continue;
+            }
+            MutableCandidateScoreBreakdown current = rawScores.computeIfAbsent(
+                    candidateId,
+                    ignored -> new MutableCandidateScoreBreakdown());
+            if (chunkType == ChunkType.EXPERIENCE) {
+                current.experienceScore = Math.max(current.experienceScore, score);
+            } else if (chunkType == ChunkType.SKILL) {
+                current.skillScore = Math.max(current.skillScore, score);
+            }
+        }
+
+        Map<UUID, CandidateScoreBreakdown> scores = new LinkedHashMap<>();
+        for (Map.Entry<UUID, MutableCandidateScoreBreakdown> entry : rawScores.entrySet()) {
+            scores.put(entry.getKey(), new CandidateScoreBreakdown(
+                    entry.getValue().experienceScore,
+                    entry.getValue().skillScore));
+        }
+        return scores;
+    }
+
+    /**
+     * 验证 ChunkType 是否为有效枚举值
+     * 作为白名单检查，确保 SQL 拼接安全
+     */
+    private void validateChunkType(String typeName) {
+        for (ChunkType type : ChunkType.values()) {
+            if (type.name().equals(typeName)) {
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Invalid ChunkType: " + typeName);
+    }
+
+    private String chunkTypeInClause(ChunkType... chunkTypes) {
+        if (chunkTypes == null || chunkTypes.length == 0) {
+            return null;
+        }
+        StringBuilder clause = new StringBuilder();
+        for (int i = 0; i < chunkTypes.length; i++) {
+            if (i > 0) {
+                clause.append(", ");
+            }
+            String typeName = chunkTypes[i].name();
+            validateChunkType(typeName);
+            clause.append("'").append(typeName).append("'");
+        }
+        return clause.toString();
+    }
+
+    /**
+     * 用 (tenant_id, jd_id, chunk_type) 索引做有上限的计数，估算过滤后的候选集大小；
+     * 不超过 app.vector.exact-scan-max-rows 时精确扫描更快且召回完整。owner 过滤不参与估算 (上界)。
+     * 结果按 app.vector.exact-scan-cache-ttl-ms 缓存，计数失败不缓存。
+     */
+    private boolean preferExactScan(SearchScope scope, String chunkTypeFilter) {
+        int maxRows = config.getExactScanMaxRows();
+        if (maxRows <= 0) {
+            return false;
+        }
+        ExactScanScope key = new ExactScanScope(scope.tenantId(), scope.jobDescriptionId(), chunkTypeFilter);
+        Boolean cached = exactScanDecisions == null ? null : exactScanDecisions.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        StringBuilder sql = new StringBuilder("SELECT count(*) FROM (SELECT 1 FROM ")
+                .append(tableName)
+                .append(" WHERE tenant_id = ? ");
+        List<Object> args = new ArrayList<>();
+        args.add(scope.tenantId());
+        if (scope.jobDescriptionId() != null) {
+            sql.append("AND jd_id = ? ");
+            args.add(scope.jobDescriptionId());
+        }
+        if (chunkTypeFilter != null) {
+            sql.append("AND chunk_type IN (").append(chunkTypeFilter).append(") ");
+        }
+        sql.append("LIMIT ?) scoped");
+        args.add(maxRows + 1);
+        try {
+            Integer rows = jdbcTemplate.queryForObject(sql.toString(), Integer.class, args.toArray());
+            boolean exactScan = rows != null && rows <= maxRows;
+            if (exactScanDecisions != null) {
+                exactScanDecisions.put(key, exactScan);
+            }
+            return exactScan;
+        } catch (Exception e) {
+            log.warn("Failed to estimate scoped vector rows, fallback to ANN search: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean detectIterativeScanSupport() {
+        try {
+            List<String> versions = jdbcTemplate.queryForList(
+                    "SELECT extversion FROM pg_extension WHERE extname = 'vector'",
+                    String.class);
+            return !versions.isEmpty() && isVersionAtLeast(versions.get(0), 0, 8);
+        } catch (Exception e) {
+            log.warn("Failed to detect pgvector version: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    static boolean isVersionAtLeast(String version, int major, int minor) {
+        if (version == null) {
+            return false;
+        }
+        String[] parts = version.trim().split("\\.");
+        try {
+            int actualMajor = Integer.parseInt(parts[0]);
+            int actualMinor = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            return actualMajor > major || (actualMajor == major && actualMinor >= minor);
+        } catch (NumberFormatException e) {
+            return false;
         }
-        sql.append("AND chunk_type IN ('EXPERIENCE', 'SKILL') ");
-        sql.append("GROUP BY candidate_id, chunk_type");
+    }
 
-        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql.toString(), args.toArray());
-        Map<UUID, MutableCandidateScoreBreakdown> rawScores = new LinkedHashMap<>();
-        for (Map<String, Object> row : rows) {
-            Object rawCandidateId = row.get("candidate_id");
-            if (!(rawCandidateId instanceof UUID candidateId)) {
-                log.warn("Skip invalid vector score row with invalid candidate_id: {}", rawCandidateId);
-                continue;
-            }
-            ChunkType chunkType = parseChunkType(row.get("chunk_type"));
-            if (chunkType == null) {
-                continue;
-            }
-            Object rawScore = row.get("score");
-            if (!(rawScore instanceof Number scoreValue)) {
-                log.warn("Skip invalid vector score row with non-numeric score: {}", rawScore);
-                continue;
-            }
-            float score = scoreValue.floatValue();
-            if (!Float.isFinite(score)) {
-                log.warn("Skip invalid vector score row with non-finite score: {}", rawScore);
-                continue;
-            }
-            MutableCandidateScoreBreakdown current = rawScores.computeIfAbsent(
-                    candidateId,
-                    ignored -> new MutableCandidateScoreBreakdown());
-            if (chunkType == ChunkType.EXPERIENCE) {
-                current.experienceScore = Math.max(current.experienceScore, score);
-            } else if (chunkType == ChunkType.SKILL) {
-                current.skillScore = Math.max(current.skillScore, score);
+    private boolean detectCandidateSummaryTable() {
+        try {
+            Boolean exists = jdbcTemplate.queryForObject(
+                    "SELECT to_regclass(?) IS NOT NULL",
+                    Boolean.class,
+                    SUMMARY_TABLE);
+            if (Boolean.TRUE.equals(exists)) {
+                return true;
             }
+            log.warn("Table {} is missing; persisted match scoring falls back to per-chunk scoring.", SUMMARY_TABLE);
+        } catch (Exception e) {
+            log.warn("Failed to detect {}: {}", SUMMARY_TABLE, e.getMessage());
         }
+        return false;
+    }
 
-        Map<UUID, CandidateScoreBreakdown> scores = new LinkedHashMap<>();
-        for (Map.Entry<UUID, MutableCandidateScoreBreakdown> entry : rawScores.entrySet()) {
-            scores.put(entry.getKey(), new CandidateScoreBreakdown(
-                    entry.getValue().experienceScore,
-                    entry.getValue().skillScore));
+    private boolean detectLexicalColumn() {
+        try {
+            Boolean exists = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_attribute WHERE attrelid = to_regclass(?) "
+                            + "AND attname = 'content_tsv' AND NOT attisdropped)",
+                    Boolean.class,
+                    tableName);
+            if (Boolean.TRUE.equals(exists)) {
+                return true;
+            }
+            log.warn("Vector table {} has no content_tsv column; hybrid search falls back to vector search.", tableName);
+        } catch (Exception e) {
+            log.warn("Failed to detect lexical column on {}: {}", tableName, e.getMessage());
         }
-        return scores;
+        return false;
     }
 
-    /**
-     * 验证 ChunkType 是否为有效枚举值
-     * 作为白名单检查，确保 SQL 拼接安全
-     */
-    private void validateChunkType(String typeName) {
-        for (ChunkType type : ChunkType.values()) {
-            if (type.name().equals(typeName)) {
-                return;
+    private boolean detectScopeColumns() {
+        try {
+            Integer columns = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM pg_attribute WHERE attrelid = to_regclass(?) "
+                            + "AND attname IN ('tenant_id', 'jd_id') AND NOT attisdropped",
+                    Integer.class,
+                    tableName);
+            if (columns != null && columns == 2) {
+                return true;
             }
+            log.warn("Vector table {} has no tenant_id/jd_id columns; scoped search falls back to joining candidates.",
+                    tableName);
+        } catch (Exception e) {
+            log.warn("Failed to detect scope columns on {}: {}", tableName, e.getMessage());
         }
-        throw new IllegalArgumentException("Invalid ChunkType: " + typeName);
+        return false;
     }
 
     /**
      * 将 float[] 转换为 PostgreSQL vector 格式字符串
-     * pgvector 格式: [1.0, 2.0, 3.0]
+     * pgvector 格式: [1.0,2.0,3.0]
      */
     private String vectorToString(float[] vector) {
         validateVectorInput(vector, "vector");
+        return formatVector(vector);
+    }
+
+    private static String formatVector(float[] vector) {
         StringBuilder sb = new StringBuilder("[");
         for (int i = 0; i < vector.length; i++) {
             if (i > 0)
-                sb.append(", ");
+                sb.append(',');
             sb.append(vector[i]);
         }
         sb.append("]");
@@ -352,6 +1204,9 @@ public class VectorStoreService {
     public void deleteByCandidate(UUID candidateId) {
         String sql = "DELETE FROM " + tableName + " WHERE candidate_id = ?";
         int deleted = jdbcTemplate.update(sql, candidateId);
+        if (candidateSummaryAvailable) {
+            jdbcTemplate.update("DELETE FROM " + SUMMARY_TABLE + " WHERE candidate_id = ?", candidateId);
+        }
         log.info("Deleted {} vector chunks for candidate: {}", deleted, candidateId);
     }
 
@@ -364,6 +1219,10 @@ public class VectorStoreService {
         String sql = "DELETE FROM " + tableName
                 + " WHERE candidate_id IN (SELECT id FROM candidates WHERE jd_id = ?)";
         int deleted = jdbcTemplate.update(sql, jobDescriptionId);
+        if (candidateSummaryAvailable) {
+            jdbcTemplate.update("DELETE FROM " + SUMMARY_TABLE
+                    + " WHERE candidate_id IN (SELECT id FROM candidates WHERE jd_id = ?)", jobDescriptionId);
+        }
         log.info("Deleted {} vector chunks for jd: {}", deleted, jobDescriptionId);
     }
 
@@ -379,33 +1238,40 @@ public class VectorStoreService {
             logVectorUnavailableOnce("createVectorIndex");
             return;
         }
-        String indexName = "idx_" + tableName + "_embedding";
+        String indexName = searchIndexName();
+        String indexColumn = searchIndexColumn();
         jdbcTemplate.execute("DROP INDEX IF EXISTS " + indexName);
+        String indexType = resolveIndexType(config.getIndexType());
+        String sql = vectorIndexSql(indexName, indexColumn, false);
+        jdbcTemplate.execute(sql);
+        log.info("Created {} index on {}.{} with dimension={}",
+                indexType.toUpperCase(Locale.ROOT), tableName, indexColumn,
+                twoStageSearchEnabled() ? config.getCoarseDimension() : positiveDimension());
+    }
+
+    private String vectorIndexSql(String indexName, String indexColumn, boolean concurrently) {
         String indexType = resolveIndexType(config.getIndexType());
         String opClass = resolveVectorOpClass(config.getMetric());
-        String sql;
+        String create = concurrently ? "CREATE INDEX CONCURRENTLY " : "CREATE INDEX ";
         if ("hnsw".equals(indexType)) {
-            sql = String.format(
-                    "CREATE INDEX %s " +
-                            "ON %s USING hnsw ((%s) %s) " +
+            return String.format(
+                    create + "%s " +
+                            "ON %s USING hnsw (%s %s) " +
                             "WITH (m = %d, ef_construction = %d)",
                     indexName,
                     tableName,
-                    normalizedEmbeddingExpression(),
+                    indexColumn,
                     opClass,
                     config.getM(),
                     config.getEfConstruction());
-        } else {
-            sql = String.format(
-                    "CREATE INDEX %s " +
-                            "ON %s USING ivfflat ((%s) %s)",
-                    indexName,
-                    tableName,
-                    normalizedEmbeddingExpression(),
-                    opClass);
         }
-        jdbcTemplate.execute(sql);
-        log.info("Created {} index on {}.embedding with dimension={}", indexType.toUpperCase(Locale.ROOT), tableName, positiveDimension());
+        return String.format(
+                create + "%s " +
+                        "ON %s USING ivfflat (%s %s)",
+                indexName,
+                tableName,
+                indexColumn,
+                opClass);
     }
 
     private boolean initializeVectorSupport() {
@@ -423,6 +1289,17 @@ public class VectorStoreService {
                     "SELECT EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'vector')",
                     Boolean.class);
             if (Boolean.TRUE.equals(exists)) {
+                ensureEmbeddingColumnSafely();
+                if (twoStageSearchConfigured()) {
+                    coarseColumnAvailable = detectCoarseEmbeddingColumn();
+                    coarseBackfillComplete = coarseColumnAvailable
+                            && isValidIndex(coarseIndexName())
+                            && detectCoarseBackfillComplete();
+                }
+                scopeColumnsAvailable = detectScopeColumns();
+                iterativeScanSupported = detectIterativeScanSupport();
+                candidateSummaryAvailable = detectCandidateSummaryTable();
+                lexicalSearchAvailable = detectLexicalColumn();
                 return true;
             }
         } catch (Exception e) {
@@ -432,6 +1309,256 @@ public class VectorStoreService {
         return false;
     }
 
+    private void ensureEmbeddingColumnSafely() {
+        try {
+            ensureEmbeddingColumn();
+        } catch (Exception e) {
+            log.warn("Failed to verify vector column {}.{}: {}", tableName, EMBEDDING_COLUMN, e.getMessage());
+        }
+    }
+
+    /**
+     * 确保原生 vector 列存在 (Flyway V7 只覆盖默认表名；自定义表或迁移后才装上扩展时在此补齐)
+     */
+    private void ensureEmbeddingColumn() {
+        String expectedVectorType = vectorType();
+        List<String> columnTypes = jdbcTemplate.queryForList(
+                "SELECT format_type(a.atttypid, a.atttypmod) FROM pg_attribute a "
+                        + "WHERE a.attrelid = to_regclass(?) AND a.attname = ? AND NOT a.attisdropped",
+                String.class,
+                tableName,
+                EMBEDDING_COLUMN);
+        if (!columnTypes.isEmpty()) {
+            String actualVectorType = columnTypes.get(0);
+            if (actualVectorType != null && !expectedVectorType.equalsIgnoreCase(actualVectorType)) {
+                log.warn("Vector column {}.{} is {}, but app.vector.dimension expects {}; writes will fail until the column is migrated.",
+                        tableName, EMBEDDING_COLUMN, actualVectorType, expectedVectorType);
+            }
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE " + tableName
+                + " ADD COLUMN IF NOT EXISTS " + EMBEDDING_COLUMN + " " + expectedVectorType);
+        backfillEmbeddingColumn();
+    }
+
+    /**
+     * 将旧 TEXT 列 ({1,2,3}) 分批回填到原生 vector 列，每批独立提交
+     */
+    private void backfillEmbeddingColumn() {
+        String sql = "UPDATE " + tableName
+                + " SET " + EMBEDDING_COLUMN + " = embedding::real[]::" + vectorType()
+                + " WHERE id IN (SELECT id FROM " + tableName
+                + " WHERE " + EMBEDDING_COLUMN + " IS NULL AND embedding IS NOT NULL"
+                + " AND cardinality(embedding::real[]) = ? LIMIT ?)";
+        long total = 0;
+        try {
+            int updated;
+            do {
+                updated = jdbcTemplate.update(sql, positiveDimension(), BACKFILL_BATCH_SIZE);
+                total += updated;
+            } while (updated > 0);
+        } catch (Exception e) {
+            log.warn("Failed to backfill {}.{} from legacy text embeddings: {}", tableName, EMBEDDING_COLUMN, e.getMessage());
+        }
+        if (total > 0) {
+            log.info("Backfilled {} rows into {}.{}", total, tableName, EMBEDDING_COLUMN);
+        }
+    }
+
+    /**
+     * 应用就绪后在后台准备两阶段检索，启动与已有的全维检索不受影响
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startTwoStageSearchPreparation() {
+        if (!config.isEnabled() || !vectorAvailable || !twoStageSearchConfigured()) {
+            return;
+        }
+        Thread thread = new Thread(this::prepareTwoStageSearch, "coarse-embedding-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 补齐前缀列 -> 分批回填 -> 并发建前缀索引 -> 切换到两阶段检索 -> 并发删除全维索引。
+     * 每一步都可重复执行；任何一步失败都保持全维检索，下次启动继续。
+     * 之后关闭 coarse-dimension 时，全维索引由 ensureIndexCompatibility 在启动时重建。
+     */
+    boolean prepareTwoStageSearch() {
+        try {
+            if (!coarseColumnAvailable) {
+                coarseColumnAvailable = ensureCoarseEmbeddingColumn();
+                if (!coarseColumnAvailable) {
+                    return false;
+                }
+            }
+            if (!coarseBackfillComplete) {
+                if (!backfillCoarseEmbeddings()) {
+                    log.warn("Coarse vector column {}.{} is not fully backfilled; two-stage search stays on the full-dimension index.",
+                            tableName, COARSE_EMBEDDING_COLUMN);
+                    return false;
+                }
+                ensureCoarseIndex();
+                coarseBackfillComplete = true;
+                log.info("Two-stage search enabled on {}.{} (dimension={})",
+                        tableName, COARSE_EMBEDDING_COLUMN, config.getCoarseDimension());
+            }
+            // 两阶段检索只走前缀索引，全维索引只会占用内存
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + fullIndexName());
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to prepare two-stage search on {}: {}", tableName, e.getMessage());
+            return false;
+        }
+    }
+
+    private String coarseColumnType() {
+        List<String> columnTypes = jdbcTemplate.queryForList(
+                "SELECT format_type(a.atttypid, a.atttypmod) FROM pg_attribute a "
+                        + "WHERE a.attrelid = to_regclass(?) AND a.attname = ? AND NOT a.attisdropped",
+                String.class,
+                tableName,
+                COARSE_EMBEDDING_COLUMN);
+        return columnTypes.isEmpty() ? null : columnTypes.get(0);
+    }
+
+    /**
+     * 前缀列维度与配置不一致时不写入也不检索该列，也不会被删除重建
+     */
+    private boolean detectCoarseEmbeddingColumn() {
+        try {
+            String columnType = coarseColumnType();
+            if (columnType == null) {
+                return false;
+            }
+            if (!coarseVectorType().equalsIgnoreCase(columnType)) {
+                log.warn("Coarse vector column {}.{} is {}, but app.vector.coarse-dimension expects {}; "
+                                + "two-stage search falls back to the full-dimension index until the column is migrated.",
+                        tableName, COARSE_EMBEDDING_COLUMN, columnType, coarseVectorType());
+                return false;
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to detect coarse vector column {}.{}: {}", tableName, COARSE_EMBEDDING_COLUMN, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 新增可空列只改元数据，不重写表；列已存在时只校验维度
+     */
+    private boolean ensureCoarseEmbeddingColumn() {
+        if (coarseColumnType() == null) {
+            jdbcTemplate.execute("ALTER TABLE " + tableName
+                    + " ADD COLUMN IF NOT EXISTS " + COARSE_EMBEDDING_COLUMN + " " + coarseVectorType());
+        }
+        return detectCoarseEmbeddingColumn();
+    }
+
+    /**
+     * 按主键游标分批回填，每批一条查询加一次批量更新，各自提交。
+     * 前缀在 Java 中按写入路径同样的 truncateAndNormalize 计算，不依赖 pgvector >= 0.7 的 subvector / l2_normalize。
+     */
+    private boolean backfillCoarseEmbeddings() {
+        String selectSql = "SELECT id, " + EMBEDDING_COLUMN + "::real[] AS embedding FROM " + tableName
+                + " WHERE id > ? AND " + COARSE_EMBEDDING_COLUMN + " IS NULL AND " + EMBEDDING_COLUMN + " IS NOT NULL"
+                + " ORDER BY id LIMIT ?";
+        String updateSql = "UPDATE " + tableName + " SET " + COARSE_EMBEDDING_COLUMN + " = ?::" + coarseVectorType()
+                + " WHERE id = ? AND " + COARSE_EMBEDDING_COLUMN + " IS NULL";
+        long total = 0;
+        for (int pass = 0; pass < COARSE_BACKFILL_MAX_PASSES; pass++) {
+            if (detectCoarseBackfillComplete()) {
+                if (total > 0) {
+                    log.info("Backfilled {} rows into {}.{}", total, tableName, COARSE_EMBEDDING_COLUMN);
+                }
+                return true;
+            }
+            UUID cursor = new UUID(0L, 0L);
+            while (true) {
+                List<CoarseBackfillRow> rows = jdbcTemplate.query(
+                        selectSql,
+                        (rs, rowNum) -> new CoarseBackfillRow(
+                                rs.getObject("id", UUID.class),
+                                toFloatArray(rs.getArray("embedding").getArray())),
+                        cursor,
+                        COARSE_BACKFILL_BATCH_SIZE);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                List<Object[]> updates = new ArrayList<>(rows.size());
+                for (CoarseBackfillRow row : rows) {
+                    updates.add(new Object[] {coarseVectorToString(row.embedding()), row.id()});
+                }
+                jdbcTemplate.batchUpdate(updateSql, updates);
+                total += updates.size();
+                cursor = rows.get(rows.size() - 1).id();
+            }
+        }
+        return detectCoarseBackfillComplete();
+    }
+
+    private static float[] toFloatArray(Object array) {
+        Object[] values = (Object[]) array;
+        float[] vector = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            vector[i] = ((Number) values[i]).floatValue();
+        }
+        return vector;
+    }
+
+    /**
+     * 只要还有全维向量未回填前缀，ANN 召回就会漏掉这些行，此时继续使用全维索引
+     */
+    private boolean detectCoarseBackfillComplete() {
+        try {
+            Boolean complete = jdbcTemplate.queryForObject(
+                    "SELECT NOT EXISTS (SELECT 1 FROM " + tableName + " WHERE " + EMBEDDING_COLUMN
+                            + " IS NOT NULL AND " + COARSE_EMBEDDING_COLUMN + " IS NULL)",
+                    Boolean.class);
+            return Boolean.TRUE.equals(complete);
+        } catch (Exception e) {
+            log.warn("Failed to check coarse vector backfill on {}: {}", tableName, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 前缀索引并发创建，不阻塞写入；上次中断留下的无效索引先删除再重建
+     */
+    private void ensureCoarseIndex() {
+        String indexName = coarseIndexName();
+        List<Boolean> valid = indexValidity(indexName);
+        if (!valid.isEmpty() && Boolean.TRUE.equals(valid.get(0))) {
+            return;
+        }
+        if (!valid.isEmpty()) {
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + indexName);
+        }
+        jdbcTemplate.execute(vectorIndexSql(indexName, COARSE_EMBEDDING_COLUMN, true));
+        log.info("Created {} index {} on {}.{} with dimension={}",
+                resolveIndexType(config.getIndexType()).toUpperCase(Locale.ROOT), indexName,
+                tableName, COARSE_EMBEDDING_COLUMN, config.getCoarseDimension());
+    }
+
+    private boolean isValidIndex(String indexName) {
+        try {
+            List<Boolean> valid = indexValidity(indexName);
+            return !valid.isEmpty() && Boolean.TRUE.equals(valid.get(0));
+        } catch (Exception e) {
+            log.warn("Failed to check vector index {}: {}", indexName, e.getMessage());
+            return false;
+        }
+    }
+
+    private List<Boolean> indexValidity(String indexName) {
+        return jdbcTemplate.queryForList(
+                "SELECT i.indisvalid FROM pg_index i WHERE i.indexrelid = to_regclass(?)",
+                Boolean.class,
+                indexName);
+    }
+
+    private record CoarseBackfillRow(UUID id, float[] embedding) {
+    }
+
     private void logVectorUnavailableOnce(String operation) {
         if (vectorUnavailableLogged.compareAndSet(false, true)) {
             log.warn("Skip vector operation '{}' because pgvector extension is unavailable.", operation);
@@ -464,10 +1591,10 @@ public class VectorStoreService {
             return;
         }
 
-        String indexName = "idx_" + tableName + "_embedding";
-        int expectedDimension = positiveDimension();
+        String indexName = searchIndexName();
+        String indexColumn = searchIndexColumn();
+        int expectedDimension = twoStageSearchEnabled() ? config.getCoarseDimension() : positiveDimension();
         String expectedIndexType = getResolvedIndexType();
-        String expectedVectorType = "vector(" + expectedDimension + ")";
         String expectedOpClass = resolveVectorOpClass(config.getMetric());
         try {
             String indexDef = jdbcTemplate.query(
@@ -483,7 +1610,7 @@ public class VectorStoreService {
             String normalizedIndexDef = indexDef.toLowerCase(Locale.ROOT);
             if (normalizedIndexDef.contains("using " + expectedIndexType)
                     && normalizedIndexDef.contains(expectedOpClass)
-                    && normalizedIndexDef.contains(expectedVectorType)) {
+                    && normalizedIndexDef.contains("(" + indexColumn + " ")) {
                 return;
             }
             log.warn("Detected incompatible vector index '{}': {}. Rebuilding with type={}, opclass={}, dimension={}.",
@@ -495,9 +1622,71 @@ public class VectorStoreService {
         }
     }
 
-    private String normalizedEmbeddingExpression() {
-        // JPA float[] 在 PostgreSQL text 列里通常是 {1,2,3}，需转成 pgvector 输入格式 [1,2,3]
-        return "REPLACE(REPLACE(embedding, '{', '['), '}', ']')::vector(" + positiveDimension() + ")";
+    private String vectorType() {
+        return "vector(" + positiveDimension() + ")";
+    }
+
+    private String coarseVectorType() {
+        return "vector(" + config.getCoarseDimension() + ")";
+    }
+
+    private boolean twoStageSearchConfigured() {
+        int coarseDimension = config.getCoarseDimension();
+        return coarseDimension > 0 && coarseDimension < config.getDimension();
+    }
+
+    private boolean twoStageSearchEnabled() {
+        return twoStageSearchConfigured() && coarseColumnAvailable && coarseBackfillComplete;
+    }
+
+    /**
+     * 前缀列可用即同步写入，回填未完成期间新入库的行也不会留下缺口
+     */
+    private boolean writeCoarseColumn() {
+        return twoStageSearchConfigured() && coarseColumnAvailable;
+    }
+
+    /**
+     * ANN 索引所在列：两阶段检索时只索引前缀列，全维列仅用于重排与精确扫描
+     */
+    private String searchIndexColumn() {
+        return twoStageSearchEnabled() ? COARSE_EMBEDDING_COLUMN : EMBEDDING_COLUMN;
+    }
+
+    private String searchIndexName() {
+        return twoStageSearchEnabled() ? coarseIndexName() : fullIndexName();
+    }
+
+    private String fullIndexName() {
+        return "idx_" + tableName + "_embedding";
+    }
+
+    private String coarseIndexName() {
+        return "idx_" + tableName + "_embedding_coarse";
+    }
+
+    private String coarseVectorToString(float[] vector) {
+        validateVectorInput(vector, "vector");
+        return formatVector(truncateAndNormalize(vector, config.getCoarseDimension()));
+    }
+
+    /**
+     * Matryoshka 截断：取前 dimension 维并重新做 L2 归一化
+     */
+    static float[] truncateAndNormalize(float[] vector, int dimension) {
+        float[] prefix = Arrays.copyOf(vector, dimension);
+        double norm = 0.0;
+        for (float value : prefix) {
+            norm += (double) value * value;
+        }
+        if (norm <= 0.0) {
+            return prefix;
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < prefix.length; i++) {
+            prefix[i] *= scale;
+        }
+        return prefix;
     }
 
     private static String resolveVectorOpClass(String metric) {
@@ -564,6 +1753,17 @@ public class VectorStoreService {
         return value;
     }
 
+    /**
+     * 候选人 ID 列表以单个 uuid[] 文本参数绑定，语句与绑定参数个数不随候选人数量增长
+     */
+    private static String uuidArrayToString(Collection<UUID> ids) {
+        StringJoiner joiner = new StringJoiner(",", "{", "}");
+        for (UUID id : ids) {
+            joiner.add(String.valueOf(id));
+        }
+        return joiner.toString();
+    }
+
     private static void appendPlaceholders(StringBuilder sql, int count) {
         for (int i = 0; i < count; i++) {
             if (i > 0) {
@@ -574,10 +1774,21 @@ public class VectorStoreService {
     }
 
     private List<SearchResult> executeSearch(String sql, List<Object> args) {
+        return executeRankedSearch(sql, args).results();
+    }
+
+    private ChunkSearchRows executeRankedSearch(String sql, List<Object> args) {
         List<Map<String, Object>> results = jdbcTemplate.queryForList(sql, args.toArray());
 
+        int rankedRows = 0;
         List<SearchResult> searchResults = new ArrayList<>();
         for (Map<String, Object> row : results) {
+            if (row.get("ranked_rows") instanceof Number number) {
+                rankedRows = number.intValue();
+            }
+            if (row.get("id") == null) {
+                continue;
+            }
             float distance = ((Number) row.get("distance")).floatValue();
             ChunkType chunkType = parseChunkType(row.get("chunk_type"));
             if (chunkType == null) {
@@ -593,7 +1804,40 @@ public class VectorStoreService {
         }
 
         log.debug("Vector search returned {} results", searchResults.size());
-        return searchResults;
+        return new ChunkSearchRows(searchResults, rankedRows);
+    }
+
+    private CandidateSearchRows executeCandidateSearch(String sql, List<Object> args) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql, args.toArray());
+
+        int rankedRows = 0;
+        Map<UUID, CandidateSearchResult> candidates = new LinkedHashMap<>();
+        for (Map<String, Object> row : rows) {
+            if (row.get("ranked_rows") instanceof Number number) {
+                rankedRows = number.intValue();
+            }
+            if (row.get("id") == null) {
+                continue;
+            }
+            ChunkType chunkType = parseChunkType(row.get("chunk_type"));
+            if (chunkType == null) {
+                log.warn("Skip invalid vector search row with unknown chunk_type: {}", row.get("chunk_type"));
+                continue;
+            }
+            UUID candidateId = (UUID) row.get("candidate_id");
+            float score = ((Number) row.get("score")).floatValue();
+            candidates.computeIfAbsent(candidateId, id -> new CandidateSearchResult(id, score, new ArrayList<>()))
+                    .matchedChunks()
+                    .add(new SearchResult(
+                            (UUID) row.get("id"),
+                            candidateId,
+                            chunkType,
+                            (String) row.get("content"),
+                            ((Number) row.get("distance")).floatValue()));
+        }
+
+        log.debug("Vector candidate search returned {} candidates from {} chunk rows", candidates.size(), rankedRows);
+        return new CandidateSearchRows(List.copyOf(candidates.values()), rankedRows);
     }
 
     private static float maxDistanceForMinScore(float minScore) {
@@ -622,6 +1866,58 @@ public class VectorStoreService {
         }
     }
 
+    /**
+     * 候选人级检索参数：加权配置、返回候选人数量与是否只保留向量任务已完成的候选人
+     */
+    public record CandidateAggregation(
+            int candidateTopK,
+            float experienceWeight,
+            float skillWeight,
+            boolean onlyVectorReadyCandidates) {
+    }
+
+    /**
+     * 候选人级检索结果，matchedChunks 按距离升序
+     */
+    public record CandidateSearchResult(
+            UUID candidateId,
+            float score,
+            List<SearchResult> matchedChunks) {
+    }
+
+    /**
+     * 词法检索命中的 chunk，rank 为 ts_rank，越大越相关
+     */
+    public record LexicalMatch(
+            UUID id,
+            UUID candidateId,
+            ChunkType chunkType,
+            String content,
+            float rank) {
+    }
+
+    private record ExactScanScope(
+            UUID tenantId,
+            UUID jobDescriptionId,
+            String chunkTypeFilter) {
+    }
+
+    private record ChunkSearchRows(
+            List<SearchResult> results,
+            int rankedRows) {
+    }
+
+    private record CandidateSearchRows(
+            List<CandidateSearchResult> candidates,
+            int rankedRows) {
+    }
+
+    public record ChunkWrite(
+            UUID candidateId,
+            ChunkType chunkType,
+            String content) {
+    }
+
     public record SearchScope(
             UUID tenantId,
             UUID createdByUserId,
@@ -35,11 +35,27 @@ public class UploadBatch {
     @Column(name = "total_files")
     private Integer totalFiles;
 
-    @Column(name = "processed_files")
+    // 进度计数与状态由 upload_items 触发器 (V10) 或聚合刷新维护，实体更新不回写，避免覆盖并发计数
+    @Column(name = "processed_files", updatable = false)
     private Integer processedFiles;
 
+    @Column(name = "queued_files", nullable = false, updatable = false)
+    private Integer queuedFiles;
+
+    @Column(name = "processing_files", nullable = false, updatable = false)
+    private Integer processingFiles;
+
+    @Column(name = "done_files", nullable = false, updatable = false)
+    private Integer doneFiles;
+
+    @Column(name = "duplicate_files", nullable = false, updatable = false)
+    private Integer duplicateFiles;
+
+    @Column(name = "failed_files", nullable = false, updatable = false)
+    private Integer failedFiles;
+
     @Enumerated(EnumType.STRING)
-    @Column(name = "status", length = 32, nullable = false)
+    @Column(name = "status", length = 32, nullable = false, updatable = false)
     private UploadBatchStatus status;
 
     @Column(name = "created_at", updatable = false)
@@ -56,6 +72,11 @@ public class UploadBatch {
         this.jobDescription = jobDescription;
         this.totalFiles = totalFiles;
         this.processedFiles = 0;
+        this.queuedFiles = 0;
+        this.processingFiles = 0;
+        this.doneFiles = 0;
+        this.duplicateFiles = 0;
+        this.failedFiles = 0;
         this.status = UploadBatchStatus.PROCESSING;
     }
 
@@ -102,6 +123,26 @@ public class UploadBatch {
         this.processedFiles = processedFiles;
     }
 
+    public Integer getQueuedFiles() {
+        return queuedFiles;
+    }
+
+    public Integer getProcessingFiles() {
+        return processingFiles;
+    }
+
+    public Integer getDoneFiles() {
+        return doneFiles;
+    }
+
+    public Integer getDuplicateFiles() {
+        return duplicateFiles;
+    }
+
+    public Integer getFailedFiles() {
+        return failedFiles;
+    }
+
     public UploadBatchStatus getStatus() {
         return status;
     }
@@ -49,6 +49,12 @@ public class UploadItem {
     @Column(name = "storage_path", columnDefinition = "TEXT")
     private String storagePath;
 
+    @Column(name = "file_hash", length = 64)
+    private String fileHash;
+
+    @Column(name = "file_size_bytes")
+    private Long fileSizeBytes;
+
     @Column(name = "attempt")
     private Integer attempt;
 
@@ -139,6 +145,22 @@ public class UploadItem {
         this.storagePath = storagePath;
     }
 
+    public String getFileHash() {
+        return fileHash;
+    }
+
+    public void setFileHash(String fileHash) {
+        this.fileHash = fileHash;
+    }
+
+    public Long getFileSizeBytes() {
+        return fileSizeBytes;
+    }
+
+    public void setFileSizeBytes(Long fileSizeBytes) {
+        this.fileSizeBytes = fileSizeBytes;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
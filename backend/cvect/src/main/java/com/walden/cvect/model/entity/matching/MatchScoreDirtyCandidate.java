@@ -0,0 +1,96 @@
+package com.walden.cvect.model.entity.matching;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * JD 下待重算匹配分的候选人；JD 刷新任务非 full_refresh 时只对这些候选人打分
+ */
+@Entity
+@Table(
+        name = "match_score_dirty_candidates",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_match_score_dirty_candidates_jd_candidate",
+                columnNames = {"jd_id", "candidate_id"})
+)
+public class MatchScoreDirtyCandidate implements Persistable<UUID> {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "jd_id", nullable = false)
+    private UUID jobDescriptionId;
+
+    @Column(name = "candidate_id", nullable = false)
+    private UUID candidateId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // 主键由应用指定，显式标记新实体，避免 save 走 merge 覆盖并发插入的行
+    @Transient
+    private boolean newEntity = true;
+
+    protected MatchScoreDirtyCandidate() {
+    }
+
+    public MatchScoreDirtyCandidate(UUID jobDescriptionId, UUID candidateId) {
+        this.id = UUID.randomUUID();
+        this.jobDescriptionId = jobDescriptionId;
+        this.candidateId = candidateId;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+
+    @PrePersist
+    void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public UUID getJobDescriptionId() {
+        return jobDescriptionId;
+    }
+
+    public UUID getCandidateId() {
+        return candidateId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public UUID getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MatchScoreDirtyCandidate that = (MatchScoreDirtyCandidate) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
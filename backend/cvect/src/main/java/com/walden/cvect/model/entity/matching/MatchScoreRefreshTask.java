@@ -0,0 +1,155 @@
+package com.walden.cvect.model.entity.matching;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+import org.hibernate.annotations.Check;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * JD 匹配分刷新任务：每个 JD 至多一行，重复请求合并到同一行 (去抖)；
+ * 处理中再次收到请求时只置 rerun_requested，完成后重新排队而不是并发重算
+ */
+@Entity
+@Table(
+        name = "match_score_refresh_tasks",
+        indexes = @Index(name = "idx_match_score_refresh_status_not_before", columnList = "status,not_before")
+)
+@Check(constraints = "status in ('PENDING','PROCESSING')")
+public class MatchScoreRefreshTask implements Persistable<UUID> {
+
+    @Id
+    @Column(name = "jd_id")
+    private UUID jobDescriptionId;
+
+    @Column(name = "full_refresh", nullable = false)
+    private boolean fullRefresh;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 32)
+    private MatchScoreRefreshTaskStatus status;
+
+    @Column(name = "rerun_requested", nullable = false)
+    private boolean rerunRequested;
+
+    @Column(name = "attempt", nullable = false)
+    private Integer attempt;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "requested_at", nullable = false)
+    private LocalDateTime requestedAt;
+
+    @Column(name = "not_before", nullable = false)
+    private LocalDateTime notBefore;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // 主键由应用指定，显式标记新实体，避免 save 走 merge 覆盖并发插入的行
+    @Transient
+    private boolean newEntity = true;
+
+    protected MatchScoreRefreshTask() {
+    }
+
+    public MatchScoreRefreshTask(UUID jobDescriptionId, boolean fullRefresh, LocalDateTime notBefore) {
+        LocalDateTime now = LocalDateTime.now();
+        this.jobDescriptionId = jobDescriptionId;
+        this.fullRefresh = fullRefresh;
+        this.status = MatchScoreRefreshTaskStatus.PENDING;
+        this.rerunRequested = false;
+        this.attempt = 0;
+        this.requestedAt = now;
+        this.notBefore = notBefore == null ? now : notBefore;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+
+    @PrePersist
+    void onCreate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public UUID getJobDescriptionId() {
+        return jobDescriptionId;
+    }
+
+    public boolean isFullRefresh() {
+        return fullRefresh;
+    }
+
+    public MatchScoreRefreshTaskStatus getStatus() {
+        return status;
+    }
+
+    public boolean isRerunRequested() {
+        return rerunRequested;
+    }
+
+    public Integer getAttempt() {
+        return attempt;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public LocalDateTime getRequestedAt() {
+        return requestedAt;
+    }
+
+    public LocalDateTime getNotBefore() {
+        return notBefore;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @Override
+    public UUID getId() {
+        return jobDescriptionId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MatchScoreRefreshTask that = (MatchScoreRefreshTask) o;
+        return Objects.equals(jobDescriptionId, that.jobDescriptionId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(jobDescriptionId);
+    }
+}
@@ -0,0 +1,6 @@
+package com.walden.cvect.model.entity.matching;
+
+public enum MatchScoreRefreshTaskStatus {
+    PENDING,
+    PROCESSING
+}
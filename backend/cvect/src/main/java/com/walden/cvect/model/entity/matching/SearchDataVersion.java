@@ -0,0 +1,39 @@
+package com.walden.cvect.model.entity.matching;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 租户检索数据版本，随向量写入与删除单调递增；读写走 SearchDataVersionRepository (JDBC)，实体只描述表结构
+ */
+@Entity
+@Table(name = "search_data_versions")
+public class SearchDataVersion {
+
+    @Id
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    protected SearchDataVersion() {
+    }
+
+    public UUID getTenantId() {
+        return tenantId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
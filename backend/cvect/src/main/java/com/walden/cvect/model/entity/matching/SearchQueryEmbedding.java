@@ -0,0 +1,102 @@
+package com.walden.cvect.model.entity.matching;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * 检索 query embedding 持久层：按 (模型, 维度, SearchCacheKeys.queryEmbedding) 定位，
+ * 向量以 little-endian float32 字节存储；读写走 SearchQueryEmbeddingRepository (JDBC)，实体只描述表结构
+ */
+@Entity
+@Table(
+        name = "search_query_embeddings",
+        indexes = @Index(
+                name = "idx_search_query_embeddings_last_used",
+                columnList = "model_name, dimension, last_used_at"))
+@IdClass(SearchQueryEmbedding.Key.class)
+public class SearchQueryEmbedding {
+
+    @Id
+    @Column(name = "model_name", nullable = false, length = 200)
+    private String modelName;
+
+    @Id
+    @Column(name = "dimension", nullable = false)
+    private Integer dimension;
+
+    @Id
+    @Column(name = "query_key", nullable = false, length = 80)
+    private String queryKey;
+
+    @Column(name = "embedding", nullable = false, length = 16384)
+    private byte[] embedding;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "last_used_at", nullable = false)
+    private LocalDateTime lastUsedAt;
+
+    protected SearchQueryEmbedding() {
+    }
+
+    public String getModelName() {
+        return modelName;
+    }
+
+    public Integer getDimension() {
+        return dimension;
+    }
+
+    public String getQueryKey() {
+        return queryKey;
+    }
+
+    public byte[] getEmbedding() {
+        return embedding;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    public static class Key implements Serializable {
+        private String modelName;
+        private Integer dimension;
+        private String queryKey;
+
+        public Key() {
+        }
+
+        public Key(String modelName, Integer dimension, String queryKey) {
+            this.modelName = modelName;
+            this.dimension = dimension;
+            this.queryKey = queryKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return Objects.equals(modelName, key.modelName)
+                    && Objects.equals(dimension, key.dimension)
+                    && Objects.equals(queryKey, key.queryKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(modelName, dimension, queryKey);
+        }
+    }
+}
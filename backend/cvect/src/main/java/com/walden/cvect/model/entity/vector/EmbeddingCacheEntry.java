@@ -0,0 +1,91 @@
+package com.walden.cvect.model.entity.vector;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * 文本内容 embedding 缓存：按 (模型, 维度, 规范化文本 SHA-256) 定位，
+ * 向量以 little-endian float32 字节存储；读写走 EmbeddingCacheRepository (JDBC)，实体只描述表结构
+ */
+@Entity
+@Table(name = "embedding_cache")
+@IdClass(EmbeddingCacheEntry.Key.class)
+public class EmbeddingCacheEntry {
+
+    @Id
+    @Column(name = "model_name", nullable = false, length = 200)
+    private String modelName;
+
+    @Id
+    @Column(name = "dimension", nullable = false)
+    private Integer dimension;
+
+    @Id
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "embedding", nullable = false, length = 16384)
+    private byte[] embedding;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    protected EmbeddingCacheEntry() {
+    }
+
+    public String getModelName() {
+        return modelName;
+    }
+
+    public Integer getDimension() {
+        return dimension;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public byte[] getEmbedding() {
+        return embedding;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public static class Key implements Serializable {
+        private String modelName;
+        private Integer dimension;
+        private String contentHash;
+
+        public Key() {
+        }
+
+        public Key(String modelName, Integer dimension, String contentHash) {
+            this.modelName = modelName;
+            this.dimension = dimension;
+            this.contentHash = contentHash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return Objects.equals(modelName, key.modelName)
+                    && Objects.equals(dimension, key.dimension)
+                    && Objects.equals(contentHash, key.contentHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(modelName, dimension, contentHash);
+        }
+    }
+}
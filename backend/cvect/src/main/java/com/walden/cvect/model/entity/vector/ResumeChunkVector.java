@@ -40,8 +40,9 @@ public class ResumeChunkVector {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String content;
 
-    // H2兼容：使用 TEXT 存储（开发/测试环境）
-    // 生产环境通过 Hibernate 物理命名策略转换为 vector(app.vector.dimension)
+    // 旧的 TEXT 向量列（H2 兼容，仅保留给回滚）。
+    // PostgreSQL 下向量写入原生列 embedding_vector vector(app.vector.dimension)，由 VectorStoreService 通过 JDBC 读写，
+    // 该列不映射到实体以保持 H2 测试 schema 可用。
     @Convert(converter = FloatArrayTextConverter.class)
     @Column(columnDefinition = "TEXT")
     private float[] embedding;
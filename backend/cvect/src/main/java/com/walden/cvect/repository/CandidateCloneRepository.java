@@ -0,0 +1,77 @@
+package com.walden.cvect.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 候选人解析结果复制（JDBC facade）
+ *
+ * 同一文件投递到同租户的其它 JD 时，按源候选人整表 INSERT ... SELECT 复制结构化事实，
+ * 每张表一条语句，不经过实体加载。
+ */
+@Repository
+public class CandidateCloneRepository {
+
+    static final List<String> FACT_COPY_SQL = List.of(
+            """
+            INSERT INTO contacts (id, candidate_id, type, contact_value, created_at)
+            SELECT gen_random_uuid(), ?, type, contact_value, ?
+            FROM contacts WHERE candidate_id = ?
+            """,
+            """
+            INSERT INTO educations (id, candidate_id, school, major, degree, graduation_year, created_at)
+            SELECT gen_random_uuid(), ?, school, major, degree, graduation_year, ?
+            FROM educations WHERE candidate_id = ?
+            """,
+            """
+            INSERT INTO experiences (id, candidate_id, company, position, description, start_date, end_date, created_at)
+            SELECT gen_random_uuid(), ?, company, position, description, start_date, end_date, ?
+            FROM experiences WHERE candidate_id = ?
+            """,
+            """
+            INSERT INTO honors (id, candidate_id, content, created_at)
+            SELECT gen_random_uuid(), ?, content, ?
+            FROM honors WHERE candidate_id = ?
+            """,
+            """
+            INSERT INTO links (id, candidate_id, url, platform, created_at)
+            SELECT gen_random_uuid(), ?, url, platform, ?
+            FROM links WHERE candidate_id = ?
+            """);
+
+    // 已完成的向量任务一并复制，向量就绪判断 (DONE 且无在途任务) 对克隆出的候选人同样成立
+    static final String DONE_VECTOR_TASK_COPY_SQL = """
+            INSERT INTO vector_ingest_tasks (
+                id, candidate_id, chunk_type, content, status, attempt, created_at, updated_at)
+            SELECT gen_random_uuid(), ?, chunk_type, content, status, 0, ?, ?
+            FROM vector_ingest_tasks WHERE candidate_id = ? AND status = 'DONE'
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CandidateCloneRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return 复制的事实行数 (联系方式、教育、工作经历、荣誉、链接合计)
+     */
+    public int copyFacts(UUID sourceCandidateId, UUID targetCandidateId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int copied = 0;
+        for (String sql : FACT_COPY_SQL) {
+            copied += jdbcTemplate.update(sql, targetCandidateId, now, sourceCandidateId);
+        }
+        return copied;
+    }
+
+    public int copyDoneVectorTasks(UUID sourceCandidateId, UUID targetCandidateId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.update(DONE_VECTOR_TASK_COPY_SQL, targetCandidateId, now, now, sourceCandidateId);
+    }
+}
@@ -28,6 +28,8 @@ public interface CandidateJpaRepository extends JpaRepository<Candidate, UUID> {
 
     Optional<Candidate> findByTenantIdAndFileHashAndJobDescriptionIsNull(UUID tenantId, String fileHash);
 
+    List<Candidate> findTop5ByTenantIdAndFileHashOrderByCreatedAtDesc(UUID tenantId, String fileHash);
+
     long countByJobDescriptionId(UUID jobDescriptionId);
 
     long countByTenantIdAndJobDescriptionId(UUID tenantId, UUID jobDescriptionId);
@@ -92,6 +94,9 @@ public interface CandidateJpaRepository extends JpaRepository<Candidate, UUID> {
     @Query("select c.id from Candidate c where c.tenantId = :tenantId")
     List<UUID> findIdsByTenantId(@Param("tenantId") UUID tenantId);
 
+    @Query("select distinct c.tenantId from Candidate c where c.id in :ids")
+    List<UUID> findTenantIdsByIdIn(@Param("ids") Collection<UUID> ids);
+
     @Query("""
             select c.id from Candidate c
             where c.tenantId = :tenantId
@@ -0,0 +1,130 @@
+package com.walden.cvect.repository;
+
+import com.walden.cvect.model.entity.CandidateMatchScore;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * candidate_match_scores 批量写入（JDBC facade）
+ *
+ * 按 (tenant_id, candidate_id, jd_id) 唯一键 upsert，每条语句携带多行 VALUES，整个 JD 的重算只需几条语句；
+ * 分数未变化的行由 ON CONFLICT ... WHERE 跳过，不产生新的行版本，减少表与索引膨胀和 autovacuum 压力。
+ */
+@Repository
+public class CandidateMatchScoreBulkRepository {
+
+    // 8 个参数/行，500 行远低于 PostgreSQL 单语句 32767 个绑定参数的上限
+    static final int ROWS_PER_STATEMENT = 500;
+
+    private static final String UPSERT_PREFIX = """
+            INSERT INTO candidate_match_scores (
+                id, tenant_id, candidate_id, jd_id, overall_score, experience_score, skill_score, scored_at)
+            VALUES\s""";
+    private static final String UPSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPSERT_SUFFIX = """
+
+            ON CONFLICT (tenant_id, candidate_id, jd_id) DO UPDATE SET
+                overall_score = EXCLUDED.overall_score,
+                experience_score = EXCLUDED.experience_score,
+                skill_score = EXCLUDED.skill_score,
+                scored_at = EXCLUDED.scored_at
+            WHERE (candidate_match_scores.overall_score,
+                   candidate_match_scores.experience_score,
+                   candidate_match_scores.skill_score)
+                IS DISTINCT FROM (EXCLUDED.overall_score, EXCLUDED.experience_score, EXCLUDED.skill_score)
+            """;
+    private static final String DELETE_JD_EXCEPT_SQL =
+            "DELETE FROM candidate_match_scores WHERE jd_id = ? AND candidate_id <> ALL (?)";
+    private static final String DELETE_JD_SQL = "DELETE FROM candidate_match_scores WHERE jd_id = ?";
+    private static final String DELETE_JD_CANDIDATES_SQL =
+            "DELETE FROM candidate_match_scores WHERE jd_id = ? AND candidate_id = ANY (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CandidateMatchScoreBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return 实际插入或分数发生变化的行数
+     */
+    public int upsertAll(List<CandidateMatchScore> scores) {
+        if (scores == null || scores.isEmpty()) {
+            return 0;
+        }
+        int written = 0;
+        for (int from = 0; from < scores.size(); from += ROWS_PER_STATEMENT) {
+            List<CandidateMatchScore> chunk = scores.subList(from, Math.min(scores.size(), from + ROWS_PER_STATEMENT));
+            written += jdbcTemplate.update(upsertSql(chunk.size()), upsertArgs(chunk));
+        }
+        return written;
+    }
+
+    /**
+     * 删除 JD 下不在 keepCandidateIds 中的旧分数；候选人 ID 以单个 uuid[] 参数绑定，不展开 IN 列表
+     */
+    public int deleteByJobDescriptionIdExcept(UUID jobDescriptionId, Collection<UUID> keepCandidateIds) {
+        if (keepCandidateIds == null || keepCandidateIds.isEmpty()) {
+            return jdbcTemplate.update(DELETE_JD_SQL, jobDescriptionId);
+        }
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(DELETE_JD_EXCEPT_SQL);
+            Array keepIds = connection.createArrayOf("uuid", keepCandidateIds.toArray());
+            statement.setObject(1, jobDescriptionId);
+            statement.setArray(2, keepIds);
+            return statement;
+        });
+    }
+
+    /**
+     * 删除 JD 下指定候选人的分数；候选人 ID 同样以单个 uuid[] 参数绑定
+     */
+    public int deleteByJobDescriptionIdAndCandidateIds(UUID jobDescriptionId, Collection<UUID> candidateIds) {
+        if (candidateIds == null || candidateIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(DELETE_JD_CANDIDATES_SQL);
+            Array ids = connection.createArrayOf("uuid", candidateIds.toArray());
+            statement.setObject(1, jobDescriptionId);
+            statement.setArray(2, ids);
+            return statement;
+        });
+    }
+
+    static String upsertSql(int rows) {
+        StringBuilder sql = new StringBuilder();
+        sql.append(UPSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(UPSERT_ROW);
+        }
+        sql.append(UPSERT_SUFFIX);
+        return sql.toString();
+    }
+
+    private static Object[] upsertArgs(List<CandidateMatchScore> scores) {
+        List<Object> args = new ArrayList<>(scores.size() * 8);
+        for (CandidateMatchScore score : scores) {
+            args.add(score.getId() == null ? UUID.randomUUID() : score.getId());
+            args.add(score.getTenantId());
+            args.add(score.getCandidateId());
+            args.add(score.getJobDescriptionId());
+            args.add(score.getOverallScore());
+            args.add(score.getExperienceScore());
+            args.add(score.getSkillScore());
+            args.add(score.getScoredAt() == null ? null : Timestamp.valueOf(score.getScoredAt()));
+        }
+        return args.toArray();
+    }
+}
@@ -47,6 +47,13 @@ public interface CandidateMatchScoreJpaRepository extends JpaRepository<Candidat
             @Param("tenantId") UUID tenantId,
             @Param("candidateId") UUID candidateId);
 
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("delete from CandidateMatchScore c where c.candidateId = :candidateId "
+            + "and c.jobDescriptionId not in :jobDescriptionIds")
+    int deleteByCandidateIdAndJobDescriptionIdNotIn(
+            @Param("candidateId") UUID candidateId,
+            @Param("jobDescriptionIds") Collection<UUID> jobDescriptionIds);
+
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query("delete from CandidateMatchScore c where c.candidateId in :candidateIds")
     int deleteByCandidateIds(@Param("candidateIds") Collection<UUID> candidateIds);
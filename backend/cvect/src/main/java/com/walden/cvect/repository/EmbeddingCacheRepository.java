@@ -0,0 +1,102 @@
+package com.walden.cvect.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * embedding_cache 读写（JDBC facade）
+ *
+ * 向量按 little-endian float32 编码为 bytea，1024 维约 4KB；写入使用 ON CONFLICT DO NOTHING，
+ * 并发 ingest 同一文本时先写入者胜出，结果对同一模型是等价的。
+ */
+@Repository
+public class EmbeddingCacheRepository {
+
+    // 每条语句的 hash / 行数上限，避免 IN 列表和多行 VALUES 过长
+    static final int KEYS_PER_STATEMENT = 500;
+
+    private static final String SELECT_PREFIX =
+            "SELECT content_hash, embedding FROM embedding_cache WHERE model_name = ? AND dimension = ? AND content_hash IN (";
+    private static final String INSERT_SQL = """
+            INSERT INTO embedding_cache (model_name, dimension, content_hash, embedding, created_at)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (model_name, dimension, content_hash) DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EmbeddingCacheRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return contentHash -> 向量；未命中或维度不一致的条目不返回
+     */
+    public Map<String, float[]> findAll(String modelName, int dimension, Collection<String> contentHashes) {
+        if (contentHashes == null || contentHashes.isEmpty()) {
+            return Map.of();
+        }
+        List<String> hashes = List.copyOf(contentHashes);
+        Map<String, float[]> found = new HashMap<>();
+        for (int from = 0; from < hashes.size(); from += KEYS_PER_STATEMENT) {
+            List<String> chunk = hashes.subList(from, Math.min(hashes.size(), from + KEYS_PER_STATEMENT));
+            List<Object> args = new ArrayList<>(chunk.size() + 2);
+            args.add(modelName);
+            args.add(dimension);
+            args.addAll(chunk);
+            jdbcTemplate.query(selectSql(chunk.size()), rs -> {
+                float[] vector = decode(rs.getBytes("embedding"));
+                if (vector.length > 0 && (dimension <= 0 || vector.length == dimension)) {
+                    found.put(rs.getString("content_hash"), vector);
+                }
+            }, args.toArray());
+        }
+        return found;
+    }
+
+    public void insertAll(String modelName, int dimension, Map<String, float[]> embeddingsByHash) {
+        if (embeddingsByHash == null || embeddingsByHash.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(embeddingsByHash.size());
+        embeddingsByHash.forEach((hash, vector) ->
+                rows.add(new Object[] { modelName, dimension, hash, encode(vector), now }));
+        for (int from = 0; from < rows.size(); from += KEYS_PER_STATEMENT) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows.subList(from, Math.min(rows.size(), from + KEYS_PER_STATEMENT)));
+        }
+    }
+
+    static String selectSql(int keys) {
+        StringBuilder sql = new StringBuilder(SELECT_PREFIX);
+        for (int i = 0; i < keys; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(')').toString();
+    }
+
+    static byte[] encode(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    static float[] decode(byte[] bytes) {
+        if (bytes == null) {
+            return new float[0];
+        }
+        float[] vector = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+}
@@ -0,0 +1,42 @@
+package com.walden.cvect.repository;
+
+import com.walden.cvect.model.entity.matching.MatchScoreDirtyCandidate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface MatchScoreDirtyCandidateJpaRepository extends JpaRepository<MatchScoreDirtyCandidate, UUID> {
+
+    @Query("""
+            select d.candidateId
+            from MatchScoreDirtyCandidate d
+            where d.jobDescriptionId = :jobDescriptionId
+              and d.candidateId in :candidateIds
+            """)
+    List<UUID> findCandidateIdsByJobDescriptionIdAndCandidateIdIn(
+            @Param("jobDescriptionId") UUID jobDescriptionId,
+            @Param("candidateIds") Collection<UUID> candidateIds);
+
+    List<MatchScoreDirtyCandidate> findByJobDescriptionIdOrderByCreatedAtAsc(UUID jobDescriptionId, Pageable pageable);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("delete from MatchScoreDirtyCandidate d where d.id in :ids")
+    int deleteByIds(@Param("ids") Collection<UUID> ids);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            delete from MatchScoreDirtyCandidate d
+            where d.jobDescriptionId = :jobDescriptionId
+              and d.createdAt <= :createdAt
+            """)
+    int deleteByJobDescriptionIdCreatedUpTo(
+            @Param("jobDescriptionId") UUID jobDescriptionId,
+            @Param("createdAt") LocalDateTime createdAt);
+}
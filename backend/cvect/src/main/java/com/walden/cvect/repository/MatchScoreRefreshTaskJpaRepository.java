@@ -0,0 +1,175 @@
+package com.walden.cvect.repository;
+
+import com.walden.cvect.model.entity.matching.MatchScoreRefreshTask;
+import com.walden.cvect.model.entity.matching.MatchScoreRefreshTaskStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface MatchScoreRefreshTaskJpaRepository extends JpaRepository<MatchScoreRefreshTask, UUID> {
+
+    long countByStatus(MatchScoreRefreshTaskStatus status);
+
+    @Query("select min(t.requestedAt) from MatchScoreRefreshTask t")
+    LocalDateTime findOldestRequestedAt();
+
+    List<MatchScoreRefreshTask> findByStatusAndNotBeforeLessThanEqualOrderByNotBeforeAsc(
+            MatchScoreRefreshTaskStatus status,
+            LocalDateTime notBefore,
+            Pageable pageable);
+
+    List<MatchScoreRefreshTask> findTop50ByStatusAndStartedAtBeforeOrderByStartedAtAsc(
+            MatchScoreRefreshTaskStatus status,
+            LocalDateTime startedAt);
+
+    /**
+     * 合并刷新请求：已有任务时只升级 full_refresh；处理中的任务标记 rerun，完成后重新排队
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            update MatchScoreRefreshTask t
+            set t.fullRefresh = case when :fullRefresh = true then true else t.fullRefresh end,
+                t.rerunRequested = case when t.status = :processingStatus then true else t.rerunRequested end,
+                t.updatedAt = current_timestamp
+            where t.jobDescriptionId = :jobDescriptionId
+            """)
+    int mergeRequest(
+            @Param("jobDescriptionId") UUID jobDescriptionId,
+            @Param("fullRefresh") boolean fullRefresh,
+            @Param("processingStatus") MatchScoreRefreshTaskStatus processingStatus);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = """
+            WITH picked AS (
+              SELECT jd_id
+              FROM match_score_refresh_tasks
+              WHERE status = 'PENDING'
+                AND not_before <= current_timestamp
+              ORDER BY not_before ASC
+              FOR UPDATE SKIP LOCKED
+              LIMIT :batchSize
+            )
+            UPDATE match_score_refresh_tasks t
+            SET status = 'PROCESSING',
+                started_at = current_timestamp,
+                updated_at = current_timestamp
+            FROM picked
+            WHERE t.jd_id = picked.jd_id
+            RETURNING t.jd_id
+            """, nativeQuery = true)
+    List<UUID> claimDueBatch(@Param("batchSize") int batchSize);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            update MatchScoreRefreshTask t
+            set t.status = :processingStatus,
+                t.startedAt = current_timestamp,
+                t.updatedAt = current_timestamp
+            where t.jobDescriptionId = :jobDescriptionId
+              and t.status = :pendingStatus
+            """)
+    int claimPendingTaskById(
+            @Param("jobDescriptionId") UUID jobDescriptionId,
+            @Param("processingStatus") MatchScoreRefreshTaskStatus processingStatus,
+            @Param("pendingStatus") MatchScoreRefreshTaskStatus pendingStatus);
+
+    /**
+     * claim 后清掉 full_refresh，处理期间新到的 full 请求会重新置位并触发 rerun
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            update MatchScoreRefreshTask t
+            set t.fullRefresh = false
+            where t.jobDescriptionId in :jobDescriptionIds
+            """)
+    int clearFullRefresh(@Param("jobDescriptionIds") Collection<UUID> jobDescriptionIds);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            update MatchScoreRefreshTask t
+            set t.status = :pendingStatus,
+                t.rerunRequested = false,
+                t.attempt = 0,
+                t.errorMessage = null,
+                t.requestedAt = current_timestamp,
+                t.notBefore = :notBefore,
+                t.startedAt = null,
+                t.updatedAt = current_timestamp
+            where t.jobDescriptionId = :jobDescriptionId
+              and t.status = :processingStatus
+              and t.rerunRequested = true
+            """)
+    int requeueRerun(
+            @Param("jobDescriptionId") UUID jobDescriptionId,
+            @Param("notBefore") LocalDateTime notBefore,
+            @Param("pendingStatus") MatchScoreRefreshTaskStatus pendingStatus,
+            @Param("processingStatus") MatchScoreRefreshTaskStatus processingStatus);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            delete from MatchScoreRefreshTask t
+            where t.jobDescriptionId = :jobDescriptionId
+              and t.status = :processingStatus
+              and t.rerunRequested = false
+            """)
+    int deleteCompleted(
+            @Param("jobDescriptionId") UUID jobDescriptionId,
+            @Param("processingStatus") MatchScoreRefreshTaskStatus processingStatus);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            update MatchScoreRefreshTask t
+            set t.status = :pendingStatus,
+                t.fullRefresh = case when :fullRefresh = true then true else t.fullRefresh end,
+                t.rerunRequested = false,
+                t.attempt = :attempt,
+                t.errorMessage = :errorMessage,
+                t.notBefore = :notBefore,
+                t.startedAt = null,
+                t.updatedAt = current_timestamp
+            where t.jobDescriptionId = :jobDescriptionId
+              and t.status = :processingStatus
+            """)
+    int scheduleRetry(
+            @Param("jobDescriptionId") UUID jobDescriptionId,
+            @Param("fullRefresh") boolean fullRefresh,
+            @Param("attempt") int attempt,
+            @Param("errorMessage") String errorMessage,
+            @Param("notBefore") LocalDateTime notBefore,
+            @Param("pendingStatus") MatchScoreRefreshTaskStatus pendingStatus,
+            @Param("processingStatus") MatchScoreRefreshTaskStatus processingStatus);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            delete from MatchScoreRefreshTask t
+            where t.jobDescriptionId = :jobDescriptionId
+              and t.status = :processingStatus
+            """)
+    int deleteProcessing(
+            @Param("jobDescriptionId") UUID jobDescriptionId,
+            @Param("processingStatus") MatchScoreRefreshTaskStatus processingStatus);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            update MatchScoreRefreshTask t
+            set t.status = :pendingStatus,
+                t.errorMessage = :message,
+                t.notBefore = current_timestamp,
+                t.startedAt = null,
+                t.updatedAt = current_timestamp
+            where t.jobDescriptionId = :jobDescriptionId
+              and t.status = :processingStatus
+            """)
+    int recoverStaleProcessing(
+            @Param("jobDescriptionId") UUID jobDescriptionId,
+            @Param("message") String message,
+            @Param("pendingStatus") MatchScoreRefreshTaskStatus pendingStatus,
+            @Param("processingStatus") MatchScoreRefreshTaskStatus processingStatus);
+}
@@ -0,0 +1,52 @@
+package com.walden.cvect.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * search_data_versions 读写（JDBC facade）
+ *
+ * 递增使用单行 UPDATE version = version + 1，由行锁保证并发递增不丢失；
+ * 租户首次递增时插入 version = 1，并发插入冲突时退回 UPDATE。
+ */
+@Repository
+public class SearchDataVersionRepository {
+
+    private static final String SELECT_SQL = "SELECT version FROM search_data_versions WHERE tenant_id = ?";
+    private static final String INCREMENT_SQL =
+            "UPDATE search_data_versions SET version = version + 1, updated_at = ? WHERE tenant_id = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO search_data_versions (tenant_id, version, updated_at) VALUES (?, 1, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SearchDataVersionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return 当前版本；从未递增过的租户为 0
+     */
+    public long findVersion(UUID tenantId) {
+        List<Long> versions = jdbcTemplate.queryForList(SELECT_SQL, Long.class, tenantId);
+        return versions.isEmpty() || versions.get(0) == null ? 0L : versions.get(0);
+    }
+
+    public void increment(UUID tenantId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (jdbcTemplate.update(INCREMENT_SQL, now, tenantId) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(INSERT_SQL, tenantId, now);
+        } catch (DuplicateKeyException ex) {
+            jdbcTemplate.update(INCREMENT_SQL, now, tenantId);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.walden.cvect.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * search_query_embeddings 读写（JDBC facade）
+ *
+ * 向量编码与 embedding_cache 相同 (little-endian float32 bytea)。写入按主键 upsert，
+ * 并发写同一 query 时向量等价，只刷新 last_used_at。
+ */
+@Repository
+public class SearchQueryEmbeddingRepository {
+
+    private static final String SELECT_SQL = """
+            SELECT embedding FROM search_query_embeddings
+            WHERE model_name = ? AND dimension = ? AND query_key = ?
+            """;
+    private static final String SELECT_RECENT_SQL = """
+            SELECT query_key, embedding FROM search_query_embeddings
+            WHERE model_name = ? AND dimension = ?
+            ORDER BY last_used_at DESC
+            LIMIT ?
+            """;
+    private static final String UPSERT_SQL = """
+            INSERT INTO search_query_embeddings (model_name, dimension, query_key, embedding, created_at, last_used_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (model_name, dimension, query_key) DO UPDATE SET last_used_at = EXCLUDED.last_used_at
+            """;
+    private static final String TOUCH_SQL = """
+            UPDATE search_query_embeddings SET last_used_at = ?
+            WHERE model_name = ? AND dimension = ? AND query_key = ?
+            """;
+    private static final String DELETE_UNUSED_SQL =
+            "DELETE FROM search_query_embeddings WHERE last_used_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SearchQueryEmbeddingRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return 向量；未命中时返回 null
+     */
+    public float[] find(String modelName, int dimension, String queryKey) {
+        List<float[]> rows = jdbcTemplate.query(
+                SELECT_SQL,
+                (rs, rowNum) -> EmbeddingCacheRepository.decode(rs.getBytes("embedding")),
+                modelName, dimension, queryKey);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * @return queryKey -> 向量，按最近使用时间倒序
+     */
+    public Map<String, float[]> findRecent(String modelName, int dimension, int limit) {
+        Map<String, float[]> found = new LinkedHashMap<>();
+        if (limit <= 0) {
+            return found;
+        }
+        jdbcTemplate.query(SELECT_RECENT_SQL, rs -> {
+            found.put(rs.getString("query_key"), EmbeddingCacheRepository.decode(rs.getBytes("embedding")));
+        }, modelName, dimension, limit);
+        return found;
+    }
+
+    public void upsert(String modelName, int dimension, String queryKey, float[] embedding) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(UPSERT_SQL,
+                modelName, dimension, queryKey, EmbeddingCacheRepository.encode(embedding), now, now);
+    }
+
+    public void touch(String modelName, int dimension, String queryKey) {
+        jdbcTemplate.update(TOUCH_SQL, Timestamp.valueOf(LocalDateTime.now()), modelName, dimension, queryKey);
+    }
+
+    /**
+     * 删除 cutoff 之前未再使用的条目 (包括已切换掉的模型)
+     */
+    public int deleteUnusedBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update(DELETE_UNUSED_SQL, Timestamp.valueOf(cutoff));
+    }
+}
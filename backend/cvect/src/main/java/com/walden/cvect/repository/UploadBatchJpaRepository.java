@@ -1,12 +1,16 @@
 package com.walden.cvect.repository;
 
 import com.walden.cvect.model.entity.UploadBatch;
+import com.walden.cvect.model.entity.UploadBatchStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 public interface UploadBatchJpaRepository extends JpaRepository<UploadBatch, UUID> {
@@ -50,6 +54,11 @@ public interface UploadBatchJpaRepository extends JpaRepository<UploadBatch, UUI
     @Query(value = """
             UPDATE upload_batches b
             SET processed_files = agg.processed_files,
+                queued_files = agg.queued_count,
+                processing_files = agg.processing_count,
+                done_files = agg.done_count,
+                duplicate_files = agg.duplicate_count,
+                failed_files = agg.failed_count,
                 total_files = CASE
                   WHEN b.total_files IS NULL OR b.total_files <= 0 THEN agg.total_files
                   ELSE b.total_files
@@ -72,11 +81,45 @@ public interface UploadBatchJpaRepository extends JpaRepository<UploadBatch, UUI
                     count(*) AS total_files,
                     count(*) FILTER (WHERE status IN ('DONE', 'DUPLICATE', 'FAILED')) AS processed_files,
                     count(*) FILTER (WHERE status = 'PROCESSING') AS processing_count,
-                    count(*) FILTER (WHERE status = 'QUEUED') AS queued_count
+                    count(*) FILTER (WHERE status = 'QUEUED') AS queued_count,
+                    count(*) FILTER (WHERE status = 'DONE') AS done_count,
+                    count(*) FILTER (WHERE status = 'DUPLICATE') AS duplicate_count,
+                    count(*) FILTER (WHERE status = 'FAILED') AS failed_count
                 FROM upload_items
                 WHERE batch_id = :batchId
             ) agg
             WHERE b.id = agg.batch_id
             """, nativeQuery = true)
     int refreshProgressFromItems(@Param("batchId") UUID batchId);
+
+    /**
+     * 设置总文件数并按现有状态计数重算批次状态，O(1)，不扫描 upload_items
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Transactional
+    @Query(value = """
+            UPDATE upload_batches
+            SET total_files = :totalFiles,
+                status = CASE
+                  WHEN queued_files = 0
+                   AND processing_files = 0
+                   AND COALESCE(processed_files, 0) >= :totalFiles
+                  THEN 'DONE'
+                  ELSE 'PROCESSING'
+                END,
+                updated_at = current_timestamp
+            WHERE id = :batchId
+            """, nativeQuery = true)
+    int updateTotalFiles(@Param("batchId") UUID batchId, @Param("totalFiles") int totalFiles);
+
+    @Query("""
+            select b.id from UploadBatch b
+            where b.status = :activeStatus
+               or b.updatedAt >= :updatedSince
+            order by b.updatedAt asc
+            """)
+    List<UUID> findIdsForProgressReconcile(
+            @Param("activeStatus") UploadBatchStatus activeStatus,
+            @Param("updatedSince") LocalDateTime updatedSince,
+            Pageable pageable);
 }
@@ -0,0 +1,61 @@
+package com.walden.cvect.repository;
+
+import com.walden.cvect.model.entity.UploadItem;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * upload_items 批量写入（JDBC facade）
+ *
+ * 实体主键由应用生成，JPA saveAll 会逐条 merge (先 SELECT 再 INSERT)；
+ * zip 批量入队直接走一次 JDBC batch insert。
+ */
+@Repository
+public class UploadItemBulkRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO upload_items (
+                id, tenant_id, batch_id, file_name, candidate_id, status, error_message,
+                storage_path, file_hash, file_size_bytes, attempt, queue_job_key, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UploadItemBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public int insertAll(List<UploadItem> items) {
+        if (items == null || items.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(items.size());
+        for (UploadItem item : items) {
+            rows.add(new Object[] {
+                    item.getId(),
+                    item.getTenantId(),
+                    item.getBatch() == null ? null : item.getBatch().getId(),
+                    item.getFileName(),
+                    item.getCandidateId(),
+                    item.getStatus().name(),
+                    item.getErrorMessage(),
+                    item.getStoragePath(),
+                    item.getFileHash(),
+                    item.getFileSizeBytes(),
+                    item.getAttempt(),
+                    item.getQueueJobKey(),
+                    now,
+                    now
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        return rows.size();
+    }
+}
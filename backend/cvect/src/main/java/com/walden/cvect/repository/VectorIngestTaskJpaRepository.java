@@ -31,6 +31,16 @@ public interface VectorIngestTaskJpaRepository extends JpaRepository<VectorInges
             @Param("candidateIds") Collection<UUID> candidateIds,
             @Param("statuses") Collection<VectorIngestTaskStatus> statuses);
 
+    @Query("""
+            select t.id
+            from VectorIngestTask t
+            where t.id in :taskIds
+              and t.status = :status
+            """)
+    List<UUID> findIdsByIdInAndStatus(
+            @Param("taskIds") Collection<UUID> taskIds,
+            @Param("status") VectorIngestTaskStatus status);
+
     List<VectorIngestTask> findTop50ByStatusAndUpdatedAtBeforeOrderByUpdatedAtAsc(
             VectorIngestTaskStatus status,
             LocalDateTime updatedAt);
@@ -101,6 +111,20 @@ public interface VectorIngestTaskJpaRepository extends JpaRepository<VectorInges
             @Param("doneStatus") VectorIngestTaskStatus doneStatus,
             @Param("processingStatus") VectorIngestTaskStatus processingStatus);
 
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            update VectorIngestTask t
+            set t.status = :doneStatus,
+                t.errorMessage = null,
+                t.updatedAt = current_timestamp
+            where t.id in :taskIds
+              and t.status = :processingStatus
+            """)
+    int completeSuccessBatch(
+            @Param("taskIds") Collection<UUID> taskIds,
+            @Param("doneStatus") VectorIngestTaskStatus doneStatus,
+            @Param("processingStatus") VectorIngestTaskStatus processingStatus);
+
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query("""
             update VectorIngestTask t
@@ -17,6 +17,7 @@ import com.walden.cvect.infra.vector.VectorStoreService;
 import com.walden.cvect.security.CurrentUserService;
 import com.walden.cvect.security.DataScopeService;
 import com.walden.cvect.service.matching.PersistedMatchScoreService;
+import com.walden.cvect.service.matching.SearchDataVersionService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -39,6 +40,7 @@ public class JobDescriptionApplicationService {
     private final UploadItemJpaRepository itemRepository;
     private final VectorStoreService vectorStoreService;
     private final PersistedMatchScoreService persistedMatchScoreService;
+    private final SearchDataVersionService searchDataVersionService;
     private final CurrentUserService currentUserService;
     private final DataScopeService dataScopeService;
 
@@ -55,6 +57,7 @@ public class JobDescriptionApplicationService {
             UploadItemJpaRepository itemRepository,
             VectorStoreService vectorStoreService,
             PersistedMatchScoreService persistedMatchScoreService,
+            SearchDataVersionService searchDataVersionService,
             CurrentUserService currentUserService,
             DataScopeService dataScopeService) {
         this.jdRepository = jdRepository;
@@ -69,6 +72,7 @@ public class JobDescriptionApplicationService {
         this.itemRepository = itemRepository;
         this.vectorStoreService = vectorStoreService;
         this.persistedMatchScoreService = persistedMatchScoreService;
+        this.searchDataVersionService = searchDataVersionService;
         this.currentUserService = currentUserService;
         this.dataScopeService = dataScopeService;
     }
@@ -98,6 +102,8 @@ public class JobDescriptionApplicationService {
                     JobDescription saved = jdRepository.save(jd);
                     persistedMatchScoreService.markJobDescriptionDirty(saved.getId());
                     persistedMatchScoreService.scheduleRefreshForJobDescription(saved.getId());
+                    // 按 JD 检索使用 JD 内容与其 embedding，更新后该租户缓存的检索响应不再有效
+                    searchDataVersionService.bumpTenant(tenantId);
                     return saved;
                 });
     }
@@ -136,6 +142,8 @@ public class JobDescriptionApplicationService {
         itemRepository.deleteByTenantIdAndJobDescriptionId(tenantId, id);
         batchRepository.deleteByTenantIdAndJobDescriptionId(tenantId, id);
         jdRepository.delete(jd);
+        // JD 下的候选人与向量随事务一起删除，提交后使该租户的检索响应缓存失效
+        searchDataVersionService.bumpTenant(tenantId);
         return true;
     }
 }
@@ -0,0 +1,79 @@
+package com.walden.cvect.service.matching;
+
+import com.walden.cvect.infra.embedding.EmbeddingService;
+import com.walden.cvect.model.entity.JobDescription;
+import com.walden.cvect.repository.JobDescriptionJpaRepository;
+import com.walden.cvect.security.CurrentUserService;
+import com.walden.cvect.security.DataScopeService;
+import com.walden.cvect.web.controller.search.SearchController;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * 按 JD 检索候选人：直接使用 job_descriptions.embedding，不再对 JD 全文重新做 query embedding
+ */
+@Service
+public class JobDescriptionSearchService {
+
+    private final JobDescriptionJpaRepository jobDescriptionRepository;
+    private final PersistedMatchScoreService persistedMatchScoreService;
+    private final SearchQueryEmbeddingCacheService queryEmbeddingCache;
+    private final SemanticSearchService semanticSearchService;
+    private final EmbeddingService embeddingService;
+    private final CurrentUserService currentUserService;
+    private final DataScopeService dataScopeService;
+
+    public JobDescriptionSearchService(
+            JobDescriptionJpaRepository jobDescriptionRepository,
+            PersistedMatchScoreService persistedMatchScoreService,
+            SearchQueryEmbeddingCacheService queryEmbeddingCache,
+            SemanticSearchService semanticSearchService,
+            EmbeddingService embeddingService,
+            CurrentUserService currentUserService,
+            DataScopeService dataScopeService) {
+        this.jobDescriptionRepository = jobDescriptionRepository;
+        this.persistedMatchScoreService = persistedMatchScoreService;
+        this.queryEmbeddingCache = queryEmbeddingCache;
+        this.semanticSearchService = semanticSearchService;
+        this.embeddingService = embeddingService;
+        this.currentUserService = currentUserService;
+        this.dataScopeService = dataScopeService;
+    }
+
+    /**
+     * @return 检索结果；JD 不存在或当前用户不可见时返回 empty
+     */
+    public Optional<SearchController.SearchResponse> search(
+            UUID jobDescriptionId,
+            SearchController.JobDescriptionSearchRequest options) {
+        if (jobDescriptionId == null) {
+            return Optional.empty();
+        }
+        SearchController.JobDescriptionSearchRequest resolvedOptions = options == null
+                ? SearchController.JobDescriptionSearchRequest.defaults()
+                : options;
+        UUID tenantId = currentUserService.currentTenantId();
+        return jobDescriptionRepository.findByIdAndTenantId(jobDescriptionId, tenantId)
+                .filter(dataScopeService::canAccess)
+                .map(jd -> search(jd, resolvedOptions));
+    }
+
+    private SearchController.SearchResponse search(
+            JobDescription jd,
+            SearchController.JobDescriptionSearchRequest options) {
+        SearchController.SearchRequest request = options.toSearchRequest(jd.getContent());
+        float[] embedding = persistedMatchScoreService.resolveJobDescriptionEmbedding(jd);
+        if (embedding == null) {
+            // JD 内容为空，没有可检索的 query
+            return new SearchController.SearchResponse(0, request.topK(), List.of());
+        }
+        if (embedding.length != embeddingService.getDimension()) {
+            // 切换模型后旧 JD 向量维度不一致，回退到 query embedding 缓存
+            embedding = queryEmbeddingCache.get(jd.getContent());
+        }
+        return semanticSearchService.search(request, embedding);
+    }
+}
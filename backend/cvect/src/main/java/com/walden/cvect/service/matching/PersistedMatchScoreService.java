@@ -6,11 +6,10 @@ import com.walden.cvect.model.entity.Candidate;
 import com.walden.cvect.model.entity.CandidateMatchScore;
 import com.walden.cvect.model.entity.JobDescription;
 import com.walden.cvect.repository.CandidateJpaRepository;
+import com.walden.cvect.repository.CandidateMatchScoreBulkRepository;
 import com.walden.cvect.repository.CandidateMatchScoreJpaRepository;
 import com.walden.cvect.repository.JobDescriptionJpaRepository;
-import jakarta.annotation.PreDestroy;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.walden.cvect.service.matching.queue.MatchScoreRefreshQueueService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
@@ -19,49 +18,48 @@ import org.springframework.transaction.support.TransactionTemplate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
 
 @Service
 public class PersistedMatchScoreService {
 
-    private static final Logger log = LoggerFactory.getLogger(PersistedMatchScoreService.class);
     private static final float DEFAULT_EXPERIENCE_WEIGHT = 0.5f;
     private static final float DEFAULT_SKILL_WEIGHT = 0.5f;
 
     private final CandidateMatchScoreJpaRepository candidateMatchScoreRepository;
+    private final CandidateMatchScoreBulkRepository candidateMatchScoreBulkRepository;
     private final CandidateJpaRepository candidateRepository;
     private final JobDescriptionJpaRepository jobDescriptionRepository;
     private final EmbeddingService embeddingService;
     private final VectorStoreService vectorStoreService;
     private final TransactionTemplate transactionTemplate;
     private final boolean enabled;
-    private final ExecutorService refreshExecutor;
-    private final Set<UUID> queuedJobDescriptionIds = ConcurrentHashMap.newKeySet();
-    private final Set<UUID> rerunJobDescriptionIds = ConcurrentHashMap.newKeySet();
+    private final MatchScoreRefreshQueueService refreshQueueService;
 
     public PersistedMatchScoreService(
             CandidateMatchScoreJpaRepository candidateMatchScoreRepository,
+            CandidateMatchScoreBulkRepository candidateMatchScoreBulkRepository,
             CandidateJpaRepository candidateRepository,
             JobDescriptionJpaRepository jobDescriptionRepository,
             EmbeddingService embeddingService,
             VectorStoreService vectorStoreService,
             PlatformTransactionManager transactionManager,
+            MatchScoreRefreshQueueService refreshQueueService,
             @Value("${app.match-scores.enabled:true}") boolean enabled) {
         this.candidateMatchScoreRepository = candidateMatchScoreRepository;
+        this.candidateMatchScoreBulkRepository = candidateMatchScoreBulkRepository;
         this.candidateRepository = candidateRepository;
         this.jobDescriptionRepository = jobDescriptionRepository;
         this.embeddingService = embeddingService;
         this.vectorStoreService = vectorStoreService;
         this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.enabled = enabled;
-        this.refreshExecutor = Executors.newSingleThreadExecutor(new RefreshThreadFactory());
+        this.refreshQueueService = refreshQueueService;
     }
 
     public void markJobDescriptionDirty(UUID jobDescriptionId) {
@@ -79,26 +77,36 @@ public class PersistedMatchScoreService {
         });
     }
 
+    /**
+     * JD 全量重算：写入持久化刷新队列，由 MatchScoreRefreshWorkerRunner 去抖合并后并行处理
+     */
     public void scheduleRefreshForJobDescription(UUID jobDescriptionId) {
         if (!enabled || jobDescriptionId == null) {
             return;
         }
-        if (!queuedJobDescriptionIds.add(jobDescriptionId)) {
-            rerunJobDescriptionIds.add(jobDescriptionId);
+        refreshQueueService.requestFullRefresh(jobDescriptionId);
+    }
+
+    /**
+     * 只重算 JD 下指定候选人的匹配分 (如列表页发现缺分的已向量化候选人)
+     */
+    public void scheduleRefreshForCandidates(UUID jobDescriptionId, Collection<UUID> candidateIds) {
+        if (!enabled || jobDescriptionId == null || candidateIds == null || candidateIds.isEmpty()) {
             return;
         }
-        refreshExecutor.submit(() -> {
-            try {
-                refreshForJobDescription(jobDescriptionId);
-            } catch (Exception ex) {
-                log.warn("Failed refreshing persisted match scores for jdId={}", jobDescriptionId, ex);
-            } finally {
-                queuedJobDescriptionIds.remove(jobDescriptionId);
-                if (rerunJobDescriptionIds.remove(jobDescriptionId)) {
-                    scheduleRefreshForJobDescription(jobDescriptionId);
-                }
-            }
-        });
+        refreshQueueService.requestCandidateRefresh(jobDescriptionId, candidateIds);
+    }
+
+    /**
+     * 新候选人入库后为租户下每个 JD 登记 dirty 候选人，由刷新队列异步打分，不在调用方事务里同步计算
+     */
+    public void scheduleRefreshForNewCandidate(UUID tenantId, UUID candidateId) {
+        if (!enabled || tenantId == null || candidateId == null) {
+            return;
+        }
+        for (JobDescription jd : jobDescriptionRepository.findByTenantId(tenantId)) {
+            refreshQueueService.requestCandidateRefresh(jd.getId(), List.of(candidateId));
+        }
     }
 
     public void refreshForCandidate(UUID candidateId) {
@@ -117,27 +125,36 @@ public class PersistedMatchScoreService {
                     candidateMatchScoreRepository.deleteByCandidateId(candidateId));
             return;
         }
-        LocalDateTime scoredAt = LocalDateTime.now();
-        List<CandidateMatchScore> nextScores = new ArrayList<>();
+        Map<UUID, float[]> jdEmbeddings = new LinkedHashMap<>();
         for (JobDescription jd : jobDescriptions) {
             float[] embedding = ensureJobDescriptionEmbedding(jd);
-            if (embedding == null) {
-                continue;
-            }
-            Map<UUID, VectorStoreService.CandidateScoreBreakdown> scores = vectorStoreService.scoreCandidates(
-                    embedding,
-                    List.of(candidateId));
-            VectorStoreService.CandidateScoreBreakdown breakdown = scores.get(candidateId);
-            if (breakdown == null) {
-                continue;
+            if (embedding != null) {
+                jdEmbeddings.put(jd.getId(), embedding);
             }
-            nextScores.add(toEntity(candidate.getTenantId(), candidateId, jd.getId(), breakdown, scoredAt));
         }
+        if (jdEmbeddings.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status ->
+                    candidateMatchScoreRepository.deleteByCandidateId(candidateId));
+            return;
+        }
+        // 全部 JD 向量一次传入，单次扫描候选人 chunk 得到 JD × 类型 的得分矩阵
+        Map<UUID, VectorStoreService.CandidateScoreBreakdown> scores =
+                vectorStoreService.scoreCandidateAgainstQueries(candidateId, jdEmbeddings);
+        LocalDateTime scoredAt = LocalDateTime.now();
+        List<CandidateMatchScore> nextScores = new ArrayList<>(scores.size());
+        for (Map.Entry<UUID, VectorStoreService.CandidateScoreBreakdown> entry : scores.entrySet()) {
+            nextScores.add(toEntity(candidate.getTenantId(), candidateId, entry.getKey(), entry.getValue(), scoredAt));
+        }
+        Set<UUID> scoredJobDescriptionIds = new LinkedHashSet<>(scores.keySet());
         transactionTemplate.executeWithoutResult(status -> {
-            candidateMatchScoreRepository.deleteByCandidateId(candidateId);
-            if (!nextScores.isEmpty()) {
-                candidateMatchScoreRepository.saveAll(nextScores);
+            if (scoredJobDescriptionIds.isEmpty()) {
+                candidateMatchScoreRepository.deleteByCandidateId(candidateId);
+                return;
             }
+            candidateMatchScoreBulkRepository.upsertAll(nextScores);
+            candidateMatchScoreRepository.deleteByCandidateIdAndJobDescriptionIdNotIn(
+                    candidateId,
+                    scoredJobDescriptionIds);
         });
     }
 
@@ -157,7 +174,10 @@ public class PersistedMatchScoreService {
                 candidateMatchScoreRepository.deleteByCandidateIds(candidateIds));
     }
 
-    private void refreshForJobDescription(UUID jobDescriptionId) {
+    public void refreshForJobDescription(UUID jobDescriptionId) {
+        if (!enabled || jobDescriptionId == null) {
+            return;
+        }
         JobDescription jd = jobDescriptionRepository.findById(jobDescriptionId).orElse(null);
         if (jd == null) {
             transactionTemplate.executeWithoutResult(status ->
@@ -170,27 +190,69 @@ public class PersistedMatchScoreService {
                     candidateMatchScoreRepository.deleteByJobDescriptionId(jobDescriptionId));
             return;
         }
-        List<UUID> candidateIds = candidateRepository.findIdsByTenantId(jd.getTenantId());
-        if (candidateIds.isEmpty()) {
+        Map<UUID, VectorStoreService.CandidateScoreBreakdown> rawScores;
+        if (vectorStoreService.isCandidateSummaryAvailable()) {
+            // 每个候选人每种类型一条汇总向量，按租户扫描即可，不再传入整租户的候选人 ID 列表
+            rawScores = vectorStoreService.scoreCandidateSummaries(embedding, jd.getTenantId(), null);
+        } else {
+            List<UUID> candidateIds = candidateRepository.findIdsByTenantId(jd.getTenantId());
+            if (candidateIds.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status ->
+                        candidateMatchScoreRepository.deleteByJobDescriptionId(jobDescriptionId));
+                return;
+            }
+            rawScores = vectorStoreService.scoreCandidates(embedding, candidateIds);
+        }
+        LocalDateTime scoredAt = LocalDateTime.now();
+        List<CandidateMatchScore> nextScores = rawScores.entrySet().stream()
+                .map(entry -> toEntity(jd.getTenantId(), entry.getKey(), jobDescriptionId, entry.getValue(), scoredAt))
+                .toList();
+        // upsert 只改写分数变化的行，再删掉不再有得分的候选人，不再整 JD 删除重插
+        Set<UUID> scoredCandidateIds = rawScores.keySet();
+        transactionTemplate.executeWithoutResult(status -> {
+            candidateMatchScoreBulkRepository.upsertAll(nextScores);
+            candidateMatchScoreBulkRepository.deleteByJobDescriptionIdExcept(jobDescriptionId, scoredCandidateIds);
+        });
+    }
+
+    public void refreshForJobDescriptionCandidates(UUID jobDescriptionId, Collection<UUID> candidateIds) {
+        if (!enabled || jobDescriptionId == null || candidateIds == null || candidateIds.isEmpty()) {
+            return;
+        }
+        JobDescription jd = jobDescriptionRepository.findById(jobDescriptionId).orElse(null);
+        float[] embedding = ensureJobDescriptionEmbedding(jd);
+        if (embedding == null) {
             transactionTemplate.executeWithoutResult(status ->
                     candidateMatchScoreRepository.deleteByJobDescriptionId(jobDescriptionId));
             return;
         }
-        Map<UUID, VectorStoreService.CandidateScoreBreakdown> rawScores = vectorStoreService.scoreCandidates(
-                embedding,
-                candidateIds);
+        Map<UUID, VectorStoreService.CandidateScoreBreakdown> rawScores = vectorStoreService.isCandidateSummaryAvailable()
+                ? vectorStoreService.scoreCandidateSummaries(embedding, jd.getTenantId(), candidateIds)
+                : vectorStoreService.scoreCandidates(embedding, candidateIds);
         LocalDateTime scoredAt = LocalDateTime.now();
         List<CandidateMatchScore> nextScores = rawScores.entrySet().stream()
                 .map(entry -> toEntity(jd.getTenantId(), entry.getKey(), jobDescriptionId, entry.getValue(), scoredAt))
                 .toList();
+        // 没有得分的候选人 (已删除或尚无向量) 清掉旧分，避免列表继续展示过期结果
+        Set<UUID> unscoredIds = new LinkedHashSet<>(candidateIds);
+        unscoredIds.removeAll(rawScores.keySet());
         transactionTemplate.executeWithoutResult(status -> {
-            candidateMatchScoreRepository.deleteByJobDescriptionId(jobDescriptionId);
-            if (!nextScores.isEmpty()) {
-                candidateMatchScoreRepository.saveAll(nextScores);
+            candidateMatchScoreBulkRepository.upsertAll(nextScores);
+            if (!unscoredIds.isEmpty()) {
+                candidateMatchScoreBulkRepository.deleteByJobDescriptionIdAndCandidateIds(jobDescriptionId, unscoredIds);
             }
         });
     }
 
+    /**
+     * JD 检索复用已持久化的 JD 向量；尚未生成时嵌入一次并写回 job_descriptions.embedding
+     *
+     * @return JD 向量；JD 不存在或内容为空时返回 null
+     */
+    public float[] resolveJobDescriptionEmbedding(JobDescription jd) {
+        return ensureJobDescriptionEmbedding(jd);
+    }
+
     private float[] ensureJobDescriptionEmbedding(JobDescription jd) {
         if (jd == null) {
             return null;
@@ -253,18 +315,4 @@ public class PersistedMatchScoreService {
         }
         return Math.max(0.0f, Math.min(1.0f, value));
     }
-
-    @PreDestroy
-    void shutdown() {
-        refreshExecutor.shutdownNow();
-    }
-
-    private static final class RefreshThreadFactory implements ThreadFactory {
-        @Override
-        public Thread newThread(Runnable runnable) {
-            Thread thread = new Thread(runnable, "cvect-match-score-refresh");
-            thread.setDaemon(true);
-            return thread;
-        }
-    }
 }
@@ -1,10 +1,8 @@
 package com.walden.cvect.service.matching;
 
+import com.walden.cvect.infra.digest.Sha256Digests;
 import com.walden.cvect.web.controller.search.SearchController;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.Locale;
 import java.util.UUID;
 
@@ -14,7 +12,7 @@ public final class SearchCacheKeys {
     }
 
     public static String queryEmbedding(String jobDescription) {
-        return "jd:" + sha256(normalizeText(jobDescription));
+        return "jd:" + Sha256Digests.hex(normalizeText(jobDescription));
     }
 
     public static String searchRequest(SearchController.SearchRequest request) {
@@ -26,14 +24,22 @@ public final class SearchCacheKeys {
     }
 
     public static String searchRequest(SearchController.SearchRequest request, String scopeKey) {
+        return searchRequest(request, scopeKey, 0L);
+    }
+
+    /**
+     * @param dataVersion 租户检索数据版本，数据变化后旧 key 自然失效
+     */
+    public static String searchRequest(SearchController.SearchRequest request, String scopeKey, long dataVersion) {
         String resolvedScopeKey = scopeKey == null || scopeKey.isBlank() ? "tenant:default" : scopeKey;
         if (request == null) {
-            return "search:%s:null".formatted(resolvedScopeKey);
+            return "search:%s:v%d:null".formatted(resolvedScopeKey, dataVersion);
         }
         SearchWeightNormalizer.Weights weights = SearchWeightNormalizer.resolve(request);
-        return "search:%s:%s:%d:%s:%s:%s:%s:%s".formatted(
+        return "search:%s:v%d:%s:%d:%s:%s:%s:%s:%s".formatted(
                 resolvedScopeKey,
-                sha256(normalizeText(request.jobDescription())),
+                dataVersion,
+                Sha256Digests.hex(normalizeText(request.jobDescription())),
                 request.topK(),
                 request.filterByExperience(),
                 request.filterBySkill(),
@@ -55,18 +61,4 @@ public final class SearchCacheKeys {
         }
         return String.format(Locale.ROOT, "%.4f", value);
     }
-
-    private static String sha256(String value) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] bytes = digest.digest(value.getBytes(StandardCharsets.UTF_8));
-            StringBuilder sb = new StringBuilder(bytes.length * 2);
-            for (byte b : bytes) {
-                sb.append(String.format(Locale.ROOT, "%02x", b));
-            }
-            return sb.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalStateException("SHA-256 not available", e);
-        }
-    }
 }
@@ -0,0 +1,140 @@
+package com.walden.cvect.service.matching;
+
+import com.walden.cvect.repository.CandidateJpaRepository;
+import com.walden.cvect.repository.SearchDataVersionRepository;
+import com.walden.cvect.security.CurrentUserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 租户检索数据版本：检索响应缓存 key 包含当前版本，向量写入完成、向量任务终态失败、
+ * 候选人克隆、JD 更新和 JD 删除后递增，使该租户的旧缓存条目不再被命中。
+ *
+ * 递增在数据事务提交之后执行：先于提交读到新版本的检索不可能存在，读到旧版本的检索最多把新数据缓存在旧 key 下。
+ * 递增失败只记录日志，旧缓存条目最长保留到响应缓存 TTL。
+ *
+ * 当前版本在进程内缓存 data-version-ttl-ms，缓存命中的检索不再为读版本访问数据库；
+ * 本实例递增时立即失效，其它实例的递增最晚在该时长后可见。
+ */
+@Service
+public class SearchDataVersionService {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchDataVersionService.class);
+
+    private final SearchDataVersionRepository versionRepository;
+    private final CandidateJpaRepository candidateRepository;
+    private final CurrentUserService currentUserService;
+    private final long versionCacheNanos;
+    private final Map<UUID, CachedVersion> cachedVersions = new ConcurrentHashMap<>();
+
+    public SearchDataVersionService(
+            SearchDataVersionRepository versionRepository,
+            CandidateJpaRepository candidateRepository,
+            CurrentUserService currentUserService,
+            @Value("${app.cache.search.data-version-ttl-ms:1000}") long versionCacheMs) {
+        this.versionRepository = versionRepository;
+        this.candidateRepository = candidateRepository;
+        this.currentUserService = currentUserService;
+        this.versionCacheNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, versionCacheMs));
+    }
+
+    /**
+     * 供 @Cacheable key 表达式使用：当前请求租户的数据版本
+     */
+    public long currentVersion() {
+        UUID tenantId = currentUserService.currentTenantId();
+        if (tenantId == null) {
+            return 0L;
+        }
+        if (versionCacheNanos == 0L) {
+            return versionRepository.findVersion(tenantId);
+        }
+        long now = System.nanoTime();
+        CachedVersion cached = cachedVersions.get(tenantId);
+        if (cached != null && now - cached.loadedAtNanos() < versionCacheNanos) {
+            return cached.version();
+        }
+        long version = versionRepository.findVersion(tenantId);
+        cachedVersions.put(tenantId, new CachedVersion(version, now));
+        return version;
+    }
+
+    public void bumpTenant(UUID tenantId) {
+        if (tenantId == null) {
+            return;
+        }
+        bumpTenants(List.of(tenantId));
+    }
+
+    public void bumpForCandidate(UUID candidateId) {
+        if (candidateId == null) {
+            return;
+        }
+        bumpForCandidates(List.of(candidateId));
+    }
+
+    /**
+     * 按候选人所属租户递增，一批候选人只查询一次租户
+     */
+    public void bumpForCandidates(Collection<UUID> candidateIds) {
+        if (candidateIds == null || candidateIds.isEmpty()) {
+            return;
+        }
+        List<UUID> ids = candidateIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            bumpTenants(candidateRepository.findTenantIdsByIdIn(ids));
+        } catch (RuntimeException ex) {
+            log.warn("Failed to resolve tenants for search data version bump: candidates={}", ids.size(), ex);
+        }
+    }
+
+    private void bumpTenants(Collection<UUID> tenantIds) {
+        Set<UUID> targets = new LinkedHashSet<>(tenantIds);
+        targets.remove(null);
+        if (targets.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(targets);
+                }
+            });
+            return;
+        }
+        increment(targets);
+    }
+
+    private void increment(Set<UUID> tenantIds) {
+        for (UUID tenantId : tenantIds) {
+            try {
+                versionRepository.increment(tenantId);
+            } catch (RuntimeException ex) {
+                log.warn("Failed to bump search data version: tenantId={}", tenantId, ex);
+            } finally {
+                cachedVersions.remove(tenantId);
+            }
+        }
+    }
+
+    private record CachedVersion(long version, long loadedAtNanos) {
+    }
+}
@@ -1,17 +1,90 @@
 package com.walden.cvect.service.matching;
 
 import com.walden.cvect.config.CacheConfig;
+import com.walden.cvect.infra.embedding.EmbeddingConfig;
 import com.walden.cvect.infra.embedding.EmbeddingService;
+import com.walden.cvect.repository.SearchQueryEmbeddingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 检索 query embedding 缓存：Caffeine (L1, @Cacheable) + search_query_embeddings 表 (L2)
+ *
+ * L1 未命中时先查 L2，两层都未命中才调用模型并写回 L2；L2 在重启后保留、在副本间共享。
+ * 启动完成后按 last_used_at 把最近使用的条目预热进 L1。L2 读写失败只记录日志并回退到模型调用。
+ */
 @Service
 public class SearchQueryEmbeddingCacheService {
 
+    private static final Logger log = LoggerFactory.getLogger(SearchQueryEmbeddingCacheService.class);
+
     private final EmbeddingService embeddingService;
+    private final SearchQueryEmbeddingRepository store;
+    private final Cache frontCache;
+    private final String modelName;
+    private final int dimension;
+    private final int warmUpSize;
+    private final Duration retention;
+    private final Counter databaseHitCounter;
+    private final Counter missCounter;
 
-    public SearchQueryEmbeddingCacheService(EmbeddingService embeddingService) {
+    @Autowired
+    public SearchQueryEmbeddingCacheService(
+            EmbeddingService embeddingService,
+            EmbeddingConfig embeddingConfig,
+            CacheManager cacheManager,
+            SearchQueryEmbeddingRepository store,
+            ObjectProvider<MeterRegistry> meterRegistryProvider,
+            @Value("${app.cache.search.query-embedding-store.enabled:true}") boolean storeEnabled,
+            @Value("${app.cache.search.query-embedding-store.warm-up-size:128}") int warmUpSize,
+            @Value("${app.cache.search.query-embedding-store.retention:30d}") Duration retention) {
+        this(embeddingService,
+                embeddingConfig,
+                cacheManager.getCache(CacheConfig.SEARCH_QUERY_EMBEDDING_CACHE),
+                storeEnabled ? store : null,
+                meterRegistryProvider.getIfAvailable(),
+                warmUpSize,
+                retention);
+    }
+
+    SearchQueryEmbeddingCacheService(EmbeddingService embeddingService) {
+        this(embeddingService, null, null, null, null, 0, null);
+    }
+
+    SearchQueryEmbeddingCacheService(
+            EmbeddingService embeddingService,
+            EmbeddingConfig embeddingConfig,
+            Cache frontCache,
+            SearchQueryEmbeddingRepository store,
+            MeterRegistry meterRegistry,
+            int warmUpSize,
+            Duration retention) {
         this.embeddingService = embeddingService;
+        this.store = store;
+        this.frontCache = frontCache;
+        this.modelName = embeddingConfig == null || embeddingConfig.getModelName() == null
+                ? ""
+                : embeddingConfig.getModelName();
+        this.dimension = embeddingConfig == null ? 0 : embeddingConfig.getDimension();
+        this.warmUpSize = Math.max(0, warmUpSize);
+        this.retention = retention;
+        this.databaseHitCounter = lookupCounter(meterRegistry, "database");
+        this.missCounter = lookupCounter(meterRegistry, "miss");
     }
 
     @Cacheable(
@@ -19,6 +92,97 @@ public class SearchQueryEmbeddingCacheService {
             key = "T(com.walden.cvect.service.matching.SearchCacheKeys).queryEmbedding(#jobDescription)",
             sync = true)
     public float[] get(String jobDescription) {
-        return embeddingService.embedQuery(SearchCacheKeys.normalizeText(jobDescription));
+        String normalized = SearchCacheKeys.normalizeText(jobDescription);
+        if (normalized.isBlank()) {
+            return embeddingService.embedQuery(normalized);
+        }
+        String key = SearchCacheKeys.queryEmbedding(normalized);
+        float[] stored = findPersistent(key);
+        if (stored != null) {
+            increment(databaseHitCounter);
+            return stored;
+        }
+        float[] embedded = embeddingService.embedQuery(normalized);
+        increment(missCounter);
+        storePersistent(key, embedded);
+        return embedded;
+    }
+
+    /**
+     * 清理超过保留期未使用的条目，再把最近使用的 warm-up-size 条载入 L1
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (store == null || frontCache == null || warmUpSize == 0) {
+            return;
+        }
+        try {
+            if (retention != null && !retention.isZero() && !retention.isNegative()) {
+                int removed = store.deleteUnusedBefore(LocalDateTime.now().minus(retention));
+                if (removed > 0) {
+                    log.info("Removed {} search query embeddings unused for {}", removed, retention);
+                }
+            }
+            Map<String, float[]> recent = store.findRecent(modelName, dimension, warmUpSize);
+            int loaded = 0;
+            for (Map.Entry<String, float[]> entry : recent.entrySet()) {
+                if (isExpectedDimension(entry.getValue())) {
+                    frontCache.putIfAbsent(entry.getKey(), entry.getValue());
+                    loaded++;
+                }
+            }
+            log.info("Warmed up {} search query embeddings", loaded);
+        } catch (RuntimeException ex) {
+            log.warn("Search query embedding warm-up failed: {}", ex.getMessage());
+        }
+    }
+
+    private float[] findPersistent(String key) {
+        if (store == null) {
+            return null;
+        }
+        try {
+            float[] stored = store.find(modelName, dimension, key);
+            if (!isExpectedDimension(stored)) {
+                return null;
+            }
+            // 命中时刷新 last_used_at，预热只挑仍在使用的 query
+            store.touch(modelName, dimension, key);
+            return stored;
+        } catch (RuntimeException ex) {
+            log.warn("Search query embedding lookup failed, fallback to model: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    private void storePersistent(String key, float[] embedding) {
+        if (store == null || !isExpectedDimension(embedding)) {
+            return;
+        }
+        try {
+            store.upsert(modelName, dimension, key, embedding);
+        } catch (RuntimeException ex) {
+            log.warn("Search query embedding write failed: {}", ex.getMessage());
+        }
+    }
+
+    private boolean isExpectedDimension(float[] vector) {
+        return vector != null && vector.length > 0 && (dimension <= 0 || vector.length == dimension);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        if (meterRegistry == null) {
+            return null;
+        }
+        return Counter.builder("cvect.search.query.embedding.lookups")
+                .tag("result", result)
+                .description("Search query embedding lookups that missed the in-memory cache, by resolving tier")
+                .register(meterRegistry);
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
     }
 }
@@ -0,0 +1,62 @@
+package com.walden.cvect.service.matching;
+
+import com.walden.cvect.infra.vector.VectorStoreService;
+import com.walden.cvect.web.controller.search.SearchController;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 向量与词法两路结果的倒数排名融合 (RRF)：rank score = Σ 1 / (k + rank)，rank 从 1 开始。
+ * 只依赖名次，不需要把余弦相似度和 ts_rank 归一到同一量纲。
+ *
+ * 融合只决定顺序：展示分和命中 chunk 都是向量相似度 (已过阈值与类型加权)。只有词法命中的候选人
+ * 由调用方先用同一套向量打分补齐分数并并入 denseCandidates；仍未并入的词法命中没有可比的分数，不返回。
+ */
+final class SearchRankFusion {
+
+    static final int RRF_K = 60;
+
+    private SearchRankFusion() {
+    }
+
+    /**
+     * @param denseCandidates 向量检索的候选人 (含补齐向量分的词法召回)，按分数降序
+     * @param lexicalMatches  词法检索命中的 chunk，按 ts_rank 降序；候选人名次取其首个命中 chunk 的位置
+     */
+    static List<SearchController.CandidateMatch> fuse(
+            List<SearchController.CandidateMatch> denseCandidates,
+            List<VectorStoreService.LexicalMatch> lexicalMatches,
+            int topK) {
+        Map<UUID, Integer> lexicalRanks = new HashMap<>();
+        for (VectorStoreService.LexicalMatch match : lexicalMatches) {
+            lexicalRanks.putIfAbsent(match.candidateId(), lexicalRanks.size() + 1);
+        }
+
+        List<RankedCandidate> ranked = new ArrayList<>(denseCandidates.size());
+        int denseRank = 0;
+        for (SearchController.CandidateMatch candidate : denseCandidates) {
+            denseRank++;
+            double rankScore = 1.0 / (RRF_K + denseRank);
+            Integer lexicalRank = lexicalRanks.get(candidate.candidateId());
+            if (lexicalRank != null) {
+                rankScore += 1.0 / (RRF_K + lexicalRank);
+            }
+            ranked.add(new RankedCandidate(candidate, rankScore));
+        }
+
+        // 排序稳定：融合分相同的候选人保持向量检索的先后
+        return ranked.stream()
+                .sorted(Comparator.comparingDouble(RankedCandidate::rankScore).reversed())
+                .limit(Math.max(0, topK))
+                .map(RankedCandidate::candidate)
+                .toList();
+    }
+
+    private record RankedCandidate(SearchController.CandidateMatch candidate, double rankScore) {
+    }
+}
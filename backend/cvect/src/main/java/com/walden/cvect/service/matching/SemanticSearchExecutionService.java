@@ -9,6 +9,12 @@ import com.walden.cvect.repository.VectorIngestTaskJpaRepository;
 import com.walden.cvect.security.CurrentUserService;
 import com.walden.cvect.security.DataScopeService;
 import com.walden.cvect.web.controller.search.SearchController;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -20,9 +26,12 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class SemanticSearchExecutionService {
+    private static final Logger log = LoggerFactory.getLogger(SemanticSearchExecutionService.class);
     private static final int CHUNK_OVERSAMPLE_FACTOR = 4;
     private static final int MAX_CHUNK_TOP_K = 800;
     private static final float MIN_CANDIDATE_SCORE = 0.35f;
@@ -33,20 +42,51 @@ public class SemanticSearchExecutionService {
     private final CandidateJpaRepository candidateRepository;
     private final CurrentUserService currentUserService;
     private final DataScopeService dataScopeService;
+    private final boolean aggregateInDatabase;
+    private final boolean hybridSearchEnabled;
+    private final TaskExecutor retrievalExecutor;
 
+    @Autowired
     public SemanticSearchExecutionService(
             VectorStoreService vectorStore,
             SearchQueryEmbeddingCacheService queryEmbeddingCache,
             VectorIngestTaskJpaRepository vectorIngestTaskRepository,
             CandidateJpaRepository candidateRepository,
             CurrentUserService currentUserService,
-            DataScopeService dataScopeService) {
+            DataScopeService dataScopeService,
+            @Value("${app.vector.candidate-aggregation-in-sql:true}") boolean aggregateInDatabase,
+            @Value("${app.vector.hybrid-search-enabled:true}") boolean hybridSearchEnabled,
+            @Qualifier("searchRetrievalExecutor") TaskExecutor retrievalExecutor) {
         this.vectorStore = vectorStore;
         this.queryEmbeddingCache = queryEmbeddingCache;
         this.vectorIngestTaskRepository = vectorIngestTaskRepository;
         this.candidateRepository = candidateRepository;
         this.currentUserService = currentUserService;
         this.dataScopeService = dataScopeService;
+        this.aggregateInDatabase = aggregateInDatabase;
+        this.hybridSearchEnabled = hybridSearchEnabled;
+        this.retrievalExecutor = retrievalExecutor;
+    }
+
+    /**
+     * 纯向量检索，chunk 逐行返回后在 Java 中聚合
+     */
+    SemanticSearchExecutionService(
+            VectorStoreService vectorStore,
+            SearchQueryEmbeddingCacheService queryEmbeddingCache,
+            VectorIngestTaskJpaRepository vectorIngestTaskRepository,
+            CandidateJpaRepository candidateRepository,
+            CurrentUserService currentUserService,
+            DataScopeService dataScopeService) {
+        this(vectorStore,
+                queryEmbeddingCache,
+                vectorIngestTaskRepository,
+                candidateRepository,
+                currentUserService,
+                dataScopeService,
+                false,
+                false,
+                Runnable::run);
     }
 
     @TimedAction(
@@ -54,7 +94,17 @@ public class SemanticSearchExecutionService {
             description = "Semantic search compute latency for cache-miss executions",
             tags = {"layer", "service"})
     public SearchController.SearchResponse search(SearchController.SearchRequest request) {
-        float[] queryEmbedding = queryEmbeddingCache.get(request.jobDescription());
+        return search(request, queryEmbeddingCache.get(request.jobDescription()));
+    }
+
+    /**
+     * 使用调用方已有的 query 向量检索 (如 JD 已持久化的 embedding)，不再经过 query embedding 缓存
+     */
+    @TimedAction(
+            metric = "cvect.search.compute",
+            description = "Semantic search compute latency for cache-miss executions",
+            tags = {"layer", "service"})
+    public SearchController.SearchResponse search(SearchController.SearchRequest request, float[] queryEmbedding) {
         ChunkType[] types = resolveChunkTypes(request);
         SearchWeightNormalizer.Weights weightConfig = SearchWeightNormalizer.resolve(request);
         VectorStoreService.SearchScope scope = resolveSearchScope();
@@ -63,6 +113,129 @@ public class SemanticSearchExecutionService {
         }
 
         int chunkTopK = resolveChunkTopK(request.topK());
+        List<SearchController.CandidateMatch> candidates;
+        if (hybridSearchEnabled && vectorStore.isLexicalSearchAvailable()) {
+            candidates = searchHybrid(request, queryEmbedding, chunkTopK, scope, weightConfig, types);
+        } else {
+            candidates = searchDense(request, queryEmbedding, chunkTopK, request.topK(), scope, weightConfig, types);
+        }
+        return new SearchController.SearchResponse(candidates.size(), request.topK(), List.copyOf(candidates));
+    }
+
+    /**
+     * 混合检索：词法检索在 retrievalExecutor 上与向量检索并发执行，按 RRF 融合两路名次。
+     * 向量一路取 chunkTopK 个候选人；只有词法命中的候选人用同一套向量打分补齐分数并过阈值后并入，
+     * 因此能召回向量检索漏掉的简历。词法检索失败时只记录日志并返回向量结果。
+     */
+    private List<SearchController.CandidateMatch> searchHybrid(
+            SearchController.SearchRequest request,
+            float[] queryEmbedding,
+            int chunkTopK,
+            VectorStoreService.SearchScope scope,
+            SearchWeightNormalizer.Weights weightConfig,
+            ChunkType[] types) {
+        CompletableFuture<List<VectorStoreService.LexicalMatch>> lexical = CompletableFuture.supplyAsync(
+                () -> vectorStore.searchVisibleLexical(
+                        request.jobDescription(),
+                        chunkTopK,
+                        scope,
+                        request.onlyVectorReadyCandidates(),
+                        types),
+                retrievalExecutor);
+        List<SearchController.CandidateMatch> dense = searchDense(
+                request, queryEmbedding, chunkTopK, chunkTopK, scope, weightConfig, types);
+
+        List<VectorStoreService.LexicalMatch> lexicalMatches;
+        try {
+            lexicalMatches = lexical.join();
+        } catch (CompletionException ex) {
+            log.warn("Lexical retrieval failed, fallback to vector results: {}", ex.getCause() == null
+                    ? ex.getMessage()
+                    : ex.getCause().getMessage());
+            lexicalMatches = List.of();
+        }
+        List<SearchController.CandidateMatch> recalled = scoreLexicalOnlyCandidates(
+                queryEmbedding, dense, lexicalMatches, weightConfig);
+        if (recalled.isEmpty()) {
+            return SearchRankFusion.fuse(dense, lexicalMatches, request.topK());
+        }
+        List<SearchController.CandidateMatch> merged = new ArrayList<>(dense.size() + recalled.size());
+        merged.addAll(dense);
+        merged.addAll(recalled);
+        // 排序稳定：分数相同时向量候选人在前
+        merged.sort(Comparator.comparing(SearchController.CandidateMatch::score).reversed());
+        return SearchRankFusion.fuse(merged, lexicalMatches, request.topK());
+    }
+
+    /**
+     * 向量一路之外的词法命中候选人：按其全部 chunk 的向量相似度计算与向量检索相同的加权分，
+     * 低于 MIN_CANDIDATE_SCORE 的丢弃；命中 chunk 取词法命中的内容，分数取对应类型的向量相似度
+     */
+    private List<SearchController.CandidateMatch> scoreLexicalOnlyCandidates(
+            float[] queryEmbedding,
+            List<SearchController.CandidateMatch> dense,
+            List<VectorStoreService.LexicalMatch> lexicalMatches,
+            SearchWeightNormalizer.Weights weightConfig) {
+        Set<UUID> denseIds = new HashSet<>();
+        for (SearchController.CandidateMatch candidate : dense) {
+            denseIds.add(candidate.candidateId());
+        }
+        Map<UUID, List<VectorStoreService.LexicalMatch>> lexicalOnly = new LinkedHashMap<>();
+        for (VectorStoreService.LexicalMatch match : lexicalMatches) {
+            if (!denseIds.contains(match.candidateId())) {
+                lexicalOnly.computeIfAbsent(match.candidateId(), ignored -> new ArrayList<>()).add(match);
+            }
+        }
+        if (lexicalOnly.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, VectorStoreService.CandidateScoreBreakdown> scores;
+        try {
+            scores = vectorStore.scoreCandidates(queryEmbedding, lexicalOnly.keySet());
+        } catch (RuntimeException ex) {
+            log.warn("Scoring lexical-only candidates failed, keep vector candidates only: {}", ex.getMessage());
+            return List.of();
+        }
+
+        List<SearchController.CandidateMatch> recalled = new ArrayList<>();
+        for (Map.Entry<UUID, List<VectorStoreService.LexicalMatch>> entry : lexicalOnly.entrySet()) {
+            VectorStoreService.CandidateScoreBreakdown breakdown = scores.get(entry.getKey());
+            if (breakdown == null) {
+                continue;
+            }
+            float weightedScore = breakdown.experienceScore() * weightConfig.experienceWeight()
+                    + breakdown.skillScore() * weightConfig.skillWeight();
+            if (weightedScore <= 0.0f) {
+                weightedScore = Math.max(breakdown.experienceScore(), breakdown.skillScore());
+            }
+            float candidateScore = weightedScore;
+            List<SearchController.MatchedChunk> chunks = entry.getValue().stream()
+                    .map(match -> new SearchController.MatchedChunk(
+                            match.chunkType().name(),
+                            match.content(),
+                            switch (match.chunkType()) {
+                                case EXPERIENCE -> breakdown.experienceScore();
+                                case SKILL -> breakdown.skillScore();
+                                default -> candidateScore;
+                            }))
+                    .toList();
+            recalled.add(new SearchController.CandidateMatch(entry.getKey(), chunks, candidateScore));
+        }
+        return applyScoreThreshold(recalled);
+    }
+
+    private List<SearchController.CandidateMatch> searchDense(
+            SearchController.SearchRequest request,
+            float[] queryEmbedding,
+            int chunkTopK,
+            int candidateTopK,
+            VectorStoreService.SearchScope scope,
+            SearchWeightNormalizer.Weights weightConfig,
+            ChunkType[] types) {
+        if (aggregateInDatabase) {
+            return searchAggregatedInDatabase(request, queryEmbedding, chunkTopK, candidateTopK, scope, weightConfig, types);
+        }
         List<VectorStoreService.SearchResult> results = vectorStore.searchVisible(
                 queryEmbedding,
                 chunkTopK,
@@ -75,14 +248,46 @@ public class SemanticSearchExecutionService {
         if (request.onlyVectorReadyCandidates()) {
             sortedCandidates = filterVectorReadyCandidates(sortedCandidates);
         }
-        if (sortedCandidates.size() > request.topK()) {
-            sortedCandidates = sortedCandidates.subList(0, request.topK());
+        if (sortedCandidates.size() > candidateTopK) {
+            sortedCandidates = sortedCandidates.subList(0, candidateTopK);
         }
+        return sortedCandidates;
+    }
 
-        return new SearchController.SearchResponse(
-                sortedCandidates.size(),
-                request.topK(),
-                List.copyOf(sortedCandidates));
+    /**
+     * 聚合、加权、阈值与向量就绪过滤都在一条 SQL 内完成，只有最终 candidateTopK 个候选人的 chunk 带回 content
+     */
+    private List<SearchController.CandidateMatch> searchAggregatedInDatabase(
+            SearchController.SearchRequest request,
+            float[] queryEmbedding,
+            int chunkTopK,
+            int candidateTopK,
+            VectorStoreService.SearchScope scope,
+            SearchWeightNormalizer.Weights weightConfig,
+            ChunkType[] types) {
+        List<VectorStoreService.CandidateSearchResult> results = vectorStore.searchVisibleCandidates(
+                queryEmbedding,
+                chunkTopK,
+                scope,
+                MIN_CANDIDATE_SCORE,
+                new VectorStoreService.CandidateAggregation(
+                        candidateTopK,
+                        weightConfig.experienceWeight(),
+                        weightConfig.skillWeight(),
+                        request.onlyVectorReadyCandidates()),
+                types);
+
+        return results.stream()
+                .map(result -> new SearchController.CandidateMatch(
+                        result.candidateId(),
+                        result.matchedChunks().stream()
+                                .map(chunk -> new SearchController.MatchedChunk(
+                                        chunk.chunkType().name(),
+                                        chunk.content(),
+                                        chunk.score()))
+                                .toList(),
+                        result.score()))
+                .toList();
     }
 
     private VectorStoreService.SearchScope resolveSearchScope() {
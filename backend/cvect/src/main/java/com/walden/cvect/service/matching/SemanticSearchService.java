@@ -22,9 +22,20 @@ public class SemanticSearchService {
 
     @Cacheable(
             cacheNames = CacheConfig.SEARCH_RESPONSE_CACHE,
-            key = "T(com.walden.cvect.service.matching.SearchCacheKeys).searchRequest(#request, @dataScopeService.cacheScopeKey())",
+            key = "T(com.walden.cvect.service.matching.SearchCacheKeys).searchRequest(#request, @dataScopeService.cacheScopeKey(), @searchDataVersionService.currentVersion())",
             sync = true)
     public SearchController.SearchResponse search(SearchController.SearchRequest request) {
         return executionService.search(request);
     }
+
+    /**
+     * 已知 query 向量的检索；向量与 jobDescription 文本一一对应，因此与文本检索共用同一缓存 key
+     */
+    @Cacheable(
+            cacheNames = CacheConfig.SEARCH_RESPONSE_CACHE,
+            key = "T(com.walden.cvect.service.matching.SearchCacheKeys).searchRequest(#request, @dataScopeService.cacheScopeKey(), @searchDataVersionService.currentVersion())",
+            sync = true)
+    public SearchController.SearchResponse search(SearchController.SearchRequest request, float[] queryEmbedding) {
+        return executionService.search(request, queryEmbedding);
+    }
 }
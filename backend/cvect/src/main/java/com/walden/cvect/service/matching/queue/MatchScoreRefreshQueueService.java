@@ -0,0 +1,118 @@
+package com.walden.cvect.service.matching.queue;
+
+import com.walden.cvect.model.entity.matching.MatchScoreDirtyCandidate;
+import com.walden.cvect.model.entity.matching.MatchScoreRefreshTask;
+import com.walden.cvect.model.entity.matching.MatchScoreRefreshTaskStatus;
+import com.walden.cvect.repository.MatchScoreDirtyCandidateJpaRepository;
+import com.walden.cvect.repository.MatchScoreRefreshTaskJpaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 匹配分刷新请求入队（持久化队列）
+ *
+ * 同一 JD 的请求合并到 match_score_refresh_tasks 的同一行，首次请求后延迟 debounce 才可被 claim，
+ * 窗口内的后续请求只会升级 full_refresh；候选人级请求写入 match_score_dirty_candidates，只重算这些候选人。
+ */
+@Service
+public class MatchScoreRefreshQueueService {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchScoreRefreshQueueService.class);
+    private static final int MAX_ENQUEUE_ATTEMPTS = 3;
+
+    private final MatchScoreRefreshTaskJpaRepository taskRepository;
+    private final MatchScoreDirtyCandidateJpaRepository dirtyCandidateRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long debounceMs;
+
+    public MatchScoreRefreshQueueService(
+            MatchScoreRefreshTaskJpaRepository taskRepository,
+            MatchScoreDirtyCandidateJpaRepository dirtyCandidateRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.match-scores.refresh.debounce-ms:2000}") long debounceMs) {
+        this.taskRepository = taskRepository;
+        this.dirtyCandidateRepository = dirtyCandidateRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.debounceMs = Math.max(0L, debounceMs);
+    }
+
+    public void requestFullRefresh(UUID jobDescriptionId) {
+        if (jobDescriptionId == null) {
+            return;
+        }
+        request(jobDescriptionId, true);
+    }
+
+    public void requestCandidateRefresh(UUID jobDescriptionId, Collection<UUID> candidateIds) {
+        if (jobDescriptionId == null || candidateIds == null) {
+            return;
+        }
+        Set<UUID> normalizedIds = new LinkedHashSet<>(candidateIds);
+        normalizedIds.remove(null);
+        if (normalizedIds.isEmpty()) {
+            return;
+        }
+        boolean recorded = recordDirtyCandidates(jobDescriptionId, normalizedIds);
+        request(jobDescriptionId, !recorded);
+    }
+
+    /**
+     * @return false 表示并发写入冲突未能记录候选人，调用方退化为全量刷新
+     */
+    private boolean recordDirtyCandidates(UUID jobDescriptionId, Set<UUID> candidateIds) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<UUID> existing = new HashSet<>(dirtyCandidateRepository
+                        .findCandidateIdsByJobDescriptionIdAndCandidateIdIn(jobDescriptionId, candidateIds));
+                List<MatchScoreDirtyCandidate> missing = candidateIds.stream()
+                        .filter(candidateId -> !existing.contains(candidateId))
+                        .map(candidateId -> new MatchScoreDirtyCandidate(jobDescriptionId, candidateId))
+                        .toList();
+                if (!missing.isEmpty()) {
+                    dirtyCandidateRepository.saveAllAndFlush(missing);
+                }
+            });
+            return true;
+        } catch (DataIntegrityViolationException ex) {
+            log.debug("Concurrent dirty candidate insert for jdId={}, fallback to full refresh", jobDescriptionId);
+            return false;
+        }
+    }
+
+    private void request(UUID jobDescriptionId, boolean fullRefresh) {
+        for (int attempt = 0; attempt < MAX_ENQUEUE_ATTEMPTS; attempt++) {
+            Integer merged = transactionTemplate.execute(status -> taskRepository.mergeRequest(
+                    jobDescriptionId,
+                    fullRefresh,
+                    MatchScoreRefreshTaskStatus.PROCESSING));
+            if (Objects.requireNonNullElse(merged, 0) > 0) {
+                return;
+            }
+            try {
+                LocalDateTime notBefore = LocalDateTime.now().plusNanos(debounceMs * 1_000_000L);
+                transactionTemplate.executeWithoutResult(status -> taskRepository.saveAndFlush(
+                        new MatchScoreRefreshTask(jobDescriptionId, fullRefresh, notBefore)));
+                return;
+            } catch (DataIntegrityViolationException ex) {
+                // 并发插入同一 JD：回到合并分支
+                log.debug("Concurrent refresh enqueue for jdId={}, retry merge", jobDescriptionId);
+            }
+        }
+        log.warn("Failed to enqueue match score refresh for jdId={} after {} attempts",
+                jobDescriptionId, MAX_ENQUEUE_ATTEMPTS);
+    }
+}
@@ -0,0 +1,98 @@
+package com.walden.cvect.service.matching.queue;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 匹配分刷新并行消费：consumer-count 个循环并发 claim，单个 JD 同一时刻只会被一个 consumer 处理
+ */
+@Component
+@ConditionalOnProperty(name = "app.match-scores.refresh.worker.enabled", havingValue = "true", matchIfMissing = true)
+public class MatchScoreRefreshWorkerRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchScoreRefreshWorkerRunner.class);
+
+    private final MatchScoreRefreshWorkerService workerService;
+    private final TaskExecutor matchScoreRefreshExecutor;
+    private final long initialDelayMs;
+    private final long idleSleepMs;
+    private final int consumerCount;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final Set<Thread> runnerThreads = ConcurrentHashMap.newKeySet();
+
+    public MatchScoreRefreshWorkerRunner(
+            MatchScoreRefreshWorkerService workerService,
+            @Qualifier("matchScoreRefreshExecutor") TaskExecutor matchScoreRefreshExecutor,
+            @Value("${app.match-scores.refresh.worker.initial-delay-ms:3000}") long initialDelayMs,
+            @Value("${app.match-scores.refresh.worker.idle-sleep-ms:500}") long idleSleepMs,
+            @Value("${app.match-scores.refresh.worker.consumer-count:2}") int consumerCount) {
+        this.workerService = workerService;
+        this.matchScoreRefreshExecutor = matchScoreRefreshExecutor;
+        this.initialDelayMs = Math.max(0L, initialDelayMs);
+        this.idleSleepMs = Math.max(1L, idleSleepMs);
+        this.consumerCount = Math.max(1, consumerCount);
+    }
+
+    @PostConstruct
+    void start() {
+        if (started.compareAndSet(false, true)) {
+            log.info("Starting match score refresh workers: consumerCount={}, idleSleepMs={}", consumerCount, idleSleepMs);
+            for (int i = 0; i < consumerCount; i++) {
+                final int workerIndex = i;
+                matchScoreRefreshExecutor.execute(() -> runLoop(workerIndex));
+            }
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        running.set(false);
+        for (Thread thread : runnerThreads) {
+            thread.interrupt();
+        }
+    }
+
+    private void runLoop(int workerIndex) {
+        Thread current = Thread.currentThread();
+        runnerThreads.add(current);
+        try {
+            if (!running.get() || current.isInterrupted()) {
+                return;
+            }
+            sleepQuietly(initialDelayMs + (workerIndex * 50L));
+            while (running.get() && !current.isInterrupted()) {
+                try {
+                    int processed = workerService.consumeDueTasks();
+                    if (processed > 0) {
+                        continue;
+                    }
+                } catch (Exception ex) {
+                    log.warn("Match score refresh worker loop failed and will retry", ex);
+                }
+                sleepQuietly(idleSleepMs);
+            }
+        } finally {
+            runnerThreads.remove(current);
+        }
+    }
+
+    private void sleepQuietly(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.walden.cvect.service.matching.queue;
+
+import com.walden.cvect.exception.EmbeddingCircuitOpenException;
+import com.walden.cvect.exception.EmbeddingLimitExceededException;
+import com.walden.cvect.exception.EmbeddingUnavailableException;
+import com.walden.cvect.model.entity.matching.MatchScoreDirtyCandidate;
+import com.walden.cvect.model.entity.matching.MatchScoreRefreshTask;
+import com.walden.cvect.model.entity.matching.MatchScoreRefreshTaskStatus;
+import com.walden.cvect.repository.MatchScoreDirtyCandidateJpaRepository;
+import com.walden.cvect.repository.MatchScoreRefreshTaskJpaRepository;
+import com.walden.cvect.service.matching.PersistedMatchScoreService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 匹配分刷新队列消费者
+ *
+ * 从 match_score_refresh_tasks claim 到期任务 (PostgreSQL 上 FOR UPDATE SKIP LOCKED，多个 consumer 并行)，
+ * full_refresh 任务重算整个 JD，否则只重算 dirty 候选人；处理中收到的新请求在完成后重新排队。
+ */
+@Service
+@ConditionalOnProperty(name = "app.match-scores.refresh.worker.enabled", havingValue = "true", matchIfMissing = true)
+public class MatchScoreRefreshWorkerService {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchScoreRefreshWorkerService.class);
+    private static final int MAX_COMPLETE_ATTEMPTS = 3;
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 1000;
+
+    private final MatchScoreRefreshTaskJpaRepository taskRepository;
+    private final MatchScoreDirtyCandidateJpaRepository dirtyCandidateRepository;
+    private final PersistedMatchScoreService persistedMatchScoreService;
+    private final TransactionTemplate requiresNewTx;
+    private final int claimBatchSize;
+    private final int dirtyBatchSize;
+    private final int maxAttempts;
+    private final long debounceMs;
+    private final long retryBackoffMs;
+    private final Duration staleProcessingTimeout;
+    private final long maintenanceIntervalMs;
+    private final AtomicBoolean useNativeClaimQuery;
+    private final AtomicLong lastMaintenanceAtMs = new AtomicLong(0L);
+    private final AtomicLong queueDepth = new AtomicLong(0L);
+    private final AtomicLong queueLagMs = new AtomicLong(0L);
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public MatchScoreRefreshWorkerService(
+            MatchScoreRefreshTaskJpaRepository taskRepository,
+            MatchScoreDirtyCandidateJpaRepository dirtyCandidateRepository,
+            PersistedMatchScoreService persistedMatchScoreService,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectProvider<MeterRegistry> meterRegistryProvider,
+            @Value("${app.match-scores.refresh.worker.claim-batch-size:4}") int claimBatchSize,
+            @Value("${app.match-scores.refresh.worker.dirty-batch-size:500}") int dirtyBatchSize,
+            @Value("${app.match-scores.refresh.worker.max-attempts:3}") int maxAttempts,
+            @Value("${app.match-scores.refresh.debounce-ms:2000}") long debounceMs,
+            @Value("${app.match-scores.refresh.worker.retry-backoff-ms:5000}") long retryBackoffMs,
+            @Value("${app.match-scores.refresh.worker.stale-processing-ms:600000}") long staleProcessingMs,
+            @Value("${app.match-scores.refresh.worker.maintenance-interval-ms:5000}") long maintenanceIntervalMs) {
+        this(taskRepository, dirtyCandidateRepository, persistedMatchScoreService, isPostgreSql(jdbcTemplate),
+                transactionManager, meterRegistryProvider.getIfAvailable(), claimBatchSize, dirtyBatchSize,
+                maxAttempts, debounceMs, retryBackoffMs, staleProcessingMs, maintenanceIntervalMs);
+    }
+
+    MatchScoreRefreshWorkerService(
+            MatchScoreRefreshTaskJpaRepository taskRepository,
+            MatchScoreDirtyCandidateJpaRepository dirtyCandidateRepository,
+            PersistedMatchScoreService persistedMatchScoreService,
+            boolean nativeClaimQuery,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            int claimBatchSize,
+            int dirtyBatchSize,
+            int maxAttempts,
+            long debounceMs,
+            long retryBackoffMs,
+            long staleProcessingMs,
+            long maintenanceIntervalMs) {
+        this.taskRepository = taskRepository;
+        this.dirtyCandidateRepository = dirtyCandidateRepository;
+        this.persistedMatchScoreService = persistedMatchScoreService;
+        this.requiresNewTx = new TransactionTemplate(transactionManager);
+        this.claimBatchSize = Math.max(1, Math.min(claimBatchSize, 50));
+        this.dirtyBatchSize = Math.max(1, Math.min(dirtyBatchSize, 5000));
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.debounceMs = Math.max(0L, debounceMs);
+        this.retryBackoffMs = Math.max(0L, retryBackoffMs);
+        this.staleProcessingTimeout = Duration.ofMillis(Math.max(0L, staleProcessingMs));
+        this.maintenanceIntervalMs = Math.max(1000L, maintenanceIntervalMs);
+        this.useNativeClaimQuery = new AtomicBoolean(nativeClaimQuery);
+        this.meterRegistry = meterRegistry;
+        if (meterRegistry != null) {
+            Gauge.builder("cvect.match-score.refresh.queue.depth", queueDepth, AtomicLong::get)
+                    .description("Pending match score refresh tasks")
+                    .register(meterRegistry);
+            Gauge.builder("cvect.match-score.refresh.queue.lag", queueLagMs, AtomicLong::get)
+                    .description("Age of the oldest unprocessed match score refresh request")
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    public int consumeDueTasks() {
+        runMaintenanceIfDue();
+
+        List<UUID> claimedIds = claimDueBatchWithFallback();
+        if (claimedIds.isEmpty()) {
+            return 0;
+        }
+        List<ClaimedRefresh> claimed = inTx(() -> {
+            List<ClaimedRefresh> tasks = new ArrayList<>();
+            for (MatchScoreRefreshTask task : taskRepository.findAllById(claimedIds)) {
+                if (task.getStatus() == MatchScoreRefreshTaskStatus.PROCESSING) {
+                    tasks.add(new ClaimedRefresh(
+                            task.getJobDescriptionId(),
+                            task.isFullRefresh(),
+                            task.getAttempt() == null ? 0 : task.getAttempt()));
+                }
+            }
+            taskRepository.clearFullRefresh(claimedIds);
+            return tasks;
+        }, List.of());
+        for (ClaimedRefresh task : claimed) {
+            processClaimedTask(task);
+        }
+        return claimedIds.size();
+    }
+
+    private List<UUID> claimDueBatchWithFallback() {
+        if (!useNativeClaimQuery.get()) {
+            return claimDueBatchPortable();
+        }
+        try {
+            return inTx(() -> taskRepository.claimDueBatch(claimBatchSize), List.of());
+        } catch (RuntimeException ex) {
+            useNativeClaimQuery.set(false);
+            log.warn("Disable native match score refresh claim query after failure; fallback to portable claim strategy", ex);
+            return claimDueBatchPortable();
+        }
+    }
+
+    private List<UUID> claimDueBatchPortable() {
+        return inTx(() -> {
+            List<MatchScoreRefreshTask> dueTasks = taskRepository.findByStatusAndNotBeforeLessThanEqualOrderByNotBeforeAsc(
+                    MatchScoreRefreshTaskStatus.PENDING,
+                    LocalDateTime.now(),
+                    PageRequest.of(0, claimBatchSize));
+            List<UUID> claimedIds = new ArrayList<>();
+            for (MatchScoreRefreshTask task : dueTasks) {
+                int updated = taskRepository.claimPendingTaskById(
+                        task.getJobDescriptionId(),
+                        MatchScoreRefreshTaskStatus.PROCESSING,
+                        MatchScoreRefreshTaskStatus.PENDING);
+                if (updated > 0) {
+                    claimedIds.add(task.getJobDescriptionId());
+                }
+            }
+            return claimedIds;
+        }, List.of());
+    }
+
+    private void processClaimedTask(ClaimedRefresh task) {
+        UUID jobDescriptionId = task.jobDescriptionId();
+        String mode = task.fullRefresh() ? "full" : "candidates";
+        long startedAtNanos = System.nanoTime();
+        try {
+            if (task.fullRefresh()) {
+                // 全量重算覆盖开始前登记的 dirty 候选人；之后登记的会随 rerun 再处理一次
+                LocalDateTime cutoff = LocalDateTime.now();
+                persistedMatchScoreService.refreshForJobDescription(jobDescriptionId);
+                inTx(() -> dirtyCandidateRepository.deleteByJobDescriptionIdCreatedUpTo(jobDescriptionId, cutoff), 0);
+            } else {
+                refreshDirtyCandidates(jobDescriptionId);
+            }
+            completeSuccess(jobDescriptionId);
+            recordDuration(mode, "success", startedAtNanos);
+        } catch (Exception ex) {
+            recordDuration(mode, "failure", startedAtNanos);
+            completeFailure(task, ex);
+        }
+    }
+
+    private void refreshDirtyCandidates(UUID jobDescriptionId) {
+        while (true) {
+            List<MatchScoreDirtyCandidate> dirty = inTx(
+                    () -> dirtyCandidateRepository.findByJobDescriptionIdOrderByCreatedAtAsc(
+                            jobDescriptionId,
+                            PageRequest.of(0, dirtyBatchSize)),
+                    List.<MatchScoreDirtyCandidate>of());
+            if (dirty.isEmpty()) {
+                return;
+            }
+            List<UUID> candidateIds = dirty.stream().map(MatchScoreDirtyCandidate::getCandidateId).toList();
+            persistedMatchScoreService.refreshForJobDescriptionCandidates(jobDescriptionId, candidateIds);
+            List<UUID> dirtyIds = dirty.stream().map(MatchScoreDirtyCandidate::getId).toList();
+            inTx(() -> dirtyCandidateRepository.deleteByIds(dirtyIds), 0);
+            if (dirty.size() < dirtyBatchSize) {
+                return;
+            }
+        }
+    }
+
+    private void completeSuccess(UUID jobDescriptionId) {
+        for (int attempt = 0; attempt < MAX_COMPLETE_ATTEMPTS; attempt++) {
+            LocalDateTime notBefore = LocalDateTime.now().plusNanos(debounceMs * 1_000_000L);
+            int requeued = inTx(() -> taskRepository.requeueRerun(
+                    jobDescriptionId,
+                    notBefore,
+                    MatchScoreRefreshTaskStatus.PENDING,
+                    MatchScoreRefreshTaskStatus.PROCESSING), 0);
+            if (requeued > 0) {
+                return;
+            }
+            int deleted = inTx(() -> taskRepository.deleteCompleted(
+                    jobDescriptionId,
+                    MatchScoreRefreshTaskStatus.PROCESSING), 0);
+            if (deleted > 0) {
+                return;
+            }
+            // 两条语句之间恰好有新请求置位 rerun：重试一次即可进入 requeue 分支
+        }
+        log.warn("Match score refresh task for jdId={} was not completed; stale recovery will pick it up",
+                jobDescriptionId);
+    }
+
+    private void completeFailure(ClaimedRefresh task, Exception ex) {
+        UUID jobDescriptionId = task.jobDescriptionId();
+        EmbeddingUnavailableException rejected = findRejectedEmbeddingCall(ex);
+        if (rejected != null) {
+            // embedding 熔断或限流时请求未发出：按建议时间推迟，不消耗重试次数
+            long delayMs = Math.max(retryBackoffMs, rejected.getRetryAfterMs());
+            log.warn("Match score refresh for jdId={} deferred {} ms: {}", jobDescriptionId, delayMs, ex.getMessage());
+            inTx(() -> taskRepository.scheduleRetry(
+                    jobDescriptionId,
+                    task.fullRefresh(),
+                    task.attempt(),
+                    truncate(ex.getMessage()),
+                    LocalDateTime.now().plusNanos(delayMs * 1_000_000L),
+                    MatchScoreRefreshTaskStatus.PENDING,
+                    MatchScoreRefreshTaskStatus.PROCESSING), 0);
+            return;
+        }
+        int nextAttempt = task.attempt() + 1;
+        if (nextAttempt >= maxAttempts) {
+            log.warn("Drop match score refresh for jdId={} after {} attempts; the next request will retry",
+                    jobDescriptionId, nextAttempt, ex);
+            inTx(() -> taskRepository.deleteProcessing(jobDescriptionId, MatchScoreRefreshTaskStatus.PROCESSING), 0);
+            return;
+        }
+        log.warn("Match score refresh failed for jdId={}, attempt={}/{}: {}",
+                jobDescriptionId, nextAttempt, maxAttempts, ex.getMessage());
+        LocalDateTime notBefore = LocalDateTime.now().plusNanos(retryBackoffMs * nextAttempt * 1_000_000L);
+        inTx(() -> taskRepository.scheduleRetry(
+                jobDescriptionId,
+                task.fullRefresh(),
+                nextAttempt,
+                truncate(ex.getMessage()),
+                notBefore,
+                MatchScoreRefreshTaskStatus.PENDING,
+                MatchScoreRefreshTaskStatus.PROCESSING), 0);
+    }
+
+    private void runMaintenanceIfDue() {
+        long now = System.currentTimeMillis();
+        long last = lastMaintenanceAtMs.get();
+        if (now - last < maintenanceIntervalMs) {
+            return;
+        }
+        if (!lastMaintenanceAtMs.compareAndSet(last, now)) {
+            return;
+        }
+        recoverStaleProcessingTasks();
+        refreshQueueGauges();
+    }
+
+    private void recoverStaleProcessingTasks() {
+        LocalDateTime threshold = LocalDateTime.now().minus(staleProcessingTimeout);
+        List<MatchScoreRefreshTask> staleTasks = inTx(
+                () -> taskRepository.findTop50ByStatusAndStartedAtBeforeOrderByStartedAtAsc(
+                        MatchScoreRefreshTaskStatus.PROCESSING,
+                        threshold),
+                List.<MatchScoreRefreshTask>of());
+        int recovered = 0;
+        for (MatchScoreRefreshTask task : staleTasks) {
+            recovered += inTx(() -> taskRepository.recoverStaleProcessing(
+                    task.getJobDescriptionId(),
+                    "Recovered stale match score refresh lease",
+                    MatchScoreRefreshTaskStatus.PENDING,
+                    MatchScoreRefreshTaskStatus.PROCESSING), 0);
+        }
+        if (recovered > 0) {
+            log.info("Recovered {} stale match score refresh tasks", recovered);
+        }
+    }
+
+    void refreshQueueGauges() {
+        try {
+            queueDepth.set(inTx(() -> taskRepository.countByStatus(MatchScoreRefreshTaskStatus.PENDING), 0L));
+            LocalDateTime oldest = inTx(taskRepository::findOldestRequestedAt, null);
+            queueLagMs.set(oldest == null ? 0L : Math.max(0L, Duration.between(oldest, LocalDateTime.now()).toMillis()));
+        } catch (RuntimeException ex) {
+            log.debug("Failed to refresh match score refresh queue gauges: {}", ex.getMessage());
+        }
+    }
+
+    long queueDepth() {
+        return queueDepth.get();
+    }
+
+    long queueLagMs() {
+        return queueLagMs.get();
+    }
+
+    private void recordDuration(String mode, String outcome, long startedAtNanos) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Timer.builder("cvect.match-score.refresh.duration")
+                .description("Time spent refreshing persisted match scores for one JD")
+                .tag("mode", mode)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedAtNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_MESSAGE_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_MESSAGE_LENGTH);
+    }
+
+    private <T> T inTx(TxSupplier<T> supplier, T fallback) {
+        T result = requiresNewTx.execute(status -> supplier.get());
+        return result == null ? fallback : result;
+    }
+
+    @FunctionalInterface
+    interface TxSupplier<T> {
+        T get();
+    }
+
+    private static EmbeddingUnavailableException findRejectedEmbeddingCall(Throwable ex) {
+        for (Throwable cursor = ex; cursor != null; cursor = cursor.getCause()) {
+            if (cursor instanceof EmbeddingCircuitOpenException || cursor instanceof EmbeddingLimitExceededException) {
+                return (EmbeddingUnavailableException) cursor;
+            }
+        }
+        return null;
+    }
+
+    private record ClaimedRefresh(UUID jobDescriptionId, boolean fullRefresh, int attempt) {
+    }
+
+    private static boolean isPostgreSql(JdbcTemplate jdbcTemplate) {
+        try (Connection connection = jdbcTemplate.getDataSource().getConnection()) {
+            String productName = connection.getMetaData().getDatabaseProductName();
+            return productName != null && productName.toLowerCase(Locale.ROOT).contains("postgresql");
+        } catch (Exception ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.walden.cvect.service.resume;
+
+import com.walden.cvect.infra.vector.VectorStoreService;
+import com.walden.cvect.model.entity.Candidate;
+import com.walden.cvect.model.entity.JobDescription;
+import com.walden.cvect.model.entity.vector.VectorIngestTaskStatus;
+import com.walden.cvect.repository.CandidateCloneRepository;
+import com.walden.cvect.repository.CandidateJpaRepository;
+import com.walden.cvect.repository.CandidateSnapshotJpaRepository;
+import com.walden.cvect.repository.VectorIngestTaskJpaRepository;
+import com.walden.cvect.service.matching.PersistedMatchScoreService;
+import com.walden.cvect.service.matching.SearchDataVersionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * 跨 JD 候选人克隆：同一文件已在同租户其它 JD 下完成解析与向量入库时，
+ * 新候选人直接复制结构化事实、chunk 向量和已完成的向量任务，跳过解析、抽取与 embedding，
+ * 之后只剩均值向量刷新与匹配分计算。
+ *
+ * 克隆写入使用独立事务 (REQUIRES_NEW)：调用方 (上传队列 worker) 自身处于事务中，
+ * 唯一键冲突只回滚克隆事务，调用方仍可回退到完整流程；均值向量与匹配分在外层事务结束后处理。
+ */
+@Service
+public class CandidateCloneService {
+
+    private static final Logger log = LoggerFactory.getLogger(CandidateCloneService.class);
+    // 源候选人尚未完成 (或向量入库失败) 时不克隆，走完整流程
+    private static final List<VectorIngestTaskStatus> UNSETTLED_VECTOR_STATUSES = List.of(
+            VectorIngestTaskStatus.PENDING,
+            VectorIngestTaskStatus.PROCESSING,
+            VectorIngestTaskStatus.FAILED);
+
+    private final CandidateJpaRepository candidateRepository;
+    private final CandidateSnapshotJpaRepository snapshotRepository;
+    private final VectorIngestTaskJpaRepository vectorIngestTaskRepository;
+    private final CandidateCloneRepository cloneRepository;
+    private final VectorStoreService vectorStoreService;
+    private final PersistedMatchScoreService persistedMatchScoreService;
+    private final SearchDataVersionService searchDataVersionService;
+    private final TransactionTemplate requiresNewTx;
+    private final boolean enabled;
+
+    public CandidateCloneService(
+            CandidateJpaRepository candidateRepository,
+            CandidateSnapshotJpaRepository snapshotRepository,
+            VectorIngestTaskJpaRepository vectorIngestTaskRepository,
+            CandidateCloneRepository cloneRepository,
+            VectorStoreService vectorStoreService,
+            PersistedMatchScoreService persistedMatchScoreService,
+            SearchDataVersionService searchDataVersionService,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.resume.clone.enabled:true}") boolean enabled) {
+        this.candidateRepository = candidateRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.vectorIngestTaskRepository = vectorIngestTaskRepository;
+        this.cloneRepository = cloneRepository;
+        this.vectorStoreService = vectorStoreService;
+        this.persistedMatchScoreService = persistedMatchScoreService;
+        this.searchDataVersionService = searchDataVersionService;
+        this.requiresNewTx = new TransactionTemplate(transactionManager);
+        this.requiresNewTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return 克隆出的候选人；没有可复用的源候选人或并发冲突时返回 empty，由调用方走完整流程
+     */
+    public Optional<CloneResult> cloneForJobDescription(
+            UUID tenantId,
+            String fileHash,
+            JobDescription jobDescription,
+            String sourceFileName) {
+        if (!enabled || tenantId == null || fileHash == null || fileHash.isBlank()) {
+            return Optional.empty();
+        }
+        UUID jdId = jobDescription == null ? null : jobDescription.getId();
+        Candidate source = findCloneSource(tenantId, fileHash, jdId);
+        if (source == null) {
+            return Optional.empty();
+        }
+
+        CloneResult result;
+        try {
+            result = requiresNewTx.execute(status -> {
+                Candidate clone = candidateRepository.saveAndFlush(new Candidate(
+                        tenantId,
+                        sourceFileName == null || sourceFileName.isBlank()
+                                ? source.getSourceFileName()
+                                : sourceFileName,
+                        fileHash,
+                        source.getName(),
+                        jobDescription,
+                        source.getContentType(),
+                        source.getFileSizeBytes(),
+                        source.getParsedCharCount(),
+                        source.getTruncated()));
+                int facts = cloneRepository.copyFacts(source.getId(), clone.getId());
+                int vectorChunks = vectorStoreService.cloneCandidateChunks(source.getId(), clone.getId());
+                if (vectorChunks > 0) {
+                    cloneRepository.copyDoneVectorTasks(source.getId(), clone.getId());
+                }
+                return new CloneResult(clone.getId(), source.getId(), facts, vectorChunks);
+            });
+        } catch (DataIntegrityViolationException ex) {
+            log.debug("Concurrent candidate insert for fileHash={}, jdId={}, skip clone", fileHash, jdId);
+            return Optional.empty();
+        }
+        if (result == null) {
+            return Optional.empty();
+        }
+
+        if (result.vectorChunks() > 0) {
+            afterCallerTransaction(() -> refreshDerivedData(tenantId, result.candidateId()));
+        }
+        log.info("Cloned candidate from same file in tenant. fileHash={}, sourceCandidateId={}, candidateId={}, facts={}, vectorChunks={}",
+                fileHash, result.sourceCandidateId(), result.candidateId(), result.facts(), result.vectorChunks());
+        return Optional.of(result);
+    }
+
+    /**
+     * 调用方事务结束后执行：克隆已独立提交，外层回滚也要补齐派生数据；
+     * 回调中的数据访问需要新事务，否则会加入已结束的外层事务
+     */
+    private void afterCallerTransaction(Runnable action) {
+        Runnable inNewTx = () -> requiresNewTx.executeWithoutResult(status -> action.run());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        inNewTx.run();
+                    } catch (RuntimeException ex) {
+                        log.warn("Failed to refresh derived data for cloned candidate", ex);
+                    }
+                }
+            });
+            return;
+        }
+        inNewTx.run();
+    }
+
+    /**
+     * 均值向量只涉及单个候选人，直接刷新；匹配分需要对租户下每个 JD 打分 (可能触发 JD embedding)，交给刷新队列
+     */
+    private void refreshDerivedData(UUID tenantId, UUID candidateId) {
+        searchDataVersionService.bumpTenant(tenantId);
+        try {
+            vectorStoreService.refreshCandidateSummaries(candidateId);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to refresh candidate summary vectors: candidateId={}", candidateId, ex);
+        }
+        try {
+            persistedMatchScoreService.scheduleRefreshForNewCandidate(tenantId, candidateId);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to schedule match score refresh for cloned candidate: candidateId={}", candidateId, ex);
+        }
+    }
+
+    private Candidate findCloneSource(UUID tenantId, String fileHash, UUID jdId) {
+        for (Candidate candidate : candidateRepository.findTop5ByTenantIdAndFileHashOrderByCreatedAtDesc(tenantId, fileHash)) {
+            UUID candidateJdId = candidate.getJobDescription() == null ? null : candidate.getJobDescription().getId();
+            if (Objects.equals(candidateJdId, jdId)) {
+                continue;
+            }
+            // 快照在解析与事实抽取完成后写入，可作为源候选人已完整入库的标记
+            if (!snapshotRepository.existsById(candidate.getId())) {
+                continue;
+            }
+            if (vectorIngestTaskRepository.existsByCandidateIdAndStatusIn(candidate.getId(), UNSETTLED_VECTOR_STATUSES)) {
+                continue;
+            }
+            return candidate;
+        }
+        return null;
+    }
+
+    public record CloneResult(UUID candidateId, UUID sourceCandidateId, int facts, int vectorChunks) {
+    }
+}
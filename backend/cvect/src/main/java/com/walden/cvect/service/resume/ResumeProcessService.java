@@ -10,6 +10,7 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 
 import com.walden.cvect.logging.aop.AppLog;
@@ -48,6 +49,7 @@ public class ResumeProcessService {
     private final CandidateSnapshotService snapshotService;
     private final CandidateStreamService streamService;
     private final VectorIngestService vectorIngestService;
+    private final CandidateCloneService cloneService;
 
     public ResumeProcessService(
             ResumeParser parser,
@@ -59,7 +61,8 @@ public class ResumeProcessService {
             JobDescriptionJpaRepository jobDescriptionRepository,
             CandidateSnapshotService snapshotService,
             CandidateStreamService streamService,
-            VectorIngestService vectorIngestService) {
+            VectorIngestService vectorIngestService,
+            CandidateCloneService cloneService) {
         this.parser = parser;
         this.normalizer = normalizer;
         this.nameExtractor = nameExtractor;
@@ -70,6 +73,7 @@ public class ResumeProcessService {
         this.snapshotService = snapshotService;
         this.streamService = streamService;
         this.vectorIngestService = vectorIngestService;
+        this.cloneService = cloneService;
     }
 
     /**
@@ -91,6 +95,70 @@ public class ResumeProcessService {
         }
     }
 
+    /**
+     * 上传阶段已流式计算过内容哈希时直接复用，跳过落盘与重复哈希，解析器直接读取输入流
+     */
+    public ProcessResult process(
+            InputStream is,
+            String contentType,
+            String sourceFileName,
+            Long fileSizeBytes,
+            UUID jdId,
+            String knownFileHash) {
+        if (knownFileHash == null || knownFileHash.isBlank()) {
+            return process(is, contentType, sourceFileName, fileSizeBytes, jdId);
+        }
+        try {
+            InputStream input = Objects.requireNonNull(is, "input stream must not be null");
+            return processWithHash(
+                    knownFileHash.trim(),
+                    () -> parse(input, contentType),
+                    sourceFileName,
+                    fileSizeBytes,
+                    jdId);
+        } catch (Exception e) {
+            throw wrapProcessingException(e);
+        }
+    }
+
+    /**
+     * 去重前置阶段：上传时已知内容哈希，按 (tenant, file_hash, jd) 唯一索引一次查询判定重复，
+     * 命中时不读取存储、不解析；未命中返回 empty 由调用方继续完整流程
+     */
+    public Optional<ProcessResult> resolveDuplicate(UUID tenantId, String fileHash, UUID jdId) {
+        return resolveDuplicate(tenantId, fileHash, jdId, null);
+    }
+
+    /**
+     * 同上；同一文件已在同租户其它 JD 下入库时，克隆其解析结果与向量作为本 JD 的新候选人，
+     * 同样不读取存储、不解析、不做 embedding
+     */
+    public Optional<ProcessResult> resolveDuplicate(UUID tenantId, String fileHash, UUID jdId, String sourceFileName) {
+        if (fileHash == null || fileHash.isBlank()) {
+            return Optional.empty();
+        }
+        String normalizedHash = fileHash.trim();
+        UUID resolvedTenantId = tenantId == null ? TenantConstants.DEFAULT_TENANT_ID : tenantId;
+        Candidate existing = findExistingCandidate(resolvedTenantId, normalizedHash, jdId);
+        if (existing != null) {
+            log.info("Duplicate file resolved before parsing. fileHash={}, candidateId={}", normalizedHash, existing.getId());
+            publishCandidateEvent(existing.getId(), "DUPLICATE");
+            return Optional.of(new ProcessResult(existing.getId(), List.of(), true, normalizedHash));
+        }
+        JobDescription jobDescription = resolveJobDescription(jdId);
+        if (jdId != null && (jobDescription == null || !resolvedTenantId.equals(jobDescription.getTenantId()))) {
+            return Optional.empty();
+        }
+        return cloneService.cloneForJobDescription(resolvedTenantId, normalizedHash, jobDescription, sourceFileName)
+                .map(cloned -> {
+                    publishCandidateEvent(cloned.candidateId(), "DONE");
+                    if (cloned.vectorChunks() > 0) {
+                        publishCandidateEvent(cloned.candidateId(), "VECTOR_DONE");
+                    }
+                    return new ProcessResult(cloned.candidateId(), List.of(), false, normalizedHash);
+                });
+    }
+
     public ProcessResult process(Path sourcePath, String contentType, String sourceFileName, Long fileSizeBytes, UUID jdId) {
         try {
             return processInternal(
@@ -112,11 +180,20 @@ public class ResumeProcessService {
             UUID jdId) throws IOException {
         Path normalizedPath = sourcePath.toAbsolutePath().normalize();
         String fileHash = sha256Hex(normalizedPath);
+        return processWithHash(fileHash, () -> parse(normalizedPath, contentType), sourceFileName, fileSizeBytes, jdId);
+    }
+
+    private ProcessResult processWithHash(
+            String fileHash,
+            ParseAction parseAction,
+            String sourceFileName,
+            Long fileSizeBytes,
+            UUID jdId) throws IOException {
         JobDescription jobDescription = resolveJobDescription(jdId);
         UUID tenantId = jobDescription == null ? TenantConstants.DEFAULT_TENANT_ID : jobDescription.getTenantId();
         Candidate existing = findExistingCandidate(tenantId, fileHash, jdId);
 
-        ParseResult parsed = parse(normalizedPath, contentType);
+        ParseResult parsed = parseAction.parse();
         String normalized = normalizer.normalize(Objects.requireNonNullElse(parsed.getContent(), ""));
         String extractedName = nameExtractor.extract(normalized);
         List<ResumeChunk> chunks = chunker.chunk(normalized);
@@ -148,12 +225,16 @@ public class ResumeProcessService {
 
     private ParseResult parse(Path sourcePath, String contentType) throws IOException {
         try (InputStream input = Files.newInputStream(sourcePath)) {
-            return Objects.requireNonNull(
-                    parser.parse(input, contentType),
-                    "resume parser returned null result");
+            return parse(input, contentType);
         }
     }
 
+    private ParseResult parse(InputStream input, String contentType) {
+        return Objects.requireNonNull(
+                parser.parse(input, contentType),
+                "resume parser returned null result");
+    }
+
     private Candidate findExistingCandidate(UUID tenantId, String fileHash, UUID jdId) {
         if (jdId != null) {
             return candidateRepository.findByTenantIdAndFileHashAndJobDescriptionId(tenantId, fileHash, jdId).orElse(null);
@@ -268,6 +349,11 @@ public class ResumeProcessService {
         streamService.publish(event);
     }
 
+    @FunctionalInterface
+    private interface ParseAction {
+        ParseResult parse() throws IOException;
+    }
+
     public record ProcessResult(UUID candidateId, List<ResumeChunk> chunks, boolean duplicated, String fileHash) {
     }
 }
@@ -3,15 +3,17 @@ package com.walden.cvect.service.upload;
 import com.walden.cvect.exception.InvalidUploadRequestException;
 import com.walden.cvect.exception.UploadQueueBusyException;
 import com.walden.cvect.infra.storage.FileStorageService;
+import com.walden.cvect.infra.storage.StorageSizeLimitExceededException;
+import com.walden.cvect.infra.storage.StoredContent;
 import com.walden.cvect.logging.aop.AppLog;
 import com.walden.cvect.logging.aop.AuditAction;
 import com.walden.cvect.model.entity.JobDescription;
 import com.walden.cvect.model.entity.UploadBatch;
-import com.walden.cvect.model.entity.UploadBatchStatus;
 import com.walden.cvect.model.entity.UploadItem;
 import com.walden.cvect.model.entity.UploadItemStatus;
 import com.walden.cvect.repository.JobDescriptionJpaRepository;
 import com.walden.cvect.repository.UploadBatchJpaRepository;
+import com.walden.cvect.repository.UploadItemBulkRepository;
 import com.walden.cvect.repository.UploadItemJpaRepository;
 import com.walden.cvect.security.CurrentUserService;
 import com.walden.cvect.security.DataScopeService;
@@ -21,22 +23,30 @@ import com.walden.cvect.web.sse.BatchStreamService;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Enumeration;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 @Service
@@ -53,8 +63,12 @@ public class UploadApplicationService {
     private final UploadItemJpaRepository itemRepository;
     private final FileStorageService fileStorageService;
     private final BatchStreamService batchStreamService;
+    private final UploadBatchProgressService batchProgressService;
     private final CurrentUserService currentUserService;
     private final DataScopeService dataScopeService;
+    private final UploadItemBulkRepository itemBulkRepository;
+    private final TaskExecutor zipExtractExecutor;
+    private final boolean zipParallelEnabled;
     private final int maxInflightItems;
     private final int maxFilesPerZip;
     private final long maxTotalBytes;
@@ -67,8 +81,12 @@ public class UploadApplicationService {
             UploadItemJpaRepository itemRepository,
             FileStorageService fileStorageService,
             BatchStreamService batchStreamService,
+            UploadBatchProgressService batchProgressService,
             CurrentUserService currentUserService,
             DataScopeService dataScopeService,
+            UploadItemBulkRepository itemBulkRepository,
+            @Qualifier("uploadZipExtractExecutor") TaskExecutor zipExtractExecutor,
+            @Value("${app.upload.zip.parallel-enabled:true}") boolean zipParallelEnabled,
             @Value("${app.upload.max-inflight-items:2000}") int maxInflightItems,
             @Value("${app.upload.max-files-per-zip:2000}") int maxFilesPerZip,
             @Value("${app.upload.max-total-bytes:209715200}") long maxTotalBytes) {
@@ -77,8 +95,12 @@ public class UploadApplicationService {
         this.itemRepository = itemRepository;
         this.fileStorageService = fileStorageService;
         this.batchStreamService = batchStreamService;
+        this.batchProgressService = batchProgressService;
         this.currentUserService = currentUserService;
         this.dataScopeService = dataScopeService;
+        this.itemBulkRepository = itemBulkRepository;
+        this.zipExtractExecutor = zipExtractExecutor;
+        this.zipParallelEnabled = zipParallelEnabled;
         this.maxInflightItems = Math.max(1, maxInflightItems);
         this.maxFilesPerZip = Math.max(1, maxFilesPerZip);
         this.maxTotalBytes = Math.max(1L, maxTotalBytes);
@@ -86,11 +108,12 @@ public class UploadApplicationService {
 
     @PostConstruct
     void logLimits() {
-        log.info("Upload limits: maxInflightItems={}, maxFilesPerZip={}, maxEntryBytesMB={}, maxTotalBytesMB={}",
+        log.info("Upload limits: maxInflightItems={}, maxFilesPerZip={}, maxEntryBytesMB={}, maxTotalBytesMB={}, zipParallel={}",
                 maxInflightItems,
                 maxFilesPerZip,
                 MAX_ENTRY_BYTES / (1024 * 1024),
-                maxTotalBytes / (1024 * 1024));
+                maxTotalBytes / (1024 * 1024),
+                zipParallelEnabled);
     }
 
     @AppLog(action = "upload_resumes", slowThresholdMs = 1000L)
@@ -128,22 +151,113 @@ public class UploadApplicationService {
             throw new UploadQueueBusyException("Upload queue is busy");
         }
 
-        UploadBatch batch = batchRepository.save(new UploadBatch(jd, 0));
+        if (!zipParallelEnabled) {
+            UploadBatch batch = batchRepository.save(new UploadBatch(jd, 0));
+            ZipIngestSummary summary;
+            try (ZipInputStream zis = new ZipInputStream(zipFile.getInputStream())) {
+                summary = ingestZipSequential(batch, zis);
+            }
+            return completeZipBatch(batch, summary);
+        }
+
+        // 整包落一次临时文件后按中央目录随机访问，条目并行解压落存储，upload_items 一次批量写入
+        Path spooled = Files.createTempFile("cvect-upload-zip-", ".zip");
+        try {
+            try (InputStream in = zipFile.getInputStream()) {
+                Files.copy(in, spooled, StandardCopyOption.REPLACE_EXISTING);
+            }
+            try (ZipFile zip = openZip(spooled)) {
+                UploadBatch batch = batchRepository.save(new UploadBatch(jd, 0));
+                return completeZipBatch(batch, ingestZipParallel(batch, zip));
+            }
+        } finally {
+            Files.deleteIfExists(spooled);
+        }
+    }
+
+    private ZipUploadResponse completeZipBatch(UploadBatch batch, ZipIngestSummary summary) {
+        // 只改 total_files 并按现有计数判定状态，避免整行保存覆盖触发器维护的计数
+        batchProgressService.updateTotalFiles(batch.getId(), summary.totalFiles());
+        refreshBatchProgress(batch.getId());
+        return new ZipUploadResponse(batch.getId(), summary.totalFiles(), summary.truncated());
+    }
+
+    private ZipIngestSummary ingestZipSequential(UploadBatch batch, ZipInputStream zis) throws IOException {
         int totalFiles = 0;
         long totalBytes = 0;
         boolean truncated = false;
 
-        try (ZipInputStream zis = new ZipInputStream(zipFile.getInputStream())) {
-            ZipEntry entry;
-            while ((entry = zis.getNextEntry()) != null) {
-                if (entry.isDirectory()) {
+        ZipEntry entry;
+        while ((entry = zis.getNextEntry()) != null) {
+            if (entry.isDirectory()) {
+                continue;
+            }
+            if (totalBytes >= maxTotalBytes) {
+                truncated = true;
+                break;
+            }
+            if (totalFiles >= maxFilesPerZip) {
+                truncated = true;
+                break;
+            }
+            totalFiles++;
+
+            String fileName = entry.getName();
+            if (!isAllowedExtension(fileName)) {
+                failRejected(batch, fileName, "Unsupported file type");
+                continue;
+            }
+            if (!tryReserveInflightSlots(1)) {
+                failRejected(batch, fileName, "Upload queue is busy, please retry later");
+                continue;
+            }
+
+            try {
+                // 单条上限与剩余总量取小值，超限在写入流中即时发现，不会留下存储对象
+                long remainingBytes = maxTotalBytes - totalBytes;
+                long entryLimit = Math.min(MAX_ENTRY_BYTES, remainingBytes);
+                StoredContent stored;
+                try {
+                    stored = fileStorageService.saveContentAddressed(zis, entryLimit);
+                } catch (StorageSizeLimitExceededException ex) {
+                    failRejected(batch, fileName, ex.getMessage());
+                    if (entryLimit < MAX_ENTRY_BYTES) {
+                        truncated = true;
+                        break;
+                    }
+                    continue;
+                } catch (IOException ex) {
+                    failRejected(batch, fileName, ex.getMessage());
                     continue;
                 }
-                if (totalBytes >= maxTotalBytes) {
-                    truncated = true;
-                    break;
+                totalBytes += stored.sizeBytes();
+
+                processStoredFile(batch, fileName, stored);
+            } finally {
+                releaseInflightReservations(1);
+            }
+        }
+        return new ZipIngestSummary(totalFiles, truncated);
+    }
+
+    /**
+     * 先按中央目录顺序做准入 (数量/类型/声明大小/队列容量)，再把通过的条目并行提交到有界线程池；
+     * 声明大小作为写入上限，实际解压超出即判定超限，防止伪造头部绕过总量限制
+     */
+    private ZipIngestSummary ingestZipParallel(UploadBatch batch, ZipFile zip) {
+        int totalFiles = 0;
+        long plannedBytes = 0;
+        boolean truncated = false;
+        int reservedSlots = 0;
+        List<CompletableFuture<ZipEntryOutcome>> outcomes = new ArrayList<>();
+        try {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.isDirectory()) {
+                    continue;
                 }
-                if (totalFiles >= maxFilesPerZip) {
+                if (plannedBytes >= maxTotalBytes || totalFiles >= maxFilesPerZip) {
                     truncated = true;
                     break;
                 }
@@ -151,46 +265,71 @@ public class UploadApplicationService {
 
                 String fileName = entry.getName();
                 if (!isAllowedExtension(fileName)) {
-                    failRejected(batch, fileName, "Unsupported file type");
+                    outcomes.add(rejectedEntry(fileName, "Unsupported file type"));
+                    continue;
+                }
+                long declaredSize = entry.getSize();
+                if (declaredSize > MAX_ENTRY_BYTES) {
+                    outcomes.add(rejectedEntry(fileName, "File size limit exceeded"));
                     continue;
                 }
+                long remainingBytes = maxTotalBytes - plannedBytes;
+                if (declaredSize > remainingBytes) {
+                    outcomes.add(rejectedEntry(fileName, "File size limit exceeded"));
+                    truncated = true;
+                    break;
+                }
                 if (!tryReserveInflightSlots(1)) {
-                    failRejected(batch, fileName, "Upload queue is busy, please retry later");
+                    outcomes.add(rejectedEntry(fileName, "Upload queue is busy, please retry later"));
                     continue;
                 }
+                reservedSlots++;
 
-                try {
-                    String storageKey = newStorageKey(fileName);
-                    long entrySize;
-                    try {
-                        entrySize = saveToStorageWithLimit(zis, storageKey, MAX_ENTRY_BYTES);
-                    } catch (IOException ex) {
-                        deleteQuietly(storageKey);
-                        failRejected(batch, fileName, ex.getMessage());
-                        continue;
-                    }
-                    totalBytes += entrySize;
-                    if (entrySize > MAX_ENTRY_BYTES || totalBytes > maxTotalBytes) {
-                        deleteQuietly(storageKey);
-                        failRejected(batch, fileName, "File size limit exceeded");
-                        if (totalBytes > maxTotalBytes) {
-                            truncated = true;
-                            break;
-                        }
-                        continue;
-                    }
+                long entryLimit = declaredSize >= 0 ? declaredSize : Math.min(MAX_ENTRY_BYTES, remainingBytes);
+                plannedBytes += entryLimit;
+                outcomes.add(CompletableFuture.supplyAsync(
+                        () -> storeZipEntry(zip, entry, entryLimit),
+                        zipExtractExecutor));
+            }
 
-                    processStoredFile(batch, fileName, storageKey);
-                } finally {
-                    releaseInflightReservations(1);
-                }
+            List<UploadItem> items = new ArrayList<>(outcomes.size());
+            for (CompletableFuture<ZipEntryOutcome> future : outcomes) {
+                ZipEntryOutcome outcome = future.join();
+                items.add(outcome.stored() == null
+                        ? newRejectedItem(batch, outcome.fileName(), outcome.errorMessage())
+                        : newQueuedItem(batch, outcome.fileName(), outcome.stored()));
+            }
+            itemBulkRepository.insertAll(items);
+            for (UploadItem item : items) {
+                publishBatchEvent(batch, item, item.getErrorMessage());
+            }
+        } finally {
+            if (reservedSlots > 0) {
+                releaseInflightReservations(reservedSlots);
             }
         }
+        return new ZipIngestSummary(totalFiles, truncated);
+    }
 
-        batch.setTotalFiles(totalFiles);
-        batchRepository.save(batch);
-        refreshBatchProgress(batch.getId());
-        return new ZipUploadResponse(batch.getId(), totalFiles, truncated);
+    private ZipEntryOutcome storeZipEntry(ZipFile zip, ZipEntry entry, long maxBytes) {
+        String fileName = entry.getName();
+        try (InputStream in = zip.getInputStream(entry)) {
+            return new ZipEntryOutcome(fileName, fileStorageService.saveContentAddressed(in, maxBytes), null);
+        } catch (IOException | RuntimeException ex) {
+            return new ZipEntryOutcome(fileName, null, ex.getMessage());
+        }
+    }
+
+    private static CompletableFuture<ZipEntryOutcome> rejectedEntry(String fileName, String reason) {
+        return CompletableFuture.completedFuture(new ZipEntryOutcome(fileName, null, reason));
+    }
+
+    private static ZipFile openZip(Path spooled) throws IOException {
+        try {
+            return new ZipFile(spooled.toFile());
+        } catch (ZipException ex) {
+            throw new InvalidUploadRequestException("Zip file is invalid");
+        }
     }
 
     private JobDescription resolveRequiredJobDescription(String jdId) {
@@ -230,33 +369,42 @@ public class UploadApplicationService {
             return failRejected(batch, fileName, "Unsupported file type");
         }
 
-        String storageKey = newStorageKey(fileName);
+        StoredContent stored;
         try (InputStream in = file.getInputStream()) {
-            saveToStorageWithLimit(in, storageKey, MAX_ENTRY_BYTES);
-            return processStoredFile(batch, fileName, storageKey);
+            stored = fileStorageService.saveContentAddressed(in, MAX_ENTRY_BYTES);
         } catch (IOException e) {
-            deleteQuietly(storageKey);
             return failRejected(batch, fileName, e.getMessage());
         }
+        return processStoredFile(batch, fileName, stored);
     }
 
-    private FileUploadResult processStoredFile(UploadBatch batch, String fileName, String storageKey) {
-        UploadItem item = new UploadItem(batch, fileName);
-        item.setStatus(UploadItemStatus.QUEUED);
-        item.setStoragePath(storageKey);
-        item.setQueueJobKey(UploadQueueJobKeyGenerator.nextKey(item.getId()));
-        item = itemRepository.save(item);
+    private FileUploadResult processStoredFile(UploadBatch batch, String fileName, StoredContent stored) {
+        UploadItem item = itemRepository.save(newQueuedItem(batch, fileName, stored));
         publishBatchEvent(batch, item, null);
         return new FileUploadResult(fileName, null, "QUEUED", null);
     }
 
     private FileUploadResult failRejected(UploadBatch batch, String fileName, String reason) {
+        UploadItem item = itemRepository.save(newRejectedItem(batch, fileName, reason));
+        publishBatchEvent(batch, item, reason);
+        return new FileUploadResult(fileName, null, "FAILED", reason);
+    }
+
+    private static UploadItem newQueuedItem(UploadBatch batch, String fileName, StoredContent stored) {
+        UploadItem item = new UploadItem(batch, fileName);
+        item.setStatus(UploadItemStatus.QUEUED);
+        item.setStoragePath(stored.storageKey());
+        item.setFileHash(stored.contentHash());
+        item.setFileSizeBytes(stored.sizeBytes());
+        item.setQueueJobKey(UploadQueueJobKeyGenerator.nextKey(item.getId()));
+        return item;
+    }
+
+    private static UploadItem newRejectedItem(UploadBatch batch, String fileName, String reason) {
         UploadItem item = new UploadItem(batch, fileName);
         item.setStatus(UploadItemStatus.FAILED);
         item.setErrorMessage(reason);
-        item = itemRepository.save(item);
-        publishBatchEvent(batch, item, reason);
-        return new FileUploadResult(fileName, null, "FAILED", reason);
+        return item;
     }
 
     private void publishBatchEvent(UploadBatch batch, UploadItem item, String error) {
@@ -272,36 +420,21 @@ public class UploadApplicationService {
     }
 
     private void refreshBatchProgress(UUID batchId) {
-        batchRepository.refreshProgressFromItems(batchId);
-        UploadBatch batch = batchRepository.findById(batchId).orElse(null);
-        if (batch == null) {
+        UploadBatchProgressService.BatchProgress progress = batchProgressService.refresh(batchId);
+        if (progress.status() == null) {
             return;
         }
-        int totalFiles = batch.getTotalFiles() == null ? 0 : Math.max(0, batch.getTotalFiles());
-        int processedFiles = batch.getProcessedFiles() == null ? 0 : Math.max(0, batch.getProcessedFiles());
-        String batchStatus = batch.getStatus() == null ? UploadBatchStatus.PROCESSING.name() : batch.getStatus().name();
         batchStreamService.publish(batchId, new BatchStreamEvent(
                 batchId,
-                batchStatus,
-                totalFiles,
-                processedFiles,
+                progress.status().name(),
+                progress.totalFiles(),
+                progress.processedFiles(),
                 null,
                 null,
                 null,
                 LocalDateTime.now()));
     }
 
-    private String newStorageKey(String fileName) {
-        String ext = "";
-        if (fileName != null) {
-            int dot = fileName.lastIndexOf('.');
-            if (dot >= 0) {
-                ext = fileName.substring(dot).toLowerCase(Locale.ROOT);
-            }
-        }
-        return UUID.randomUUID() + ext;
-    }
-
     private boolean isAllowedExtension(String fileName) {
         if (fileName == null) {
             return false;
@@ -342,36 +475,13 @@ public class UploadApplicationService {
         inflightReservations.updateAndGet(current -> Math.max(0L, current - normalized));
     }
 
-    private long saveToStorageWithLimit(InputStream inputStream, String storageKey, long maxBytes) throws IOException {
-        byte[] bytes = readAllBytesWithLimit(inputStream, maxBytes);
-        fileStorageService.save(storageKey, new ByteArrayInputStream(bytes));
-        return bytes.length;
-    }
-
-    private byte[] readAllBytesWithLimit(InputStream in, long maxBytes) throws IOException {
-        long total = 0;
-        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
-        byte[] buffer = new byte[8192];
-        int read;
-        while ((read = in.read(buffer)) != -1) {
-            total += read;
-            if (total > maxBytes) {
-                throw new IOException("File size limit exceeded");
-            }
-            out.write(buffer, 0, read);
-        }
-        return out.toByteArray();
+    public record BatchUploadResponse(UUID batchId, List<FileUploadResult> files) {
     }
 
-    private void deleteQuietly(String storageKey) {
-        try {
-            fileStorageService.delete(storageKey);
-        } catch (Exception e) {
-            log.warn("Failed to cleanup stored upload payload: key={}", storageKey, e);
-        }
+    private record ZipIngestSummary(int totalFiles, boolean truncated) {
     }
 
-    public record BatchUploadResponse(UUID batchId, List<FileUploadResult> files) {
+    private record ZipEntryOutcome(String fileName, StoredContent stored, String errorMessage) {
     }
 
     public record ZipUploadResponse(UUID batchId, int totalFiles, boolean truncated) {
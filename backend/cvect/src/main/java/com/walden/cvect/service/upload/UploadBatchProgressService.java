@@ -0,0 +1,128 @@
+package com.walden.cvect.service.upload;
+
+import com.walden.cvect.model.entity.UploadBatch;
+import com.walden.cvect.model.entity.UploadBatchStatus;
+import com.walden.cvect.repository.UploadBatchJpaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * 上传批次进度读取与对账
+ *
+ * PostgreSQL 上 upload_batches 的按状态计数由 upload_items 触发器 (V10) 在状态变更的同一语句内维护，
+ * 读取进度只需按主键取批次；非 PostgreSQL (H2 测试) 或触发器缺失时退回按 upload_items 聚合刷新。
+ * 定时对账按 upload_items 重算活跃批次的计数，修复手工改数等造成的漂移。
+ */
+@Service
+public class UploadBatchProgressService {
+
+    static final String COUNTER_TRIGGER_NAME = "trg_upload_items_batch_counters";
+
+    private static final Logger log = LoggerFactory.getLogger(UploadBatchProgressService.class);
+
+    private final UploadBatchJpaRepository batchRepository;
+    private final boolean countersMaintainedByDatabase;
+    private final boolean reconcileEnabled;
+    private final Duration reconcileWindow;
+    private final int reconcileBatchSize;
+
+    public UploadBatchProgressService(
+            UploadBatchJpaRepository batchRepository,
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.upload.progress.reconcile-enabled:true}") boolean reconcileEnabled,
+            @Value("${app.upload.progress.reconcile-window-ms:600000}") long reconcileWindowMs,
+            @Value("${app.upload.progress.reconcile-batch-size:100}") int reconcileBatchSize) {
+        this.batchRepository = batchRepository;
+        this.countersMaintainedByDatabase = hasCounterTrigger(jdbcTemplate);
+        this.reconcileEnabled = reconcileEnabled;
+        this.reconcileWindow = Duration.ofMillis(Math.max(0L, reconcileWindowMs));
+        this.reconcileBatchSize = Math.max(1, Math.min(reconcileBatchSize, 1000));
+        log.info("Upload batch progress mode: {}",
+                countersMaintainedByDatabase ? "trigger-maintained counters" : "aggregate refresh");
+    }
+
+    public boolean isCountersMaintainedByDatabase() {
+        return countersMaintainedByDatabase;
+    }
+
+    /**
+     * 读取批次最新进度；计数由触发器维护时为单行主键读取，否则先做一次聚合刷新
+     */
+    public BatchProgress refresh(UUID batchId) {
+        if (!countersMaintainedByDatabase) {
+            batchRepository.refreshProgressFromItems(batchId);
+        }
+        UploadBatch batch = batchRepository.findById(batchId).orElse(null);
+        if (batch == null) {
+            return new BatchProgress(0, 0, null);
+        }
+        int totalFiles = batch.getTotalFiles() == null ? 0 : Math.max(0, batch.getTotalFiles());
+        int processedFiles = batch.getProcessedFiles() == null ? 0 : Math.max(0, batch.getProcessedFiles());
+        return new BatchProgress(totalFiles, processedFiles, batch.getStatus());
+    }
+
+    public void updateTotalFiles(UUID batchId, int totalFiles) {
+        batchRepository.updateTotalFiles(batchId, Math.max(0, totalFiles));
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.upload.progress.reconcile-interval-ms:60000}",
+            fixedDelayString = "${app.upload.progress.reconcile-interval-ms:60000}")
+    public void reconcileActiveBatches() {
+        if (!countersMaintainedByDatabase || !reconcileEnabled) {
+            return;
+        }
+        LocalDateTime updatedSince = LocalDateTime.now().minus(reconcileWindow);
+        List<UUID> batchIds = batchRepository.findIdsForProgressReconcile(
+                UploadBatchStatus.PROCESSING,
+                updatedSince,
+                PageRequest.of(0, reconcileBatchSize));
+        int reconciled = 0;
+        for (UUID batchId : batchIds) {
+            try {
+                reconciled += batchRepository.refreshProgressFromItems(batchId);
+            } catch (RuntimeException ex) {
+                log.warn("Failed to reconcile upload batch progress: batchId={}", batchId, ex);
+            }
+        }
+        if (reconciled > 0) {
+            log.debug("Reconciled progress counters for {} upload batches", reconciled);
+        }
+    }
+
+    private static boolean hasCounterTrigger(JdbcTemplate jdbcTemplate) {
+        try (Connection connection = jdbcTemplate.getDataSource().getConnection()) {
+            String productName = connection.getMetaData().getDatabaseProductName();
+            if (productName == null || !productName.toLowerCase(Locale.ROOT).contains("postgresql")) {
+                return false;
+            }
+        } catch (Exception ex) {
+            return false;
+        }
+        try {
+            Integer count = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM pg_trigger WHERE tgname = ? AND NOT tgisinternal",
+                    Integer.class,
+                    COUNTER_TRIGGER_NAME);
+            return count != null && count > 0;
+        } catch (RuntimeException ex) {
+            log.warn("Failed to detect upload batch counter trigger; fallback to aggregate refresh", ex);
+            return false;
+        }
+    }
+
+    public record BatchProgress(int totalFiles, int processedFiles, UploadBatchStatus status) {
+    }
+}
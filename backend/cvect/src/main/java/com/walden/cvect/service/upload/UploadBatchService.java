@@ -3,7 +3,6 @@ package com.walden.cvect.service.upload;
 import com.walden.cvect.logging.aop.AppLog;
 import com.walden.cvect.logging.aop.AuditAction;
 import com.walden.cvect.model.entity.UploadBatch;
-import com.walden.cvect.model.entity.UploadBatchStatus;
 import com.walden.cvect.model.entity.UploadItem;
 import com.walden.cvect.model.entity.UploadItemStatus;
 import com.walden.cvect.repository.UploadBatchJpaRepository;
@@ -40,17 +39,20 @@ public class UploadBatchService {
     private final MeterRegistry meterRegistry;
     private final CurrentUserService currentUserService;
     private final DataScopeService dataScopeService;
+    private final UploadBatchProgressService batchProgressService;
 
     public UploadBatchService(UploadBatchJpaRepository batchRepository,
             UploadItemJpaRepository itemRepository,
             ObjectProvider<MeterRegistry> meterRegistryProvider,
             CurrentUserService currentUserService,
-            DataScopeService dataScopeService) {
+            DataScopeService dataScopeService,
+            UploadBatchProgressService batchProgressService) {
         this.batchRepository = batchRepository;
         this.itemRepository = itemRepository;
         this.meterRegistry = meterRegistryProvider.getIfAvailable();
         this.currentUserService = currentUserService;
         this.dataScopeService = dataScopeService;
+        this.batchProgressService = batchProgressService;
     }
 
     @AppLog(action = "get_upload_batch_overview")
@@ -147,8 +149,8 @@ public class UploadBatchService {
                     UploadItemStatus.FAILED);
         }
         if (retriedCount > 0) {
-            batch.setStatus(UploadBatchStatus.PROCESSING);
-            batchRepository.save(batch);
+            // FAILED -> QUEUED 的计数与批次状态已随条目更新调整，这里只在聚合模式下补一次刷新
+            batchProgressService.refresh(batchId);
         }
         return Optional.of(new RetryFailedResult(batchId, retriedCount));
     }
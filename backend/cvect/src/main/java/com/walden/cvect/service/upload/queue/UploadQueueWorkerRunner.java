@@ -1,5 +1,6 @@
 package com.walden.cvect.service.upload.queue;
 
+import com.walden.cvect.infra.queue.QueueNotificationListener;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
@@ -29,6 +30,8 @@ public class UploadQueueWorkerRunner {
     private final long initialDelayMs;
     private final long idleSleepMs;
     private final int consumerCount;
+    private final QueueNotificationListener notificationListener;
+    private final long notifyFallbackPollMs;
     private final AtomicBoolean started = new AtomicBoolean(false);
     private final AtomicBoolean running = new AtomicBoolean(true);
     private final Set<Thread> runnerThreads = ConcurrentHashMap.newKeySet();
@@ -38,12 +41,16 @@ public class UploadQueueWorkerRunner {
             @Qualifier("uploadWorkerExecutor") TaskExecutor uploadWorkerExecutor,
             @Value("${app.upload.worker.initial-delay-ms:3000}") long initialDelayMs,
             @Value("${app.upload.worker.idle-sleep-ms:${app.upload.worker.fixed-delay-ms:2000}}") long idleSleepMs,
-            @Value("${app.upload.worker.consumer-count:4}") int consumerCount) {
+            @Value("${app.upload.worker.consumer-count:4}") int consumerCount,
+            QueueNotificationListener notificationListener,
+            @Value("${app.upload.worker.notify-fallback-poll-ms:5000}") long notifyFallbackPollMs) {
         this.workerService = workerService;
         this.uploadWorkerExecutor = uploadWorkerExecutor;
         this.initialDelayMs = Math.max(0L, initialDelayMs);
         this.idleSleepMs = Math.max(1L, idleSleepMs);
         this.consumerCount = Math.max(1, consumerCount);
+        this.notificationListener = notificationListener;
+        this.notifyFallbackPollMs = Math.max(this.idleSleepMs, notifyFallbackPollMs);
     }
 
     @PostConstruct
@@ -74,6 +81,8 @@ public class UploadQueueWorkerRunner {
             }
             sleepQuietly(initialDelayMs + (workerIndex * 50L));
             while (running.get() && !current.isInterrupted()) {
+                long observedSequence = notificationListener.currentSequence(
+                        QueueNotificationListener.UPLOAD_ITEMS_CHANNEL);
                 try {
                     int processed = workerService.consumeQueuedItems();
                     if (processed > 0) {
@@ -82,13 +91,27 @@ public class UploadQueueWorkerRunner {
                 } catch (Exception ex) {
                     log.warn("Upload worker loop failed and will retry", ex);
                 }
-                sleepQuietly(idleSleepMs);
+                awaitNextItems(observedSequence);
             }
         } finally {
             runnerThreads.remove(current);
         }
     }
 
+    /**
+     * LISTEN 生效时阻塞等待入队通知，轮询仅作为兜底；否则退回 idle-sleep 轮询
+     */
+    private void awaitNextItems(long observedSequence) {
+        if (notificationListener.isListening()) {
+            notificationListener.awaitNotification(
+                    QueueNotificationListener.UPLOAD_ITEMS_CHANNEL,
+                    observedSequence,
+                    notifyFallbackPollMs);
+            return;
+        }
+        sleepQuietly(idleSleepMs);
+    }
+
     private void sleepQuietly(long ms) {
         if (ms <= 0) {
             return;
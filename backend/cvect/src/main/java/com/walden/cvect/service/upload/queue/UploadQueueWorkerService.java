@@ -4,9 +4,10 @@ import com.walden.cvect.infra.storage.FileStorageService;
 import com.walden.cvect.model.entity.UploadBatch;
 import com.walden.cvect.model.entity.UploadItem;
 import com.walden.cvect.model.entity.UploadItemStatus;
-import com.walden.cvect.repository.UploadBatchJpaRepository;
 import com.walden.cvect.repository.UploadItemJpaRepository;
 import com.walden.cvect.service.resume.ResumeProcessService;
+import com.walden.cvect.service.upload.UploadBatchProgressService;
+import com.walden.cvect.service.upload.UploadBatchProgressService.BatchProgress;
 import com.walden.cvect.web.sse.BatchStreamEvent;
 import com.walden.cvect.web.sse.BatchStreamService;
 import org.springframework.beans.factory.annotation.Value;
@@ -43,10 +44,10 @@ public class UploadQueueWorkerService {
     private static final String STALE_RECOVERY_MESSAGE = "Recovered stale queue lease";
 
     private final UploadItemJpaRepository itemRepository;
-    private final UploadBatchJpaRepository batchRepository;
     private final FileStorageService fileStorageService;
     private final ResumeProcessService resumeProcessService;
     private final BatchStreamService batchStreamService;
+    private final UploadBatchProgressService batchProgressService;
     private final TransactionTemplate requiresNewTx;
     private final Duration staleProcessingTimeout;
     private final int claimBatchSize;
@@ -56,20 +57,20 @@ public class UploadQueueWorkerService {
 
     public UploadQueueWorkerService(
             UploadItemJpaRepository itemRepository,
-            UploadBatchJpaRepository batchRepository,
             FileStorageService fileStorageService,
             ResumeProcessService resumeProcessService,
             BatchStreamService batchStreamService,
+            UploadBatchProgressService batchProgressService,
             JdbcTemplate jdbcTemplate,
             PlatformTransactionManager transactionManager,
             @Value("${app.upload.worker.stale-processing-ms:300000}") long staleProcessingMs,
             @Value("${app.upload.worker.claim-batch-size:100}") int claimBatchSize,
             @Value("${app.upload.worker.maintenance-interval-ms:5000}") long maintenanceIntervalMs) {
         this.itemRepository = itemRepository;
-        this.batchRepository = batchRepository;
         this.fileStorageService = fileStorageService;
         this.resumeProcessService = resumeProcessService;
         this.batchStreamService = batchStreamService;
+        this.batchProgressService = batchProgressService;
         this.requiresNewTx = new TransactionTemplate(transactionManager);
         this.staleProcessingTimeout = Duration.ofMillis(Math.max(0L, staleProcessingMs));
         this.claimBatchSize = Math.max(1, Math.min(claimBatchSize, 500));
@@ -232,25 +233,15 @@ public class UploadQueueWorkerService {
         UploadItemStatus finalStatus;
         String finalStoragePath = item.getStoragePath();
         try {
-            String sourceKey = normalizeStorageKey(item.getStoragePath());
-            if (sourceKey == null || !fileStorageService.exists(sourceKey)) {
-                throw new IllegalStateException("Retry source file missing");
-            }
-
-            String contentType = guessContentType(item.getFileName());
-            ResumeProcessService.ProcessResult result;
-            try (InputStream inputStream = fileStorageService.load(sourceKey)) {
-                result = resumeProcessService.process(
-                        inputStream,
-                        contentType,
-                        item.getFileName(),
-                        null,
-                        jdId);
-            }
-
-            String canonical = reconcileStorage(sourceKey, result.fileHash());
-            if (canonical != null) {
-                finalStoragePath = canonical;
+            ResumeProcessService.ProcessResult result = resumeProcessService
+                    .resolveDuplicate(item.getTenantId(), item.getFileHash(), jdId, fileName)
+                    .orElse(null);
+            if (result == null) {
+                result = processStoredResume(item, jdId);
+                String canonical = reconcileStorage(normalizeStorageKey(item.getStoragePath()), result.fileHash());
+                if (canonical != null) {
+                    finalStoragePath = canonical;
+                }
             }
             candidateId = result.candidateId();
             finalStatus = result.duplicated() ? UploadItemStatus.DUPLICATE : UploadItemStatus.DONE;
@@ -294,6 +285,25 @@ public class UploadQueueWorkerService {
         ));
     }
 
+    private ResumeProcessService.ProcessResult processStoredResume(UploadItem item, UUID jdId) throws Exception {
+        String sourceKey = normalizeStorageKey(item.getStoragePath());
+        if (sourceKey == null || !fileStorageService.exists(sourceKey)) {
+            throw new IllegalStateException("Retry source file missing");
+        }
+
+        String contentType = guessContentType(item.getFileName());
+        try (InputStream inputStream = fileStorageService.load(sourceKey)) {
+            // 新上传已在入口流式计算哈希并按哈希落盘，这里直接复用；老数据 fileHash 为空时仍走重算
+            return resumeProcessService.process(
+                    inputStream,
+                    contentType,
+                    item.getFileName(),
+                    item.getFileSizeBytes(),
+                    jdId,
+                    item.getFileHash());
+        }
+    }
+
     private void repairQueuedItemsWithoutJobKey() {
         List<UploadItem> missingJobKeyItems =
                 itemRepository.findTop50ByStatusAndQueueJobKeyIsNullAndStoragePathIsNotNullOrderByUpdatedAtAsc(
@@ -323,14 +333,7 @@ public class UploadQueueWorkerService {
     }
 
     BatchProgress refreshBatchProgress(UUID batchId) {
-        batchRepository.refreshProgressFromItems(batchId);
-        UploadBatch batch = batchRepository.findById(batchId).orElse(null);
-        if (batch == null) {
-            return new BatchProgress(0, 0);
-        }
-        int totalFiles = batch.getTotalFiles() == null ? 0 : Math.max(0, batch.getTotalFiles());
-        int processedFiles = batch.getProcessedFiles() == null ? 0 : Math.max(0, batch.getProcessedFiles());
-        return new BatchProgress(totalFiles, processedFiles);
+        return batchProgressService.refresh(batchId);
     }
 
     private String guessContentType(String fileName) {
@@ -363,6 +366,7 @@ public class UploadQueueWorkerService {
             return sourceKey;
         }
         if (sourceKey.equals(fileHash)) {
+            // 内容寻址上传：对象已在哈希 key 下，无需复制
             return fileHash;
         }
         if (fileStorageService.exists(fileHash)) {
@@ -392,7 +396,4 @@ public class UploadQueueWorkerService {
             return false;
         }
     }
-
-    record BatchProgress(int totalFiles, int processedFiles) {
-    }
 }
@@ -5,6 +5,7 @@ import com.walden.cvect.model.entity.vector.VectorIngestTask;
 import com.walden.cvect.model.entity.vector.VectorIngestTaskStatus;
 import com.walden.cvect.repository.VectorIngestTaskJpaRepository;
 import com.walden.cvect.infra.vector.VectorStoreService;
+import com.walden.cvect.service.matching.SearchDataVersionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,6 +21,7 @@ public class VectorIngestService {
 
     private final VectorIngestTaskJpaRepository taskRepository;
     private final VectorStoreService vectorStoreService;
+    private final SearchDataVersionService searchDataVersionService;
     private final boolean vectorEnabled;
     private final boolean workerEnabled;
     private final long maxPendingItems;
@@ -27,11 +29,13 @@ public class VectorIngestService {
     public VectorIngestService(
             VectorIngestTaskJpaRepository taskRepository,
             VectorStoreService vectorStoreService,
+            SearchDataVersionService searchDataVersionService,
             @Value("${app.vector.enabled:true}") boolean vectorEnabled,
             @Value("${app.vector.ingest.worker.enabled:true}") boolean workerEnabled,
             @Value("${app.vector.ingest.max-pending-items:5000}") long maxPendingItems) {
         this.taskRepository = taskRepository;
         this.vectorStoreService = vectorStoreService;
+        this.searchDataVersionService = searchDataVersionService;
         this.vectorEnabled = vectorEnabled;
         this.workerEnabled = workerEnabled;
         this.maxPendingItems = Math.max(1L, maxPendingItems);
@@ -72,6 +76,7 @@ public class VectorIngestService {
             }
             throw new IllegalStateException(message, enqueueFailure);
         }
+        searchDataVersionService.bumpForCandidate(candidateId);
         log.info("Persisted vector chunk inline: candidateId={}, chunkType={}", candidateId, chunkType);
     }
 }
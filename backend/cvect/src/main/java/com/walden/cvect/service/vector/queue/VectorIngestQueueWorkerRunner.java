@@ -1,5 +1,6 @@
 package com.walden.cvect.service.vector.queue;
 
+import com.walden.cvect.infra.queue.QueueNotificationListener;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
@@ -25,6 +26,8 @@ public class VectorIngestQueueWorkerRunner {
     private final long initialDelayMs;
     private final long idleSleepMs;
     private final int consumerCount;
+    private final QueueNotificationListener notificationListener;
+    private final long notifyFallbackPollMs;
     private final AtomicBoolean started = new AtomicBoolean(false);
     private final AtomicBoolean running = new AtomicBoolean(true);
     private final Set<Thread> runnerThreads = ConcurrentHashMap.newKeySet();
@@ -34,12 +37,16 @@ public class VectorIngestQueueWorkerRunner {
             @Qualifier("vectorIngestWorkerExecutor") TaskExecutor vectorIngestWorkerExecutor,
             @Value("${app.vector.ingest.worker.initial-delay-ms:3000}") long initialDelayMs,
             @Value("${app.vector.ingest.worker.idle-sleep-ms:500}") long idleSleepMs,
-            @Value("${app.vector.ingest.worker.consumer-count:1}") int consumerCount) {
+            @Value("${app.vector.ingest.worker.consumer-count:1}") int consumerCount,
+            QueueNotificationListener notificationListener,
+            @Value("${app.vector.ingest.worker.notify-fallback-poll-ms:5000}") long notifyFallbackPollMs) {
         this.workerService = workerService;
         this.vectorIngestWorkerExecutor = vectorIngestWorkerExecutor;
         this.initialDelayMs = Math.max(0L, initialDelayMs);
         this.idleSleepMs = Math.max(1L, idleSleepMs);
         this.consumerCount = Math.max(1, consumerCount);
+        this.notificationListener = notificationListener;
+        this.notifyFallbackPollMs = Math.max(this.idleSleepMs, notifyFallbackPollMs);
     }
 
     @PostConstruct
@@ -70,6 +77,14 @@ public class VectorIngestQueueWorkerRunner {
             }
             sleepQuietly(initialDelayMs + (workerIndex * 50L));
             while (running.get() && !current.isInterrupted()) {
+                // embedding 服务熔断或限流期间不认领任务，避免把任务推向 FAILED
+                long backoffMs = workerService.backoffRemainingMs();
+                if (backoffMs > 0) {
+                    sleepQuietly(backoffMs);
+                    continue;
+                }
+                long observedSequence = notificationListener.currentSequence(
+                        QueueNotificationListener.VECTOR_INGEST_TASKS_CHANNEL);
                 try {
                     int processed = workerService.consumePendingTasks();
                     if (processed > 0) {
@@ -78,13 +93,27 @@ public class VectorIngestQueueWorkerRunner {
                 } catch (Exception ex) {
                     log.warn("Vector ingest worker loop failed and will retry", ex);
                 }
-                sleepQuietly(idleSleepMs);
+                awaitNextItems(observedSequence);
             }
         } finally {
             runnerThreads.remove(current);
         }
     }
 
+    /**
+     * LISTEN 生效时阻塞等待入队通知，轮询仅作为兜底；否则退回 idle-sleep 轮询
+     */
+    private void awaitNextItems(long observedSequence) {
+        if (notificationListener.isListening()) {
+            notificationListener.awaitNotification(
+                    QueueNotificationListener.VECTOR_INGEST_TASKS_CHANNEL,
+                    observedSequence,
+                    notifyFallbackPollMs);
+            return;
+        }
+        sleepQuietly(idleSleepMs);
+    }
+
     private void sleepQuietly(long ms) {
         try {
             Thread.sleep(ms);
@@ -1,11 +1,15 @@
 package com.walden.cvect.service.vector.queue;
 
+import com.walden.cvect.exception.EmbeddingCircuitOpenException;
+import com.walden.cvect.exception.EmbeddingLimitExceededException;
+import com.walden.cvect.exception.EmbeddingUnavailableException;
 import com.walden.cvect.infra.vector.VectorStoreService;
 import com.walden.cvect.model.entity.vector.VectorIngestTask;
 import com.walden.cvect.model.entity.vector.VectorIngestTaskStatus;
 import com.walden.cvect.repository.VectorIngestTaskJpaRepository;
 import com.walden.cvect.service.candidate.CandidateSnapshotService;
 import com.walden.cvect.service.matching.PersistedMatchScoreService;
+import com.walden.cvect.service.matching.SearchDataVersionService;
 import com.walden.cvect.web.stream.CandidateStreamEvent;
 import com.walden.cvect.web.stream.CandidateStreamService;
 import com.walden.cvect.web.stream.VectorStatusStreamEvent;
@@ -23,8 +27,11 @@ import java.sql.Connection;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -34,19 +41,24 @@ import java.util.concurrent.atomic.AtomicLong;
 public class VectorIngestQueueWorkerService {
 
     private static final Logger log = LoggerFactory.getLogger(VectorIngestQueueWorkerService.class);
+    private static final long MIN_BACKOFF_MS = 500L;
 
     private final VectorIngestTaskJpaRepository taskRepository;
     private final VectorStoreService vectorStoreService;
     private final CandidateSnapshotService snapshotService;
     private final CandidateStreamService streamService;
     private final PersistedMatchScoreService persistedMatchScoreService;
+    private final SearchDataVersionService searchDataVersionService;
     private final TransactionTemplate requiresNewTx;
     private final int claimBatchSize;
     private final int maxAttempts;
     private final Duration staleProcessingTimeout;
     private final long maintenanceIntervalMs;
+    private final boolean batchMode;
     private final AtomicBoolean useNativeClaimQuery;
     private final AtomicLong lastMaintenanceAtMs = new AtomicLong(0L);
+    // embedding 服务熔断或限流时的退避截止时间，所有消费线程共享
+    private final AtomicLong backoffUntilMs = new AtomicLong(0L);
 
     public VectorIngestQueueWorkerService(
             VectorIngestTaskJpaRepository taskRepository,
@@ -54,38 +66,60 @@ public class VectorIngestQueueWorkerService {
             CandidateSnapshotService snapshotService,
             CandidateStreamService streamService,
             PersistedMatchScoreService persistedMatchScoreService,
+            SearchDataVersionService searchDataVersionService,
             JdbcTemplate jdbcTemplate,
             PlatformTransactionManager transactionManager,
             @Value("${app.vector.ingest.worker.claim-batch-size:20}") int claimBatchSize,
             @Value("${app.vector.ingest.worker.max-attempts:3}") int maxAttempts,
             @Value("${app.vector.ingest.worker.stale-processing-ms:300000}") long staleProcessingMs,
-            @Value("${app.vector.ingest.worker.maintenance-interval-ms:5000}") long maintenanceIntervalMs) {
+            @Value("${app.vector.ingest.worker.maintenance-interval-ms:5000}") long maintenanceIntervalMs,
+            @Value("${app.vector.ingest.worker.batch-mode:true}") boolean batchMode) {
         this.taskRepository = taskRepository;
         this.vectorStoreService = vectorStoreService;
         this.snapshotService = snapshotService;
         this.streamService = streamService;
         this.persistedMatchScoreService = persistedMatchScoreService;
+        this.searchDataVersionService = searchDataVersionService;
         this.requiresNewTx = new TransactionTemplate(transactionManager);
         this.claimBatchSize = Math.max(1, Math.min(claimBatchSize, 200));
         this.maxAttempts = Math.max(1, maxAttempts);
         this.staleProcessingTimeout = Duration.ofMillis(Math.max(0L, staleProcessingMs));
         this.maintenanceIntervalMs = Math.max(1000L, maintenanceIntervalMs);
+        this.batchMode = batchMode;
         this.useNativeClaimQuery = new AtomicBoolean(isPostgreSql(jdbcTemplate));
     }
 
     public int consumePendingTasks() {
         runMaintenanceIfDue();
+        if (backoffRemainingMs() > 0) {
+            return 0;
+        }
 
         List<UUID> claimedTaskIds = claimNextPendingBatchWithFallback();
         if (claimedTaskIds.isEmpty()) {
             return 0;
         }
+        if (batchMode && claimedTaskIds.size() > 1) {
+            processClaimedBatch(claimedTaskIds);
+            return claimedTaskIds.size();
+        }
         for (UUID taskId : claimedTaskIds) {
+            if (backoffRemainingMs() > 0) {
+                releaseClaimedTasks(List.of(taskId));
+                continue;
+            }
             processClaimedTask(taskId);
         }
         return claimedTaskIds.size();
     }
 
+    /**
+     * @return embedding 服务熔断或限流后剩余的退避时间；为 0 时可以继续消费
+     */
+    public long backoffRemainingMs() {
+        return Math.max(0L, backoffUntilMs.get() - System.currentTimeMillis());
+    }
+
     private List<UUID> claimNextPendingBatchWithFallback() {
         if (!useNativeClaimQuery.get()) {
             return claimNextPendingBatchPortable();
@@ -160,18 +194,117 @@ public class VectorIngestQueueWorkerService {
         }
     }
 
+    /**
+     * 批量模式：整批一次 embedBatch + 多行 INSERT + 一条状态 UPDATE。
+     * 整批失败时回退到逐条处理，由逐条路径隔离失败任务并记录重试次数；
+     * embedding 已生成、只是写入失败时逐条路径复用这批向量，不再重复请求模型服务。
+     */
+    private void processClaimedBatch(List<UUID> taskIds) {
+        List<VectorIngestTask> tasks = inTx(() -> taskRepository.findAllById(taskIds), List.<VectorIngestTask>of())
+                .stream()
+                .filter(task -> task.getStatus() == VectorIngestTaskStatus.PROCESSING)
+                .toList();
+        if (tasks.isEmpty()) {
+            return;
+        }
+        List<VectorStoreService.ChunkWrite> writes = tasks.stream()
+                .map(task -> new VectorStoreService.ChunkWrite(
+                        task.getCandidateId(),
+                        task.getChunkType(),
+                        task.getContent()))
+                .toList();
+        List<float[]> embeddings;
+        try {
+            embeddings = vectorStoreService.embedChunks(writes);
+        } catch (Exception ex) {
+            if (isRejectedBeforeSend(ex)) {
+                backOff(findEmbeddingUnavailable(ex));
+                releaseClaimedTasks(tasks.stream().map(VectorIngestTask::getId).toList());
+                return;
+            }
+            log.warn("Batch vector embedding failed, fallback to per-task processing: size={}, reason={}",
+                    tasks.size(), ex.getMessage());
+            processTasksIndividually(tasks, null);
+            return;
+        }
+        try {
+            // 与逐条路径一致：向量写入与状态流转分属不同事务
+            int inserted = inTx(() -> vectorStoreService.saveEmbedded(writes, embeddings), 0);
+            if (inserted != tasks.size()) {
+                throw new IllegalStateException("Vector chunks were not persisted: expected="
+                        + tasks.size() + ", inserted=" + inserted);
+            }
+        } catch (Exception ex) {
+            log.warn("Batch vector write failed, fallback to per-task writes: size={}, reason={}",
+                    tasks.size(), ex.getMessage());
+            processTasksIndividually(tasks, embeddings.size() == tasks.size() ? embeddings : null);
+            return;
+        }
+
+        List<UUID> ids = tasks.stream().map(VectorIngestTask::getId).toList();
+        int updated = inTx(() -> taskRepository.completeSuccessBatch(
+                ids,
+                VectorIngestTaskStatus.DONE,
+                VectorIngestTaskStatus.PROCESSING), 0);
+        if (updated == 0) {
+            log.info("Skip stale vector success commit for batch of {} tasks", ids.size());
+            return;
+        }
+        List<VectorIngestTask> completed = tasks;
+        if (updated < ids.size()) {
+            log.info("Skip stale vector success commit for {} of {} tasks", ids.size() - updated, ids.size());
+            // 部分任务已被回收或改派：只为本次确实转为 DONE 的任务通知
+            Set<UUID> doneIds = new HashSet<>(inTx(() -> taskRepository.findIdsByIdInAndStatus(
+                    ids,
+                    VectorIngestTaskStatus.DONE), List.<UUID>of()));
+            completed = tasks.stream().filter(task -> doneIds.contains(task.getId())).toList();
+        }
+        Set<UUID> candidateIds = new LinkedHashSet<>(completed.stream()
+                .map(VectorIngestTask::getCandidateId)
+                .toList());
+        // 新向量已提交，使这些租户的检索响应缓存失效
+        searchDataVersionService.bumpForCandidates(candidateIds);
+        publishVectorDoneForReadyCandidates(candidateIds);
+    }
+
+    /**
+     * @param embeddings 与 tasks 一一对应的已生成向量；为 null 时逐条重新生成
+     */
+    private void processTasksIndividually(List<VectorIngestTask> tasks, List<float[]> embeddings) {
+        for (int i = 0; i < tasks.size(); i++) {
+            VectorIngestTask task = tasks.get(i);
+            if (backoffRemainingMs() > 0) {
+                releaseClaimedTasks(List.of(task.getId()));
+                continue;
+            }
+            processTask(task, embeddings == null ? null : embeddings.get(i));
+        }
+    }
+
     private void processClaimedTask(UUID taskId) {
         VectorIngestTask task = inTx(() -> taskRepository.findById(taskId).orElse(null), null);
+        processTask(task, null);
+    }
+
+    private void processTask(VectorIngestTask task, float[] embedding) {
         if (task == null || task.getStatus() != VectorIngestTaskStatus.PROCESSING) {
             return;
         }
+        UUID taskId = task.getId();
         try {
             // Keep vector write and final state transition in separate transactions.
             // If vectorStoreService.save throws, the write tx rolls back without poisoning the status update tx.
-            boolean persisted = inTx(() -> vectorStoreService.save(
-                    task.getCandidateId(),
-                    task.getChunkType(),
-                    task.getContent()), false);
+            boolean persisted = embedding == null
+                    ? inTx(() -> vectorStoreService.save(
+                            task.getCandidateId(),
+                            task.getChunkType(),
+                            task.getContent()), false)
+                    : inTx(() -> vectorStoreService.saveEmbedded(
+                            List.of(new VectorStoreService.ChunkWrite(
+                                    task.getCandidateId(),
+                                    task.getChunkType(),
+                                    task.getContent())),
+                            List.of(embedding)) == 1, false);
             if (!persisted) {
                 throw new IllegalStateException("Vector chunk was not persisted");
             }
@@ -183,9 +316,16 @@ public class VectorIngestQueueWorkerService {
                 log.info("Skip stale vector success commit for taskId={}", taskId);
                 return;
             }
+            searchDataVersionService.bumpForCandidate(task.getCandidateId());
             publishVectorDoneIfReady(task.getCandidateId());
         } catch (Exception ex) {
-            boolean transientEmbeddingOutage = isTransientEmbeddingOutage(ex);
+            if (isRejectedBeforeSend(ex)) {
+                // 请求没有发到 embedding 服务，不消耗重试次数
+                backOff(findEmbeddingUnavailable(ex));
+                releaseClaimedTasks(List.of(taskId));
+                return;
+            }
+            boolean transientEmbeddingOutage = findEmbeddingUnavailable(ex) != null;
             int currentAttempt = task.getAttempt() == null ? 0 : task.getAttempt();
             int nextAttempt = currentAttempt + 1;
             VectorIngestTaskStatus nextStatus;
@@ -205,6 +345,10 @@ public class VectorIngestQueueWorkerService {
                 log.info("Skip stale vector failure commit for taskId={}", taskId);
                 return;
             }
+            if (nextStatus == VectorIngestTaskStatus.FAILED) {
+                // 任务离开在途状态会改变 onlyVectorReadyCandidates 的过滤结果
+                searchDataVersionService.bumpForCandidate(task.getCandidateId());
+            }
             if (transientEmbeddingOutage) {
                 log.warn("Vector ingest task delayed due to embedding connectivity issue: taskId={}", taskId, ex);
             } else if (nextStatus == VectorIngestTaskStatus.FAILED) {
@@ -233,6 +377,33 @@ public class VectorIngestQueueWorkerService {
             return;
         }
 
+        publishVectorDone(candidateId);
+    }
+
+    /**
+     * 批量版本：一次查询找出仍有在途任务的候选人，其余候选人本批刚写入 DONE，可直接发布
+     */
+    private void publishVectorDoneForReadyCandidates(Set<UUID> candidateIds) {
+        candidateIds.remove(null);
+        if (candidateIds.isEmpty()) {
+            return;
+        }
+        Set<UUID> inflight = new HashSet<>(inTx(() -> taskRepository.findCandidateIdsByStatusIn(
+                candidateIds,
+                List.of(VectorIngestTaskStatus.PENDING, VectorIngestTaskStatus.PROCESSING)), List.<UUID>of()));
+        for (UUID candidateId : candidateIds) {
+            if (!inflight.contains(candidateId)) {
+                publishVectorDone(candidateId);
+            }
+        }
+    }
+
+    private void publishVectorDone(UUID candidateId) {
+        try {
+            vectorStoreService.refreshCandidateSummaries(candidateId);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to refresh candidate summary vectors: candidateId={}", candidateId, ex);
+        }
         persistedMatchScoreService.refreshForCandidate(candidateId);
 
         CandidateStreamEvent snapshot = snapshotService.build(candidateId, "VECTOR_DONE");
@@ -249,22 +420,48 @@ public class VectorIngestQueueWorkerService {
                 LocalDateTime.now()));
     }
 
-    private static boolean isTransientEmbeddingOutage(Throwable ex) {
-        Throwable cursor = ex;
-        while (cursor != null) {
-            String message = cursor.getMessage();
-            if (message != null) {
-                String normalized = message.toLowerCase(Locale.ROOT);
-                if (normalized.contains("connection refused")
-                        || normalized.contains("connectexception")
-                        || normalized.contains("timed out")
-                        || normalized.contains("timeout")) {
-                    return true;
-                }
+    /**
+     * 把已认领的任务放回 PENDING，attempt 不变
+     */
+    private void releaseClaimedTasks(List<UUID> taskIds) {
+        int released = 0;
+        for (UUID taskId : taskIds) {
+            released += inTx(() -> taskRepository.recoverStaleProcessing(
+                    taskId,
+                    "Embedding service unavailable, backing off",
+                    VectorIngestTaskStatus.PENDING,
+                    VectorIngestTaskStatus.PROCESSING), 0);
+        }
+        if (released > 0) {
+            log.info("Released {} vector ingest tasks while embedding service is backing off ({} ms left)",
+                    released, backoffRemainingMs());
+        }
+    }
+
+    private void backOff(EmbeddingUnavailableException ex) {
+        long retryAfterMs = ex == null ? 0L : ex.getRetryAfterMs();
+        long until = System.currentTimeMillis() + Math.max(MIN_BACKOFF_MS, retryAfterMs);
+        backoffUntilMs.accumulateAndGet(until, Math::max);
+        log.warn("Embedding service unavailable, vector ingest backing off for {} ms: {}",
+                backoffRemainingMs(), ex == null ? "" : ex.getMessage());
+    }
+
+    /**
+     * 熔断打开或并发上限拒绝：请求在本地被拦下，没有真正调用 embedding 服务
+     */
+    private static boolean isRejectedBeforeSend(Throwable ex) {
+        EmbeddingUnavailableException unavailable = findEmbeddingUnavailable(ex);
+        return unavailable instanceof EmbeddingCircuitOpenException
+                || unavailable instanceof EmbeddingLimitExceededException;
+    }
+
+    private static EmbeddingUnavailableException findEmbeddingUnavailable(Throwable ex) {
+        for (Throwable cursor = ex; cursor != null; cursor = cursor.getCause()) {
+            if (cursor instanceof EmbeddingUnavailableException unavailable) {
+                return unavailable;
             }
-            cursor = cursor.getCause();
         }
-        return false;
+        return null;
     }
 
     private <T> T inTx(TxSupplier<T> supplier, T fallback) {
@@ -109,9 +109,11 @@ public class CandidateController {
                                 score -> score,
                                 (left, right) -> right));
         CandidateVectorState vectorState = loadVectorState(candidateIds);
-        if (!vectorState.vectorizedCandidateIds().isEmpty()
-                && !scoreByCandidateId.keySet().containsAll(vectorState.vectorizedCandidateIds())) {
-            persistedMatchScoreService.scheduleRefreshForJobDescription(jdId);
+        Set<UUID> unscoredCandidateIds = vectorState.vectorizedCandidateIds().stream()
+                .filter(candidateId -> !scoreByCandidateId.containsKey(candidateId))
+                .collect(java.util.stream.Collectors.toSet());
+        if (!unscoredCandidateIds.isEmpty()) {
+            persistedMatchScoreService.scheduleRefreshForCandidates(jdId, unscoredCandidateIds);
         }
 
         List<CandidateListItem> items = candidates.stream()
@@ -3,6 +3,7 @@ package com.walden.cvect.web.controller.search;
 import com.walden.cvect.infra.vector.VectorStoreService;
 import com.walden.cvect.logging.aop.AuditAction;
 import com.walden.cvect.logging.aop.TimedAction;
+import com.walden.cvect.service.matching.JobDescriptionSearchService;
 import com.walden.cvect.service.matching.SemanticSearchService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
@@ -25,12 +26,15 @@ public class SearchController {
 
     private final VectorStoreService vectorStore;
     private final SemanticSearchService semanticSearchService;
+    private final JobDescriptionSearchService jobDescriptionSearchService;
 
     public SearchController(
             VectorStoreService vectorStore,
-            SemanticSearchService semanticSearchService) {
+            SemanticSearchService semanticSearchService,
+            JobDescriptionSearchService jobDescriptionSearchService) {
         this.vectorStore = vectorStore;
         this.semanticSearchService = semanticSearchService;
+        this.jobDescriptionSearchService = jobDescriptionSearchService;
     }
 
     /**
@@ -50,6 +54,28 @@ public class SearchController {
         return ResponseEntity.ok(semanticSearchService.search(request));
     }
 
+    /**
+     * 按已有 JD 搜索匹配的候选人，复用 JD 已持久化的 embedding
+     *
+     * @param jdId    JD ID
+     * @param request 检索选项，可省略
+     * @return 按相似度排序的候选人列表；JD 不存在或不可见时 404
+     */
+    @PostMapping("/jds/{jdId}")
+    @PreAuthorize("@permissionGuard.has(T(com.walden.cvect.security.PermissionCodes).SEARCH_RUN)")
+    @AuditAction(action = "semantic_search_by_jd", target = "candidate_match", logResult = true)
+    @TimedAction(
+            metric = "cvect.search.request",
+            description = "End-to-end semantic search request latency",
+            tags = {"layer", "controller"})
+    public ResponseEntity<SearchResponse> searchByJobDescription(
+            @PathVariable UUID jdId,
+            @RequestBody(required = false) JobDescriptionSearchRequest request) {
+        return jobDescriptionSearchService.search(jdId, request)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     /**
      * 创建配置的向量索引 (管理接口)
      */
@@ -81,6 +107,34 @@ public class SearchController {
         }
     }
 
+    public record JobDescriptionSearchRequest(
+            int topK,
+            boolean filterByExperience,
+            boolean filterBySkill,
+            Float experienceWeight,
+            Float skillWeight,
+            boolean onlyVectorReadyCandidates
+    ) {
+        public JobDescriptionSearchRequest {
+            topK = clampTopK(topK);
+        }
+
+        public static JobDescriptionSearchRequest defaults() {
+            return new JobDescriptionSearchRequest(DEFAULT_TOP_K, false, false, null, null, false);
+        }
+
+        public SearchRequest toSearchRequest(String jobDescription) {
+            return new SearchRequest(
+                    jobDescription,
+                    topK,
+                    filterByExperience,
+                    filterBySkill,
+                    experienceWeight,
+                    skillWeight,
+                    onlyVectorReadyCandidates);
+        }
+    }
+
     public record SearchResponse(
             int totalResults,
             int requested,
@@ -1,6 +1,7 @@
 package com.walden.cvect.web.controller.system;
 
 import com.walden.cvect.infra.embedding.EmbeddingConfig;
+import com.walden.cvect.infra.embedding.EmbeddingHealthUrls;
 import com.walden.cvect.infra.vector.VectorStoreService;
 import com.walden.cvect.logging.aop.AuditAction;
 import com.walden.cvect.model.entity.vector.VectorIngestTaskStatus;
@@ -13,7 +14,6 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.reactive.function.client.WebClient;
 
-import java.net.URI;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -21,8 +21,6 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/vector")
 public class VectorHealthController {
-    private static final String DEFAULT_EMBEDDING_HEALTH_URL = "http://localhost:8001/ready";
-
     private final VectorIngestTaskJpaRepository taskRepository;
     private final EmbeddingConfig embeddingConfig;
     private final VectorStoreService vectorStoreService;
@@ -87,7 +85,7 @@ public class VectorHealthController {
                     LocalDateTime.now()));
         }
 
-        EmbeddingHealth embeddingHealth = checkEmbeddingHealth(embeddingConfig.getServiceUrl());
+        EmbeddingHealth embeddingHealth = checkEmbeddingHealth();
         boolean healthy = vectorStoreOperational && embeddingHealth.reachable;
         String status = healthy ? "UP" : "DEGRADED";
 
@@ -107,8 +105,27 @@ public class VectorHealthController {
                 LocalDateTime.now()));
     }
 
-    private EmbeddingHealth checkEmbeddingHealth(String embeddingServiceUrl) {
-        String healthUrl = resolveHealthUrl(embeddingConfig.getHealthUrl(), embeddingServiceUrl);
+    /**
+     * 多副本部署时任一端点可达即视为可用，返回第一个可达端点 (全部不可达时返回第一个端点的错误)
+     */
+    private EmbeddingHealth checkEmbeddingHealth() {
+        List<String> serviceUrls = embeddingConfig.resolveServiceUrls();
+        // 显式 health-url 只对应单端点部署
+        String configuredHealthUrl = serviceUrls.size() == 1 ? embeddingConfig.getHealthUrl() : null;
+        EmbeddingHealth firstFailure = null;
+        for (String serviceUrl : serviceUrls) {
+            EmbeddingHealth health = checkEmbeddingHealth(EmbeddingHealthUrls.resolve(configuredHealthUrl, serviceUrl));
+            if (health.reachable) {
+                return health;
+            }
+            if (firstFailure == null) {
+                firstFailure = health;
+            }
+        }
+        return firstFailure;
+    }
+
+    private EmbeddingHealth checkEmbeddingHealth(String healthUrl) {
         try {
             webClient.get()
                     .uri(healthUrl)
@@ -122,38 +139,6 @@ public class VectorHealthController {
         }
     }
 
-    private String resolveHealthUrl(String configuredHealthUrl, String embeddingServiceUrl) {
-        if (configuredHealthUrl != null && !configuredHealthUrl.isBlank()) {
-            return configuredHealthUrl;
-        }
-        try {
-            URI uri = URI.create(embeddingServiceUrl);
-            String path = uri.getPath();
-            if (path == null || path.isBlank() || "/".equals(path)) {
-                path = "/ready";
-            } else if (path.endsWith("/v1/embeddings") || path.endsWith("/embeddings")) {
-                path = "/ready";
-            } else if (path.endsWith("/embedding")) {
-                path = path.substring(0, path.length() - "/embedding".length()) + "/ready";
-            } else if (path.endsWith("/embed")) {
-                path = path.substring(0, path.length() - "/embed".length()) + "/ready";
-            } else {
-                path = path.replaceAll("/+$", "") + "/ready";
-            }
-            URI healthUri = new URI(
-                    uri.getScheme(),
-                    uri.getUserInfo(),
-                    uri.getHost(),
-                    uri.getPort(),
-                    path,
-                    null,
-                    null);
-            return healthUri.toString();
-        } catch (Exception ex) {
-            return DEFAULT_EMBEDDING_HEALTH_URL;
-        }
-    }
-
     private long countByStatus(VectorIngestTaskStatus status) {
         return taskRepository.countByStatusIn(List.of(status));
     }
@@ -0,0 +1,102 @@
+-- upload_batches 按状态计数：由 upload_items 行触发器在状态变更的同一语句内原子维护，
+-- worker 每处理一个 item 不再对整批 upload_items 做聚合 (O(n) -> O(1))；漂移由应用侧定时对账修复。
+ALTER TABLE upload_batches
+    ADD COLUMN IF NOT EXISTS queued_files INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE upload_batches
+    ADD COLUMN IF NOT EXISTS processing_files INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE upload_batches
+    ADD COLUMN IF NOT EXISTS done_files INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE upload_batches
+    ADD COLUMN IF NOT EXISTS duplicate_files INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE upload_batches
+    ADD COLUMN IF NOT EXISTS failed_files INTEGER NOT NULL DEFAULT 0;
+
+UPDATE upload_batches b
+SET queued_files = agg.queued_files,
+    processing_files = agg.processing_files,
+    done_files = agg.done_files,
+    duplicate_files = agg.duplicate_files,
+    failed_files = agg.failed_files,
+    processed_files = agg.done_files + agg.duplicate_files + agg.failed_files
+FROM (
+    SELECT
+        batch_id,
+        count(*) FILTER (WHERE status = 'QUEUED') AS queued_files,
+        count(*) FILTER (WHERE status = 'PROCESSING') AS processing_files,
+        count(*) FILTER (WHERE status = 'DONE') AS done_files,
+        count(*) FILTER (WHERE status = 'DUPLICATE') AS duplicate_files,
+        count(*) FILTER (WHERE status = 'FAILED') AS failed_files
+    FROM upload_items
+    WHERE batch_id IS NOT NULL
+    GROUP BY batch_id
+) agg
+WHERE b.id = agg.batch_id;
+
+CREATE OR REPLACE FUNCTION cvect_apply_upload_batch_transition(
+    p_batch_id UUID,
+    p_old_status VARCHAR,
+    p_new_status VARCHAR)
+RETURNS void AS
+$$
+DECLARE
+    dq INTEGER := (CASE WHEN p_new_status = 'QUEUED' THEN 1 ELSE 0 END)
+        - (CASE WHEN p_old_status = 'QUEUED' THEN 1 ELSE 0 END);
+    dp INTEGER := (CASE WHEN p_new_status = 'PROCESSING' THEN 1 ELSE 0 END)
+        - (CASE WHEN p_old_status = 'PROCESSING' THEN 1 ELSE 0 END);
+    dd INTEGER := (CASE WHEN p_new_status = 'DONE' THEN 1 ELSE 0 END)
+        - (CASE WHEN p_old_status = 'DONE' THEN 1 ELSE 0 END);
+    ddup INTEGER := (CASE WHEN p_new_status = 'DUPLICATE' THEN 1 ELSE 0 END)
+        - (CASE WHEN p_old_status = 'DUPLICATE' THEN 1 ELSE 0 END);
+    df INTEGER := (CASE WHEN p_new_status = 'FAILED' THEN 1 ELSE 0 END)
+        - (CASE WHEN p_old_status = 'FAILED' THEN 1 ELSE 0 END);
+BEGIN
+    IF p_batch_id IS NULL OR (dq = 0 AND dp = 0 AND dd = 0 AND ddup = 0 AND df = 0) THEN
+        RETURN;
+    END IF;
+    UPDATE upload_batches b
+    SET queued_files = b.queued_files + dq,
+        processing_files = b.processing_files + dp,
+        done_files = b.done_files + dd,
+        duplicate_files = b.duplicate_files + ddup,
+        failed_files = b.failed_files + df,
+        processed_files = COALESCE(b.processed_files, 0) + dd + ddup + df,
+        status = CASE
+            WHEN b.queued_files + dq = 0
+             AND b.processing_files + dp = 0
+             AND COALESCE(b.processed_files, 0) + dd + ddup + df >=
+                 (CASE
+                    WHEN b.total_files IS NULL OR b.total_files <= 0
+                    THEN b.queued_files + dq + b.processing_files + dp + COALESCE(b.processed_files, 0) + dd + ddup + df
+                    ELSE b.total_files
+                  END)
+            THEN 'DONE'
+            ELSE 'PROCESSING'
+        END,
+        updated_at = current_timestamp
+    WHERE b.id = p_batch_id;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION cvect_upload_items_batch_counters()
+RETURNS trigger AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM cvect_apply_upload_batch_transition(NEW.batch_id, NULL, NEW.status);
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM cvect_apply_upload_batch_transition(OLD.batch_id, OLD.status, NULL);
+    ELSIF NEW.batch_id IS DISTINCT FROM OLD.batch_id THEN
+        PERFORM cvect_apply_upload_batch_transition(OLD.batch_id, OLD.status, NULL);
+        PERFORM cvect_apply_upload_batch_transition(NEW.batch_id, NULL, NEW.status);
+    ELSIF NEW.status IS DISTINCT FROM OLD.status THEN
+        PERFORM cvect_apply_upload_batch_transition(NEW.batch_id, OLD.status, NEW.status);
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_upload_items_batch_counters ON upload_items;
+CREATE TRIGGER trg_upload_items_batch_counters
+    AFTER INSERT OR DELETE OR UPDATE OF status, batch_id ON upload_items
+    FOR EACH ROW
+    EXECUTE FUNCTION cvect_upload_items_batch_counters();
@@ -0,0 +1,83 @@
+-- 向量检索按 tenant / JD 过滤时原先要先 JOIN candidates，HNSW 扫描覆盖所有租户后再过滤，
+-- 多租户下结果被截断或退化为全表扫描。这里把 tenant_id / jd_id 冗余到 resume_chunks：
+-- 写入时由触发器从 candidates 补齐，候选人归属变更时同步；(tenant_id, jd_id, chunk_type) 索引
+-- 供小范围精确扫描使用，大范围仍走 HNSW。
+-- 本脚本在事务外执行（见同名 .conf），回填每批独立 COMMIT，索引并发创建；所有步骤可重复执行。
+
+ALTER TABLE resume_chunks
+    ADD COLUMN IF NOT EXISTS tenant_id UUID,
+    ADD COLUMN IF NOT EXISTS jd_id UUID;
+
+CREATE OR REPLACE FUNCTION cvect_resume_chunks_fill_scope()
+RETURNS trigger AS
+$$
+BEGIN
+    IF NEW.tenant_id IS NULL OR NEW.jd_id IS NULL THEN
+        SELECT COALESCE(NEW.tenant_id, c.tenant_id), COALESCE(NEW.jd_id, c.jd_id)
+        INTO NEW.tenant_id, NEW.jd_id
+        FROM candidates c
+        WHERE c.id = NEW.candidate_id;
+    END IF;
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_resume_chunks_fill_scope ON resume_chunks;
+CREATE TRIGGER trg_resume_chunks_fill_scope
+    BEFORE INSERT ON resume_chunks
+    FOR EACH ROW
+    EXECUTE FUNCTION cvect_resume_chunks_fill_scope();
+
+CREATE OR REPLACE FUNCTION cvect_candidates_sync_chunk_scope()
+RETURNS trigger AS
+$$
+BEGIN
+    UPDATE resume_chunks
+    SET tenant_id = NEW.tenant_id,
+        jd_id = NEW.jd_id
+    WHERE candidate_id = NEW.id;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_candidates_sync_chunk_scope ON candidates;
+CREATE TRIGGER trg_candidates_sync_chunk_scope
+    AFTER UPDATE OF tenant_id, jd_id ON candidates
+    FOR EACH ROW
+    WHEN (OLD.tenant_id IS DISTINCT FROM NEW.tenant_id OR OLD.jd_id IS DISTINCT FROM NEW.jd_id)
+    EXECUTE FUNCTION cvect_candidates_sync_chunk_scope();
+
+-- 按主键分段回填历史行
+DO
+$$
+DECLARE
+    last_id UUID := '00000000-0000-0000-0000-000000000000';
+    batch_max_id UUID;
+BEGIN
+    LOOP
+        SELECT MAX(id) INTO batch_max_id
+        FROM (
+            SELECT id FROM resume_chunks
+            WHERE id > last_id
+            ORDER BY id
+            LIMIT 5000
+        ) batch;
+        EXIT WHEN batch_max_id IS NULL;
+
+        UPDATE resume_chunks r
+        SET tenant_id = c.tenant_id,
+            jd_id = c.jd_id
+        FROM candidates c
+        WHERE c.id = r.candidate_id
+          AND r.id > last_id
+          AND r.id <= batch_max_id
+          AND (r.tenant_id IS NULL OR r.jd_id IS NULL);
+
+        last_id := batch_max_id;
+        COMMIT;
+    END LOOP;
+END
+$$;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_resume_chunks_tenant_jd_type
+    ON resume_chunks (tenant_id, jd_id, chunk_type);
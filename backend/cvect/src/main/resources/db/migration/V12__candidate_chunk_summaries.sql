@@ -0,0 +1,89 @@
+-- JD 全量打分原先对租户内每个候选人的全部 EXPERIENCE / SKILL chunk 计算 MAX(1 - distance)，
+-- 并把所有候选人 ID 作为 IN 参数传入。这里按 (candidate_id, chunk_type) 维护一条均值池化向量，
+-- 向量入库完成时刷新；打分变为按 tenant_id 索引扫描，每个候选人每种类型一行。
+-- 向量维度取 Flyway 占位符 vector_dimension (= app.vector.dimension)。
+-- 本脚本在事务外执行（见同名 .conf），按候选人分批回填并逐批 COMMIT；所有步骤可重复执行。
+DO
+$$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'vector') THEN
+        RAISE NOTICE 'pgvector extension is unavailable, skip candidate chunk summaries';
+        RETURN;
+    END IF;
+
+    CREATE TABLE IF NOT EXISTS candidate_chunk_summaries (
+        candidate_id UUID NOT NULL,
+        chunk_type VARCHAR(32) NOT NULL,
+        tenant_id UUID,
+        jd_id UUID,
+        embedding_vector vector(${vector_dimension}) NOT NULL,
+        chunk_count INTEGER NOT NULL,
+        updated_at TIMESTAMP NOT NULL,
+        CONSTRAINT pk_candidate_chunk_summaries PRIMARY KEY (candidate_id, chunk_type),
+        CONSTRAINT fk_candidate_chunk_summaries_candidate
+            FOREIGN KEY (candidate_id) REFERENCES candidates (id) ON DELETE CASCADE
+    );
+
+    CREATE INDEX IF NOT EXISTS idx_candidate_chunk_summaries_tenant_type
+        ON candidate_chunk_summaries (tenant_id, chunk_type);
+END
+$$;
+
+-- 按候选人主键分段回填，每批走 resume_chunks (candidate_id) 索引聚合
+DO
+$$
+DECLARE
+    last_id UUID := '00000000-0000-0000-0000-000000000000';
+    batch_max_id UUID;
+BEGIN
+    IF to_regclass('candidate_chunk_summaries') IS NULL THEN
+        RETURN;
+    END IF;
+
+    LOOP
+        SELECT MAX(id) INTO batch_max_id
+        FROM (
+            SELECT id FROM candidates
+            WHERE id > last_id
+            ORDER BY id
+            LIMIT 1000
+        ) batch;
+        EXIT WHEN batch_max_id IS NULL;
+
+        INSERT INTO candidate_chunk_summaries (
+            candidate_id, chunk_type, tenant_id, jd_id, embedding_vector, chunk_count, updated_at)
+        SELECT r.candidate_id, r.chunk_type, c.tenant_id, c.jd_id,
+               AVG(r.embedding_vector), COUNT(*), CURRENT_TIMESTAMP
+        FROM resume_chunks r
+        JOIN candidates c ON c.id = r.candidate_id
+        WHERE r.candidate_id > last_id
+          AND r.candidate_id <= batch_max_id
+          AND r.embedding_vector IS NOT NULL
+          AND r.chunk_type IN ('EXPERIENCE', 'SKILL')
+        GROUP BY r.candidate_id, r.chunk_type, c.tenant_id, c.jd_id
+        ON CONFLICT (candidate_id, chunk_type) DO NOTHING;
+
+        last_id := batch_max_id;
+        COMMIT;
+    END LOOP;
+END
+$$;
+
+-- 候选人归属变更时同步 chunk 与 summary 上的冗余 tenant_id / jd_id (替换 V11 的同名函数)
+CREATE OR REPLACE FUNCTION cvect_candidates_sync_chunk_scope()
+RETURNS trigger AS
+$$
+BEGIN
+    UPDATE resume_chunks
+    SET tenant_id = NEW.tenant_id,
+        jd_id = NEW.jd_id
+    WHERE candidate_id = NEW.id;
+    IF to_regclass('candidate_chunk_summaries') IS NOT NULL THEN
+        UPDATE candidate_chunk_summaries
+        SET tenant_id = NEW.tenant_id,
+            jd_id = NEW.jd_id
+        WHERE candidate_id = NEW.id;
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,30 @@
+-- 匹配分刷新持久化队列：原先在单线程 executor 的内存集合里去重，节点重启即丢失。
+-- 每个 JD 一行任务 (重复请求合并)，not_before 实现去抖；dirty 候选人表让刷新只重算变化的候选人。
+CREATE TABLE IF NOT EXISTS match_score_refresh_tasks (
+    jd_id UUID PRIMARY KEY,
+    full_refresh BOOLEAN NOT NULL DEFAULT FALSE,
+    status VARCHAR(32) NOT NULL,
+    rerun_requested BOOLEAN NOT NULL DEFAULT FALSE,
+    attempt INTEGER NOT NULL DEFAULT 0,
+    error_message TEXT,
+    requested_at TIMESTAMP NOT NULL,
+    not_before TIMESTAMP NOT NULL,
+    started_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    CONSTRAINT ck_match_score_refresh_tasks_status CHECK (status IN ('PENDING', 'PROCESSING'))
+);
+
+CREATE INDEX IF NOT EXISTS idx_match_score_refresh_status_not_before
+    ON match_score_refresh_tasks (status, not_before);
+
+CREATE TABLE IF NOT EXISTS match_score_dirty_candidates (
+    id UUID PRIMARY KEY,
+    jd_id UUID NOT NULL,
+    candidate_id UUID NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_match_score_dirty_candidates_jd_candidate UNIQUE (jd_id, candidate_id),
+    CONSTRAINT fk_match_score_dirty_candidates_jd
+        FOREIGN KEY (jd_id) REFERENCES job_descriptions (id) ON DELETE CASCADE,
+    CONSTRAINT fk_match_score_dirty_candidates_candidate
+        FOREIGN KEY (candidate_id) REFERENCES candidates (id) ON DELETE CASCADE
+);
@@ -0,0 +1,10 @@
+-- 文本内容 embedding 缓存：模板化技能列表、同一份简历投递多个 JD 等重复 chunk 只调用一次模型。
+-- 主键包含模型名与维度，切换模型后旧向量自然失效，不会被误用。
+CREATE TABLE IF NOT EXISTS embedding_cache (
+    model_name VARCHAR(200) NOT NULL,
+    dimension INTEGER NOT NULL,
+    content_hash VARCHAR(64) NOT NULL,
+    embedding BYTEA NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (model_name, dimension, content_hash)
+);
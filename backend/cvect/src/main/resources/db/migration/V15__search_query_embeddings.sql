@@ -0,0 +1,16 @@
+-- 检索 query embedding 持久层：进程内 Caffeine 缓存重启即丢、多副本间不共享，
+-- 见过的 JD 文本不应再付一次 100-800ms 的 query embedding 调用。
+-- key 与 SearchCacheKeys.queryEmbedding 一致；主键包含模型名与维度，切换模型后旧向量自然失效。
+-- last_used_at 用于启动预热时挑选最近使用的条目，以及清理长期未使用的条目。
+CREATE TABLE IF NOT EXISTS search_query_embeddings (
+    model_name VARCHAR(200) NOT NULL,
+    dimension INTEGER NOT NULL,
+    query_key VARCHAR(80) NOT NULL,
+    embedding BYTEA NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    last_used_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (model_name, dimension, query_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_search_query_embeddings_last_used
+    ON search_query_embeddings (model_name, dimension, last_used_at DESC);
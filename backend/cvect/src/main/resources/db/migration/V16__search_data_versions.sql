@@ -0,0 +1,7 @@
+-- 检索数据版本：向量写入完成、候选人/JD 删除时递增，版本号是检索响应缓存 key 的一部分。
+-- 数据变化后旧 key 不再被命中，响应缓存可以按小时保留而不会返回过期结果；多副本共享同一版本。
+CREATE TABLE IF NOT EXISTS search_data_versions (
+    tenant_id UUID PRIMARY KEY,
+    version BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,86 @@
+-- 稠密向量对 Kubernetes、Flink、证书名称这类精确词召回不稳定，这里给 resume_chunks.content 加词法索引，
+-- 供混合检索与向量结果做 RRF 融合。分词由 cvect_lexical_terms 完成：拉丁字母/数字按词切分并转小写，
+-- 中日韩连续片段按字符二元组 (bigram) 切分；文档与查询都用同一函数分词，保证词项一致。
+-- 本脚本在事务外执行（见同名 .conf），回填每批独立 COMMIT，索引并发创建；所有步骤可重复执行。
+
+ALTER TABLE resume_chunks
+    ADD COLUMN IF NOT EXISTS content_tsv TSVECTOR;
+
+CREATE OR REPLACE FUNCTION cvect_lexical_terms(input TEXT)
+RETURNS TEXT[] AS
+$$
+DECLARE
+    terms TEXT[] := ARRAY[]::TEXT[];
+    token TEXT;
+    i INTEGER;
+BEGIN
+    IF input IS NULL THEN
+        RETURN terms;
+    END IF;
+    -- CJK 片段两侧补空格，与相邻的拉丁词分开
+    FOR token IN
+        SELECT t
+        FROM regexp_split_to_table(
+                regexp_replace(lower(input),
+                               '([\u3040-\u30ff\u3400-\u4dbf\u4e00-\u9fff\uac00-\ud7af]+)', ' \1 ', 'g'),
+                '[^[:alnum:]\u3040-\u30ff\u3400-\u4dbf\u4e00-\u9fff\uac00-\ud7af]+') AS t
+    LOOP
+        CONTINUE WHEN token = '';
+        IF token ~ '^[\u3040-\u30ff\u3400-\u4dbf\u4e00-\u9fff\uac00-\ud7af]+$' AND char_length(token) > 1 THEN
+            FOR i IN 1 .. char_length(token) - 1 LOOP
+                terms := array_append(terms, substr(token, i, 2));
+            END LOOP;
+        ELSE
+            terms := array_append(terms, token);
+        END IF;
+    END LOOP;
+    RETURN terms;
+END
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+CREATE OR REPLACE FUNCTION cvect_resume_chunks_fill_lexical()
+RETURNS trigger AS
+$$
+BEGIN
+    NEW.content_tsv := array_to_tsvector(cvect_lexical_terms(NEW.content));
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_resume_chunks_fill_lexical ON resume_chunks;
+CREATE TRIGGER trg_resume_chunks_fill_lexical
+    BEFORE INSERT OR UPDATE OF content ON resume_chunks
+    FOR EACH ROW
+    EXECUTE FUNCTION cvect_resume_chunks_fill_lexical();
+
+-- 按主键分段回填历史行
+DO
+$$
+DECLARE
+    last_id UUID := '00000000-0000-0000-0000-000000000000';
+    batch_max_id UUID;
+BEGIN
+    LOOP
+        SELECT MAX(id) INTO batch_max_id
+        FROM (
+            SELECT id FROM resume_chunks
+            WHERE id > last_id
+            ORDER BY id
+            LIMIT 5000
+        ) batch;
+        EXIT WHEN batch_max_id IS NULL;
+
+        UPDATE resume_chunks
+        SET content_tsv = array_to_tsvector(cvect_lexical_terms(content))
+        WHERE id > last_id
+          AND id <= batch_max_id
+          AND content_tsv IS NULL;
+
+        last_id := batch_max_id;
+        COMMIT;
+    END LOOP;
+END
+$$;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_resume_chunks_content_tsv
+    ON resume_chunks USING GIN (content_tsv);
@@ -0,0 +1,67 @@
+-- resume_chunks.embedding 以 TEXT ({1,2,3}) 存储时，检索、精确扫描和建索引都要逐行 REPLACE + ::vector 解析。
+-- 这里新增原生 vector 列 embedding_vector 并分批回填；旧 TEXT 列保留（不再写入），便于回滚。
+-- 向量维度取 Flyway 占位符 vector_dimension (= app.vector.dimension)。
+-- 本脚本在事务外执行（见同名 .conf），回填每批独立 COMMIT，不会形成长事务；所有步骤可重复执行。
+
+DO
+$$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'vector') THEN
+        BEGIN
+            CREATE EXTENSION IF NOT EXISTS vector;
+        EXCEPTION WHEN OTHERS THEN
+            RAISE NOTICE 'pgvector extension is unavailable, skip native embedding column: %', SQLERRM;
+        END;
+    END IF;
+END
+$$;
+
+DO
+$$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'vector') THEN
+        ALTER TABLE resume_chunks
+            ADD COLUMN IF NOT EXISTS embedding_vector vector(${vector_dimension});
+    END IF;
+END
+$$;
+
+-- 按主键分段回填，只处理维度匹配的历史行；维度不一致的旧数据保持 NULL，由重新入库覆盖。
+DO
+$$
+DECLARE
+    last_id UUID := '00000000-0000-0000-0000-000000000000';
+    batch_max_id UUID;
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1 FROM information_schema.columns
+        WHERE table_schema = current_schema()
+          AND table_name = 'resume_chunks'
+          AND column_name = 'embedding_vector'
+    ) THEN
+        RETURN;
+    END IF;
+
+    LOOP
+        SELECT MAX(id) INTO batch_max_id
+        FROM (
+            SELECT id FROM resume_chunks
+            WHERE id > last_id
+            ORDER BY id
+            LIMIT 5000
+        ) batch;
+        EXIT WHEN batch_max_id IS NULL;
+
+        UPDATE resume_chunks
+        SET embedding_vector = embedding::real[]::vector(${vector_dimension})
+        WHERE id > last_id
+          AND id <= batch_max_id
+          AND embedding_vector IS NULL
+          AND embedding IS NOT NULL
+          AND cardinality(embedding::real[]) = ${vector_dimension};
+
+        last_id := batch_max_id;
+        COMMIT;
+    END LOOP;
+END
+$$;
@@ -0,0 +1,24 @@
+-- 队列入队唤醒：upload_items / vector_ingest_tasks 出现待处理行时 NOTIFY，
+-- 空闲 worker 通过 LISTEN 立即被唤醒；同一事务内相同 channel+payload 的通知会被合并为一条。
+CREATE OR REPLACE FUNCTION cvect_notify_queue_channel()
+RETURNS trigger AS
+$$
+BEGIN
+    PERFORM pg_notify(TG_ARGV[0], '');
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_upload_items_notify ON upload_items;
+CREATE TRIGGER trg_upload_items_notify
+    AFTER INSERT OR UPDATE OF status ON upload_items
+    FOR EACH ROW
+    WHEN (NEW.status = 'QUEUED')
+    EXECUTE FUNCTION cvect_notify_queue_channel('cvect_upload_items');
+
+DROP TRIGGER IF EXISTS trg_vector_ingest_tasks_notify ON vector_ingest_tasks;
+CREATE TRIGGER trg_vector_ingest_tasks_notify
+    AFTER INSERT OR UPDATE OF status ON vector_ingest_tasks
+    FOR EACH ROW
+    WHEN (NEW.status = 'PENDING')
+    EXECUTE FUNCTION cvect_notify_queue_channel('cvect_vector_ingest_tasks');
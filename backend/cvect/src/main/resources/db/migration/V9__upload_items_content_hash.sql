@@ -0,0 +1,6 @@
+-- 上传时单次流式计算的内容哈希/大小，worker 直接复用，不再重复哈希与按哈希重存对象
+ALTER TABLE upload_items
+    ADD COLUMN IF NOT EXISTS file_hash VARCHAR(64);
+
+ALTER TABLE upload_items
+    ADD COLUMN IF NOT EXISTS file_size_bytes BIGINT;
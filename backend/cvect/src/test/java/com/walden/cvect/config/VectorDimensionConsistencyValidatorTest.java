@@ -51,4 +51,30 @@ class VectorDimensionConsistencyValidatorTest {
                         "app.vector.dimension=1024")
                 .run(context -> assertThat(context).hasNotFailed());
     }
+
+    @Test
+    void should_fail_when_coarse_dimension_is_not_smaller_than_vector_dimension() {
+        contextRunner
+                .withPropertyValues(
+                        "app.embedding.dimension=1024",
+                        "app.vector.enabled=true",
+                        "app.vector.dimension=1024",
+                        "app.vector.coarse-dimension=1024")
+                .run(context -> {
+                    assertThat(context).hasFailed();
+                    assertThat(context.getStartupFailure())
+                            .hasRootCauseMessage("Invalid app.vector.coarse-dimension=1024: must be between 1 and app.vector.dimension - 1 (1023), or 0 to disable two-stage search.");
+                });
+    }
+
+    @Test
+    void should_start_when_coarse_dimension_is_a_valid_prefix() {
+        contextRunner
+                .withPropertyValues(
+                        "app.embedding.dimension=1024",
+                        "app.vector.enabled=true",
+                        "app.vector.dimension=1024",
+                        "app.vector.coarse-dimension=256")
+                .run(context -> assertThat(context).hasNotFailed());
+    }
 }
@@ -0,0 +1,100 @@
+package com.walden.cvect.infra.embedding;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("AdaptiveConcurrencyLimiter unit tests")
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    @DisplayName("should reject requests beyond the current limit and count rejections")
+    void shouldRejectBeyondLimit() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config(2, 1, 8), meterRegistry);
+
+        AdaptiveConcurrencyLimiter.Permit first = limiter.tryAcquire();
+        AdaptiveConcurrencyLimiter.Permit second = limiter.tryAcquire();
+
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(limiter.tryAcquire());
+        assertEquals(2.0, meterRegistry.get("cvect.embedding.limiter.inflight").gauge().value());
+        assertEquals(1.0, meterRegistry.get("cvect.embedding.limiter.rejections").counter().count());
+
+        first.ignore();
+        first.ignore();
+        assertEquals(1, limiter.getInFlight());
+        assertNotNull(limiter.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("should grow the limit additively while saturated and back off multiplicatively on drops")
+    void shouldIncreaseOnSuccessAndDecreaseOnDrop() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config(4, 1, 16), null);
+
+        for (int round = 0; round < 20; round++) {
+            List<AdaptiveConcurrencyLimiter.Permit> permits = acquireAll(limiter);
+            permits.forEach(permit -> permit.success(TimeUnit.MILLISECONDS.toNanos(5)));
+        }
+        int grown = limiter.getLimit();
+        assertTrue(grown > 4, "limit should grow under saturated load, was " + grown);
+
+        List<AdaptiveConcurrencyLimiter.Permit> permits = acquireAll(limiter);
+        permits.forEach(AdaptiveConcurrencyLimiter.Permit::dropped);
+        assertTrue(limiter.getLimit() < grown);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("slow calls should shrink the limit and the limit should never fall below the minimum")
+    void shouldTreatSlowCallsAsOverloadAndRespectMinimum() {
+        EmbeddingConfig.Limiter config = config(3, 2, 8);
+        config.setSlowCallThresholdMs(100);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config, null);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire().success(TimeUnit.MILLISECONDS.toNanos(500));
+        }
+
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("disabled limiter should never reject")
+    void shouldNotRejectWhenDisabled() {
+        EmbeddingConfig.Limiter config = config(1, 1, 1);
+        config.setEnabled(false);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config, null);
+
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(limiter.tryAcquire());
+        }
+    }
+
+    private static List<AdaptiveConcurrencyLimiter.Permit> acquireAll(AdaptiveConcurrencyLimiter limiter) {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        AdaptiveConcurrencyLimiter.Permit permit;
+        while ((permit = limiter.tryAcquire()) != null) {
+            permits.add(permit);
+        }
+        return permits;
+    }
+
+    private static EmbeddingConfig.Limiter config(int initialLimit, int minLimit, int maxLimit) {
+        EmbeddingConfig.Limiter config = new EmbeddingConfig.Limiter();
+        config.setInitialLimit(initialLimit);
+        config.setMinLimit(minLimit);
+        config.setMaxLimit(maxLimit);
+        return config;
+    }
+}
@@ -0,0 +1,137 @@
+package com.walden.cvect.infra.embedding;
+
+import com.walden.cvect.repository.EmbeddingCacheRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ContentEmbeddingCache unit tests")
+class ContentEmbeddingCacheTest {
+
+    private EmbeddingCacheRepository repository;
+    private ConcurrentMapCache frontCache;
+    private SimpleMeterRegistry meterRegistry;
+    private ContentEmbeddingCache cache;
+    private List<List<String>> loaderCalls;
+
+    @BeforeEach
+    void setUp() {
+        EmbeddingConfig config = new EmbeddingConfig();
+        config.setModelName("test-model");
+        config.setDimension(2);
+        repository = mock(EmbeddingCacheRepository.class);
+        when(repository.findAll(anyString(), anyInt(), anyCollection())).thenReturn(Map.of());
+        frontCache = new ConcurrentMapCache("contentEmbeddings");
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ContentEmbeddingCache(config, frontCache, repository, meterRegistry, true);
+        loaderCalls = new ArrayList<>();
+    }
+
+    @Test
+    @DisplayName("should embed normalized duplicates once and serve them from memory afterwards")
+    void shouldEmbedDuplicatesOnceAndReuseFrontCache() {
+        List<float[]> first = cache.getOrCompute(List.of("Java  Spring", "Kafka", " Java Spring "), this::load);
+        List<float[]> second = cache.getOrCompute(List.of("Java Spring"), this::load);
+
+        assertEquals(List.of(List.of("Java  Spring", "Kafka")), loaderCalls);
+        assertEquals(3, first.size());
+        assertSame(first.get(0), first.get(2));
+        assertSame(first.get(0), second.get(0));
+        verify(repository).insertAll(eq("test-model"), eq(2), anyMap());
+        assertEquals(2.0, lookups("miss"));
+        assertEquals(1.0, lookups("memory"));
+    }
+
+    @Test
+    @DisplayName("should serve persisted embeddings without calling the model")
+    void shouldServePersistedEmbeddings() {
+        float[] persisted = { 0.3f, 0.4f };
+        when(repository.findAll(eq("test-model"), eq(2), anyCollection()))
+                .thenReturn(Map.of(ContentEmbeddingCache.contentHash("Kafka"), persisted));
+
+        List<float[]> result = cache.getOrCompute(List.of("Kafka"), this::load);
+
+        assertArrayEquals(persisted, result.get(0));
+        assertEquals(List.of(), loaderCalls);
+        verify(repository, never()).insertAll(anyString(), anyInt(), anyMap());
+        assertEquals(1.0, lookups("database"));
+    }
+
+    @Test
+    @DisplayName("should fall back to the model when the persistent tier fails")
+    void shouldFallbackWhenPersistentTierFails() {
+        when(repository.findAll(anyString(), anyInt(), anyCollection()))
+                .thenThrow(new IllegalStateException("db down"));
+
+        List<float[]> result = cache.getOrCompute(List.of("Kafka"), this::load);
+
+        assertEquals(1, result.size());
+        assertEquals(List.of(List.of("Kafka")), loaderCalls);
+    }
+
+    @Test
+    @DisplayName("should not cache vectors whose dimension does not match the model")
+    void shouldNotCacheUnexpectedDimension() {
+        cache.getOrCompute(List.of("odd"), texts -> List.of(new float[] { 1.0f, 2.0f, 3.0f }));
+
+        assertEquals(null, frontCache.get("test-model:2:" + ContentEmbeddingCache.contentHash("odd")));
+        verify(repository, never()).insertAll(anyString(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("should reject loader results that do not line up with the missing texts")
+    void shouldRejectMismatchedLoaderResult() {
+        assertThrows(IllegalStateException.class,
+                () -> cache.getOrCompute(List.of("a", "b"), texts -> List.of(new float[] { 1.0f, 2.0f })));
+    }
+
+    @Test
+    @DisplayName("async lookups should only pass misses to the loader")
+    void asyncLookupShouldOnlyLoadMisses() {
+        cache.getOrCompute(List.of("Kafka"), this::load);
+
+        List<float[]> result = cache.getOrComputeAsync(
+                        List.of("Kafka", "Redis"),
+                        texts -> Mono.fromCallable(() -> load(texts)))
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(2, result.size());
+        assertEquals(List.of(List.of("Kafka"), List.of("Redis")), loaderCalls);
+    }
+
+    private List<float[]> load(List<String> texts) {
+        loaderCalls.add(List.copyOf(texts));
+        List<float[]> vectors = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            vectors.add(new float[] { i, 1.0f });
+        }
+        return vectors;
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("cvect.embedding.cache.lookups").tag("result", result).counter().count();
+    }
+}
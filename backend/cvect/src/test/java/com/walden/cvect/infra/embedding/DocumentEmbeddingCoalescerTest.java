@@ -0,0 +1,219 @@
+package com.walden.cvect.infra.embedding;
+
+import com.walden.cvect.exception.EmbeddingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("DocumentEmbeddingCoalescer unit tests")
+class DocumentEmbeddingCoalescerTest {
+
+    @Test
+    @DisplayName("concurrent calls within the linger window should share one batch request")
+    void shouldCoalesceConcurrentCallsIntoOneBatch() throws Exception {
+        List<List<String>> batches = new CopyOnWriteArrayList<>();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (DocumentEmbeddingCoalescer coalescer = new DocumentEmbeddingCoalescer(
+                texts -> {
+                    batches.add(List.copyOf(texts));
+                    return CompletableFuture.completedFuture(
+                            texts.stream().map(text -> new float[] {text.length()}).toList());
+                },
+                4,
+                500,
+                () -> 1,
+                Duration.ofSeconds(5),
+                meterRegistry)) {
+            List<float[]> results = embedConcurrently(coalescer, List.of("a", "bb", "ccc", "dddd"));
+
+            assertEquals(1, batches.size());
+            assertThat(batches.get(0)).containsExactlyInAnyOrder("a", "bb", "ccc", "dddd");
+            for (int i = 0; i < results.size(); i++) {
+                assertArrayEquals(new float[] {i + 1}, results.get(i));
+            }
+            assertEquals(1L, meterRegistry.get("cvect.embedding.coalesce.batch.size").summary().count());
+            assertEquals(4.0, meterRegistry.get("cvect.embedding.coalesce.batch.size").summary().totalAmount());
+        }
+    }
+
+    @Test
+    @DisplayName("batches should never exceed the configured max batch size")
+    void shouldRespectMaxBatchSize() throws Exception {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        try (DocumentEmbeddingCoalescer coalescer = new DocumentEmbeddingCoalescer(
+                texts -> {
+                    batchSizes.add(texts.size());
+                    return CompletableFuture.completedFuture(
+                            texts.stream().map(text -> new float[] {1.0f}).toList());
+                },
+                2,
+                200,
+                () -> 1,
+                Duration.ofSeconds(5),
+                null)) {
+            List<float[]> results = embedConcurrently(coalescer, List.of("a", "b", "c", "d", "e"));
+
+            assertEquals(5, results.size());
+            assertThat(batchSizes).allMatch(size -> size <= 2);
+            assertEquals(5, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        }
+    }
+
+    @Test
+    @DisplayName("batch failure should surface the original exception to every caller")
+    void shouldPropagateBatchFailureToCallers() {
+        try (DocumentEmbeddingCoalescer coalescer = new DocumentEmbeddingCoalescer(
+                texts -> {
+                    throw new RuntimeException("Embedding generation failed: Connection refused");
+                },
+                4,
+                0,
+                () -> 1,
+                Duration.ofSeconds(5),
+                null)) {
+            RuntimeException ex = assertThrows(RuntimeException.class, () -> coalescer.embed("a"));
+            assertEquals("Embedding generation failed: Connection refused", ex.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("asynchronous batch failure should surface the original exception to every caller")
+    void shouldPropagateAsyncBatchFailureToCallers() {
+        try (DocumentEmbeddingCoalescer coalescer = new DocumentEmbeddingCoalescer(
+                texts -> CompletableFuture.failedFuture(
+                        new IllegalStateException("Embedding concurrency limit reached (1)")),
+                4,
+                0,
+                () -> 1,
+                Duration.ofSeconds(5),
+                null)) {
+            IllegalStateException ex = assertThrows(IllegalStateException.class, () -> coalescer.embed("a"));
+            assertEquals("Embedding concurrency limit reached (1)", ex.getMessage());
+            assertEquals(0, coalescer.getInFlight());
+        }
+    }
+
+    @Test
+    @DisplayName("batches should be dispatched without waiting for earlier ones, up to the in-flight limit")
+    void shouldKeepMultipleBatchesInFlightUpToLimit() throws Exception {
+        List<CompletableFuture<List<float[]>>> requests = new CopyOnWriteArrayList<>();
+        try (DocumentEmbeddingCoalescer coalescer = new DocumentEmbeddingCoalescer(
+                texts -> {
+                    CompletableFuture<List<float[]>> request = new CompletableFuture<>();
+                    requests.add(request);
+                    return request;
+                },
+                1,
+                0,
+                () -> 2,
+                Duration.ofSeconds(5),
+                null)) {
+            ExecutorService executor = Executors.newFixedThreadPool(3);
+            try {
+                List<Future<float[]>> results = new ArrayList<>();
+                for (String text : List.of("a", "b", "c")) {
+                    results.add(executor.submit(() -> coalescer.embed(text)));
+                }
+
+                awaitCondition(() -> requests.size() == 2);
+                Thread.sleep(100);
+                assertEquals(2, requests.size());
+                assertEquals(2, coalescer.getInFlight());
+
+                requests.get(0).complete(List.of(new float[] {1.0f}));
+                awaitCondition(() -> requests.size() == 3);
+                requests.get(1).complete(List.of(new float[] {2.0f}));
+                requests.get(2).complete(List.of(new float[] {3.0f}));
+
+                for (Future<float[]> result : results) {
+                    assertEquals(1, result.get(5, TimeUnit.SECONDS).length);
+                }
+                awaitCondition(() -> coalescer.getInFlight() == 0);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("callers should stop waiting after the request timeout when a batch never completes")
+    void shouldBoundCallerWaitByRequestTimeout() {
+        try (DocumentEmbeddingCoalescer coalescer = new DocumentEmbeddingCoalescer(
+                texts -> new CompletableFuture<>(),
+                4,
+                0,
+                () -> 1,
+                Duration.ofMillis(100),
+                null)) {
+            EmbeddingUnavailableException ex = assertThrows(EmbeddingUnavailableException.class,
+                    () -> coalescer.embed("a"));
+            assertThat(ex.getMessage()).contains("timed out after 100ms");
+        }
+    }
+
+    @Test
+    @DisplayName("calls after close should be rejected")
+    void shouldRejectCallsAfterClose() {
+        DocumentEmbeddingCoalescer coalescer = new DocumentEmbeddingCoalescer(
+                texts -> CompletableFuture.completedFuture(
+                        texts.stream().map(text -> new float[] {1.0f}).toList()),
+                4,
+                0,
+                () -> 1,
+                Duration.ofSeconds(5),
+                null);
+        coalescer.close();
+
+        assertThrows(IllegalStateException.class, () -> coalescer.embed("a"));
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met within 5 seconds");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static List<float[]> embedConcurrently(DocumentEmbeddingCoalescer coalescer, List<String> texts)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(texts.size());
+        try {
+            CountDownLatch startGate = new CountDownLatch(1);
+            List<Future<float[]>> futures = new ArrayList<>();
+            for (String text : texts) {
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    return coalescer.embed(text);
+                }));
+            }
+            startGate.countDown();
+            List<float[]> results = new ArrayList<>();
+            for (Future<float[]> future : futures) {
+                results.add(future.get(5, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.walden.cvect.infra.embedding;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("EmbeddingCircuitBreaker unit tests")
+class EmbeddingCircuitBreakerTest {
+
+    @Test
+    @DisplayName("should open after consecutive failures and fail fast while open")
+    void shouldOpenAfterConsecutiveFailures() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EmbeddingCircuitBreaker breaker = new EmbeddingCircuitBreaker(config(3, 60_000), meterRegistry);
+
+        for (int i = 0; i < 2; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+
+        assertEquals(EmbeddingCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        assertTrue(breaker.retryAfterMs() > 0);
+        assertEquals(1.0, meterRegistry.get("cvect.embedding.circuit.opened").counter().count());
+        assertEquals(1.0, meterRegistry.get("cvect.embedding.circuit.rejections").counter().count());
+        assertEquals(1.0, meterRegistry.get("cvect.embedding.circuit.state").gauge().value());
+    }
+
+    @Test
+    @DisplayName("should allow a single half-open probe and close when it succeeds")
+    void shouldCloseAfterSuccessfulProbe() {
+        EmbeddingCircuitBreaker breaker = new EmbeddingCircuitBreaker(config(1, 0), null);
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        assertTrue(breaker.tryAcquire());
+        assertEquals(EmbeddingCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onSuccess();
+        assertEquals(EmbeddingCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("a failed half-open probe should reopen the circuit")
+    void shouldReopenAfterFailedProbe() {
+        EmbeddingCircuitBreaker breaker = new EmbeddingCircuitBreaker(config(1, 0), null);
+        breaker.tryAcquire();
+        breaker.onFailure();
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        assertEquals(EmbeddingCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private static EmbeddingConfig.CircuitBreaker config(int failureThreshold, long openMs) {
+        EmbeddingConfig.CircuitBreaker config = new EmbeddingConfig.CircuitBreaker();
+        config.setFailureThreshold(failureThreshold);
+        config.setOpenMs(openMs);
+        return config;
+    }
+}
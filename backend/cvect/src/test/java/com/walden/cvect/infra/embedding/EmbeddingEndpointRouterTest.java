@@ -0,0 +1,149 @@
+package com.walden.cvect.infra.embedding;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("EmbeddingEndpointRouter unit tests")
+class EmbeddingEndpointRouterTest {
+
+    private static final List<String> URLS = List.of("http://a.test/embed", "http://b.test/embed");
+
+    @Test
+    @DisplayName("should send new requests to the endpoint with the fewest in-flight requests")
+    void shouldPreferLeastOutstandingEndpoint() {
+        try (EmbeddingEndpointRouter router = new EmbeddingEndpointRouter(URLS, routing(), null, null)) {
+            Sinks.One<String> pending = Sinks.one();
+            List<String> chosen = new CopyOnWriteArrayList<>();
+            router.route(url -> {
+                chosen.add(url);
+                return pending.asMono();
+            }).subscribe();
+
+            for (int i = 0; i < 3; i++) {
+                router.route(url -> {
+                    chosen.add(url);
+                    return Mono.just(url);
+                }).block(Duration.ofSeconds(5));
+            }
+
+            String busy = chosen.get(0);
+            assertTrue(chosen.subList(1, chosen.size()).stream().noneMatch(busy::equals));
+            pending.tryEmitValue("done");
+        }
+    }
+
+    @Test
+    @DisplayName("should eject an endpoint after consecutive failures and re-admit it on a passing health check")
+    void shouldEjectFailingEndpointAndReadmitOnHealthCheck() {
+        Set<String> healthy = ConcurrentHashMap.newKeySet();
+        healthy.add(URLS.get(1));
+        EmbeddingConfig.Routing routing = routing();
+        routing.setEjectAfterFailures(2);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (EmbeddingEndpointRouter router = new EmbeddingEndpointRouter(
+                URLS, routing, url -> Mono.just(healthy.contains(url)), meterRegistry)) {
+            String bad = URLS.get(0);
+            for (int i = 0; i < 4; i++) {
+                router.route(url -> url.equals(bad)
+                                ? Mono.<String>error(new IllegalStateException("connection refused"))
+                                : Mono.just(url))
+                        .onErrorReturn("failed")
+                        .block(Duration.ofSeconds(5));
+            }
+            assertFalse(router.isAvailable(bad));
+            assertEquals(1.0, meterRegistry.get("cvect.embedding.endpoint.ejections").counter().count());
+
+            Map<String, Integer> hits = new ConcurrentHashMap<>();
+            for (int i = 0; i < 4; i++) {
+                router.route(url -> {
+                    hits.merge(url, 1, Integer::sum);
+                    return Mono.just(url);
+                }).block(Duration.ofSeconds(5));
+            }
+            assertEquals(Map.of(URLS.get(1), 4), hits);
+
+            healthy.add(bad);
+            router.checkHealth();
+            assertTrue(router.isAvailable(bad));
+        }
+    }
+
+    @Test
+    @DisplayName("client errors should not count towards ejection")
+    void shouldNotEjectOnClientErrors() {
+        EmbeddingConfig.Routing routing = routing();
+        routing.setEjectAfterFailures(1);
+        try (EmbeddingEndpointRouter router = new EmbeddingEndpointRouter(URLS, routing, null, null)) {
+            for (int i = 0; i < 4; i++) {
+                assertThrows(WebClientResponseException.class, () -> router.route(url -> Mono.<String>error(
+                                WebClientResponseException.create(HttpStatus.BAD_REQUEST.value(), "bad", null, null, null)))
+                        .block(Duration.ofSeconds(5)));
+            }
+            assertTrue(router.isAvailable(URLS.get(0)));
+            assertTrue(router.isAvailable(URLS.get(1)));
+        }
+    }
+
+    @Test
+    @DisplayName("a slow primary should be hedged to another endpoint and the first response wins")
+    void shouldHedgeSlowRequestToAnotherEndpoint() {
+        EmbeddingConfig.Routing routing = routing();
+        routing.getHedge().setEnabled(true);
+        routing.getHedge().setInitialDelayMs(50);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (EmbeddingEndpointRouter router = new EmbeddingEndpointRouter(URLS, routing, null, meterRegistry)) {
+            List<String> attempts = new CopyOnWriteArrayList<>();
+            List<String> cancelled = new ArrayList<>();
+            String winner = router.routeHedged(url -> {
+                boolean first = attempts.isEmpty();
+                attempts.add(url);
+                return first
+                        ? Mono.just(url).delayElement(Duration.ofSeconds(5)).doOnCancel(() -> cancelled.add(url))
+                        : Mono.just(url);
+            }).block(Duration.ofSeconds(2));
+
+            assertEquals(2, attempts.size());
+            assertEquals(attempts.get(1), winner);
+            assertTrue(!attempts.get(0).equals(attempts.get(1)));
+            assertEquals(List.of(attempts.get(0)), cancelled);
+            assertEquals(1.0, meterRegistry.get("cvect.embedding.hedged.requests").counter().count());
+        }
+    }
+
+    @Test
+    @DisplayName("hedging should stay off for a single endpoint")
+    void shouldNotHedgeWithSingleEndpoint() {
+        EmbeddingConfig.Routing routing = routing();
+        routing.getHedge().setEnabled(true);
+        try (EmbeddingEndpointRouter router = new EmbeddingEndpointRouter(
+                List.of(URLS.get(0)), routing, null, null)) {
+            assertFalse(router.isHedgingEnabled());
+            assertEquals(URLS.get(0), router.routeHedged(Mono::just).block(Duration.ofSeconds(5)));
+        }
+    }
+
+    private static EmbeddingConfig.Routing routing() {
+        EmbeddingConfig.Routing routing = new EmbeddingConfig.Routing();
+        // 测试中手动触发健康检查
+        routing.setHealthCheckIntervalMs(0);
+        return routing;
+    }
+}
@@ -0,0 +1,95 @@
+package com.walden.cvect.infra.embedding;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("EmbeddingResponseDecoder unit tests")
+class EmbeddingResponseDecoderTest {
+
+    @Test
+    @DisplayName("should stream native JSON vectors into float arrays and skip unrelated fields")
+    void shouldDecodeNativeJson() {
+        List<float[]> vectors = EmbeddingResponseDecoder.decodeNativeJson(utf8("""
+                {"model":"qwen","meta":{"nested":[1,2]},
+                 "embeddings":[[0.5,-1,2.25],[3,4e-1,5]],
+                 "dimension":3}
+                """), 3);
+
+        assertEquals(2, vectors.size());
+        assertArrayEquals(new float[] {0.5f, -1f, 2.25f}, vectors.get(0));
+        assertArrayEquals(new float[] {3f, 0.4f, 5f}, vectors.get(1));
+    }
+
+    @Test
+    @DisplayName("should grow or trim the buffer when the vector size differs from the hint")
+    void shouldHandleDimensionHintMismatch() {
+        List<float[]> vectors = EmbeddingResponseDecoder.decodeNativeJson(
+                utf8("{\"embeddings\":[[1,2,3,4,5],[1]]}"), 2);
+
+        assertEquals(5, vectors.get(0).length);
+        assertEquals(1, vectors.get(1).length);
+    }
+
+    @Test
+    @DisplayName("should order OpenAI items by index and accept base64 encoded embeddings")
+    void shouldDecodeOpenAiJsonWithBase64AndIndex() {
+        String encoded = Base64.getEncoder().encodeToString(float32Le(7f, 8f, 9f));
+        List<float[]> vectors = EmbeddingResponseDecoder.decodeOpenAiJson(utf8("""
+                {"object":"list","data":[
+                  {"object":"embedding","index":1,"embedding":"%s"},
+                  {"object":"embedding","index":0,"embedding":[1.0,2.0,3.0]}
+                ],"usage":{"prompt_tokens":4}}
+                """.formatted(encoded)), 3);
+
+        assertArrayEquals(new float[] {1f, 2f, 3f}, vectors.get(0));
+        assertArrayEquals(new float[] {7f, 8f, 9f}, vectors.get(1));
+    }
+
+    @Test
+    @DisplayName("should decode row-major little-endian float32 bodies")
+    void shouldDecodeFloat32LittleEndian() {
+        List<float[]> vectors = EmbeddingResponseDecoder.decodeFloat32Le(float32Le(1f, 2f, 3f, 4f, 5f, 6f), 3);
+
+        assertEquals(2, vectors.size());
+        assertArrayEquals(new float[] {4f, 5f, 6f}, vectors.get(1));
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> EmbeddingResponseDecoder.decodeFloat32Le(float32Le(1f, 2f), 3));
+        assertTrue(ex.getMessage().contains("not a multiple of dimension"));
+    }
+
+    @Test
+    @DisplayName("should report empty or malformed bodies as IllegalStateException")
+    void shouldRejectEmptyOrMalformedBodies() {
+        assertThrows(IllegalStateException.class, () -> EmbeddingResponseDecoder.decodeNativeJson(new byte[0], 3));
+        assertThrows(IllegalStateException.class, () -> EmbeddingResponseDecoder.decodeNativeJson(utf8("{}"), 3));
+        assertThrows(IllegalStateException.class,
+                () -> EmbeddingResponseDecoder.decodeOpenAiJson(utf8("{\"data\":[{\"index\":0}]}"), 3));
+        assertThrows(IllegalStateException.class,
+                () -> EmbeddingResponseDecoder.decodeLlamaCppJson(utf8("{\"embedding\":[1,\"x\"]}"), 3));
+        assertThrows(IllegalStateException.class,
+                () -> EmbeddingResponseDecoder.decodeNativeJson(utf8("{\"embeddings\":[[1,2"), 3));
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] float32Le(float... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (float value : values) {
+            buffer.putFloat(value);
+        }
+        return buffer.array();
+    }
+}
@@ -1,20 +1,37 @@
 package com.walden.cvect.infra.embedding;
 
+import com.walden.cvect.exception.EmbeddingCircuitOpenException;
+import com.walden.cvect.exception.EmbeddingRequestException;
+import com.walden.cvect.exception.EmbeddingUnavailableException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.ExchangeFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DisplayName("EmbeddingService HTTP compatibility tests")
 class EmbeddingServiceHttpServerTest {
@@ -46,6 +63,53 @@ class EmbeddingServiceHttpServerTest {
         assertArrayEquals(new float[] {4.0f, 5.0f, 6.0f}, embeddings.get(1));
     }
 
+    @Test
+    @DisplayName("should only request embeddings for texts missing from the content cache")
+    void shouldOnlyRequestContentCacheMisses() {
+        AtomicInteger requests = new AtomicInteger();
+        ExchangeFunction exchange = request -> {
+            requests.incrementAndGet();
+            return json(HttpStatus.OK, """
+                    {"data":[{"embedding":[1.0,2.0,3.0]}]}
+                    """);
+        };
+        EmbeddingConfig config = newConfig("http://embedding.test/v1/embeddings", "openai");
+        config.setDimension(3);
+        ContentEmbeddingCache contentCache = new ContentEmbeddingCache(
+                config, new ConcurrentMapCache("contentEmbeddings"), null, null, false);
+
+        EmbeddingService service = new EmbeddingService(config, webClientFactory(exchange), null, contentCache);
+        List<float[]> first = service.embedBatch(List.of("Java  Spring", "Java Spring"));
+        float[] second = service.embed("Java Spring");
+
+        assertEquals(1, requests.get());
+        assertEquals(2, first.size());
+        assertArrayEquals(new float[] {1.0f, 2.0f, 3.0f}, second);
+    }
+
+    @Test
+    @DisplayName("query embeddings should bypass the content cache")
+    void shouldNotCacheQueryEmbeddingsInContentCache() {
+        AtomicInteger requests = new AtomicInteger();
+        ExchangeFunction exchange = request -> {
+            requests.incrementAndGet();
+            return json(HttpStatus.OK, """
+                    {"data":[{"embedding":[1.0,2.0,3.0]}]}
+                    """);
+        };
+        EmbeddingConfig config = newConfig("http://embedding.test/v1/embeddings", "openai");
+        config.setDimension(3);
+        ConcurrentMapCache frontCache = new ConcurrentMapCache("contentEmbeddings");
+        ContentEmbeddingCache contentCache = new ContentEmbeddingCache(config, frontCache, null, null, false);
+
+        EmbeddingService service = new EmbeddingService(config, webClientFactory(exchange), null, contentCache);
+        service.embedQuery("Java backend role");
+        service.embedQuery("Java backend role");
+
+        assertEquals(2, requests.get());
+        assertTrue(frontCache.getNativeCache().isEmpty());
+    }
+
     @Test
     @DisplayName("should format Qwen3 query with instruction-aware prompt")
     void shouldFormatQwen3QueryPrompt() {
@@ -107,6 +171,61 @@ class EmbeddingServiceHttpServerTest {
         assertArrayEquals(new float[] {7.0f, 8.0f, 9.0f}, embeddings.get(0));
     }
 
+    @Test
+    @DisplayName("should negotiate little-endian float32 responses from the native endpoint")
+    void shouldDecodeBinaryNativeResponse() {
+        ExchangeFunction exchange = request -> {
+            assertTrue(request.headers().getAccept().contains(EmbeddingResponseDecoder.FLOAT32_LE));
+            ByteBuffer body = ByteBuffer.allocate(6 * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (float value : new float[] {1f, 2f, 3f, 4f, 5f, 6f}) {
+                body.putFloat(value);
+            }
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header("Content-Type", EmbeddingResponseDecoder.FLOAT32_LE.toString())
+                    .header(EmbeddingResponseDecoder.DIMENSION_HEADER, "3")
+                    .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body.array())))
+                    .build());
+        };
+        EmbeddingConfig config = newConfig("http://embedding.test/embed", "native");
+        config.setBatchSize(2);
+
+        EmbeddingService service = new EmbeddingService(config, webClientFactory(exchange));
+        List<float[]> embeddings = service.embedBatch(List.of("alpha", "beta"));
+
+        assertArrayEquals(new float[] {1f, 2f, 3f}, embeddings.get(0));
+        assertArrayEquals(new float[] {4f, 5f, 6f}, embeddings.get(1));
+    }
+
+    @Test
+    @DisplayName("should fall back to JSON decoding when the native endpoint ignores the binary Accept header")
+    void shouldDecodeJsonWhenBinaryIsNotNegotiated() {
+        EmbeddingConfig config = newConfig("http://embedding.test/embed", "native");
+        EmbeddingService service = new EmbeddingService(config, webClientFactory(request -> json(HttpStatus.OK, """
+                {"embeddings":[[0.25,0.5,0.75]],"model":"test-model","dimension":3}
+                """)));
+
+        assertArrayEquals(new float[] {0.25f, 0.5f, 0.75f}, service.embed("alpha"));
+    }
+
+    @Test
+    @DisplayName("should request and decode base64 embeddings from OpenAI-compatible servers when configured")
+    void shouldDecodeBase64OpenAiEmbeddings() throws Exception {
+        ByteBuffer vector = ByteBuffer.allocate(3 * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        vector.putFloat(1f).putFloat(-2f).putFloat(0.5f);
+        String encoded = Base64.getEncoder().encodeToString(vector.array());
+        EmbeddingConfig config = newConfig("http://embedding.test/v1/embeddings", "openai");
+        config.setOpenAiEncodingFormat("base64");
+        EmbeddingService service = new EmbeddingService(config, webClientFactory(request -> json(HttpStatus.OK,
+                "{\"data\":[{\"index\":0,\"embedding\":\"" + encoded + "\"}]}")));
+
+        assertArrayEquals(new float[] {1f, -2f, 0.5f}, service.embed("alpha"));
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertTrue(objectMapper.writeValueAsString(new EmbeddingService.OpenAiEmbeddingRequest(
+                "test-model", List.of("alpha"), "base64")).contains("\"encoding_format\":\"base64\""));
+        assertFalse(objectMapper.writeValueAsString(new EmbeddingService.OpenAiEmbeddingRequest(
+                "test-model", List.of("alpha"), null)).contains("encoding_format"));
+    }
+
     @Test
     @DisplayName("should call llama.cpp native embedding endpoint when configured")
     void shouldUseLlamaCppEmbeddingEndpoint() {
@@ -129,6 +248,107 @@ class EmbeddingServiceHttpServerTest {
         assertArrayEquals(new float[] {0.1f, 0.2f, 0.3f}, embeddings.get(0), 0.0001f);
     }
 
+    @Test
+    @DisplayName("should fan out llama.cpp requests with bounded parallelism and keep input order")
+    void shouldFanOutLlamaCppRequestsWithBoundedParallelism() {
+        AtomicInteger sequence = new AtomicInteger();
+        AtomicInteger inflight = new AtomicInteger();
+        AtomicInteger maxInflight = new AtomicInteger();
+        ExchangeFunction exchange = request -> Mono.defer(() -> {
+            int index = sequence.incrementAndGet();
+            maxInflight.accumulateAndGet(inflight.incrementAndGet(), Math::max);
+            // 先发出的请求响应更慢，验证结果仍按输入顺序返回
+            return json(HttpStatus.OK, "{\"embedding\":[" + index + ".0,0.0,0.0]}")
+                    .delayElement(Duration.ofMillis(Math.max(0, 120 - index * 20L)))
+                    .doFinally(signal -> inflight.decrementAndGet());
+        });
+        EmbeddingConfig config = newConfig("http://embedding.test/embedding", "llama_cpp");
+        config.getHttp().setLlamaCppConcurrency(2);
+
+        EmbeddingService service = new EmbeddingService(config, webClientFactory(exchange));
+        List<float[]> embeddings = service.embedBatch(List.of("a", "b", "c", "d", "e"));
+
+        assertEquals(5, embeddings.size());
+        for (int i = 0; i < embeddings.size(); i++) {
+            assertEquals(i + 1.0f, embeddings.get(i)[0], 0.0001f);
+        }
+        assertEquals(2, maxInflight.get());
+    }
+
+    @Test
+    @DisplayName("should reuse one WebClient per endpoint and expose an async API")
+    void shouldReuseWebClientPerEndpointAndSupportAsyncCalls() {
+        AtomicInteger clientsCreated = new AtomicInteger();
+        Function<String, WebClient> delegate = webClientFactory(request -> json(HttpStatus.OK, """
+                {"data":[{"embedding":[1.0,2.0,3.0]}]}
+                """));
+        EmbeddingConfig config = newConfig("http://embedding.test/v1/embeddings", "openai");
+
+        EmbeddingService service = new EmbeddingService(config, url -> {
+            clientsCreated.incrementAndGet();
+            return delegate.apply(url);
+        });
+        service.embedBatch(List.of("alpha"));
+        List<float[]> asyncResult = service.embedBatchAsync(List.of("beta")).block(Duration.ofSeconds(5));
+        List<float[]> futureResult = service.embedBatchFuture(List.of("gamma")).join();
+
+        assertEquals(1, clientsCreated.get());
+        assertArrayEquals(new float[] {1.0f, 2.0f, 3.0f}, asyncResult.get(0));
+        assertEquals(1, futureResult.size());
+    }
+
+    @Test
+    @DisplayName("should surface embedding failures as EmbeddingRequestException")
+    void shouldWrapFailuresInEmbeddingRequestException() {
+        EmbeddingConfig config = newConfig("http://embedding.test/v1/embeddings", "openai");
+        EmbeddingService service = new EmbeddingService(config, webClientFactory(
+                request -> json(HttpStatus.INTERNAL_SERVER_ERROR, "{\"error\":\"boom\"}")));
+
+        EmbeddingRequestException ex = assertThrows(EmbeddingRequestException.class,
+                () -> service.embedBatch(List.of("alpha")));
+        assertTrue(ex.getMessage().startsWith("Embedding generation failed"));
+    }
+
+    @Test
+    @DisplayName("should open the circuit after repeated server errors and fail fast without calling the service")
+    void shouldFailFastWhenCircuitIsOpen() {
+        AtomicInteger requests = new AtomicInteger();
+        EmbeddingConfig config = newConfig("http://embedding.test/v1/embeddings", "openai");
+        config.getCircuitBreaker().setFailureThreshold(2);
+        config.getCircuitBreaker().setOpenMs(60_000);
+        EmbeddingService service = new EmbeddingService(config, webClientFactory(request -> {
+            requests.incrementAndGet();
+            return json(HttpStatus.SERVICE_UNAVAILABLE, "{\"error\":\"overloaded\"}");
+        }));
+
+        assertThrows(EmbeddingUnavailableException.class, () -> service.embedBatch(List.of("alpha")));
+        assertThrows(EmbeddingUnavailableException.class, () -> service.embedBatch(List.of("beta")));
+        EmbeddingCircuitOpenException ex = assertThrows(EmbeddingCircuitOpenException.class,
+                () -> service.embedBatch(List.of("gamma")));
+
+        assertEquals(2, requests.get());
+        assertTrue(ex.getRetryAfterMs() > 0);
+    }
+
+    @Test
+    @DisplayName("client errors should not open the circuit")
+    void shouldNotOpenCircuitOnClientErrors() {
+        AtomicInteger requests = new AtomicInteger();
+        EmbeddingConfig config = newConfig("http://embedding.test/v1/embeddings", "openai");
+        config.getCircuitBreaker().setFailureThreshold(1);
+        EmbeddingService service = new EmbeddingService(config, webClientFactory(request -> {
+            requests.incrementAndGet();
+            return json(HttpStatus.BAD_REQUEST, "{\"error\":\"bad input\"}");
+        }));
+
+        for (int i = 0; i < 3; i++) {
+            EmbeddingRequestException ex = assertThrows(EmbeddingRequestException.class,
+                    () -> service.embedBatch(List.of("alpha")));
+            assertFalse(ex instanceof EmbeddingUnavailableException);
+        }
+        assertEquals(3, requests.get());
+    }
+
     @Test
     @DisplayName("should partition embedding requests using configured batch size")
     void shouldPartitionRequestsByConfiguredBatchSize() {
@@ -151,6 +371,28 @@ class EmbeddingServiceHttpServerTest {
         assertEquals(2, embeddings.size());
     }
 
+    @Test
+    @DisplayName("should spread batches across configured embedding replicas")
+    void shouldSpreadBatchesAcrossServiceUrls() {
+        Map<String, Integer> requestsByHost = new ConcurrentHashMap<>();
+        ExchangeFunction exchange = request -> {
+            requestsByHost.merge(request.url().getHost(), 1, Integer::sum);
+            return json(HttpStatus.OK, """
+                    {"data":[{"embedding":[1.0,2.0,3.0]}]}
+                    """);
+        };
+        EmbeddingConfig config = newConfig("http://embedding.test/v1/embeddings", "openai");
+        config.setServiceUrls(List.of("http://replica-a.test/v1/embeddings", "http://replica-b.test/v1/embeddings"));
+        config.setBatchSize(1);
+
+        EmbeddingService service = new EmbeddingService(config, webClientFactory(exchange));
+        List<float[]> embeddings = service.embedBatch(List.of("a", "b", "c", "d"));
+
+        assertEquals(4, embeddings.size());
+        assertEquals(Set.of("replica-a.test", "replica-b.test"), requestsByHost.keySet());
+        assertEquals(4, requestsByHost.values().stream().mapToInt(Integer::intValue).sum());
+    }
+
     private static EmbeddingConfig newConfig(String serviceUrl, String apiFormat) {
         EmbeddingConfig config = new EmbeddingConfig();
         config.setModelName("test-model");
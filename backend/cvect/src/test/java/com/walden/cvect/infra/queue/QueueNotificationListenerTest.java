@@ -0,0 +1,71 @@
+package com.walden.cvect.infra.queue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("QueueNotificationListener unit tests")
+class QueueNotificationListenerTest {
+
+    @Test
+    @DisplayName("awaitNotification should wake up as soon as the channel is signalled")
+    void awaitNotificationShouldWakeOnSignal() throws Exception {
+        QueueNotificationListener listener = new QueueNotificationListener(mock(DataSource.class), false, 1000);
+        long observed = listener.currentSequence(QueueNotificationListener.UPLOAD_ITEMS_CHANNEL);
+
+        long startedAt = System.nanoTime();
+        CompletableFuture<Void> waiter = CompletableFuture.runAsync(() -> listener.awaitNotification(
+                QueueNotificationListener.UPLOAD_ITEMS_CHANNEL,
+                observed,
+                10_000));
+        Thread.sleep(50);
+        listener.signal(QueueNotificationListener.UPLOAD_ITEMS_CHANNEL, "test");
+        waiter.get(2, TimeUnit.SECONDS);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)).isLessThan(5_000);
+    }
+
+    @Test
+    @DisplayName("awaitNotification should return immediately when a notification arrived after the sequence was read")
+    void awaitNotificationShouldNotMissSignalBeforeWaiting() {
+        QueueNotificationListener listener = new QueueNotificationListener(mock(DataSource.class), false, 1000);
+        long observed = listener.currentSequence(QueueNotificationListener.VECTOR_INGEST_TASKS_CHANNEL);
+        listener.signal(QueueNotificationListener.VECTOR_INGEST_TASKS_CHANNEL, "test");
+
+        long startedAt = System.nanoTime();
+        listener.awaitNotification(QueueNotificationListener.VECTOR_INGEST_TASKS_CHANNEL, observed, 10_000);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)).isLessThan(1_000);
+    }
+
+    @Test
+    @DisplayName("start should stay in polling mode when the database is not PostgreSQL")
+    void startShouldNotListenOnNonPostgresDatabase() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenThrow(new SQLException("H2 in tests"));
+        QueueNotificationListener listener = new QueueNotificationListener(dataSource, true, 1000);
+
+        listener.start();
+
+        assertFalse(listener.isListening());
+        listener.stop();
+    }
+
+    @Test
+    @DisplayName("currentSequence should reject unknown channels")
+    void currentSequenceShouldRejectUnknownChannels() {
+        QueueNotificationListener listener = new QueueNotificationListener(mock(DataSource.class), false, 1000);
+
+        assertThrows(IllegalArgumentException.class, () -> listener.currentSequence("unknown"));
+    }
+}
@@ -8,8 +8,12 @@ import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -50,4 +54,41 @@ class LocalFileStorageServiceTest {
         assertThrows(IllegalArgumentException.class, () -> service.load("../escape.txt"));
         assertThrows(IllegalArgumentException.class, () -> service.delete("../escape.txt"));
     }
+
+    @Test
+    @DisplayName("content addressed save should store under sha256 key and reuse existing blob")
+    void contentAddressedSaveShouldStoreUnderHashKey() throws Exception {
+        LocalFileStorageService service = new LocalFileStorageService(tempDir.toString());
+        byte[] payload = "same-resume-content".getBytes(StandardCharsets.UTF_8);
+        String expectedHash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(payload));
+
+        StoredContent first = service.saveContentAddressed(new ByteArrayInputStream(payload), 1024);
+        StoredContent second = service.saveContentAddressed(new ByteArrayInputStream(payload), 1024);
+
+        assertEquals(expectedHash, first.storageKey());
+        assertEquals(expectedHash, first.contentHash());
+        assertEquals(payload.length, first.sizeBytes());
+        assertEquals(first, second);
+        try (var input = service.load(expectedHash)) {
+            assertArrayEquals(payload, input.readAllBytes());
+        }
+        try (Stream<Path> incoming = Files.list(tempDir.resolve(".incoming"))) {
+            assertEquals(0L, incoming.count(), "temporary incoming files should be cleaned up");
+        }
+    }
+
+    @Test
+    @DisplayName("content addressed save should reject oversized payload without leaving objects")
+    void contentAddressedSaveShouldRejectOversizedPayload() throws Exception {
+        LocalFileStorageService service = new LocalFileStorageService(tempDir.toString());
+        byte[] payload = "0123456789".getBytes(StandardCharsets.UTF_8);
+
+        StorageSizeLimitExceededException ex = assertThrows(StorageSizeLimitExceededException.class,
+                () -> service.saveContentAddressed(new ByteArrayInputStream(payload), 5));
+
+        assertEquals("File size limit exceeded", ex.getMessage());
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            assertEquals(0L, files.filter(Files::isRegularFile).count());
+        }
+    }
 }
@@ -50,6 +50,7 @@ class VectorStoreConfigTest {
         assertEquals("resume_chunks", newConfig.getTableName());
         assertEquals("hnsw", newConfig.getIndexType());
         assertEquals("cosine", newConfig.getMetric());
+        assertEquals(20000, newConfig.getExactScanMaxRows());
     }
 
     @Test
@@ -1,18 +1,24 @@
 package com.walden.cvect.infra.vector;
 
 import com.walden.cvect.infra.embedding.EmbeddingService;
-import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
 import org.mockito.ArgumentCaptor;
+
+import java.sql.Array;
+import java.sql.ResultSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.verify;
@@ -104,11 +110,145 @@ class VectorStoreServiceIndexTypeTest {
                 .anyMatch(sql -> sql.contains("USING hnsw"));
     }
 
+    @Test
+    @DisplayName("constructor should rebuild a legacy text-cast expression index on the native vector column")
+    void ensureIndexCompatibilityShouldRebuildLegacyExpressionIndex() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        String legacyIndex = "CREATE INDEX " + INDEX_NAME
+                + " ON public." + TABLE_NAME
+                + " USING hnsw ((REPLACE(REPLACE(embedding, '{', '['), '}', ']')::vector(" + DIMENSION + "))"
+                + " vector_cosine_ops)";
+        newService(jdbcTemplate, newConfig("hnsw", "cosine"), legacyIndex);
+
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(sqlCaptor.capture());
+
+        assertThat(sqlCaptor.getAllValues())
+                .anyMatch(sql -> sql.equals("DROP INDEX IF EXISTS " + INDEX_NAME))
+                .anyMatch(sql -> sql.contains("USING hnsw (embedding_vector vector_cosine_ops)"))
+                .noneMatch(sql -> sql.contains("REPLACE("));
+    }
+
+    @Test
+    @DisplayName("two-stage search should use the coarse index right away when it is valid and fully backfilled")
+    void twoStageSearchShouldUseReadyCoarseIndex() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        VectorStoreConfig config = newConfig("hnsw", "cosine");
+        config.setCoarseDimension(2);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), anyString(), eq("embedding_coarse")))
+                .thenReturn(List.of("vector(2)"));
+        when(jdbcTemplate.queryForList(startsWith("SELECT i.indisvalid"), eq(Boolean.class), anyString()))
+                .thenReturn(List.of(true));
+        newService(jdbcTemplate, config,
+                "CREATE INDEX idx_resume_chunks_embedding_coarse ON public.resume_chunks "
+                        + "USING hnsw (embedding_coarse vector_cosine_ops)");
+
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(sqlCaptor.capture());
+        assertThat(sqlCaptor.getAllValues())
+                .noneMatch(sql -> sql.contains("CREATE INDEX"))
+                .noneMatch(sql -> sql.contains("DROP INDEX"))
+                .noneMatch(sql -> sql.contains("embedding_coarse"));
+    }
+
+    @Test
+    @DisplayName("prepareTwoStageSearch should add and backfill the coarse column, build its index concurrently and drop the full index")
+    void prepareTwoStageSearchShouldBackfillAndSwitchIndexes() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        VectorStoreConfig config = newConfig("hnsw", "cosine");
+        config.setCoarseDimension(2);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), anyString(), eq("embedding_coarse")))
+                .thenReturn(List.of(), List.of(), List.of("vector(2)"));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(true);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT NOT EXISTS (SELECT 1 FROM resume_chunks"), eq(Boolean.class)))
+                .thenReturn(false, true);
+        UUID rowId = UUID.randomUUID();
+        ResultSet resultSet = mock(ResultSet.class);
+        Array embedding = mock(Array.class);
+        when(resultSet.getObject("id", UUID.class)).thenReturn(rowId);
+        when(resultSet.getArray("embedding")).thenReturn(embedding);
+        when(embedding.getArray()).thenReturn(new Float[] {3.0f, 4.0f, 12.0f});
+        when(jdbcTemplate.query(
+                startsWith("SELECT id, embedding_vector::real[] AS embedding FROM resume_chunks"),
+                org.mockito.ArgumentMatchers.<RowMapper<Object>>any(),
+                any(),
+                any()))
+                .thenAnswer(invocation -> List.of(invocation.<RowMapper<Object>>getArgument(1).mapRow(resultSet, 0)))
+                .thenReturn(List.of());
+        when(jdbcTemplate.query(
+                anyString(),
+                org.mockito.ArgumentMatchers.<ResultSetExtractor<String>>any(),
+                anyString(),
+                anyString())).thenReturn(null);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, mock(EmbeddingService.class), config);
+
+        assertThat(service.prepareTwoStageSearch()).isTrue();
+
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(sqlCaptor.capture());
+        assertThat(sqlCaptor.getAllValues())
+                .contains("ALTER TABLE resume_chunks ADD COLUMN IF NOT EXISTS embedding_coarse vector(2)")
+                .contains("CREATE INDEX CONCURRENTLY idx_resume_chunks_embedding_coarse ON resume_chunks "
+                        + "USING hnsw (embedding_coarse vector_cosine_ops) WITH (m = 16, ef_construction = 64)")
+                .contains("DROP INDEX CONCURRENTLY IF EXISTS " + INDEX_NAME)
+                .noneMatch(sql -> sql.contains("DROP COLUMN"));
+        ArgumentCaptor<List<Object[]>> updatesCaptor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(
+                eq("UPDATE resume_chunks SET embedding_coarse = ?::vector(2) WHERE id = ? AND embedding_coarse IS NULL"),
+                updatesCaptor.capture());
+        assertThat(updatesCaptor.getValue()).hasSize(1);
+        assertThat(updatesCaptor.getValue().get(0)).containsExactly("[0.6,0.8]", rowId);
+    }
+
+    @Test
+    @DisplayName("prepareTwoStageSearch should leave a coarse column of another dimension untouched")
+    void prepareTwoStageSearchShouldNotRebuildMismatchedColumn() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        VectorStoreConfig config = newConfig("hnsw", "cosine");
+        config.setCoarseDimension(2);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), anyString(), eq("embedding_coarse")))
+                .thenReturn(List.of("vector(1)"));
+        VectorStoreService service = newService(jdbcTemplate, config, null);
+
+        assertThat(service.prepareTwoStageSearch()).isFalse();
+
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(sqlCaptor.capture());
+        assertThat(sqlCaptor.getAllValues())
+                .noneMatch(sql -> sql.contains("embedding_coarse"))
+                .noneMatch(sql -> sql.contains("DROP INDEX CONCURRENTLY"));
+    }
+
+    @Test
+    @DisplayName("two-stage search should keep the full-dimension index until the coarse column is fully backfilled")
+    void twoStageSearchShouldWaitForCoarseBackfill() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        VectorStoreConfig config = newConfig("hnsw", "cosine");
+        config.setCoarseDimension(2);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), anyString(), eq("embedding_coarse")))
+                .thenReturn(List.of("vector(2)"));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(true);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT NOT EXISTS (SELECT 1 FROM resume_chunks"), eq(Boolean.class)))
+                .thenReturn(false);
+        when(jdbcTemplate.query(
+                anyString(),
+                org.mockito.ArgumentMatchers.<ResultSetExtractor<String>>any(),
+                anyString(),
+                anyString())).thenReturn(null);
+        new VectorStoreService(jdbcTemplate, mock(EmbeddingService.class), config);
+
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(sqlCaptor.capture());
+        assertThat(sqlCaptor.getAllValues())
+                .anyMatch(sql -> sql.contains("CREATE INDEX " + INDEX_NAME + " "))
+                .anyMatch(sql -> sql.contains("USING hnsw (embedding_vector vector_cosine_ops)"))
+                .noneMatch(sql -> sql.contains("embedding_coarse"));
+    }
+
     private static VectorStoreService newService(
             JdbcTemplate jdbcTemplate,
             VectorStoreConfig config,
             String existingIndexDef) {
-        EntityManager entityManager = mock(EntityManager.class);
         EmbeddingService embeddingService = mock(EmbeddingService.class);
 
         when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(true);
@@ -126,7 +266,7 @@ class VectorStoreServiceIndexTypeTest {
                     anyString())).thenReturn(existingIndexDef);
         }
 
-        return new VectorStoreService(jdbcTemplate, entityManager, embeddingService, config);
+        return new VectorStoreService(jdbcTemplate, embeddingService, config);
     }
 
     private static VectorStoreConfig newConfig(String indexType, String metric) {
@@ -143,7 +283,6 @@ class VectorStoreServiceIndexTypeTest {
         return "CREATE INDEX " + INDEX_NAME
                 + " ON public." + TABLE_NAME
                 + " USING " + indexType
-                + " ((REPLACE(REPLACE(embedding, '{', '['), '}', ']')::vector(" + DIMENSION + ")) "
-                + opClass + ")";
+                + " (embedding_vector " + opClass + ")";
     }
 }
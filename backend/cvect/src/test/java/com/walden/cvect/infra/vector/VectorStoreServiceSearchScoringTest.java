@@ -2,9 +2,11 @@ package com.walden.cvect.infra.vector;
 
 import com.walden.cvect.infra.embedding.EmbeddingService;
 import com.walden.cvect.model.ChunkType;
-import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.util.List;
@@ -13,12 +15,19 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -30,7 +39,6 @@ class VectorStoreServiceSearchScoringTest {
     @DisplayName("search should keep raw distance and compute bounded score once")
     void searchShouldKeepRawDistanceAndComputeScore() {
         JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
-        EntityManager entityManager = mock(EntityManager.class);
         EmbeddingService embeddingService = mock(EmbeddingService.class);
 
         VectorStoreConfig config = new VectorStoreConfig();
@@ -50,7 +58,7 @@ class VectorStoreServiceSearchScoringTest {
                         "content", "backend java",
                         "distance", 0.25f)));
 
-        VectorStoreService service = new VectorStoreService(jdbcTemplate, entityManager, embeddingService, config);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, embeddingService, config);
 
         List<VectorStoreService.SearchResult> results = service.search(new float[] {0.1f, 0.2f, 0.3f}, 5);
         assertEquals(1, results.size());
@@ -74,7 +82,6 @@ class VectorStoreServiceSearchScoringTest {
     @DisplayName("deleteByJobDescription should use the H2-compatible subquery form")
     void deleteByJobDescriptionShouldUseSubqueryForm() {
         JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
-        EntityManager entityManager = mock(EntityManager.class);
         EmbeddingService embeddingService = mock(EmbeddingService.class);
 
         VectorStoreConfig config = new VectorStoreConfig();
@@ -84,7 +91,7 @@ class VectorStoreServiceSearchScoringTest {
 
         when(jdbcTemplate.queryForObject(anyString(), any(Class.class))).thenReturn(true);
 
-        VectorStoreService service = new VectorStoreService(jdbcTemplate, entityManager, embeddingService, config);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, embeddingService, config);
         UUID jobDescriptionId = UUID.randomUUID();
 
         service.deleteByJobDescription(jobDescriptionId);
@@ -98,7 +105,6 @@ class VectorStoreServiceSearchScoringTest {
     @DisplayName("search should accept non-string chunk_type values from JDBC rows")
     void searchShouldAcceptNonStringChunkTypeValues() {
         JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
-        EntityManager entityManager = mock(EntityManager.class);
         EmbeddingService embeddingService = mock(EmbeddingService.class);
 
         VectorStoreConfig config = new VectorStoreConfig();
@@ -120,7 +126,7 @@ class VectorStoreServiceSearchScoringTest {
                         "content", "vector skill",
                         "distance", 0.1f)));
 
-        VectorStoreService service = new VectorStoreService(jdbcTemplate, entityManager, embeddingService, config);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, embeddingService, config);
         List<VectorStoreService.SearchResult> results = service.search(new float[] {0.1f, 0.2f, 0.3f}, 1);
 
         assertEquals(1, results.size());
@@ -131,7 +137,6 @@ class VectorStoreServiceSearchScoringTest {
     @DisplayName("search should skip invalid chunk_type rows instead of failing whole query")
     void searchShouldSkipInvalidChunkTypeRows() {
         JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
-        EntityManager entityManager = mock(EntityManager.class);
         EmbeddingService embeddingService = mock(EmbeddingService.class);
 
         VectorStoreConfig config = new VectorStoreConfig();
@@ -154,7 +159,7 @@ class VectorStoreServiceSearchScoringTest {
                         "content", "good row",
                         "distance", 0.3f)));
 
-        VectorStoreService service = new VectorStoreService(jdbcTemplate, entityManager, embeddingService, config);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, embeddingService, config);
         List<VectorStoreService.SearchResult> results = service.search(new float[] {0.1f, 0.2f, 0.3f}, 10);
 
         assertEquals(1, results.size());
@@ -165,7 +170,6 @@ class VectorStoreServiceSearchScoringTest {
     @DisplayName("scoreCandidates should keep the best score per chunk type for each candidate and skip invalid rows")
     void scoreCandidatesShouldKeepBestScoresAndSkipInvalidRows() {
         JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
-        EntityManager entityManager = mock(EntityManager.class);
         EmbeddingService embeddingService = mock(EmbeddingService.class);
 
         VectorStoreConfig config = new VectorStoreConfig();
@@ -202,7 +206,7 @@ class VectorStoreServiceSearchScoringTest {
                         "chunk_type", "UNKNOWN",
                         "score", 1.0f)));
 
-        VectorStoreService service = new VectorStoreService(jdbcTemplate, entityManager, embeddingService, config);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, embeddingService, config);
         Map<UUID, VectorStoreService.CandidateScoreBreakdown> scores =
                 service.scoreCandidates(new float[] {0.1f, 0.2f, 0.3f}, List.of());
 
@@ -217,7 +221,6 @@ class VectorStoreServiceSearchScoringTest {
     @DisplayName("scoreCandidates should skip rows with missing score values")
     void scoreCandidatesShouldSkipRowsWithMissingScoreValues() {
         JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
-        EntityManager entityManager = mock(EntityManager.class);
         EmbeddingService embeddingService = mock(EmbeddingService.class);
 
         VectorStoreConfig config = new VectorStoreConfig();
@@ -238,7 +241,7 @@ class VectorStoreServiceSearchScoringTest {
                         "score", 0.8f),
                 invalidRow));
 
-        VectorStoreService service = new VectorStoreService(jdbcTemplate, entityManager, embeddingService, config);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, embeddingService, config);
         Map<UUID, VectorStoreService.CandidateScoreBreakdown> scores =
                 service.scoreCandidates(new float[] {0.1f, 0.2f, 0.3f}, List.of());
 
@@ -251,7 +254,6 @@ class VectorStoreServiceSearchScoringTest {
     @DisplayName("scoreCandidates should skip rows with non-finite score values")
     void scoreCandidatesShouldSkipRowsWithNonFiniteScoreValues() {
         JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
-        EntityManager entityManager = mock(EntityManager.class);
         EmbeddingService embeddingService = mock(EmbeddingService.class);
 
         VectorStoreConfig config = new VectorStoreConfig();
@@ -271,7 +273,7 @@ class VectorStoreServiceSearchScoringTest {
                         "chunk_type", ChunkType.SKILL.name(),
                         "score", Double.POSITIVE_INFINITY)));
 
-        VectorStoreService service = new VectorStoreService(jdbcTemplate, entityManager, embeddingService, config);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, embeddingService, config);
         Map<UUID, VectorStoreService.CandidateScoreBreakdown> scores =
                 service.scoreCandidates(new float[] {0.1f, 0.2f, 0.3f}, List.of());
 
@@ -280,11 +282,79 @@ class VectorStoreServiceSearchScoringTest {
         assertEquals(0.0f, scores.get(candidateId).skillScore(), 0.0001f);
     }
 
+    @Test
+    @DisplayName("save should bind the embedding directly to the native vector column")
+    void saveShouldInsertIntoNativeVectorColumn() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        EmbeddingService embeddingService = mock(EmbeddingService.class);
+
+        VectorStoreConfig config = new VectorStoreConfig();
+        config.setEnabled(true);
+        config.setDimension(3);
+        config.setTableName("resume_chunks");
+
+        when(jdbcTemplate.queryForObject(anyString(), any(Class.class))).thenReturn(true);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(), any())).thenReturn(List.of("vector(3)"));
+        when(embeddingService.embedDocument(anyString())).thenReturn(new float[] {0.1f, 0.2f, 0.3f});
+
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, embeddingService, config);
+        UUID candidateId = UUID.randomUUID();
+
+        assertTrue(service.save(candidateId, ChunkType.SKILL, "java"));
+
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> argsCaptor = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(sqlCaptor.capture(), argsCaptor.capture());
+        assertEquals(
+                "INSERT INTO resume_chunks (id, candidate_id, chunk_type, content, embedding_vector, created_at)"
+                        + " VALUES (?, ?, ?, ?, ?::vector(3), ?)",
+                sqlCaptor.getValue());
+        Object[] args = argsCaptor.getValue();
+        assertEquals(candidateId, args[1]);
+        assertEquals("SKILL", args[2]);
+        assertEquals("[0.1,0.2,0.3]", args[4]);
+    }
+
+    @Test
+    @DisplayName("saveAll should embed once and insert every chunk in one multi-row statement")
+    void saveAllShouldUseOneEmbeddingCallAndOneInsert() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        EmbeddingService embeddingService = mock(EmbeddingService.class);
+
+        VectorStoreConfig config = new VectorStoreConfig();
+        config.setEnabled(true);
+        config.setDimension(3);
+        config.setTableName("resume_chunks");
+
+        when(jdbcTemplate.queryForObject(anyString(), any(Class.class))).thenReturn(true);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(), any())).thenReturn(List.of("vector(3)"));
+        when(embeddingService.embedBatch(List.of("java", "spring"))).thenReturn(List.of(
+                new float[] {0.1f, 0.2f, 0.3f},
+                new float[] {0.4f, 0.5f, 0.6f}));
+        when(jdbcTemplate.update(startsWith("INSERT INTO"), any(Object[].class))).thenReturn(2);
+
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, embeddingService, config);
+        UUID candidateId = UUID.randomUUID();
+
+        int inserted = service.saveAll(List.of(
+                new VectorStoreService.ChunkWrite(candidateId, ChunkType.SKILL, "java"),
+                new VectorStoreService.ChunkWrite(candidateId, ChunkType.EXPERIENCE, "spring")));
+
+        assertEquals(2, inserted);
+        verify(embeddingService, never()).embedDocument(anyString());
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> argsCaptor = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(sqlCaptor.capture(), argsCaptor.capture());
+        assertTrue(sqlCaptor.getValue().endsWith(
+                "VALUES (?, ?, ?, ?, ?::vector(3), ?), (?, ?, ?, ?, ?::vector(3), ?)"));
+        assertEquals(12, argsCaptor.getValue().length);
+        assertEquals("[0.4,0.5,0.6]", argsCaptor.getValue()[10]);
+    }
+
     @Test
     @DisplayName("save should reject null content with a validation error")
     void saveShouldRejectNullContent() {
         JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
-        EntityManager entityManager = mock(EntityManager.class);
         EmbeddingService embeddingService = mock(EmbeddingService.class);
 
         VectorStoreConfig config = new VectorStoreConfig();
@@ -294,20 +364,19 @@ class VectorStoreServiceSearchScoringTest {
 
         when(jdbcTemplate.queryForObject(anyString(), any(Class.class))).thenReturn(false);
 
-        VectorStoreService service = new VectorStoreService(jdbcTemplate, entityManager, embeddingService, config);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, embeddingService, config);
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> service.save(UUID.randomUUID(), ChunkType.EXPERIENCE, null));
         assertEquals("content must not be null", exception.getMessage());
         verify(embeddingService, never()).embedDocument(anyString());
-        verify(entityManager, never()).persist(any());
+        verify(jdbcTemplate, never()).update(startsWith("INSERT INTO"), any(Object[].class));
     }
 
     @Test
     @DisplayName("save should reject embedding dimension mismatch before persisting")
     void saveShouldRejectEmbeddingDimensionMismatch() {
         JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
-        EntityManager entityManager = mock(EntityManager.class);
         EmbeddingService embeddingService = mock(EmbeddingService.class);
 
         VectorStoreConfig config = new VectorStoreConfig();
@@ -318,19 +387,18 @@ class VectorStoreServiceSearchScoringTest {
         when(jdbcTemplate.queryForObject(anyString(), any(Class.class))).thenReturn(true);
         when(embeddingService.embedDocument(anyString())).thenReturn(new float[] {0.1f, 0.2f});
 
-        VectorStoreService service = new VectorStoreService(jdbcTemplate, entityManager, embeddingService, config);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, embeddingService, config);
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> service.save(UUID.randomUUID(), ChunkType.EXPERIENCE, "backend java"));
         assertEquals("embedding dimension mismatch: expected=3, actual=2", exception.getMessage());
-        verify(entityManager, never()).persist(any());
+        verify(jdbcTemplate, never()).update(startsWith("INSERT INTO"), any(Object[].class));
     }
 
     @Test
     @DisplayName("save should reject non-finite embedding values before persisting")
     void saveShouldRejectNonFiniteEmbeddingValues() {
         JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
-        EntityManager entityManager = mock(EntityManager.class);
         EmbeddingService embeddingService = mock(EmbeddingService.class);
 
         VectorStoreConfig config = new VectorStoreConfig();
@@ -341,19 +409,18 @@ class VectorStoreServiceSearchScoringTest {
         when(jdbcTemplate.queryForObject(anyString(), any(Class.class))).thenReturn(true);
         when(embeddingService.embedDocument(anyString())).thenReturn(new float[] {0.1f, Float.NaN, 0.3f});
 
-        VectorStoreService service = new VectorStoreService(jdbcTemplate, entityManager, embeddingService, config);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, embeddingService, config);
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> service.save(UUID.randomUUID(), ChunkType.EXPERIENCE, "backend java"));
         assertEquals("embedding must contain only finite values", exception.getMessage());
-        verify(entityManager, never()).persist(any());
+        verify(jdbcTemplate, never()).update(startsWith("INSERT INTO"), any(Object[].class));
     }
 
     @Test
     @DisplayName("search should reject non-finite query embeddings before executing SQL")
     void searchShouldRejectNonFiniteQueryEmbeddings() {
         JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
-        EntityManager entityManager = mock(EntityManager.class);
         EmbeddingService embeddingService = mock(EmbeddingService.class);
 
         VectorStoreConfig config = new VectorStoreConfig();
@@ -363,12 +430,541 @@ class VectorStoreServiceSearchScoringTest {
 
         when(jdbcTemplate.queryForObject(anyString(), any(Class.class))).thenReturn(true);
 
-        VectorStoreService service = new VectorStoreService(jdbcTemplate, entityManager, embeddingService, config);
-        clearInvocations(jdbcTemplate, entityManager, embeddingService);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, embeddingService, config);
+        clearInvocations(jdbcTemplate, embeddingService);
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> service.search(new float[] {0.1f, Float.NaN, 0.3f}, 5));
         assertEquals("queryEmbedding must contain only finite values", exception.getMessage());
-        verifyNoInteractions(jdbcTemplate, entityManager, embeddingService);
+        verifyNoInteractions(jdbcTemplate, embeddingService);
+    }
+
+    @Test
+    @DisplayName("searchVisible should filter on denormalized scope columns and scan exactly when the scoped set is small")
+    void searchVisibleShouldUseExactScanForSmallScopedSet() {
+        JdbcTemplate jdbcTemplate = scopedSearchJdbcTemplate(2, 120);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, mock(EmbeddingService.class), scopedSearchConfig());
+        UUID tenantId = UUID.randomUUID();
+        UUID jdId = UUID.randomUUID();
+
+        service.searchVisible(new float[] {0.1f, 0.2f, 0.3f}, 5,
+                new VectorStoreService.SearchScope(tenantId, null, jdId), 0.0f, ChunkType.SKILL);
+
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> argsCaptor = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).queryForList(sqlCaptor.capture(), argsCaptor.capture());
+        String sql = sqlCaptor.getValue();
+        assertTrue(sql.startsWith("WITH scoped AS MATERIALIZED ("));
+        assertTrue(sql.contains("AND r.tenant_id = ? AND r.jd_id = ? AND r.chunk_type IN ('SKILL')"));
+        assertFalse(sql.contains("JOIN candidates"));
+        assertEquals(tenantId, argsCaptor.getValue()[1]);
+        assertEquals(jdId, argsCaptor.getValue()[2]);
+    }
+
+    @Test
+    @DisplayName("searchVisible should keep the ANN path when the scoped set exceeds the exact scan limit")
+    void searchVisibleShouldUseAnnForLargeScopedSet() {
+        JdbcTemplate jdbcTemplate = scopedSearchJdbcTemplate(2, 20_001);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, mock(EmbeddingService.class), scopedSearchConfig());
+
+        service.searchVisible(new float[] {0.1f, 0.2f, 0.3f}, 5,
+                new VectorStoreService.SearchScope(UUID.randomUUID(), UUID.randomUUID()), 0.0f);
+
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).queryForList(sqlCaptor.capture(), any(Object[].class));
+        String sql = sqlCaptor.getAllValues().get(0);
+        assertFalse(sql.contains("MATERIALIZED"));
+        assertTrue(sql.contains("JOIN job_descriptions jd ON jd.id = r.jd_id"));
+        assertTrue(sql.contains("AND r.tenant_id = ?"));
+    }
+
+    @Test
+    @DisplayName("searchVisible should reuse the cached exact-scan decision for the same tenant, JD and chunk types")
+    void searchVisibleShouldCacheExactScanDecisionPerScope() {
+        JdbcTemplate jdbcTemplate = scopedSearchJdbcTemplate(2, 120);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, mock(EmbeddingService.class), scopedSearchConfig());
+        UUID tenantId = UUID.randomUUID();
+        UUID jdId = UUID.randomUUID();
+
+        service.searchVisible(new float[] {0.1f, 0.2f, 0.3f}, 5,
+                new VectorStoreService.SearchScope(tenantId, null, jdId), 0.0f, ChunkType.SKILL);
+        service.searchVisibleCandidates(new float[] {0.1f, 0.2f, 0.3f}, 20,
+                new VectorStoreService.SearchScope(tenantId, UUID.randomUUID(), jdId), 0.0f,
+                new VectorStoreService.CandidateAggregation(5, 0.5f, 0.5f, false), ChunkType.SKILL);
+        service.searchVisible(new float[] {0.1f, 0.2f, 0.3f}, 5,
+                new VectorStoreService.SearchScope(tenantId, null, jdId), 0.0f, ChunkType.EXPERIENCE);
+
+        verify(jdbcTemplate, times(2)).queryForObject(
+                startsWith("SELECT count(*) FROM (SELECT 1"), eq(Integer.class), any(Object[].class));
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(3)).queryForList(sqlCaptor.capture(), any(Object[].class));
+        assertTrue(sqlCaptor.getAllValues().stream().allMatch(sql -> sql.startsWith("WITH scoped AS MATERIALIZED (")));
+    }
+
+    @Test
+    @DisplayName("searchVisible should count the scoped set on every search when the exact-scan cache is disabled")
+    void searchVisibleShouldRecountWhenExactScanCacheDisabled() {
+        JdbcTemplate jdbcTemplate = scopedSearchJdbcTemplate(2, 120);
+        VectorStoreConfig config = scopedSearchConfig();
+        config.setExactScanCacheTtlMs(0);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, mock(EmbeddingService.class), config);
+        VectorStoreService.SearchScope scope = new VectorStoreService.SearchScope(UUID.randomUUID(), null);
+
+        service.searchVisible(new float[] {0.1f, 0.2f, 0.3f}, 5, scope, 0.0f);
+        service.searchVisible(new float[] {0.1f, 0.2f, 0.3f}, 5, scope, 0.0f);
+
+        verify(jdbcTemplate, times(2)).queryForObject(
+                startsWith("SELECT count(*) FROM (SELECT 1"), eq(Integer.class), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("searchVisible should fall back to joining candidates when scope columns are missing")
+    void searchVisibleShouldJoinCandidatesWithoutScopeColumns() {
+        JdbcTemplate jdbcTemplate = scopedSearchJdbcTemplate(0, 10);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, mock(EmbeddingService.class), scopedSearchConfig());
+
+        service.searchVisible(new float[] {0.1f, 0.2f, 0.3f}, 5,
+                new VectorStoreService.SearchScope(UUID.randomUUID(), null), 0.0f);
+
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).queryForList(sqlCaptor.capture(), any(Object[].class));
+        String sql = sqlCaptor.getAllValues().get(0);
+        assertTrue(sql.contains("JOIN candidates c ON c.id = r.candidate_id"));
+        assertTrue(sql.contains("AND c.tenant_id = ?"));
+        assertFalse(sql.contains("MATERIALIZED"));
+        verify(jdbcTemplate, never()).queryForObject(startsWith("SELECT count(*) FROM (SELECT 1"), eq(Integer.class), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("filtered ANN search should raise ef_search and then enable iterative scan while rows are short of topK")
+    void searchVisibleShouldEscalateEfSearchWhenFilteredPassIsShort() {
+        JdbcTemplate jdbcTemplate = scopedSearchJdbcTemplate(2, 50_000);
+        when(jdbcTemplate.queryForList(startsWith("SELECT extversion"), eq(String.class))).thenReturn(List.of("0.8.0"));
+        when(jdbcTemplate.queryForList(anyString(), any(Object[].class)))
+                .thenReturn(List.of(chunkRow(1L)))
+                .thenReturn(List.of(chunkRow(2L), chunkRow(2L)))
+                .thenReturn(List.of(chunkRow(3L), chunkRow(3L), chunkRow(3L)));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VectorStoreService service = new VectorStoreService(
+                jdbcTemplate, mock(EmbeddingService.class), scopedSearchConfig(), meterRegistry);
+
+        List<VectorStoreService.SearchResult> results = service.searchVisible(new float[] {0.1f, 0.2f, 0.3f}, 3,
+                new VectorStoreService.SearchScope(UUID.randomUUID(), null, UUID.randomUUID()), 0.0f);
+
+        assertEquals(3, results.size());
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("SET LOCAL hnsw.ef_search = 40");
+        order.verify(jdbcTemplate).execute("SET LOCAL hnsw.ef_search = 1000");
+        order.verify(jdbcTemplate).execute("SET LOCAL hnsw.iterative_scan = relaxed_order");
+        assertEquals(2.0, meterRegistry.get("cvect.vector.search.ann.escalations").summary().totalAmount());
+        assertEquals(0.0, meterRegistry.get("cvect.vector.search.ann.underfilled").counter().count());
+        assertEquals(1.0, meterRegistry.get("cvect.vector.search.plan").tag("plan", "ann").counter().count());
+    }
+
+    @Test
+    @DisplayName("filtered ANN search should not escalate when the index filled topK but the score threshold dropped rows")
+    void searchVisibleShouldNotEscalateWhenOnlyThresholdDropsRows() {
+        JdbcTemplate jdbcTemplate = scopedSearchJdbcTemplate(2, 50_000);
+        when(jdbcTemplate.queryForList(anyString(), any(Object[].class))).thenReturn(List.of(chunkRow(3L)));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VectorStoreService service = new VectorStoreService(
+                jdbcTemplate, mock(EmbeddingService.class), scopedSearchConfig(), meterRegistry);
+
+        List<VectorStoreService.SearchResult> results = service.searchVisible(new float[] {0.1f, 0.2f, 0.3f}, 3,
+                new VectorStoreService.SearchScope(UUID.randomUUID(), null, UUID.randomUUID()), 0.5f);
+
+        assertEquals(1, results.size());
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), any(Object[].class));
+        verify(jdbcTemplate, never()).execute("SET LOCAL hnsw.ef_search = 1000");
+        assertEquals(0.0, meterRegistry.get("cvect.vector.search.ann.escalations").summary().totalAmount());
+        assertEquals(0.0, meterRegistry.get("cvect.vector.search.ann.underfilled").counter().count());
+    }
+
+    @Test
+    @DisplayName("filtered ANN search should read the index row count from the placeholder row when nothing passes the threshold")
+    void searchVisibleShouldReadRankedRowsWithoutMatches() {
+        JdbcTemplate jdbcTemplate = scopedSearchJdbcTemplate(2, 50_000);
+        Map<String, Object> emptyRow = new java.util.HashMap<>();
+        emptyRow.put("id", null);
+        emptyRow.put("ranked_rows", 5L);
+        when(jdbcTemplate.queryForList(anyString(), any(Object[].class))).thenReturn(List.of(emptyRow));
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, mock(EmbeddingService.class), scopedSearchConfig());
+
+        List<VectorStoreService.SearchResult> results = service.searchVisible(new float[] {0.1f, 0.2f, 0.3f}, 5,
+                new VectorStoreService.SearchScope(UUID.randomUUID(), null, UUID.randomUUID()), 0.9f);
+
+        assertTrue(results.isEmpty());
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(1)).queryForList(sqlCaptor.capture(), any(Object[].class));
+        assertTrue(sqlCaptor.getValue().contains("ORDER BY distance ASC LIMIT ?) "));
+        assertTrue(sqlCaptor.getValue().contains("FROM (SELECT count(*) AS ranked_rows FROM ranked) n LEFT JOIN ranked k ON k.distance <= ?"));
+    }
+
+    @Test
+    @DisplayName("searchVisibleCandidates should aggregate, threshold and readiness-filter in one statement and join content last")
+    void searchVisibleCandidatesShouldAggregateInOneStatement() {
+        JdbcTemplate jdbcTemplate = scopedSearchJdbcTemplate(2, 120);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(jdbcTemplate.queryForList(anyString(), any(Object[].class))).thenReturn(List.of(
+                Map.of("id", UUID.randomUUID(), "candidate_id", first, "chunk_type", "EXPERIENCE",
+                        "content", "java platform", "distance", 0.1d, "score", 0.82d, "ranked_rows", 5L),
+                Map.of("id", UUID.randomUUID(), "candidate_id", first, "chunk_type", "SKILL",
+                        "content", "spring", "distance", 0.3d, "score", 0.82d, "ranked_rows", 5L),
+                Map.of("id", UUID.randomUUID(), "candidate_id", second, "chunk_type", "SKILL",
+                        "content", "go", "distance", 0.4d, "score", 0.6d, "ranked_rows", 5L)));
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, mock(EmbeddingService.class), scopedSearchConfig());
+        UUID tenantId = UUID.randomUUID();
+
+        List<VectorStoreService.CandidateSearchResult> results = service.searchVisibleCandidates(
+                new float[] {0.1f, 0.2f, 0.3f}, 20,
+                new VectorStoreService.SearchScope(tenantId, null), 0.35f,
+                new VectorStoreService.CandidateAggregation(5, 0.7f, 0.3f, true),
+                ChunkType.EXPERIENCE, ChunkType.SKILL);
+
+        assertEquals(2, results.size());
+        assertEquals(first, results.get(0).candidateId());
+        assertEquals(0.82f, results.get(0).score(), 0.0001f);
+        assertEquals(2, results.get(0).matchedChunks().size());
+        assertEquals("java platform", results.get(0).matchedChunks().get(0).content());
+        assertEquals(second, results.get(1).candidateId());
+
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> argsCaptor = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).queryForList(sqlCaptor.capture(), argsCaptor.capture());
+        String sql = sqlCaptor.getValue();
+        assertTrue(sql.startsWith("WITH scoped AS MATERIALIZED (SELECT r.id, r.candidate_id, r.chunk_type, r.embedding_vector"));
+        assertTrue(sql.contains("matched AS (SELECT id, candidate_id, chunk_type, distance FROM ranked WHERE distance <= ?)"));
+        assertTrue(sql.contains("FROM matched GROUP BY candidate_id"));
+        assertTrue(sql.contains("CASE WHEN weighted_score > 0 THEN weighted_score ELSE max_overall END"));
+        assertTrue(sql.contains("AND EXISTS (SELECT 1 FROM vector_ingest_tasks t"));
+        assertTrue(sql.contains("AND NOT EXISTS (SELECT 1 FROM vector_ingest_tasks t"));
+        assertTrue(sql.contains("JOIN resume_chunks c ON c.id = k.id"));
+        assertFalse(sql.contains("r.content"));
+        Object[] args = argsCaptor.getValue();
+        assertEquals(List.of(tenantId, 20, 1.0f - 0.35f, 0.7f, 0.3f, 0.35f, 5),
+                List.of(args).subList(1, args.length));
+    }
+
+    @Test
+    @DisplayName("searchVisibleCandidates should escalate ANN by chunk rows and skip the readiness join when not requested")
+    void searchVisibleCandidatesShouldEscalateOnShortChunkRecall() {
+        JdbcTemplate jdbcTemplate = scopedSearchJdbcTemplate(2, 50_000);
+        Map<String, Object> shortRow = Map.of("id", UUID.randomUUID(), "candidate_id", UUID.randomUUID(),
+                "chunk_type", "SKILL", "content", "java", "distance", 0.2d, "score", 0.8d, "ranked_rows", 3L);
+        Map<String, Object> fullRow = new java.util.HashMap<>(shortRow);
+        fullRow.put("ranked_rows", 20L);
+        when(jdbcTemplate.queryForList(anyString(), any(Object[].class)))
+                .thenReturn(List.of(shortRow))
+                .thenReturn(List.of(fullRow));
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, mock(EmbeddingService.class), scopedSearchConfig());
+
+        List<VectorStoreService.CandidateSearchResult> results = service.searchVisibleCandidates(
+                new float[] {0.1f, 0.2f, 0.3f}, 20,
+                new VectorStoreService.SearchScope(UUID.randomUUID(), null, UUID.randomUUID()), 0.35f,
+                new VectorStoreService.CandidateAggregation(5, 0.5f, 0.5f, false));
+
+        assertEquals(1, results.size());
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("SET LOCAL hnsw.ef_search = 60");
+        order.verify(jdbcTemplate).execute("SET LOCAL hnsw.ef_search = 1000");
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).queryForList(sqlCaptor.capture(), any(Object[].class));
+        String sql = sqlCaptor.getAllValues().get(0);
+        assertTrue(sql.startsWith("WITH ranked AS (SELECT id, candidate_id, chunk_type, distance FROM (SELECT"));
+        assertFalse(sql.contains("vector_ingest_tasks"));
+    }
+
+    @Test
+    @DisplayName("searchVisibleLexical should OR the tokenized query terms over content_tsv within the search scope")
+    void searchVisibleLexicalShouldQueryContentTsvInScope() {
+        JdbcTemplate jdbcTemplate = scopedSearchJdbcTemplate(2, 0);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS (SELECT 1 FROM pg_attribute"), eq(Boolean.class), any(Object[].class)))
+                .thenReturn(true);
+        UUID candidateId = UUID.randomUUID();
+        when(jdbcTemplate.queryForList(anyString(), any(Object[].class))).thenReturn(List.of(
+                Map.of("id", UUID.randomUUID(), "candidate_id", candidateId, "chunk_type", "SKILL",
+                        "content", "Kubernetes, Flink", "rank", 0.6d)));
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, mock(EmbeddingService.class), scopedSearchConfig());
+        UUID tenantId = UUID.randomUUID();
+        UUID ownerId = UUID.randomUUID();
+
+        List<VectorStoreService.LexicalMatch> matches = service.searchVisibleLexical(
+                "熟悉 Kubernetes", 40, new VectorStoreService.SearchScope(tenantId, ownerId), true, ChunkType.SKILL);
+
+        assertTrue(service.isLexicalSearchAvailable());
+        assertEquals(1, matches.size());
+        assertEquals(candidateId, matches.get(0).candidateId());
+        assertEquals(0.6f, matches.get(0).rank(), 0.0001f);
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> argsCaptor = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).queryForList(sqlCaptor.capture(), argsCaptor.capture());
+        String sql = sqlCaptor.getValue();
+        assertTrue(sql.contains("FROM unnest(cvect_lexical_terms(?)) WITH ORDINALITY"));
+        assertTrue(sql.contains("WHERE r.content_tsv @@ q.query AND r.tenant_id = ?"));
+        assertTrue(sql.contains("JOIN job_descriptions jd ON jd.id = r.jd_id"));
+        assertTrue(sql.contains("AND r.chunk_type IN ('SKILL')"));
+        assertTrue(sql.contains("AND NOT EXISTS (SELECT 1 FROM vector_ingest_tasks t WHERE t.candidate_id = r.candidate_id"));
+        assertEquals(List.of("熟悉 Kubernetes", 256, tenantId, ownerId, 40), List.of(argsCaptor.getValue()));
+    }
+
+    @Test
+    @DisplayName("searchVisibleLexical should return nothing when the lexical column is missing")
+    void searchVisibleLexicalShouldSkipWithoutLexicalColumn() {
+        JdbcTemplate jdbcTemplate = scopedSearchJdbcTemplate(2, 0);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, mock(EmbeddingService.class), scopedSearchConfig());
+
+        assertFalse(service.isLexicalSearchAvailable());
+        assertTrue(service.searchVisibleLexical("Kubernetes", 10,
+                new VectorStoreService.SearchScope(UUID.randomUUID(), null), false).isEmpty());
+        verify(jdbcTemplate, never()).queryForList(anyString(), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("two-stage ANN search should recall on the coarse prefix and rescore with full-dimension vectors")
+    void searchVisibleShouldRescoreCoarseRecallWithFullVectors() {
+        JdbcTemplate jdbcTemplate = scopedSearchJdbcTemplate(2, 50_000);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), anyString(), eq("embedding_coarse")))
+                .thenReturn(List.of("vector(2)"));
+        when(jdbcTemplate.queryForList(startsWith("SELECT i.indisvalid"), eq(Boolean.class), anyString()))
+                .thenReturn(List.of(true));
+        VectorStoreConfig config = scopedSearchConfig();
+        config.setCoarseDimension(2);
+        config.setCoarseRescoreSize(300);
+        config.setAdaptiveSearchEnabled(false);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, mock(EmbeddingService.class), config);
+        UUID tenantId = UUID.randomUUID();
+
+        service.searchVisible(new float[] {0.3f, 0.4f, 0.5f}, 20,
+                new VectorStoreService.SearchScope(tenantId, null), 0.35f);
+
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> argsCaptor = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).queryForList(sqlCaptor.capture(), argsCaptor.capture());
+        String sql = sqlCaptor.getValue();
+        assertTrue(sql.contains("embedding_vector <=> ?::vector(3) AS distance FROM (SELECT r.id"));
+        assertTrue(sql.contains("r.embedding_coarse <=> ?::vector(2) AS coarse_distance"));
+        assertTrue(sql.contains("WHERE r.embedding_coarse IS NOT NULL AND r.tenant_id = ?"));
+        assertTrue(sql.contains("ORDER BY coarse_distance ASC LIMIT ?) coarse"));
+        Object[] args = argsCaptor.getValue();
+        assertEquals("[0.3,0.4,0.5]", args[0]);
+        assertEquals("[0.6,0.8]", args[1]);
+        assertEquals(tenantId, args[2]);
+        assertEquals(300, args[3]);
+        assertEquals(20, args[args.length - 2]);
+        assertEquals(1.0f - 0.35f, args[args.length - 1]);
+    }
+
+    @Test
+    @DisplayName("two-stage search should keep the full-dimension exact scan for small scoped sets and write both columns")
+    void twoStageSearchShouldKeepExactScanAndWriteCoarseColumn() {
+        JdbcTemplate jdbcTemplate = scopedSearchJdbcTemplate(2, 120);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), anyString(), eq("embedding_coarse")))
+                .thenReturn(List.of("vector(2)"));
+        when(jdbcTemplate.queryForList(startsWith("SELECT i.indisvalid"), eq(Boolean.class), anyString()))
+                .thenReturn(List.of(true));
+        EmbeddingService embeddingService = mock(EmbeddingService.class);
+        when(embeddingService.embedDocument(anyString())).thenReturn(new float[] {0.0f, 3.0f, 4.0f});
+        VectorStoreConfig config = scopedSearchConfig();
+        config.setCoarseDimension(2);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, embeddingService, config);
+
+        service.searchVisible(new float[] {0.1f, 0.2f, 0.3f}, 5,
+                new VectorStoreService.SearchScope(UUID.randomUUID(), null), 0.0f);
+        assertTrue(service.save(UUID.randomUUID(), ChunkType.SKILL, "java"));
+
+        ArgumentCaptor<String> searchCaptor = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).queryForList(searchCaptor.capture(), any(Object[].class));
+        assertTrue(searchCaptor.getValue().startsWith("WITH scoped AS MATERIALIZED ("));
+        assertFalse(searchCaptor.getValue().contains("embedding_coarse"));
+        ArgumentCaptor<Object[]> argsCaptor = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(
+                eq("INSERT INTO resume_chunks (id, candidate_id, chunk_type, content, embedding_vector, embedding_coarse, created_at)"
+                        + " VALUES (?, ?, ?, ?, ?::vector(3), ?::vector(2), ?)"),
+                argsCaptor.capture());
+        assertEquals("[0.0,1.0]", argsCaptor.getValue()[5]);
+    }
+
+    @Test
+    @DisplayName("two-stage search should use the full-dimension index while the coarse column is still being backfilled")
+    void twoStageSearchShouldFallBackUntilCoarseBackfillCompletes() {
+        JdbcTemplate jdbcTemplate = scopedSearchJdbcTemplate(2, 50_000);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), anyString(), eq("embedding_coarse")))
+                .thenReturn(List.of("vector(2)"));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT NOT EXISTS (SELECT 1 FROM resume_chunks"), eq(Boolean.class)))
+                .thenReturn(false);
+        EmbeddingService embeddingService = mock(EmbeddingService.class);
+        when(embeddingService.embedDocument(anyString())).thenReturn(new float[] {0.0f, 3.0f, 4.0f});
+        VectorStoreConfig config = scopedSearchConfig();
+        config.setCoarseDimension(2);
+        config.setAdaptiveSearchEnabled(false);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, embeddingService, config);
+
+        service.searchVisible(new float[] {0.3f, 0.4f, 0.5f}, 20,
+                new VectorStoreService.SearchScope(UUID.randomUUID(), null), 0.35f);
+        assertTrue(service.save(UUID.randomUUID(), ChunkType.SKILL, "java"));
+
+        ArgumentCaptor<String> searchCaptor = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).queryForList(searchCaptor.capture(), any(Object[].class));
+        assertFalse(searchCaptor.getValue().contains("embedding_coarse"));
+        verify(jdbcTemplate).update(
+                eq("INSERT INTO resume_chunks (id, candidate_id, chunk_type, content, embedding_vector, embedding_coarse, created_at)"
+                        + " VALUES (?, ?, ?, ?, ?::vector(3), ?::vector(2), ?)"),
+                any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("truncateAndNormalize should keep the prefix at unit length")
+    void truncateAndNormalizeShouldRenormalizePrefix() {
+        float[] prefix = VectorStoreService.truncateAndNormalize(new float[] {3.0f, 4.0f, 12.0f}, 2);
+
+        assertEquals(2, prefix.length);
+        assertEquals(0.6f, prefix[0], 0.0001f);
+        assertEquals(0.8f, prefix[1], 0.0001f);
+        assertEquals(0.0f, VectorStoreService.truncateAndNormalize(new float[] {0.0f, 0.0f, 1.0f}, 2)[0]);
+    }
+
+    @Test
+    @DisplayName("initial ef_search should grow with topK and filters and stay within pgvector limits")
+    void initialEfSearchShouldScaleWithTopKAndFilters() {
+        VectorStoreService service = new VectorStoreService(
+                scopedSearchJdbcTemplate(2, 0), mock(EmbeddingService.class), scopedSearchConfig());
+
+        assertEquals(40, service.initialEfSearch(5, 0));
+        assertEquals(400, service.initialEfSearch(100, 2));
+        assertEquals(1000, service.initialEfSearch(800, 3));
+        assertTrue(VectorStoreService.isVersionAtLeast("0.8.0", 0, 8));
+        assertFalse(VectorStoreService.isVersionAtLeast("0.7.4", 0, 8));
+    }
+
+    @Test
+    @DisplayName("scoreCandidateSummaries should scan one summary row per candidate and chunk type within the tenant")
+    void scoreCandidateSummariesShouldQuerySummaryTableByTenant() {
+        JdbcTemplate jdbcTemplate = scopedSearchJdbcTemplate(2, 0);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT to_regclass"), eq(Boolean.class), any(Object[].class)))
+                .thenReturn(true);
+        UUID tenantId = UUID.randomUUID();
+        UUID candidateId = UUID.randomUUID();
+        when(jdbcTemplate.queryForList(anyString(), any(Object[].class))).thenReturn(List.of(
+                Map.of("candidate_id", candidateId, "chunk_type", "EXPERIENCE", "score", 0.7f),
+                Map.of("candidate_id", candidateId, "chunk_type", "SKILL", "score", 0.4f)));
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, mock(EmbeddingService.class), scopedSearchConfig());
+
+        Map<UUID, VectorStoreService.CandidateScoreBreakdown> scores =
+                service.scoreCandidateSummaries(new float[] {0.1f, 0.2f, 0.3f}, tenantId, null);
+
+        assertTrue(service.isCandidateSummaryAvailable());
+        assertEquals(0.7f, scores.get(candidateId).experienceScore(), 0.0001f);
+        assertEquals(0.4f, scores.get(candidateId).skillScore(), 0.0001f);
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> argsCaptor = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).queryForList(sqlCaptor.capture(), argsCaptor.capture());
+        assertTrue(sqlCaptor.getValue().contains("FROM candidate_chunk_summaries WHERE tenant_id = ?"));
+        assertFalse(sqlCaptor.getValue().contains("candidate_id = ANY"));
+        assertEquals(2, argsCaptor.getValue().length);
+    }
+
+    @Test
+    @DisplayName("scoreCandidateSummaries should bind the candidate filter as one uuid[] parameter")
+    void scoreCandidateSummariesShouldBindCandidateIdsAsArray() {
+        JdbcTemplate jdbcTemplate = scopedSearchJdbcTemplate(2, 0);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT to_regclass"), eq(Boolean.class), any(Object[].class)))
+                .thenReturn(true);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, mock(EmbeddingService.class), scopedSearchConfig());
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        service.scoreCandidateSummaries(new float[] {0.1f, 0.2f, 0.3f}, UUID.randomUUID(), List.of(first, second));
+
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> argsCaptor = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).queryForList(sqlCaptor.capture(), argsCaptor.capture());
+        assertTrue(sqlCaptor.getValue().endsWith("AND candidate_id = ANY (?::uuid[]) "));
+        assertEquals(3, argsCaptor.getValue().length);
+        assertEquals("{" + first + "," + second + "}", argsCaptor.getValue()[2]);
+    }
+
+    @Test
+    @DisplayName("scoreCandidateAgainstQueries should score every query in one VALUES statement and key results by query id")
+    void scoreCandidateAgainstQueriesShouldUseOneValuesStatement() {
+        JdbcTemplate jdbcTemplate = scopedSearchJdbcTemplate(2, 0);
+        UUID candidateId = UUID.randomUUID();
+        UUID jdId1 = UUID.randomUUID();
+        UUID jdId2 = UUID.randomUUID();
+        when(jdbcTemplate.queryForList(anyString(), any(Object[].class))).thenReturn(List.of(
+                Map.of("query_id", jdId1, "chunk_type", "EXPERIENCE", "score", 0.8f),
+                Map.of("query_id", jdId1, "chunk_type", "SKILL", "score", 0.3f),
+                Map.of("query_id", jdId2, "chunk_type", "SKILL", "score", 0.6d)));
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, mock(EmbeddingService.class), scopedSearchConfig());
+        Map<UUID, float[]> queries = new java.util.LinkedHashMap<>();
+        queries.put(jdId1, new float[] {0.1f, 0.2f, 0.3f});
+        queries.put(jdId2, new float[] {0.3f, 0.2f, 0.1f});
+
+        Map<UUID, VectorStoreService.CandidateScoreBreakdown> scores =
+                service.scoreCandidateAgainstQueries(candidateId, queries);
+
+        assertEquals(0.8f, scores.get(jdId1).experienceScore(), 0.0001f);
+        assertEquals(0.3f, scores.get(jdId1).skillScore(), 0.0001f);
+        assertEquals(0.6f, scores.get(jdId2).skillScore(), 0.0001f);
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> argsCaptor = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).queryForList(sqlCaptor.capture(), argsCaptor.capture());
+        String sql = sqlCaptor.getValue();
+        assertTrue(sql.contains("FROM (VALUES (?::uuid, ?::vector(3)), (?::uuid, ?::vector(3))) AS q(query_id, embedding)"));
+        assertTrue(sql.contains("CROSS JOIN resume_chunks r WHERE r.candidate_id = ?"));
+        assertTrue(sql.contains("GROUP BY q.query_id, r.chunk_type"));
+        Object[] args = argsCaptor.getValue();
+        assertEquals(5, args.length);
+        assertEquals(jdId1, args[0]);
+        assertEquals(jdId2, args[2]);
+        assertEquals(candidateId, args[4]);
+    }
+
+    @Test
+    @DisplayName("refreshCandidateSummaries should rebuild mean-pooled vectors from the candidate chunks")
+    void refreshCandidateSummariesShouldRebuildFromChunks() {
+        JdbcTemplate jdbcTemplate = scopedSearchJdbcTemplate(2, 0);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT to_regclass"), eq(Boolean.class), any(Object[].class)))
+                .thenReturn(true);
+        VectorStoreService service = new VectorStoreService(jdbcTemplate, mock(EmbeddingService.class), scopedSearchConfig());
+        UUID candidateId = UUID.randomUUID();
+
+        service.refreshCandidateSummaries(candidateId);
+
+        verify(jdbcTemplate).update("DELETE FROM candidate_chunk_summaries WHERE candidate_id = ?", candidateId);
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).update(startsWith("INSERT INTO candidate_chunk_summaries"), any(), eq(candidateId));
+        verify(jdbcTemplate, atLeastOnce()).update(sqlCaptor.capture(), any(), eq(candidateId));
+        assertTrue(sqlCaptor.getValue().contains("AVG(r.embedding_vector)"));
+        assertTrue(sqlCaptor.getValue().contains("GROUP BY r.candidate_id, r.chunk_type"));
+    }
+
+    private static VectorStoreConfig scopedSearchConfig() {
+        VectorStoreConfig config = new VectorStoreConfig();
+        config.setEnabled(true);
+        config.setDimension(3);
+        config.setTableName("resume_chunks");
+        return config;
+    }
+
+    private static Map<String, Object> chunkRow(long rankedRows) {
+        return Map.of(
+                "id", UUID.randomUUID(),
+                "candidate_id", UUID.randomUUID(),
+                "chunk_type", ChunkType.SKILL.name(),
+                "content", "java",
+                "distance", 0.2f,
+                "ranked_rows", rankedRows);
+    }
+
+    private static JdbcTemplate scopedSearchJdbcTemplate(int scopeColumns, int scopedRows) {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), any(Class.class))).thenReturn(true);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT count(*) FROM pg_attribute"), eq(Integer.class), any(Object[].class)))
+                .thenReturn(scopeColumns);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT count(*) FROM (SELECT 1"), eq(Integer.class), any(Object[].class)))
+                .thenReturn(scopedRows);
+        when(jdbcTemplate.queryForList(anyString(), any(Object[].class))).thenReturn(List.of());
+        return jdbcTemplate;
     }
 }
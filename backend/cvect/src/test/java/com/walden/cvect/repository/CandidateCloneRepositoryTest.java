@@ -0,0 +1,56 @@
+package com.walden.cvect.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("CandidateCloneRepository unit tests")
+class CandidateCloneRepositoryTest {
+
+    @Test
+    @DisplayName("copyFacts should copy every fact table with one INSERT ... SELECT each")
+    void copyFactsShouldUseOneStatementPerTable() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(2);
+        CandidateCloneRepository repository = new CandidateCloneRepository(jdbcTemplate);
+        UUID sourceId = UUID.randomUUID();
+        UUID targetId = UUID.randomUUID();
+
+        int copied = repository.copyFacts(sourceId, targetId);
+
+        assertEquals(2 * CandidateCloneRepository.FACT_COPY_SQL.size(), copied);
+        for (String sql : CandidateCloneRepository.FACT_COPY_SQL) {
+            assertTrue(sql.contains("SELECT gen_random_uuid(), ?"));
+            verify(jdbcTemplate).update(eq(sql), eq(targetId), any(), eq(sourceId));
+        }
+        verify(jdbcTemplate, times(CandidateCloneRepository.FACT_COPY_SQL.size()))
+                .update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("copyDoneVectorTasks should only copy completed tasks")
+    void copyDoneVectorTasksShouldOnlyCopyDoneRows() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        CandidateCloneRepository repository = new CandidateCloneRepository(jdbcTemplate);
+        UUID sourceId = UUID.randomUUID();
+        UUID targetId = UUID.randomUUID();
+
+        repository.copyDoneVectorTasks(sourceId, targetId);
+
+        assertTrue(CandidateCloneRepository.DONE_VECTOR_TASK_COPY_SQL.contains("status = 'DONE'"));
+        verify(jdbcTemplate).update(
+                eq(CandidateCloneRepository.DONE_VECTOR_TASK_COPY_SQL), eq(targetId), any(), any(), eq(sourceId));
+    }
+}
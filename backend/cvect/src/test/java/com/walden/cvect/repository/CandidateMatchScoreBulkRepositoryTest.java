@@ -0,0 +1,117 @@
+package com.walden.cvect.repository;
+
+import com.walden.cvect.model.TenantConstants;
+import com.walden.cvect.model.entity.CandidateMatchScore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@DisplayName("CandidateMatchScoreBulkRepository unit tests")
+class CandidateMatchScoreBulkRepositoryTest {
+
+    @Test
+    @DisplayName("upsertAll should write multi-row statements that skip rows whose scores did not change")
+    void upsertAllShouldUseMultiRowStatementsAndSkipUnchangedRows() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(3);
+        CandidateMatchScoreBulkRepository repository = new CandidateMatchScoreBulkRepository(jdbcTemplate);
+        UUID jdId = UUID.randomUUID();
+        List<CandidateMatchScore> scores = new ArrayList<>();
+        for (int i = 0; i < CandidateMatchScoreBulkRepository.ROWS_PER_STATEMENT + 1; i++) {
+            scores.add(new CandidateMatchScore(
+                    TenantConstants.DEFAULT_TENANT_ID,
+                    UUID.randomUUID(),
+                    jdId,
+                    0.5f,
+                    0.4f,
+                    0.6f,
+                    LocalDateTime.now()));
+        }
+
+        int written = repository.upsertAll(scores);
+
+        assertEquals(6, written);
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> argsCaptor = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(2)).update(sqlCaptor.capture(), argsCaptor.capture());
+        String firstSql = sqlCaptor.getAllValues().get(0);
+        assertTrue(firstSql.contains("ON CONFLICT (tenant_id, candidate_id, jd_id) DO UPDATE SET"));
+        assertTrue(firstSql.contains("IS DISTINCT FROM (EXCLUDED.overall_score, EXCLUDED.experience_score, EXCLUDED.skill_score)"));
+        assertEquals(CandidateMatchScoreBulkRepository.ROWS_PER_STATEMENT * 8, argsCaptor.getAllValues().get(0).length);
+        assertEquals(8, argsCaptor.getAllValues().get(1).length);
+    }
+
+    @Test
+    @DisplayName("upsertAll should not touch the database for an empty score list")
+    void upsertAllShouldSkipEmptyInput() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+        assertEquals(0, new CandidateMatchScoreBulkRepository(jdbcTemplate).upsertAll(List.of()));
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("deleteByJobDescriptionIdAndCandidateIds should bind candidate ids as a single uuid[] parameter")
+    void deleteByCandidateIdsShouldBindOneArrayParameter() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.update(any(PreparedStatementCreator.class))).thenReturn(2);
+        CandidateMatchScoreBulkRepository repository = new CandidateMatchScoreBulkRepository(jdbcTemplate);
+        UUID jdId = UUID.randomUUID();
+        List<UUID> candidateIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+
+        assertEquals(2, repository.deleteByJobDescriptionIdAndCandidateIds(jdId, candidateIds));
+
+        ArgumentCaptor<PreparedStatementCreator> creatorCaptor = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate).update(creatorCaptor.capture());
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        Array array = mock(Array.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(connection.createArrayOf("uuid", candidateIds.toArray())).thenReturn(array);
+        creatorCaptor.getValue().createPreparedStatement(connection);
+        verify(connection).prepareStatement(
+                "DELETE FROM candidate_match_scores WHERE jd_id = ? AND candidate_id = ANY (?)");
+        verify(statement).setObject(1, jdId);
+        verify(statement).setArray(2, array);
+    }
+
+    @Test
+    @DisplayName("deleteByJobDescriptionIdAndCandidateIds should not touch the database for an empty id list")
+    void deleteByCandidateIdsShouldSkipEmptyInput() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+        assertEquals(0, new CandidateMatchScoreBulkRepository(jdbcTemplate)
+                .deleteByJobDescriptionIdAndCandidateIds(UUID.randomUUID(), List.of()));
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("upsertSql should render one placeholder tuple per row")
+    void upsertSqlShouldRenderOneTuplePerRow() {
+        String sql = CandidateMatchScoreBulkRepository.upsertSql(2);
+
+        assertTrue(sql.contains("VALUES (?, ?, ?, ?, ?, ?, ?, ?), (?, ?, ?, ?, ?, ?, ?, ?)\n"));
+    }
+}
@@ -0,0 +1,73 @@
+package com.walden.cvect.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@DisplayName("EmbeddingCacheRepository unit tests")
+class EmbeddingCacheRepositoryTest {
+
+    @Test
+    @DisplayName("encode and decode should round-trip float32 vectors")
+    void encodeDecodeShouldRoundTrip() {
+        float[] vector = { 0.125f, -1.5f, 3.0e-7f, Float.MAX_VALUE };
+
+        byte[] bytes = EmbeddingCacheRepository.encode(vector);
+
+        assertEquals(vector.length * Float.BYTES, bytes.length);
+        assertArrayEquals(vector, EmbeddingCacheRepository.decode(bytes));
+    }
+
+    @Test
+    @DisplayName("selectSql should bind one placeholder per content hash")
+    void selectSqlShouldBindOnePlaceholderPerHash() {
+        String sql = EmbeddingCacheRepository.selectSql(3);
+
+        assertTrue(sql.endsWith("content_hash IN (?, ?, ?)"));
+    }
+
+    @Test
+    @DisplayName("insertAll should batch insert and ignore existing rows")
+    void insertAllShouldIgnoreConflicts() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        EmbeddingCacheRepository repository = new EmbeddingCacheRepository(jdbcTemplate);
+        Map<String, float[]> embeddings = new LinkedHashMap<>();
+        embeddings.put("a", new float[] { 1.0f, 2.0f });
+        embeddings.put("b", new float[] { 3.0f, 4.0f });
+
+        repository.insertAll("model", 2, embeddings);
+
+        verify(jdbcTemplate).batchUpdate(
+                eq("""
+                        INSERT INTO embedding_cache (model_name, dimension, content_hash, embedding, created_at)
+                        VALUES (?, ?, ?, ?, ?)
+                        ON CONFLICT (model_name, dimension, content_hash) DO NOTHING
+                        """),
+                anyList());
+    }
+
+    @Test
+    @DisplayName("empty inputs should not touch the database")
+    void emptyInputsShouldSkipDatabase() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        EmbeddingCacheRepository repository = new EmbeddingCacheRepository(jdbcTemplate);
+
+        assertTrue(repository.findAll("model", 2, List.of()).isEmpty());
+        repository.insertAll("model", 2, Map.of());
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,44 @@
+package com.walden.cvect.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@DisplayName("SearchQueryEmbeddingRepository unit tests")
+class SearchQueryEmbeddingRepositoryTest {
+
+    @Test
+    @DisplayName("upsert should only refresh last_used_at on conflict")
+    void upsertShouldRefreshLastUsedOnConflict() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        SearchQueryEmbeddingRepository repository = new SearchQueryEmbeddingRepository(jdbcTemplate);
+
+        repository.upsert("model", 2, "jd:abc", new float[] { 1.0f, 2.0f });
+
+        verify(jdbcTemplate).update(
+                eq("""
+                        INSERT INTO search_query_embeddings (model_name, dimension, query_key, embedding, created_at, last_used_at)
+                        VALUES (?, ?, ?, ?, ?, ?)
+                        ON CONFLICT (model_name, dimension, query_key) DO UPDATE SET last_used_at = EXCLUDED.last_used_at
+                        """),
+                eq("model"), eq(2), eq("jd:abc"), any(byte[].class), any(), any());
+    }
+
+    @Test
+    @DisplayName("findRecent with a non-positive limit should not touch the database")
+    void findRecentShouldSkipDatabaseForEmptyLimit() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        SearchQueryEmbeddingRepository repository = new SearchQueryEmbeddingRepository(jdbcTemplate);
+
+        assertTrue(repository.findRecent("model", 2, 0).isEmpty());
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
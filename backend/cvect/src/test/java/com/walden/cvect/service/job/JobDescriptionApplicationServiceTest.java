@@ -17,6 +17,7 @@ import com.walden.cvect.security.CurrentUserService;
 import com.walden.cvect.security.DataScopeService;
 import com.walden.cvect.service.job.JobDescriptionApplicationService;
 import com.walden.cvect.service.matching.PersistedMatchScoreService;
+import com.walden.cvect.service.matching.SearchDataVersionService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -27,6 +28,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.verify;
@@ -61,6 +63,8 @@ class JobDescriptionApplicationServiceTest {
     @Mock
     private PersistedMatchScoreService persistedMatchScoreService;
     @Mock
+    private SearchDataVersionService searchDataVersionService;
+    @Mock
     private CurrentUserService currentUserService;
     @Mock
     private DataScopeService dataScopeService;
@@ -91,6 +95,25 @@ class JobDescriptionApplicationServiceTest {
         verify(itemRepository).deleteByTenantIdAndJobDescriptionId(tenantId, jdId);
         verify(batchRepository).deleteByTenantIdAndJobDescriptionId(tenantId, jdId);
         verify(jdRepository).delete(jd);
+        verify(searchDataVersionService).bumpTenant(tenantId);
+    }
+
+    @Test
+    @DisplayName("update should invalidate cached search responses of the tenant")
+    void updateShouldBumpSearchDataVersion() {
+        UUID jdId = UUID.randomUUID();
+        UUID tenantId = TenantConstants.DEFAULT_TENANT_ID;
+        JobDescription jd = new JobDescription("Backend", "Spring");
+        when(currentUserService.currentTenantId()).thenReturn(tenantId);
+        when(dataScopeService.hasTenantWideScope()).thenReturn(true);
+        when(jdRepository.findByIdAndTenantId(jdId, tenantId)).thenReturn(Optional.of(jd));
+        when(jdRepository.save(jd)).thenReturn(jd);
+
+        JobDescriptionApplicationService service = service();
+
+        assertTrue(service.update(jdId, "Backend", "Spring Boot and Kafka").isPresent());
+        assertEquals("Spring Boot and Kafka", jd.getContent());
+        verify(searchDataVersionService).bumpTenant(tenantId);
     }
 
     @Test
@@ -121,6 +144,7 @@ class JobDescriptionApplicationServiceTest {
                 itemRepository,
                 vectorStoreService,
                 persistedMatchScoreService,
+                searchDataVersionService,
                 currentUserService,
                 dataScopeService);
     }
@@ -0,0 +1,122 @@
+package com.walden.cvect.service.matching;
+
+import com.walden.cvect.infra.embedding.EmbeddingService;
+import com.walden.cvect.model.TenantConstants;
+import com.walden.cvect.model.entity.JobDescription;
+import com.walden.cvect.repository.JobDescriptionJpaRepository;
+import com.walden.cvect.security.CurrentUserService;
+import com.walden.cvect.security.DataScopeService;
+import com.walden.cvect.web.controller.search.SearchController;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JobDescriptionSearchService unit tests")
+class JobDescriptionSearchServiceTest {
+
+    @Mock
+    private JobDescriptionJpaRepository jobDescriptionRepository;
+    @Mock
+    private PersistedMatchScoreService persistedMatchScoreService;
+    @Mock
+    private SearchQueryEmbeddingCacheService queryEmbeddingCache;
+    @Mock
+    private SemanticSearchService semanticSearchService;
+    @Mock
+    private EmbeddingService embeddingService;
+    @Mock
+    private CurrentUserService currentUserService;
+    @Mock
+    private DataScopeService dataScopeService;
+
+    private JobDescriptionSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new JobDescriptionSearchService(
+                jobDescriptionRepository,
+                persistedMatchScoreService,
+                queryEmbeddingCache,
+                semanticSearchService,
+                embeddingService,
+                currentUserService,
+                dataScopeService);
+        when(currentUserService.currentTenantId()).thenReturn(TenantConstants.DEFAULT_TENANT_ID);
+    }
+
+    @Test
+    @DisplayName("should search with the stored JD embedding instead of embedding the JD text again")
+    void shouldReuseStoredJobDescriptionEmbedding() {
+        JobDescription jd = new JobDescription(TenantConstants.DEFAULT_TENANT_ID, "Backend", "Java backend role");
+        UUID jdId = UUID.randomUUID();
+        float[] stored = new float[] {0.3f, 0.4f};
+        SearchController.SearchResponse expected = new SearchController.SearchResponse(0, 5, List.of());
+        when(jobDescriptionRepository.findByIdAndTenantId(jdId, TenantConstants.DEFAULT_TENANT_ID))
+                .thenReturn(Optional.of(jd));
+        when(dataScopeService.canAccess(jd)).thenReturn(true);
+        when(persistedMatchScoreService.resolveJobDescriptionEmbedding(jd)).thenReturn(stored);
+        when(embeddingService.getDimension()).thenReturn(2);
+        when(semanticSearchService.search(any(SearchController.SearchRequest.class), eq(stored))).thenReturn(expected);
+
+        Optional<SearchController.SearchResponse> response = service.search(
+                jdId,
+                new SearchController.JobDescriptionSearchRequest(5, false, true, null, null, true));
+
+        assertThat(response).containsSame(expected);
+        verify(semanticSearchService).search(argThat(request ->
+                "Java backend role".equals(request.jobDescription())
+                        && request.topK() == 5
+                        && request.filterBySkill()
+                        && request.onlyVectorReadyCandidates()), eq(stored));
+        verifyNoInteractions(queryEmbeddingCache);
+        verify(embeddingService, never()).embedQuery(any());
+    }
+
+    @Test
+    @DisplayName("should fall back to the query embedding cache when the stored vector has a stale dimension")
+    void shouldFallbackWhenStoredEmbeddingDimensionIsStale() {
+        JobDescription jd = new JobDescription(TenantConstants.DEFAULT_TENANT_ID, "Backend", "Java backend role");
+        UUID jdId = UUID.randomUUID();
+        float[] fresh = new float[] {0.1f, 0.2f, 0.3f};
+        when(jobDescriptionRepository.findByIdAndTenantId(jdId, TenantConstants.DEFAULT_TENANT_ID))
+                .thenReturn(Optional.of(jd));
+        when(dataScopeService.canAccess(jd)).thenReturn(true);
+        when(persistedMatchScoreService.resolveJobDescriptionEmbedding(jd)).thenReturn(new float[] {0.3f, 0.4f});
+        when(embeddingService.getDimension()).thenReturn(3);
+        when(queryEmbeddingCache.get("Java backend role")).thenReturn(fresh);
+
+        service.search(jdId, null);
+
+        verify(semanticSearchService).search(argThat(request -> request.topK() == 10), eq(fresh));
+    }
+
+    @Test
+    @DisplayName("should return empty for a JD outside the caller's data scope")
+    void shouldReturnEmptyForInvisibleJobDescription() {
+        JobDescription jd = new JobDescription(TenantConstants.DEFAULT_TENANT_ID, "Backend", "Java backend role");
+        UUID jdId = UUID.randomUUID();
+        when(jobDescriptionRepository.findByIdAndTenantId(jdId, TenantConstants.DEFAULT_TENANT_ID))
+                .thenReturn(Optional.of(jd));
+        when(dataScopeService.canAccess(jd)).thenReturn(false);
+
+        assertThat(service.search(jdId, null)).isEmpty();
+        verifyNoInteractions(persistedMatchScoreService, semanticSearchService);
+    }
+}
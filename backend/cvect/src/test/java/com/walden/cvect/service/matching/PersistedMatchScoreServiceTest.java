@@ -7,9 +7,10 @@ import com.walden.cvect.model.entity.Candidate;
 import com.walden.cvect.model.entity.CandidateMatchScore;
 import com.walden.cvect.model.entity.JobDescription;
 import com.walden.cvect.repository.CandidateJpaRepository;
+import com.walden.cvect.repository.CandidateMatchScoreBulkRepository;
 import com.walden.cvect.repository.CandidateMatchScoreJpaRepository;
 import com.walden.cvect.repository.JobDescriptionJpaRepository;
-import com.walden.cvect.service.matching.PersistedMatchScoreService;
+import com.walden.cvect.service.matching.queue.MatchScoreRefreshQueueService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -25,14 +26,17 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.mock;
 
@@ -43,6 +47,8 @@ class PersistedMatchScoreServiceTest {
     @Mock
     private CandidateMatchScoreJpaRepository candidateMatchScoreRepository;
     @Mock
+    private CandidateMatchScoreBulkRepository candidateMatchScoreBulkRepository;
+    @Mock
     private CandidateJpaRepository candidateRepository;
     @Mock
     private JobDescriptionJpaRepository jobDescriptionRepository;
@@ -52,6 +58,8 @@ class PersistedMatchScoreServiceTest {
     private VectorStoreService vectorStoreService;
     @Mock
     private PlatformTransactionManager transactionManager;
+    @Mock
+    private MatchScoreRefreshQueueService refreshQueueService;
 
     @Test
     @DisplayName("markJobDescriptionDirty should clear persisted JD embedding and scores")
@@ -65,11 +73,13 @@ class PersistedMatchScoreServiceTest {
 
         PersistedMatchScoreService service = new PersistedMatchScoreService(
                 candidateMatchScoreRepository,
+                candidateMatchScoreBulkRepository,
                 candidateRepository,
                 jobDescriptionRepository,
                 embeddingService,
                 vectorStoreService,
                 transactionManager,
+                refreshQueueService,
                 true);
 
         service.markJobDescriptionDirty(jdId);
@@ -99,30 +109,34 @@ class PersistedMatchScoreServiceTest {
         when(jobDescriptionRepository.findById(jdId2)).thenReturn(Optional.of(jd2));
         when(embeddingService.embedQuery("Spring Boot")).thenReturn(jdEmbedding1);
         when(embeddingService.embedQuery("Vue TypeScript")).thenReturn(jdEmbedding2);
-        when(vectorStoreService.scoreCandidates(jdEmbedding1, List.of(candidateId))).thenReturn(Map.of(
-                candidateId,
-                new VectorStoreService.CandidateScoreBreakdown(0.8f, 0.4f)));
-        when(vectorStoreService.scoreCandidates(jdEmbedding2, List.of(candidateId))).thenReturn(Map.of(
+        when(vectorStoreService.scoreCandidateAgainstQueries(
                 candidateId,
-                new VectorStoreService.CandidateScoreBreakdown(0.2f, 0.9f)));
+                Map.of(jdId1, jdEmbedding1, jdId2, jdEmbedding2))).thenReturn(Map.of(
+                jdId1, new VectorStoreService.CandidateScoreBreakdown(0.8f, 0.4f),
+                jdId2, new VectorStoreService.CandidateScoreBreakdown(0.2f, 0.9f)));
 
         PersistedMatchScoreService service = new PersistedMatchScoreService(
                 candidateMatchScoreRepository,
+                candidateMatchScoreBulkRepository,
                 candidateRepository,
                 jobDescriptionRepository,
                 embeddingService,
                 vectorStoreService,
                 transactionManager,
+                refreshQueueService,
                 true);
 
         service.refreshForCandidate(candidateId);
 
-        verify(candidateMatchScoreRepository).deleteByCandidateId(candidateId);
+        verify(candidateMatchScoreRepository, never()).deleteByCandidateId(candidateId);
+        verify(candidateMatchScoreRepository).deleteByCandidateIdAndJobDescriptionIdNotIn(
+                candidateId,
+                Set.of(jdId1, jdId2));
         verify(jobDescriptionRepository, times(2)).save(any(JobDescription.class));
 
-        ArgumentCaptor<Iterable<CandidateMatchScore>> savedScores = ArgumentCaptor.forClass(Iterable.class);
-        verify(candidateMatchScoreRepository).saveAll(savedScores.capture());
-        List<CandidateMatchScore> persisted = toList(savedScores.getValue());
+        ArgumentCaptor<List<CandidateMatchScore>> savedScores = ArgumentCaptor.forClass(List.class);
+        verify(candidateMatchScoreBulkRepository).upsertAll(savedScores.capture());
+        List<CandidateMatchScore> persisted = savedScores.getValue();
         assertEquals(2, persisted.size());
 
         CandidateMatchScore javaScore = persisted.stream()
@@ -147,6 +161,144 @@ class PersistedMatchScoreServiceTest {
         assertNotNull(frontendScore.getScoredAt());
     }
 
+    @Test
+    @DisplayName("refreshForCandidate should score all JDs in one call and drop scores for JDs without an embedding")
+    void refreshForCandidateShouldScoreAllJobDescriptionsInOneCall() throws Exception {
+        stubNoOpTransactions();
+        UUID candidateId = UUID.randomUUID();
+        UUID jdId = UUID.randomUUID();
+        Candidate candidate = mock(Candidate.class);
+        JobDescription jd = jobDescription(jdId, "Java Engineer", "Spring Boot");
+        JobDescription blankJd = jobDescription(UUID.randomUUID(), "Draft", " ");
+        float[] jdEmbedding = new float[] {0.1f, 0.2f};
+        jd.setEmbedding(jdEmbedding);
+        when(candidateRepository.findById(candidateId)).thenReturn(Optional.of(candidate));
+        when(candidate.getTenantId()).thenReturn(TenantConstants.DEFAULT_TENANT_ID);
+        when(jobDescriptionRepository.findByTenantId(TenantConstants.DEFAULT_TENANT_ID)).thenReturn(List.of(jd, blankJd));
+        when(vectorStoreService.scoreCandidateAgainstQueries(candidateId, Map.of(jdId, jdEmbedding)))
+                .thenReturn(Map.of(jdId, new VectorStoreService.CandidateScoreBreakdown(0.7f, 0.5f)));
+
+        PersistedMatchScoreService service = new PersistedMatchScoreService(
+                candidateMatchScoreRepository,
+                candidateMatchScoreBulkRepository,
+                candidateRepository,
+                jobDescriptionRepository,
+                embeddingService,
+                vectorStoreService,
+                transactionManager,
+                refreshQueueService,
+                true);
+
+        service.refreshForCandidate(candidateId);
+
+        verify(vectorStoreService, never()).scoreCandidates(any(), any());
+        verify(candidateMatchScoreRepository, never()).saveAll(any());
+        verify(candidateMatchScoreRepository).deleteByCandidateIdAndJobDescriptionIdNotIn(candidateId, Set.of(jdId));
+        ArgumentCaptor<List<CandidateMatchScore>> savedScores = ArgumentCaptor.forClass(List.class);
+        verify(candidateMatchScoreBulkRepository).upsertAll(savedScores.capture());
+        CandidateMatchScore persisted = savedScores.getValue().get(0);
+        assertEquals(jdId, persisted.getJobDescriptionId());
+        assertEquals(0.6f, persisted.getOverallScore(), 0.0001f);
+        assertEquals(0.7f, persisted.getExperienceScore(), 0.0001f);
+    }
+
+    @Test
+    @DisplayName("scheduleRefreshForCandidates should enqueue a candidate-level refresh on the durable queue")
+    void scheduleRefreshForCandidatesShouldEnqueueOnDurableQueue() {
+        UUID jdId = UUID.randomUUID();
+        UUID candidateId = UUID.randomUUID();
+        PersistedMatchScoreService service = newService(true);
+
+        service.scheduleRefreshForCandidates(jdId, Set.of(candidateId));
+        service.scheduleRefreshForJobDescription(jdId);
+
+        verify(refreshQueueService).requestCandidateRefresh(jdId, Set.of(candidateId));
+        verify(refreshQueueService).requestFullRefresh(jdId);
+    }
+
+    @Test
+    @DisplayName("refreshForJobDescriptionCandidates should rescore only the given candidates and drop scores for unscored ones")
+    void refreshForJobDescriptionCandidatesShouldRescoreOnlyGivenCandidates() throws Exception {
+        stubNoOpTransactions();
+        UUID jdId = UUID.randomUUID();
+        UUID scoredId = UUID.randomUUID();
+        UUID removedId = UUID.randomUUID();
+        JobDescription jd = jobDescription(jdId, "Java Engineer", "Spring Boot");
+        float[] jdEmbedding = new float[] {0.1f, 0.2f};
+        jd.setEmbedding(jdEmbedding);
+        List<UUID> candidateIds = List.of(scoredId, removedId);
+        when(jobDescriptionRepository.findById(jdId)).thenReturn(Optional.of(jd));
+        when(vectorStoreService.scoreCandidates(jdEmbedding, candidateIds))
+                .thenReturn(Map.of(scoredId, new VectorStoreService.CandidateScoreBreakdown(0.4f, 0.8f)));
+        PersistedMatchScoreService service = newService(true);
+
+        service.refreshForJobDescriptionCandidates(jdId, candidateIds);
+
+        ArgumentCaptor<List<CandidateMatchScore>> savedScores = ArgumentCaptor.forClass(List.class);
+        verify(candidateMatchScoreBulkRepository).upsertAll(savedScores.capture());
+        assertEquals(1, savedScores.getValue().size());
+        assertEquals(scoredId, savedScores.getValue().get(0).getCandidateId());
+        verify(candidateMatchScoreBulkRepository).deleteByJobDescriptionIdAndCandidateIds(jdId, Set.of(removedId));
+        verify(candidateMatchScoreRepository, never()).deleteByJobDescriptionId(jdId);
+    }
+
+    @Test
+    @DisplayName("refreshForJobDescription should upsert scores and drop only candidates that lost their score")
+    void refreshForJobDescriptionShouldUpsertInsteadOfDeleteAndReinsert() throws Exception {
+        stubNoOpTransactions();
+        UUID jdId = UUID.randomUUID();
+        UUID candidateId = UUID.randomUUID();
+        JobDescription jd = jobDescription(jdId, "Java Engineer", "Spring Boot");
+        float[] jdEmbedding = new float[] {0.1f, 0.2f};
+        jd.setEmbedding(jdEmbedding);
+        when(jobDescriptionRepository.findById(jdId)).thenReturn(Optional.of(jd));
+        when(vectorStoreService.isCandidateSummaryAvailable()).thenReturn(true);
+        when(vectorStoreService.scoreCandidateSummaries(jdEmbedding, TenantConstants.DEFAULT_TENANT_ID, null))
+                .thenReturn(Map.of(candidateId, new VectorStoreService.CandidateScoreBreakdown(0.6f, 0.2f)));
+        PersistedMatchScoreService service = newService(true);
+
+        service.refreshForJobDescription(jdId);
+
+        ArgumentCaptor<List<CandidateMatchScore>> savedScores = ArgumentCaptor.forClass(List.class);
+        verify(candidateMatchScoreBulkRepository).upsertAll(savedScores.capture());
+        assertEquals(candidateId, savedScores.getValue().get(0).getCandidateId());
+        assertEquals(0.4f, savedScores.getValue().get(0).getOverallScore(), 0.0001f);
+        verify(candidateMatchScoreBulkRepository).deleteByJobDescriptionIdExcept(jdId, Set.of(candidateId));
+        verify(candidateMatchScoreRepository, never()).deleteByJobDescriptionId(jdId);
+        verify(candidateMatchScoreRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("scheduleRefreshForNewCandidate should queue the candidate for every JD in the tenant")
+    void scheduleRefreshForNewCandidateShouldQueueEveryJobDescription() throws Exception {
+        UUID tenantId = UUID.randomUUID();
+        UUID candidateId = UUID.randomUUID();
+        UUID jdId1 = UUID.randomUUID();
+        UUID jdId2 = UUID.randomUUID();
+        when(jobDescriptionRepository.findByTenantId(tenantId)).thenReturn(List.of(
+                jobDescription(jdId1, "Backend Engineer", "Java Spring"),
+                jobDescription(jdId2, "Frontend Engineer", "Vue TypeScript")));
+
+        newService(true).scheduleRefreshForNewCandidate(tenantId, candidateId);
+
+        verify(refreshQueueService).requestCandidateRefresh(jdId1, List.of(candidateId));
+        verify(refreshQueueService).requestCandidateRefresh(jdId2, List.of(candidateId));
+        verifyNoInteractions(vectorStoreService, embeddingService);
+    }
+
+    private PersistedMatchScoreService newService(boolean enabled) {
+        return new PersistedMatchScoreService(
+                candidateMatchScoreRepository,
+                candidateMatchScoreBulkRepository,
+                candidateRepository,
+                jobDescriptionRepository,
+                embeddingService,
+                vectorStoreService,
+                transactionManager,
+                refreshQueueService,
+                enabled);
+    }
+
     private void stubNoOpTransactions() {
         TransactionStatus txStatus = new SimpleTransactionStatus();
         when(transactionManager.getTransaction(any())).thenReturn(txStatus);
@@ -159,11 +311,4 @@ class PersistedMatchScoreServiceTest {
         idField.set(jd, id);
         return jd;
     }
-
-    private static List<CandidateMatchScore> toList(Iterable<CandidateMatchScore> scores) {
-        if (scores instanceof List<CandidateMatchScore> list) {
-            return list;
-        }
-        return java.util.stream.StreamSupport.stream(scores.spliterator(), false).toList();
-    }
 }
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 @DisplayName("SearchCacheKeys unit tests")
 class SearchCacheKeysTest {
@@ -34,4 +35,16 @@ class SearchCacheKeysTest {
 
         assertEquals(canonicalKey, alternativeKey);
     }
+
+    @Test
+    @DisplayName("searchRequest should change with the tenant data version")
+    void shouldIncludeDataVersion() {
+        SearchController.SearchRequest request = new SearchController.SearchRequest("Java backend role", 10, true, false);
+
+        String before = SearchCacheKeys.searchRequest(request, "tenant:t1", 3L);
+        String after = SearchCacheKeys.searchRequest(request, "tenant:t1", 4L);
+
+        assertNotEquals(before, after);
+        assertEquals(before, SearchCacheKeys.searchRequest(request, "tenant:t1", 3L));
+    }
 }
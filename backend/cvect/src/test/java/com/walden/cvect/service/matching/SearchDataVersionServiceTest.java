@@ -0,0 +1,123 @@
+package com.walden.cvect.service.matching;
+
+import com.walden.cvect.repository.CandidateJpaRepository;
+import com.walden.cvect.repository.SearchDataVersionRepository;
+import com.walden.cvect.security.CurrentUserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SearchDataVersionService unit tests")
+class SearchDataVersionServiceTest {
+
+    @Mock
+    private SearchDataVersionRepository versionRepository;
+    @Mock
+    private CandidateJpaRepository candidateRepository;
+    @Mock
+    private CurrentUserService currentUserService;
+
+    private SearchDataVersionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SearchDataVersionService(versionRepository, candidateRepository, currentUserService, 0L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("currentVersion should read the version of the caller's tenant")
+    void currentVersionShouldReadCallerTenant() {
+        UUID tenantId = UUID.randomUUID();
+        when(currentUserService.currentTenantId()).thenReturn(tenantId);
+        when(versionRepository.findVersion(tenantId)).thenReturn(7L);
+
+        assertEquals(7L, service.currentVersion());
+    }
+
+    @Test
+    @DisplayName("currentVersion should reuse the in-process version until a local bump")
+    void currentVersionShouldBeCachedUntilLocalBump() {
+        UUID tenantId = UUID.randomUUID();
+        SearchDataVersionService cachingService = new SearchDataVersionService(
+                versionRepository, candidateRepository, currentUserService, 60_000L);
+        when(currentUserService.currentTenantId()).thenReturn(tenantId);
+        when(versionRepository.findVersion(tenantId)).thenReturn(7L, 8L);
+
+        assertEquals(7L, cachingService.currentVersion());
+        assertEquals(7L, cachingService.currentVersion());
+        verify(versionRepository, times(1)).findVersion(tenantId);
+
+        cachingService.bumpTenant(tenantId);
+
+        assertEquals(8L, cachingService.currentVersion());
+        verify(versionRepository, times(2)).findVersion(tenantId);
+    }
+
+    @Test
+    @DisplayName("bumpForCandidates should resolve tenants once and bump each tenant")
+    void bumpForCandidatesShouldBumpOwningTenants() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID tenantA = UUID.randomUUID();
+        UUID tenantB = UUID.randomUUID();
+        when(candidateRepository.findTenantIdsByIdIn(List.of(first, second))).thenReturn(List.of(tenantA, tenantB));
+        doThrow(new IllegalStateException("db down")).when(versionRepository).increment(tenantA);
+
+        service.bumpForCandidates(Arrays.asList(first, null, second, first));
+
+        verify(versionRepository).increment(tenantA);
+        verify(versionRepository).increment(tenantB);
+    }
+
+    @Test
+    @DisplayName("bumps inside a transaction should run only after commit")
+    void bumpShouldWaitForCommit() {
+        UUID tenantId = UUID.randomUUID();
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.bumpTenant(tenantId);
+        verify(versionRepository, never()).increment(any());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+        synchronizations.get(0).afterCommit();
+        verify(versionRepository).increment(tenantId);
+    }
+
+    @Test
+    @DisplayName("empty inputs should not touch the database")
+    void emptyInputsShouldSkipDatabase() {
+        service.bumpTenant(null);
+        service.bumpForCandidate(null);
+        service.bumpForCandidates(List.of());
+
+        verifyNoInteractions(versionRepository, candidateRepository);
+    }
+}
@@ -1,14 +1,18 @@
 package com.walden.cvect.service.matching;
 
 import com.walden.cvect.config.CacheConfig;
+import com.walden.cvect.infra.embedding.EmbeddingConfig;
 import com.walden.cvect.infra.embedding.EmbeddingService;
+import com.walden.cvect.repository.SearchQueryEmbeddingRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -16,9 +20,18 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -90,6 +103,70 @@ class SearchQueryEmbeddingCacheServiceTest {
         verify(embeddingService, times(2)).embedQuery("");
     }
 
+    @Test
+    @DisplayName("shouldServeL1MissFromPersistentStoreWithoutCallingModel")
+    void shouldServeL1MissFromPersistentStoreWithoutCallingModel() {
+        SearchQueryEmbeddingRepository store = mock(SearchQueryEmbeddingRepository.class);
+        float[] stored = new float[] {0.1f, 0.2f};
+        String key = SearchCacheKeys.queryEmbedding("Java backend role");
+        when(store.find("model", 2, key)).thenReturn(stored);
+        SearchQueryEmbeddingCacheService direct = directService(store, null);
+
+        assertThat(direct.get("  Java   backend role ")).isSameAs(stored);
+
+        verify(store).touch("model", 2, key);
+        verify(embeddingService, never()).embedQuery(anyString());
+    }
+
+    @Test
+    @DisplayName("shouldWriteModelResultToPersistentStoreOnMiss")
+    void shouldWriteModelResultToPersistentStoreOnMiss() {
+        SearchQueryEmbeddingRepository store = mock(SearchQueryEmbeddingRepository.class);
+        float[] embedding = new float[] {0.3f, 0.4f};
+        when(embeddingService.embedQuery("Java backend role")).thenReturn(embedding);
+        SearchQueryEmbeddingCacheService direct = directService(store, null);
+
+        assertThat(direct.get("Java backend role")).isSameAs(embedding);
+
+        verify(store).upsert("model", 2, SearchCacheKeys.queryEmbedding("Java backend role"), embedding);
+    }
+
+    @Test
+    @DisplayName("shouldFallbackToModelWhenPersistentStoreFails")
+    void shouldFallbackToModelWhenPersistentStoreFails() {
+        SearchQueryEmbeddingRepository store = mock(SearchQueryEmbeddingRepository.class);
+        float[] embedding = new float[] {0.3f, 0.4f};
+        when(store.find(anyString(), anyInt(), anyString())).thenThrow(new IllegalStateException("db down"));
+        when(embeddingService.embedQuery("Java backend role")).thenReturn(embedding);
+
+        assertThat(directService(store, null).get("Java backend role")).isSameAs(embedding);
+    }
+
+    @Test
+    @DisplayName("shouldWarmUpFrontCacheWithRecentEntriesOfExpectedDimension")
+    void shouldWarmUpFrontCacheWithRecentEntriesOfExpectedDimension() {
+        SearchQueryEmbeddingRepository store = mock(SearchQueryEmbeddingRepository.class);
+        Cache frontCache = new ConcurrentMapCache(CacheConfig.SEARCH_QUERY_EMBEDDING_CACHE);
+        Map<String, float[]> recent = new LinkedHashMap<>();
+        recent.put("jd:a", new float[] {0.1f, 0.2f});
+        recent.put("jd:b", new float[] {0.1f, 0.2f, 0.3f});
+        when(store.findRecent("model", 2, 16)).thenReturn(recent);
+
+        directService(store, frontCache).warmUp();
+
+        verify(store).deleteUnusedBefore(any(LocalDateTime.class));
+        assertThat(frontCache.get("jd:a", float[].class)).containsExactly(0.1f, 0.2f);
+        assertThat(frontCache.get("jd:b")).isNull();
+    }
+
+    private SearchQueryEmbeddingCacheService directService(SearchQueryEmbeddingRepository store, Cache frontCache) {
+        EmbeddingConfig config = new EmbeddingConfig();
+        config.setModelName("model");
+        config.setDimension(2);
+        return new SearchQueryEmbeddingCacheService(
+                embeddingService, config, frontCache, store, null, 16, Duration.ofDays(30));
+    }
+
     @Configuration
     @EnableCaching
     static class TestConfig {
@@ -0,0 +1,82 @@
+package com.walden.cvect.service.matching;
+
+import com.walden.cvect.infra.vector.VectorStoreService;
+import com.walden.cvect.model.ChunkType;
+import com.walden.cvect.web.controller.search.SearchController;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@DisplayName("SearchRankFusion unit tests")
+class SearchRankFusionTest {
+
+    @Test
+    @DisplayName("fuse should rank a vector candidate with a lexical hit above one without")
+    void shouldPromoteVectorCandidatesWithLexicalHits() {
+        UUID denseOnly = UUID.randomUUID();
+        UUID both = UUID.randomUUID();
+        SearchController.CandidateMatch denseOnlyMatch = denseMatch(denseOnly, "distributed systems", 0.9f);
+        SearchController.CandidateMatch bothMatch = denseMatch(both, "container platform", 0.8f);
+        List<VectorStoreService.LexicalMatch> lexical = List.of(
+                lexicalMatch(both, "Kubernetes operator", 0.3f),
+                lexicalMatch(both, "Helm charts", 0.2f));
+
+        List<SearchController.CandidateMatch> fused = SearchRankFusion.fuse(
+                List.of(denseOnlyMatch, bothMatch), lexical, 10);
+
+        assertEquals(List.of(both, denseOnly),
+                fused.stream().map(SearchController.CandidateMatch::candidateId).toList());
+        assertSame(bothMatch, fused.get(0));
+        assertEquals(0.8f, fused.get(0).score(), 0.0001f);
+        assertEquals(1, fused.get(0).matchedChunks().size());
+    }
+
+    @Test
+    @DisplayName("fuse should drop lexical-only candidates and keep topK")
+    void shouldDropLexicalOnlyCandidatesAndLimitTopK() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID lexicalOnly = UUID.randomUUID();
+        List<SearchController.CandidateMatch> dense = List.of(
+                denseMatch(first, "Kubernetes operator", 0.9f),
+                denseMatch(second, "Go services", 0.7f));
+        List<VectorStoreService.LexicalMatch> lexical = List.of(
+                lexicalMatch(lexicalOnly, "Kubernetes", 0.9f),
+                lexicalMatch(second, "Go Kubernetes", 0.5f));
+
+        assertEquals(List.of(second, first), SearchRankFusion.fuse(dense, lexical, 10).stream()
+                .map(SearchController.CandidateMatch::candidateId)
+                .toList());
+        assertEquals(List.of(second), SearchRankFusion.fuse(dense, lexical, 1).stream()
+                .map(SearchController.CandidateMatch::candidateId)
+                .toList());
+    }
+
+    @Test
+    @DisplayName("fuse should keep vector order when there are no lexical hits")
+    void shouldKeepVectorOrderWithoutLexicalHits() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        List<SearchController.CandidateMatch> dense = List.of(
+                denseMatch(first, "Java", 0.9f),
+                denseMatch(second, "Spring", 0.7f));
+
+        assertEquals(dense, SearchRankFusion.fuse(dense, List.of(), 10));
+    }
+
+    private static SearchController.CandidateMatch denseMatch(UUID candidateId, String content, float score) {
+        return new SearchController.CandidateMatch(
+                candidateId,
+                List.of(new SearchController.MatchedChunk(ChunkType.SKILL.name(), content, score)),
+                score);
+    }
+
+    private static VectorStoreService.LexicalMatch lexicalMatch(UUID candidateId, String content, float rank) {
+        return new VectorStoreService.LexicalMatch(UUID.randomUUID(), candidateId, ChunkType.SKILL, content, rank);
+    }
+}
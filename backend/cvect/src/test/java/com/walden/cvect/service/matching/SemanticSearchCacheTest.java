@@ -79,9 +79,12 @@ class SemanticSearchCacheTest {
     @Autowired
     private SearchQueryEmbeddingCacheService searchQueryEmbeddingCacheService;
 
+    @Autowired
+    private SearchDataVersionService searchDataVersionService;
+
     @BeforeEach
     void setUp() {
-        reset(embeddingService, vectorStoreService, candidateRepository, currentUserService);
+        reset(embeddingService, vectorStoreService, candidateRepository, currentUserService, searchDataVersionService);
         cacheManager.getCacheNames().forEach(name -> {
             if (cacheManager.getCache(name) != null) {
                 cacheManager.getCache(name).clear();
@@ -198,6 +201,28 @@ class SemanticSearchCacheTest {
                 .value(), 0.0001d);
     }
 
+    @Test
+    @DisplayName("bumping the tenant data version should bypass the cached response")
+    void shouldRecomputeAfterDataVersionBump() {
+        SearchController.SearchRequest request = new SearchController.SearchRequest(
+                "same jd",
+                10,
+                true,
+                true,
+                0.5f,
+                0.5f,
+                false);
+        when(searchDataVersionService.currentVersion()).thenReturn(1L);
+
+        searchController.search(request);
+        searchController.search(request);
+        when(searchDataVersionService.currentVersion()).thenReturn(2L);
+        searchController.search(request);
+
+        verify(embeddingService, times(1)).embedQuery("same jd");
+        verify(vectorStoreService, times(2)).searchVisible(any(float[].class), eq(40), any(), eq(0.35f), any(ChunkType[].class));
+    }
+
     private double timerCount(String name) {
         var timer = meterRegistry.find(name).tag("outcome", "success").timer();
         return timer == null ? 0.0d : timer.count();
@@ -272,6 +297,11 @@ class SemanticSearchCacheTest {
             return dataScopeService;
         }
 
+        @Bean
+        SearchDataVersionService searchDataVersionService() {
+            return mock(SearchDataVersionService.class);
+        }
+
         @Bean
         SearchQueryEmbeddingCacheService searchQueryEmbeddingCacheService(EmbeddingService embeddingService) {
             return new SearchQueryEmbeddingCacheService(embeddingService);
@@ -305,7 +335,7 @@ class SemanticSearchCacheTest {
         SearchController searchController(
                 VectorStoreService vectorStoreService,
                 SemanticSearchService semanticSearchService) {
-            return new SearchController(vectorStoreService, semanticSearchService);
+            return new SearchController(vectorStoreService, semanticSearchService, mock(JobDescriptionSearchService.class));
         }
     }
 }
@@ -17,11 +17,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyFloat;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
@@ -283,4 +287,217 @@ class SemanticSearchExecutionServiceTest {
                 .extracting(SearchController.CandidateMatch::candidateId)
                 .isEqualTo(highScoreCandidateId);
     }
+
+    @Test
+    @DisplayName("shouldDelegateAggregationAndReadinessFilterToVectorStoreInSqlMode")
+    void shouldDelegateAggregationAndReadinessFilterToVectorStoreInSqlMode() {
+        SemanticSearchExecutionService sqlService = new SemanticSearchExecutionService(
+                vectorStore,
+                queryEmbeddingCache,
+                vectorIngestTaskRepository,
+                candidateRepository,
+                currentUserService,
+                dataScopeService,
+                true,
+                false,
+                Runnable::run);
+        UUID candidateId = UUID.randomUUID();
+        float[] embedding = new float[] {0.1f, 0.2f};
+        when(currentUserService.currentTenantId()).thenReturn(TenantConstants.DEFAULT_TENANT_ID);
+        when(dataScopeService.hasTenantWideScope()).thenReturn(true);
+        when(vectorStore.searchVisibleCandidates(
+                eq(embedding),
+                eq(28),
+                eq(new VectorStoreService.SearchScope(TenantConstants.DEFAULT_TENANT_ID, null)),
+                eq(0.35f),
+                any(VectorStoreService.CandidateAggregation.class),
+                any(ChunkType[].class)))
+                .thenReturn(List.of(new VectorStoreService.CandidateSearchResult(
+                        candidateId,
+                        0.81f,
+                        List.of(new VectorStoreService.SearchResult(
+                                UUID.randomUUID(),
+                                candidateId,
+                                ChunkType.SKILL,
+                                "Spring Boot, PostgreSQL",
+                                0.19f)))));
+
+        SearchController.SearchResponse response = sqlService.search(new SearchController.SearchRequest(
+                "Java backend role",
+                7,
+                true,
+                true,
+                null,
+                null,
+                true), embedding);
+
+        assertThat(response.totalResults()).isEqualTo(1);
+        assertThat(response.candidates()).singleElement().satisfies(candidateMatch -> {
+            assertThat(candidateMatch.candidateId()).isEqualTo(candidateId);
+            assertThat(candidateMatch.score()).isEqualTo(0.81f);
+            assertThat(candidateMatch.matchedChunks()).singleElement().satisfies(chunk -> {
+                assertThat(chunk.chunkType()).isEqualTo("SKILL");
+                assertThat(chunk.content()).isEqualTo("Spring Boot, PostgreSQL");
+                assertThat(chunk.score()).isEqualTo(0.81f);
+            });
+        });
+        ArgumentCaptor<VectorStoreService.CandidateAggregation> aggregationCaptor =
+                ArgumentCaptor.forClass(VectorStoreService.CandidateAggregation.class);
+        verify(vectorStore).searchVisibleCandidates(
+                eq(embedding),
+                eq(28),
+                any(),
+                eq(0.35f),
+                aggregationCaptor.capture(),
+                any(ChunkType[].class));
+        assertThat(aggregationCaptor.getValue().candidateTopK()).isEqualTo(7);
+        assertThat(aggregationCaptor.getValue().onlyVectorReadyCandidates()).isTrue();
+        verify(vectorStore, never()).searchVisible(any(float[].class), anyInt(), any(), anyFloat(), any(ChunkType[].class));
+        verifyNoInteractions(vectorIngestTaskRepository, queryEmbeddingCache);
+    }
+
+    @Test
+    @DisplayName("shouldRerankVectorCandidatesByLexicalHitsInHybridMode")
+    void shouldRerankVectorCandidatesByLexicalHitsInHybridMode() {
+        SemanticSearchExecutionService hybridService = hybridService();
+        UUID vectorCandidate = UUID.randomUUID();
+        UUID sharedCandidate = UUID.randomUUID();
+        float[] embedding = new float[] {0.1f, 0.2f};
+        VectorStoreService.SearchScope scope = new VectorStoreService.SearchScope(TenantConstants.DEFAULT_TENANT_ID, null);
+        when(currentUserService.currentTenantId()).thenReturn(TenantConstants.DEFAULT_TENANT_ID);
+        when(dataScopeService.hasTenantWideScope()).thenReturn(true);
+        when(vectorStore.isLexicalSearchAvailable()).thenReturn(true);
+        when(vectorStore.searchVisibleCandidates(
+                eq(embedding), eq(20), eq(scope), eq(0.35f), any(VectorStoreService.CandidateAggregation.class),
+                org.mockito.ArgumentMatchers.<ChunkType[]>isNull()))
+                .thenReturn(List.of(
+                        candidateResult(vectorCandidate, 0.9f, "distributed systems"),
+                        candidateResult(sharedCandidate, 0.8f, "container platform")));
+        when(vectorStore.searchVisibleLexical(
+                eq("Kubernetes engineer"), eq(20), eq(scope), eq(false), org.mockito.ArgumentMatchers.<ChunkType[]>isNull()))
+                .thenReturn(List.of(new VectorStoreService.LexicalMatch(
+                        UUID.randomUUID(), sharedCandidate, ChunkType.SKILL, "Kubernetes operator", 0.5f)));
+
+        SearchController.SearchResponse response = hybridService.search(new SearchController.SearchRequest(
+                "Kubernetes engineer",
+                5,
+                false,
+                false,
+                null,
+                null,
+                false), embedding);
+
+        assertThat(response.candidates())
+                .extracting(SearchController.CandidateMatch::candidateId)
+                .containsExactly(sharedCandidate, vectorCandidate);
+        assertThat(response.candidates().get(0).score()).isEqualTo(0.8f);
+        assertThat(response.candidates().get(0).matchedChunks())
+                .extracting(SearchController.MatchedChunk::content)
+                .containsExactly("container platform");
+        ArgumentCaptor<VectorStoreService.CandidateAggregation> aggregationCaptor =
+                ArgumentCaptor.forClass(VectorStoreService.CandidateAggregation.class);
+        verify(vectorStore).searchVisibleCandidates(
+                any(float[].class), anyInt(), any(), anyFloat(), aggregationCaptor.capture(),
+                org.mockito.ArgumentMatchers.<ChunkType[]>isNull());
+        assertThat(aggregationCaptor.getValue().candidateTopK()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("shouldRecallLexicalOnlyCandidatesScoredByVectorSimilarity")
+    void shouldRecallLexicalOnlyCandidatesScoredByVectorSimilarity() {
+        SemanticSearchExecutionService hybridService = hybridService();
+        UUID vectorCandidate = UUID.randomUUID();
+        UUID lexicalCandidate = UUID.randomUUID();
+        UUID weakLexicalCandidate = UUID.randomUUID();
+        float[] embedding = new float[] {0.1f, 0.2f};
+        when(currentUserService.currentTenantId()).thenReturn(TenantConstants.DEFAULT_TENANT_ID);
+        when(dataScopeService.hasTenantWideScope()).thenReturn(true);
+        when(vectorStore.isLexicalSearchAvailable()).thenReturn(true);
+        when(vectorStore.searchVisibleCandidates(
+                any(float[].class), anyInt(), any(), anyFloat(), any(VectorStoreService.CandidateAggregation.class),
+                org.mockito.ArgumentMatchers.<ChunkType[]>isNull()))
+                .thenReturn(List.of(candidateResult(vectorCandidate, 0.7f, "distributed systems")));
+        when(vectorStore.searchVisibleLexical(
+                any(), anyInt(), any(), anyBoolean(), org.mockito.ArgumentMatchers.<ChunkType[]>isNull()))
+                .thenReturn(List.of(
+                        new VectorStoreService.LexicalMatch(
+                                UUID.randomUUID(), lexicalCandidate, ChunkType.SKILL, "Flink CDC", 0.6f),
+                        new VectorStoreService.LexicalMatch(
+                                UUID.randomUUID(), weakLexicalCandidate, ChunkType.SKILL, "Flink", 0.4f)));
+        when(vectorStore.scoreCandidates(eq(embedding), eq(Set.of(lexicalCandidate, weakLexicalCandidate))))
+                .thenReturn(Map.of(
+                        lexicalCandidate, new VectorStoreService.CandidateScoreBreakdown(0.6f, 0.8f),
+                        weakLexicalCandidate, new VectorStoreService.CandidateScoreBreakdown(0.2f, 0.3f)));
+
+        SearchController.SearchResponse response = hybridService.search(new SearchController.SearchRequest(
+                "Flink engineer",
+                5,
+                false,
+                false,
+                null,
+                null,
+                false), embedding);
+
+        assertThat(response.candidates())
+                .extracting(SearchController.CandidateMatch::candidateId)
+                .containsExactly(lexicalCandidate, vectorCandidate);
+        SearchController.CandidateMatch recalled = response.candidates().get(0);
+        assertThat(recalled.score()).isCloseTo(0.7f, within(0.0001f));
+        assertThat(recalled.matchedChunks()).singleElement()
+                .satisfies(chunk -> {
+                    assertThat(chunk.content()).isEqualTo("Flink CDC");
+                    assertThat(chunk.score()).isEqualTo(0.8f);
+                });
+    }
+
+    @Test
+    @DisplayName("shouldReturnVectorCandidatesWhenLexicalRetrievalFails")
+    void shouldReturnVectorCandidatesWhenLexicalRetrievalFails() {
+        SemanticSearchExecutionService hybridService = hybridService();
+        UUID candidateId = UUID.randomUUID();
+        float[] embedding = new float[] {0.1f, 0.2f};
+        when(currentUserService.currentTenantId()).thenReturn(TenantConstants.DEFAULT_TENANT_ID);
+        when(dataScopeService.hasTenantWideScope()).thenReturn(true);
+        when(vectorStore.isLexicalSearchAvailable()).thenReturn(true);
+        when(vectorStore.searchVisibleCandidates(
+                any(float[].class), anyInt(), any(), anyFloat(), any(VectorStoreService.CandidateAggregation.class),
+                any(ChunkType[].class)))
+                .thenReturn(List.of(candidateResult(candidateId, 0.9f, "distributed systems")));
+        when(vectorStore.searchVisibleLexical(any(), anyInt(), any(), anyBoolean(), any(ChunkType[].class)))
+                .thenThrow(new IllegalStateException("function cvect_lexical_terms does not exist"));
+
+        SearchController.SearchResponse response = hybridService.search(new SearchController.SearchRequest(
+                "Go engineer",
+                5,
+                false,
+                true,
+                null,
+                null,
+                false), embedding);
+
+        assertThat(response.candidates()).singleElement()
+                .extracting(SearchController.CandidateMatch::candidateId)
+                .isEqualTo(candidateId);
+    }
+
+    private SemanticSearchExecutionService hybridService() {
+        return new SemanticSearchExecutionService(
+                vectorStore,
+                queryEmbeddingCache,
+                vectorIngestTaskRepository,
+                candidateRepository,
+                currentUserService,
+                dataScopeService,
+                true,
+                true,
+                Runnable::run);
+    }
+
+    private static VectorStoreService.CandidateSearchResult candidateResult(UUID candidateId, float score, String content) {
+        return new VectorStoreService.CandidateSearchResult(
+                candidateId,
+                score,
+                List.of(new VectorStoreService.SearchResult(
+                        UUID.randomUUID(), candidateId, ChunkType.EXPERIENCE, content, 1.0f - score)));
+    }
 }
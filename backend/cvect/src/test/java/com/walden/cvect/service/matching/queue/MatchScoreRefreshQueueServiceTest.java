@@ -0,0 +1,133 @@
+package com.walden.cvect.service.matching.queue;
+
+import com.walden.cvect.model.entity.matching.MatchScoreDirtyCandidate;
+import com.walden.cvect.model.entity.matching.MatchScoreRefreshTask;
+import com.walden.cvect.model.entity.matching.MatchScoreRefreshTaskStatus;
+import com.walden.cvect.repository.MatchScoreDirtyCandidateJpaRepository;
+import com.walden.cvect.repository.MatchScoreRefreshTaskJpaRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MatchScoreRefreshQueueService unit tests")
+class MatchScoreRefreshQueueServiceTest {
+
+    @Mock
+    private MatchScoreRefreshTaskJpaRepository taskRepository;
+    @Mock
+    private MatchScoreDirtyCandidateJpaRepository dirtyCandidateRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("requestFullRefresh should merge into an existing task instead of inserting a new one")
+    void requestFullRefreshShouldMergeIntoExistingTask() {
+        stubNoOpTransactions();
+        UUID jdId = UUID.randomUUID();
+        when(taskRepository.mergeRequest(jdId, true, MatchScoreRefreshTaskStatus.PROCESSING)).thenReturn(1);
+
+        service().requestFullRefresh(jdId);
+
+        verify(taskRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("requestFullRefresh should insert a debounced task when the JD has none")
+    void requestFullRefreshShouldInsertDebouncedTask() {
+        stubNoOpTransactions();
+        UUID jdId = UUID.randomUUID();
+        when(taskRepository.mergeRequest(jdId, true, MatchScoreRefreshTaskStatus.PROCESSING)).thenReturn(0);
+        LocalDateTime before = LocalDateTime.now();
+
+        service().requestFullRefresh(jdId);
+
+        ArgumentCaptor<MatchScoreRefreshTask> taskCaptor = ArgumentCaptor.forClass(MatchScoreRefreshTask.class);
+        verify(taskRepository).saveAndFlush(taskCaptor.capture());
+        MatchScoreRefreshTask task = taskCaptor.getValue();
+        assertEquals(jdId, task.getJobDescriptionId());
+        assertTrue(task.isFullRefresh());
+        assertTrue(task.isNew());
+        assertEquals(MatchScoreRefreshTaskStatus.PENDING, task.getStatus());
+        assertFalse(task.getNotBefore().isBefore(before.plusSeconds(2)));
+    }
+
+    @Test
+    @DisplayName("requestFullRefresh should retry the merge when a concurrent request inserted the task first")
+    void requestFullRefreshShouldRetryMergeAfterConcurrentInsert() {
+        stubNoOpTransactions();
+        UUID jdId = UUID.randomUUID();
+        when(taskRepository.mergeRequest(jdId, true, MatchScoreRefreshTaskStatus.PROCESSING)).thenReturn(0, 1);
+        when(taskRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        service().requestFullRefresh(jdId);
+
+        verify(taskRepository, times(2)).mergeRequest(jdId, true, MatchScoreRefreshTaskStatus.PROCESSING);
+    }
+
+    @Test
+    @DisplayName("requestCandidateRefresh should record only new dirty candidates and enqueue a partial refresh")
+    void requestCandidateRefreshShouldRecordNewDirtyCandidates() {
+        stubNoOpTransactions();
+        UUID jdId = UUID.randomUUID();
+        UUID existingId = UUID.randomUUID();
+        UUID newId = UUID.randomUUID();
+        when(dirtyCandidateRepository.findCandidateIdsByJobDescriptionIdAndCandidateIdIn(eq(jdId), anyCollection()))
+                .thenReturn(List.of(existingId));
+        when(taskRepository.mergeRequest(jdId, false, MatchScoreRefreshTaskStatus.PROCESSING)).thenReturn(1);
+
+        service().requestCandidateRefresh(jdId, List.of(existingId, newId));
+
+        ArgumentCaptor<List<MatchScoreDirtyCandidate>> dirtyCaptor = ArgumentCaptor.forClass(List.class);
+        verify(dirtyCandidateRepository).saveAllAndFlush(dirtyCaptor.capture());
+        assertEquals(1, dirtyCaptor.getValue().size());
+        assertEquals(newId, dirtyCaptor.getValue().get(0).getCandidateId());
+        verify(taskRepository).mergeRequest(jdId, false, MatchScoreRefreshTaskStatus.PROCESSING);
+    }
+
+    @Test
+    @DisplayName("requestCandidateRefresh should fall back to a full refresh when dirty candidates cannot be recorded")
+    void requestCandidateRefreshShouldFallbackToFullRefreshOnConflict() {
+        stubNoOpTransactions();
+        UUID jdId = UUID.randomUUID();
+        when(dirtyCandidateRepository.findCandidateIdsByJobDescriptionIdAndCandidateIdIn(eq(jdId), anyCollection()))
+                .thenReturn(List.of());
+        when(dirtyCandidateRepository.saveAllAndFlush(anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(taskRepository.mergeRequest(jdId, true, MatchScoreRefreshTaskStatus.PROCESSING)).thenReturn(1);
+
+        service().requestCandidateRefresh(jdId, List.of(UUID.randomUUID()));
+
+        verify(taskRepository).mergeRequest(jdId, true, MatchScoreRefreshTaskStatus.PROCESSING);
+    }
+
+    private MatchScoreRefreshQueueService service() {
+        return new MatchScoreRefreshQueueService(taskRepository, dirtyCandidateRepository, transactionManager, 2000L);
+    }
+
+    private void stubNoOpTransactions() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+}
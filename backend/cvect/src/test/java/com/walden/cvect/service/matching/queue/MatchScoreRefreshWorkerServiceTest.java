@@ -0,0 +1,170 @@
+package com.walden.cvect.service.matching.queue;
+
+import com.walden.cvect.model.entity.matching.MatchScoreDirtyCandidate;
+import com.walden.cvect.model.entity.matching.MatchScoreRefreshTask;
+import com.walden.cvect.model.entity.matching.MatchScoreRefreshTaskStatus;
+import com.walden.cvect.repository.MatchScoreDirtyCandidateJpaRepository;
+import com.walden.cvect.repository.MatchScoreRefreshTaskJpaRepository;
+import com.walden.cvect.service.matching.PersistedMatchScoreService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MatchScoreRefreshWorkerService unit tests")
+class MatchScoreRefreshWorkerServiceTest {
+
+    @Mock
+    private MatchScoreRefreshTaskJpaRepository taskRepository;
+    @Mock
+    private MatchScoreDirtyCandidateJpaRepository dirtyCandidateRepository;
+    @Mock
+    private PersistedMatchScoreService persistedMatchScoreService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("consumeDueTasks should run a full JD refresh, clear covered dirty candidates and delete the task")
+    void consumeDueTasksShouldRunFullRefreshAndDeleteTask() {
+        stubNoOpTransactions();
+        UUID jdId = UUID.randomUUID();
+        stubClaim(processingTask(jdId, true, 0));
+        when(taskRepository.deleteCompleted(jdId, MatchScoreRefreshTaskStatus.PROCESSING)).thenReturn(1);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        int processed = service(meterRegistry).consumeDueTasks();
+
+        assertEquals(1, processed);
+        verify(taskRepository).clearFullRefresh(List.of(jdId));
+        verify(persistedMatchScoreService).refreshForJobDescription(jdId);
+        verify(persistedMatchScoreService, never()).refreshForJobDescriptionCandidates(any(), any());
+        verify(dirtyCandidateRepository).deleteByJobDescriptionIdCreatedUpTo(eq(jdId), any(LocalDateTime.class));
+        assertEquals(1L, meterRegistry.get("cvect.match-score.refresh.duration")
+                .tags("mode", "full", "outcome", "success")
+                .timer()
+                .count());
+    }
+
+    @Test
+    @DisplayName("consumeDueTasks should rescore only dirty candidates and requeue when a rerun was requested")
+    void consumeDueTasksShouldRescoreDirtyCandidatesAndRequeueRerun() {
+        stubNoOpTransactions();
+        UUID jdId = UUID.randomUUID();
+        UUID candidateId = UUID.randomUUID();
+        MatchScoreDirtyCandidate dirty = new MatchScoreDirtyCandidate(jdId, candidateId);
+        stubClaim(processingTask(jdId, false, 0));
+        when(dirtyCandidateRepository.findByJobDescriptionIdOrderByCreatedAtAsc(eq(jdId), any(Pageable.class)))
+                .thenReturn(List.of(dirty));
+        when(taskRepository.requeueRerun(
+                eq(jdId),
+                any(LocalDateTime.class),
+                eq(MatchScoreRefreshTaskStatus.PENDING),
+                eq(MatchScoreRefreshTaskStatus.PROCESSING))).thenReturn(1);
+
+        service(null).consumeDueTasks();
+
+        verify(persistedMatchScoreService).refreshForJobDescriptionCandidates(jdId, List.of(candidateId));
+        verify(persistedMatchScoreService, never()).refreshForJobDescription(any());
+        verify(dirtyCandidateRepository).deleteByIds(List.of(dirty.getId()));
+        verify(taskRepository, never()).deleteCompleted(any(), any());
+    }
+
+    @Test
+    @DisplayName("consumeDueTasks should reschedule a failed refresh with backoff and keep the full refresh flag")
+    void consumeDueTasksShouldRescheduleFailedRefresh() {
+        stubNoOpTransactions();
+        UUID jdId = UUID.randomUUID();
+        stubClaim(processingTask(jdId, true, 0));
+        doThrow(new IllegalStateException("embedding service down"))
+                .when(persistedMatchScoreService).refreshForJobDescription(jdId);
+
+        service(null).consumeDueTasks();
+
+        verify(taskRepository).scheduleRetry(
+                eq(jdId),
+                eq(true),
+                eq(1),
+                eq("embedding service down"),
+                any(LocalDateTime.class),
+                eq(MatchScoreRefreshTaskStatus.PENDING),
+                eq(MatchScoreRefreshTaskStatus.PROCESSING));
+        verify(taskRepository, never()).deleteCompleted(any(), any());
+    }
+
+    @Test
+    @DisplayName("refreshQueueGauges should expose pending depth and the age of the oldest request")
+    void refreshQueueGaugesShouldExposeDepthAndLag() {
+        stubNoOpTransactions();
+        when(taskRepository.countByStatus(MatchScoreRefreshTaskStatus.PENDING)).thenReturn(3L);
+        when(taskRepository.findOldestRequestedAt()).thenReturn(LocalDateTime.now().minusSeconds(5));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MatchScoreRefreshWorkerService service = service(meterRegistry);
+
+        service.refreshQueueGauges();
+
+        assertEquals(3L, service.queueDepth());
+        assertTrue(service.queueLagMs() >= 5000L);
+        assertEquals(3.0, meterRegistry.get("cvect.match-score.refresh.queue.depth").gauge().value(), 0.0001);
+    }
+
+    private void stubClaim(MatchScoreRefreshTask task) {
+        UUID jdId = task.getJobDescriptionId();
+        when(taskRepository.findByStatusAndNotBeforeLessThanEqualOrderByNotBeforeAsc(
+                eq(MatchScoreRefreshTaskStatus.PENDING),
+                any(LocalDateTime.class),
+                any(Pageable.class))).thenReturn(List.of(task));
+        when(taskRepository.claimPendingTaskById(
+                jdId,
+                MatchScoreRefreshTaskStatus.PROCESSING,
+                MatchScoreRefreshTaskStatus.PENDING)).thenReturn(1);
+        when(taskRepository.findAllById(List.of(jdId))).thenReturn(List.of(task));
+    }
+
+    private MatchScoreRefreshWorkerService service(SimpleMeterRegistry meterRegistry) {
+        return new MatchScoreRefreshWorkerService(
+                taskRepository,
+                dirtyCandidateRepository,
+                persistedMatchScoreService,
+                false,
+                transactionManager,
+                meterRegistry,
+                4,
+                500,
+                3,
+                0L,
+                1000L,
+                600_000L,
+                5000L);
+    }
+
+    private static MatchScoreRefreshTask processingTask(UUID jdId, boolean fullRefresh, int attempt) {
+        MatchScoreRefreshTask task = new MatchScoreRefreshTask(jdId, fullRefresh, LocalDateTime.now());
+        ReflectionTestUtils.setField(task, "status", MatchScoreRefreshTaskStatus.PROCESSING);
+        ReflectionTestUtils.setField(task, "attempt", attempt);
+        return task;
+    }
+
+    private void stubNoOpTransactions() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+}
@@ -0,0 +1,270 @@
+package com.walden.cvect.service.resume;
+
+import com.walden.cvect.infra.vector.VectorStoreService;
+import com.walden.cvect.model.TenantConstants;
+import com.walden.cvect.model.entity.Candidate;
+import com.walden.cvect.model.entity.JobDescription;
+import com.walden.cvect.repository.CandidateCloneRepository;
+import com.walden.cvect.repository.CandidateJpaRepository;
+import com.walden.cvect.repository.CandidateSnapshotJpaRepository;
+import com.walden.cvect.repository.VectorIngestTaskJpaRepository;
+import com.walden.cvect.service.matching.PersistedMatchScoreService;
+import com.walden.cvect.service.matching.SearchDataVersionService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CandidateCloneService unit tests")
+class CandidateCloneServiceTest {
+
+    private static final UUID TENANT_ID = TenantConstants.DEFAULT_TENANT_ID;
+    private static final String FILE_HASH = "abc123";
+
+    @Mock
+    private CandidateJpaRepository candidateRepository;
+    @Mock
+    private CandidateSnapshotJpaRepository snapshotRepository;
+    @Mock
+    private VectorIngestTaskJpaRepository vectorIngestTaskRepository;
+    @Mock
+    private CandidateCloneRepository cloneRepository;
+    @Mock
+    private VectorStoreService vectorStoreService;
+    @Mock
+    private PersistedMatchScoreService persistedMatchScoreService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private SearchDataVersionService searchDataVersionService;
+
+    @Test
+    @DisplayName("should clone facts and vectors from a settled candidate of another JD")
+    void shouldCloneSettledCandidateFromAnotherJobDescription() throws Exception {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        JobDescription targetJd = jobDescription(UUID.randomUUID());
+        Candidate source = sourceCandidate(jobDescription(UUID.randomUUID()));
+        UUID sourceId = source.getId();
+        UUID cloneId = UUID.randomUUID();
+        Candidate saved = mock(Candidate.class);
+        when(saved.getId()).thenReturn(cloneId);
+        when(candidateRepository.findTop5ByTenantIdAndFileHashOrderByCreatedAtDesc(TENANT_ID, FILE_HASH))
+                .thenReturn(List.of(source));
+        when(snapshotRepository.existsById(sourceId)).thenReturn(true);
+        when(vectorIngestTaskRepository.existsByCandidateIdAndStatusIn(any(), anyCollection())).thenReturn(false);
+        when(candidateRepository.saveAndFlush(any(Candidate.class))).thenReturn(saved);
+        when(cloneRepository.copyFacts(sourceId, cloneId)).thenReturn(4);
+        when(vectorStoreService.cloneCandidateChunks(sourceId, cloneId)).thenReturn(3);
+
+        Optional<CandidateCloneService.CloneResult> result = service(true)
+                .cloneForJobDescription(TENANT_ID, FILE_HASH, targetJd, "renamed.pdf");
+
+        assertTrue(result.isPresent());
+        assertEquals(cloneId, result.get().candidateId());
+        assertEquals(3, result.get().vectorChunks());
+        ArgumentCaptor<Candidate> candidateCaptor = ArgumentCaptor.forClass(Candidate.class);
+        verify(candidateRepository).saveAndFlush(candidateCaptor.capture());
+        assertEquals("renamed.pdf", candidateCaptor.getValue().getSourceFileName());
+        assertEquals(targetJd, candidateCaptor.getValue().getJobDescription());
+        assertEquals("Alice", candidateCaptor.getValue().getName());
+        verify(cloneRepository).copyDoneVectorTasks(sourceId, cloneId);
+        verify(vectorStoreService).refreshCandidateSummaries(cloneId);
+        verify(persistedMatchScoreService).scheduleRefreshForNewCandidate(TENANT_ID, cloneId);
+        verify(persistedMatchScoreService, never()).refreshForCandidate(any());
+        verify(searchDataVersionService).bumpTenant(TENANT_ID);
+    }
+
+    @Test
+    @DisplayName("concurrent insert conflict should only roll back the clone transaction, not the caller's")
+    void shouldIsolateConflictFromEnclosingTransaction() throws Exception {
+        RecordingTransactionManager txManager = new RecordingTransactionManager();
+        Candidate source = sourceCandidate(jobDescription(UUID.randomUUID()));
+        when(candidateRepository.findTop5ByTenantIdAndFileHashOrderByCreatedAtDesc(TENANT_ID, FILE_HASH))
+                .thenReturn(List.of(source));
+        when(snapshotRepository.existsById(source.getId())).thenReturn(true);
+        when(vectorIngestTaskRepository.existsByCandidateIdAndStatusIn(any(), anyCollection())).thenReturn(false);
+        when(candidateRepository.saveAndFlush(any(Candidate.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_candidates_tenant_jd_file_hash"));
+        CandidateCloneService service = service(true, txManager);
+        JobDescription targetJd = jobDescription(UUID.randomUUID());
+
+        Optional<CandidateCloneService.CloneResult> result = new TransactionTemplate(txManager).execute(status ->
+                service.cloneForJobDescription(TENANT_ID, FILE_HASH, targetJd, "a.pdf"));
+
+        assertTrue(result.isEmpty());
+        assertEquals(List.of("begin", "suspend", "begin", "rollback", "resume", "commit"), txManager.events);
+        verifyNoInteractions(cloneRepository, persistedMatchScoreService);
+    }
+
+    @Test
+    @DisplayName("summary and score refresh should run after the caller's transaction completes")
+    void shouldRefreshDerivedDataAfterEnclosingTransaction() throws Exception {
+        RecordingTransactionManager txManager = new RecordingTransactionManager();
+        Candidate source = sourceCandidate(jobDescription(UUID.randomUUID()));
+        UUID cloneId = UUID.randomUUID();
+        Candidate saved = mock(Candidate.class);
+        when(saved.getId()).thenReturn(cloneId);
+        when(candidateRepository.findTop5ByTenantIdAndFileHashOrderByCreatedAtDesc(TENANT_ID, FILE_HASH))
+                .thenReturn(List.of(source));
+        when(snapshotRepository.existsById(source.getId())).thenReturn(true);
+        when(vectorIngestTaskRepository.existsByCandidateIdAndStatusIn(any(), anyCollection())).thenReturn(false);
+        when(candidateRepository.saveAndFlush(any(Candidate.class))).thenReturn(saved);
+        when(vectorStoreService.cloneCandidateChunks(source.getId(), cloneId)).thenReturn(2);
+        CandidateCloneService service = service(true, txManager);
+        JobDescription targetJd = jobDescription(UUID.randomUUID());
+
+        new TransactionTemplate(txManager).executeWithoutResult(status -> {
+            assertTrue(service.cloneForJobDescription(TENANT_ID, FILE_HASH, targetJd, "a.pdf").isPresent());
+            verifyNoInteractions(persistedMatchScoreService);
+            verify(vectorStoreService, never()).refreshCandidateSummaries(any());
+        });
+
+        verify(vectorStoreService).refreshCandidateSummaries(cloneId);
+        verify(persistedMatchScoreService).scheduleRefreshForNewCandidate(TENANT_ID, cloneId);
+        verify(searchDataVersionService).bumpTenant(TENANT_ID);
+    }
+
+    @Test
+    @DisplayName("should skip sources whose vector ingest has not settled")
+    void shouldSkipUnsettledSource() throws Exception {
+        Candidate source = sourceCandidate(jobDescription(UUID.randomUUID()));
+        when(candidateRepository.findTop5ByTenantIdAndFileHashOrderByCreatedAtDesc(TENANT_ID, FILE_HASH))
+                .thenReturn(List.of(source));
+        when(snapshotRepository.existsById(source.getId())).thenReturn(true);
+        when(vectorIngestTaskRepository.existsByCandidateIdAndStatusIn(any(), anyCollection())).thenReturn(true);
+
+        Optional<CandidateCloneService.CloneResult> result = service(true)
+                .cloneForJobDescription(TENANT_ID, FILE_HASH, jobDescription(UUID.randomUUID()), "a.pdf");
+
+        assertTrue(result.isEmpty());
+        verify(candidateRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(cloneRepository, persistedMatchScoreService);
+    }
+
+    @Test
+    @DisplayName("should not clone when disabled")
+    void shouldNotCloneWhenDisabled() throws Exception {
+        Optional<CandidateCloneService.CloneResult> result = service(false)
+                .cloneForJobDescription(TENANT_ID, FILE_HASH, jobDescription(UUID.randomUUID()), "a.pdf");
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(candidateRepository, cloneRepository);
+    }
+
+    private CandidateCloneService service(boolean enabled) {
+        return service(enabled, transactionManager);
+    }
+
+    private CandidateCloneService service(boolean enabled, PlatformTransactionManager transactionManager) {
+        return new CandidateCloneService(
+                candidateRepository,
+                snapshotRepository,
+                vectorIngestTaskRepository,
+                cloneRepository,
+                vectorStoreService,
+                persistedMatchScoreService,
+                searchDataVersionService,
+                transactionManager,
+                enabled);
+    }
+
+    private static Candidate sourceCandidate(JobDescription jd) throws Exception {
+        Candidate candidate = new Candidate(
+                TENANT_ID, "original.pdf", FILE_HASH, "Alice", jd, "application/pdf", 1024L, 800, false);
+        Field idField = Candidate.class.getDeclaredField("id");
+        idField.setAccessible(true);
+        idField.set(candidate, UUID.randomUUID());
+        return candidate;
+    }
+
+    /**
+     * 只记录事务边界的事务管理器：真实走 AbstractPlatformTransactionManager 的传播、挂起与同步回调
+     */
+    private static final class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+        private final List<String> events = new ArrayList<>();
+        private int active;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new boolean[] {active > 0};
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return ((boolean[]) transaction)[0];
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            active++;
+            events.add("begin");
+        }
+
+        @Override
+        protected Object doSuspend(Object transaction) {
+            active--;
+            events.add("suspend");
+            return Boolean.TRUE;
+        }
+
+        @Override
+        protected void doResume(Object transaction, Object suspendedResources) {
+            active++;
+            events.add("resume");
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            events.add("commit");
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            events.add("rollback");
+        }
+
+        @Override
+        protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+            events.add("rollback-only");
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            active--;
+        }
+    }
+
+    private static JobDescription jobDescription(UUID id) throws Exception {
+        JobDescription jd = new JobDescription("Backend Engineer", "Java Spring");
+        Field idField = JobDescription.class.getDeclaredField("id");
+        idField.setAccessible(true);
+        idField.set(jd, id);
+        return jd;
+    }
+}
@@ -0,0 +1,225 @@
+package com.walden.cvect.service.upload;
+
+import com.walden.cvect.infra.storage.LocalFileStorageService;
+import com.walden.cvect.model.entity.JobDescription;
+import com.walden.cvect.model.entity.UploadBatch;
+import com.walden.cvect.model.entity.UploadItem;
+import com.walden.cvect.model.entity.UploadItemStatus;
+import com.walden.cvect.repository.JobDescriptionJpaRepository;
+import com.walden.cvect.repository.UploadBatchJpaRepository;
+import com.walden.cvect.repository.UploadItemBulkRepository;
+import com.walden.cvect.repository.UploadItemJpaRepository;
+import com.walden.cvect.security.CurrentUserService;
+import com.walden.cvect.security.DataScopeService;
+import com.walden.cvect.web.sse.BatchStreamService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("UploadApplicationService zip ingestion tests")
+class UploadApplicationServiceZipTest {
+
+    @Mock
+    private JobDescriptionJpaRepository jobDescriptionRepository;
+    @Mock
+    private UploadBatchJpaRepository batchRepository;
+    @Mock
+    private UploadItemJpaRepository itemRepository;
+    @Mock
+    private UploadItemBulkRepository itemBulkRepository;
+    @Mock
+    private BatchStreamService batchStreamService;
+    @Mock
+    private CurrentUserService currentUserService;
+    @Mock
+    private DataScopeService dataScopeService;
+
+    @TempDir
+    Path storageRoot;
+
+    private JobDescription jobDescription;
+
+    @BeforeEach
+    void setUp() {
+        jobDescription = new JobDescription("Zip JD", "desc");
+        ReflectionTestUtils.setField(jobDescription, "id", UUID.randomUUID());
+        when(currentUserService.currentTenantId()).thenReturn(jobDescription.getTenantId());
+        when(dataScopeService.hasTenantWideScope()).thenReturn(true);
+        when(jobDescriptionRepository.findByIdAndTenantId(jobDescription.getId(), jobDescription.getTenantId()))
+                .thenReturn(Optional.of(jobDescription));
+        when(batchRepository.save(any(UploadBatch.class))).thenAnswer(invocation -> {
+            UploadBatch batch = invocation.getArgument(0);
+            if (batch.getId() == null) {
+                ReflectionTestUtils.setField(batch, "id", UUID.randomUUID());
+            }
+            return batch;
+        });
+        when(batchRepository.findById(any())).thenReturn(Optional.empty());
+        when(itemRepository.countByStatusIn(anyList())).thenReturn(0L);
+    }
+
+    @Test
+    @DisplayName("parallel zip ingestion should store entries concurrently and insert all items in one batch")
+    void parallelZipIngestionShouldInsertItemsInOneBatch() throws Exception {
+        ThreadPoolTaskExecutor executor = newExecutor();
+        try {
+            UploadApplicationService service = newService(executor, true, 1024);
+            MockMultipartFile zip = zipOf(Map.of(
+                    "a.txt", "resume-a",
+                    "b.md", "resume-b",
+                    "c.txt", "resume-a",
+                    "bad.exe", "binary"));
+
+            UploadApplicationService.ZipUploadResponse response = service.uploadZip(jobDescription.getId().toString(), zip);
+
+            assertEquals(4, response.totalFiles());
+            assertFalse(response.truncated());
+            List<UploadItem> items = captureInsertedItems();
+            Map<String, UploadItem> byName = items.stream()
+                    .collect(Collectors.toMap(UploadItem::getFileName, Function.identity()));
+            assertEquals(UploadItemStatus.QUEUED, byName.get("a.txt").getStatus());
+            assertEquals(UploadItemStatus.QUEUED, byName.get("b.md").getStatus());
+            assertEquals(UploadItemStatus.FAILED, byName.get("bad.exe").getStatus());
+            assertEquals("Unsupported file type", byName.get("bad.exe").getErrorMessage());
+            assertEquals(byName.get("a.txt").getFileHash(), byName.get("c.txt").getFileHash());
+            assertEquals(byName.get("a.txt").getFileHash(), byName.get("a.txt").getStoragePath());
+            assertNotNull(byName.get("a.txt").getQueueJobKey());
+            assertEquals(8L, byName.get("a.txt").getFileSizeBytes());
+            verify(itemRepository, never()).save(any(UploadItem.class));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("parallel zip ingestion should stop once declared sizes exceed the total byte cap")
+    void parallelZipIngestionShouldTruncateAtTotalByteCap() throws Exception {
+        ThreadPoolTaskExecutor executor = newExecutor();
+        try {
+            UploadApplicationService service = newService(executor, true, 10);
+            MockMultipartFile zip = zipOfOrdered(List.of(
+                    Map.entry("first.txt", "123456"),
+                    Map.entry("second.txt", "123456"),
+                    Map.entry("third.txt", "1")));
+
+            UploadApplicationService.ZipUploadResponse response = service.uploadZip(jobDescription.getId().toString(), zip);
+
+            assertTrue(response.truncated());
+            assertEquals(2, response.totalFiles());
+            List<UploadItem> items = captureInsertedItems();
+            assertEquals(2, items.size());
+            assertEquals(UploadItemStatus.QUEUED, items.get(0).getStatus());
+            assertEquals(UploadItemStatus.FAILED, items.get(1).getStatus());
+            assertEquals("File size limit exceeded", items.get(1).getErrorMessage());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("sequential zip mode should keep per-entry item saves")
+    void sequentialZipModeShouldSaveItemsOneByOne() throws Exception {
+        when(itemRepository.save(any(UploadItem.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        UploadApplicationService service = newService(Runnable::run, false, 1024);
+        MockMultipartFile zip = zipOfOrdered(List.of(
+                Map.entry("a.txt", "resume-a"),
+                Map.entry("b.txt", "resume-b")));
+
+        UploadApplicationService.ZipUploadResponse response = service.uploadZip(jobDescription.getId().toString(), zip);
+
+        assertEquals(2, response.totalFiles());
+        verify(itemRepository, times(2)).save(any(UploadItem.class));
+        verify(itemBulkRepository, never()).insertAll(anyList());
+    }
+
+    private List<UploadItem> captureInsertedItems() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UploadItem>> captor = ArgumentCaptor.forClass(List.class);
+        verify(itemBulkRepository).insertAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private UploadApplicationService newService(
+            TaskExecutor executor,
+            boolean parallel,
+            long maxTotalBytes) {
+        return new UploadApplicationService(
+                jobDescriptionRepository,
+                batchRepository,
+                itemRepository,
+                new LocalFileStorageService(storageRoot.toString()),
+                batchStreamService,
+                new UploadBatchProgressService(batchRepository, mock(JdbcTemplate.class), true, 600_000L, 100),
+                currentUserService,
+                dataScopeService,
+                itemBulkRepository,
+                executor,
+                parallel,
+                2000,
+                2000,
+                maxTotalBytes);
+    }
+
+    private static ThreadPoolTaskExecutor newExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(3);
+        executor.setMaxPoolSize(3);
+        executor.setQueueCapacity(10);
+        executor.initialize();
+        return executor;
+    }
+
+    private static MockMultipartFile zipOf(Map<String, String> entries) throws Exception {
+        return zipOfOrdered(List.copyOf(entries.entrySet()));
+    }
+
+    private static MockMultipartFile zipOfOrdered(List<Map.Entry<String, String>> entries) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+            for (Map.Entry<String, String> entry : entries) {
+                zos.putNextEntry(new ZipEntry(entry.getKey()));
+                zos.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zos.closeEntry();
+            }
+        }
+        return new MockMultipartFile("zipFile", "files.zip", "application/zip", baos.toByteArray());
+    }
+}
@@ -0,0 +1,117 @@
+package com.walden.cvect.service.upload;
+
+import com.walden.cvect.model.entity.UploadBatch;
+import com.walden.cvect.model.entity.UploadBatchStatus;
+import com.walden.cvect.repository.UploadBatchJpaRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@DisplayName("UploadBatchProgressService unit tests")
+class UploadBatchProgressServiceTest {
+
+    @Test
+    @DisplayName("refresh should only read the batch row when counters are maintained by the trigger")
+    void refreshShouldReadCountersWithoutAggregation() throws Exception {
+        UploadBatchJpaRepository batchRepository = mock(UploadBatchJpaRepository.class);
+        UUID batchId = UUID.randomUUID();
+        when(batchRepository.findById(batchId)).thenReturn(Optional.of(batch(batchId, 5, 3)));
+
+        UploadBatchProgressService service = new UploadBatchProgressService(
+                batchRepository, postgresWithTrigger(), true, 600_000L, 100);
+        UploadBatchProgressService.BatchProgress progress = service.refresh(batchId);
+
+        assertTrue(service.isCountersMaintainedByDatabase());
+        assertEquals(5, progress.totalFiles());
+        assertEquals(3, progress.processedFiles());
+        assertEquals(UploadBatchStatus.PROCESSING, progress.status());
+        verify(batchRepository, never()).refreshProgressFromItems(any());
+    }
+
+    @Test
+    @DisplayName("refresh should fall back to aggregate refresh on non-PostgreSQL databases")
+    void refreshShouldAggregateWithoutTrigger() {
+        UploadBatchJpaRepository batchRepository = mock(UploadBatchJpaRepository.class);
+        UUID batchId = UUID.randomUUID();
+        when(batchRepository.findById(batchId)).thenReturn(Optional.of(batch(batchId, 2, 1)));
+
+        UploadBatchProgressService service = new UploadBatchProgressService(
+                batchRepository, mock(JdbcTemplate.class), true, 600_000L, 100);
+        service.refresh(batchId);
+        service.reconcileActiveBatches();
+
+        assertFalse(service.isCountersMaintainedByDatabase());
+        verify(batchRepository).refreshProgressFromItems(batchId);
+        verify(batchRepository, never()).findIdsForProgressReconcile(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("reconcile should recompute counters of recently active batches")
+    void reconcileShouldRecomputeActiveBatches() throws Exception {
+        UploadBatchJpaRepository batchRepository = mock(UploadBatchJpaRepository.class);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(batchRepository.findIdsForProgressReconcile(eq(UploadBatchStatus.PROCESSING), any(), any(Pageable.class)))
+                .thenReturn(List.of(first, second));
+
+        UploadBatchProgressService service = new UploadBatchProgressService(
+                batchRepository, postgresWithTrigger(), true, 600_000L, 100);
+        service.reconcileActiveBatches();
+
+        verify(batchRepository).refreshProgressFromItems(first);
+        verify(batchRepository).refreshProgressFromItems(second);
+    }
+
+    @Test
+    @DisplayName("reconcile should do nothing when disabled")
+    void reconcileShouldRespectDisabledFlag() throws Exception {
+        UploadBatchJpaRepository batchRepository = mock(UploadBatchJpaRepository.class);
+
+        UploadBatchProgressService service = new UploadBatchProgressService(
+                batchRepository, postgresWithTrigger(), false, 600_000L, 100);
+        service.reconcileActiveBatches();
+
+        verifyNoInteractions(batchRepository);
+    }
+
+    private static UploadBatch batch(UUID batchId, int totalFiles, int processedFiles) {
+        UploadBatch batch = new UploadBatch(null, totalFiles);
+        ReflectionTestUtils.setField(batch, "id", batchId);
+        batch.setProcessedFiles(processedFiles);
+        return batch;
+    }
+
+    private static JdbcTemplate postgresWithTrigger() throws Exception {
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(metaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        Connection connection = mock(Connection.class);
+        when(connection.getMetaData()).thenReturn(metaData);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.getDataSource()).thenReturn(dataSource);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any(Object[].class))).thenReturn(1);
+        return jdbcTemplate;
+    }
+}
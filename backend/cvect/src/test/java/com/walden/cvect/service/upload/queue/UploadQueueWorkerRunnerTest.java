@@ -1,5 +1,6 @@
 package com.walden.cvect.service.upload.queue;
 
+import com.walden.cvect.infra.queue.QueueNotificationListener;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -24,6 +25,8 @@ class UploadQueueWorkerRunnerTest {
 
     @Mock
     private UploadQueueWorkerService workerService;
+    @Mock
+    private QueueNotificationListener notificationListener;
 
     @Test
     @DisplayName("stop should let queued workers exit before initial delay when shutdown wins the race")
@@ -34,7 +37,9 @@ class UploadQueueWorkerRunnerTest {
                 taskExecutor,
                 10_000L,
                 10_000L,
-                1);
+                1,
+                notificationListener,
+                10_000L);
 
         runner.start();
         runner.stop();
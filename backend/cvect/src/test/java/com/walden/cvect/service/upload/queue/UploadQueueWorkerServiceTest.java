@@ -8,6 +8,7 @@ import com.walden.cvect.model.entity.UploadItemStatus;
 import com.walden.cvect.repository.UploadBatchJpaRepository;
 import com.walden.cvect.repository.UploadItemJpaRepository;
 import com.walden.cvect.service.resume.ResumeProcessService;
+import com.walden.cvect.service.upload.UploadBatchProgressService;
 import com.walden.cvect.web.sse.BatchStreamEvent;
 import com.walden.cvect.web.sse.BatchStreamService;
 import org.junit.jupiter.api.DisplayName;
@@ -21,6 +22,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import java.io.ByteArrayInputStream;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -28,6 +30,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -77,7 +82,8 @@ class UploadQueueWorkerServiceTest {
                 eq("application/octet-stream"),
                 eq("resume.txt"),
                 eq(null),
-                eq(jdId)))
+                eq(jdId),
+                eq(null)))
                 .thenThrow(new IllegalStateException("parse failed"));
         when(itemRepository.completeProcessingFailure(
                 item.getId(),
@@ -90,10 +96,10 @@ class UploadQueueWorkerServiceTest {
 
         UploadQueueWorkerService service = new UploadQueueWorkerService(
                 itemRepository,
-                batchRepository,
                 fileStorageService,
                 resumeProcessService,
                 batchStreamService,
+                new UploadBatchProgressService(batchRepository, jdbcTemplate, true, 600_000L, 100),
                 jdbcTemplate,
                 transactionManager,
                 300_000L,
@@ -121,4 +127,131 @@ class UploadQueueWorkerServiceTest {
         assertEquals(1, event.totalFiles());
         assertEquals(1, event.processedFiles());
     }
+
+    @Test
+    @DisplayName("processClaimedItem should reuse the upload-time hash and skip copying content addressed objects")
+    void shouldReuseUploadHashAndSkipStorageCopy() throws Exception {
+        UUID batchId = UUID.randomUUID();
+        UUID jdId = UUID.randomUUID();
+        UUID candidateId = UUID.randomUUID();
+        String hash = "a".repeat(64);
+
+        JobDescription jobDescription = new JobDescription("Queue JD", "worker content");
+        ReflectionTestUtils.setField(jobDescription, "id", jdId);
+
+        UploadBatch batch = new UploadBatch(jobDescription, 1);
+        ReflectionTestUtils.setField(batch, "id", batchId);
+        batch.setTotalFiles(1);
+        batch.setProcessedFiles(1);
+
+        UploadItem item = new UploadItem(batch, "resume.pdf");
+        item.setStatus(UploadItemStatus.PROCESSING);
+        item.setStoragePath(hash);
+        item.setFileHash(hash);
+        item.setFileSizeBytes(14L);
+        item.setQueueJobKey("lease-1");
+
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(fileStorageService.exists(hash)).thenReturn(true);
+        when(fileStorageService.load(hash)).thenReturn(new ByteArrayInputStream("resume-content".getBytes()));
+        when(resumeProcessService.process(
+                any(java.io.InputStream.class),
+                eq("application/pdf"),
+                eq("resume.pdf"),
+                eq(14L),
+                eq(jdId),
+                eq(hash)))
+                .thenReturn(new ResumeProcessService.ProcessResult(candidateId, List.of(), false, hash));
+        when(itemRepository.completeProcessingSuccess(
+                item.getId(),
+                "lease-1",
+                UploadItemStatus.DONE,
+                candidateId,
+                hash,
+                UploadItemStatus.PROCESSING))
+                .thenReturn(1);
+        when(batchRepository.findById(batchId)).thenReturn(Optional.of(batch));
+
+        UploadQueueWorkerService service = new UploadQueueWorkerService(
+                itemRepository,
+                fileStorageService,
+                resumeProcessService,
+                batchStreamService,
+                new UploadBatchProgressService(batchRepository, jdbcTemplate, true, 600_000L, 100),
+                jdbcTemplate,
+                transactionManager,
+                300_000L,
+                100,
+                5_000L);
+
+        service.processClaimedItem(item.getId());
+
+        verify(fileStorageService, never()).save(anyString(), any(java.io.InputStream.class));
+        verify(fileStorageService, never()).delete(anyString());
+        verify(itemRepository).completeProcessingSuccess(
+                item.getId(),
+                "lease-1",
+                UploadItemStatus.DONE,
+                candidateId,
+                hash,
+                UploadItemStatus.PROCESSING);
+    }
+
+    @Test
+    @DisplayName("processClaimedItem should resolve known duplicates by upload hash without reading storage or parsing")
+    void shouldShortCircuitDuplicateBeforeStorageReadAndParse() throws Exception {
+        UUID batchId = UUID.randomUUID();
+        UUID jdId = UUID.randomUUID();
+        UUID existingCandidateId = UUID.randomUUID();
+        String hash = "b".repeat(64);
+
+        JobDescription jobDescription = new JobDescription("Queue JD", "worker content");
+        ReflectionTestUtils.setField(jobDescription, "id", jdId);
+
+        UploadBatch batch = new UploadBatch(jobDescription, 1);
+        ReflectionTestUtils.setField(batch, "id", batchId);
+        batch.setTotalFiles(1);
+        batch.setProcessedFiles(1);
+
+        UploadItem item = new UploadItem(batch, "resume.pdf");
+        item.setStatus(UploadItemStatus.PROCESSING);
+        item.setStoragePath(hash);
+        item.setFileHash(hash);
+        item.setQueueJobKey("lease-1");
+
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(resumeProcessService.resolveDuplicate(item.getTenantId(), hash, jdId, item.getFileName()))
+                .thenReturn(Optional.of(new ResumeProcessService.ProcessResult(existingCandidateId, List.of(), true, hash)));
+        when(itemRepository.completeProcessingSuccess(
+                item.getId(),
+                "lease-1",
+                UploadItemStatus.DUPLICATE,
+                existingCandidateId,
+                hash,
+                UploadItemStatus.PROCESSING))
+                .thenReturn(1);
+        when(batchRepository.findById(batchId)).thenReturn(Optional.of(batch));
+
+        UploadQueueWorkerService service = new UploadQueueWorkerService(
+                itemRepository,
+                fileStorageService,
+                resumeProcessService,
+                batchStreamService,
+                new UploadBatchProgressService(batchRepository, jdbcTemplate, true, 600_000L, 100),
+                jdbcTemplate,
+                transactionManager,
+                300_000L,
+                100,
+                5_000L);
+
+        service.processClaimedItem(item.getId());
+
+        verifyNoInteractions(fileStorageService);
+        verify(resumeProcessService, never()).process(
+                any(java.io.InputStream.class), any(), any(), any(), any(), any());
+        ArgumentCaptor<BatchStreamEvent> eventCaptor = ArgumentCaptor.forClass(BatchStreamEvent.class);
+        verify(batchStreamService).publish(eq(batchId), eventCaptor.capture());
+        assertEquals("DUPLICATE", eventCaptor.getValue().status());
+        assertEquals(existingCandidateId, eventCaptor.getValue().candidateId());
+    }
 }
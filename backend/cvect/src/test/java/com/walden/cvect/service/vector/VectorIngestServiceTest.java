@@ -4,6 +4,7 @@ import com.walden.cvect.infra.vector.VectorStoreService;
 import com.walden.cvect.model.ChunkType;
 import com.walden.cvect.model.entity.vector.VectorIngestTaskStatus;
 import com.walden.cvect.repository.VectorIngestTaskJpaRepository;
+import com.walden.cvect.service.matching.SearchDataVersionService;
 import com.walden.cvect.service.vector.VectorIngestService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -30,11 +31,13 @@ class VectorIngestServiceTest {
     private VectorIngestTaskJpaRepository taskRepository;
     @Mock
     private VectorStoreService vectorStoreService;
+    @Mock
+    private SearchDataVersionService searchDataVersionService;
 
     @Test
     @DisplayName("ingest should skip enqueue when vector is disabled")
     void shouldSkipWhenVectorDisabled() {
-        VectorIngestService service = new VectorIngestService(taskRepository, vectorStoreService, false, true, 5000);
+        VectorIngestService service = new VectorIngestService(taskRepository, vectorStoreService, searchDataVersionService, false, true, 5000);
 
         service.ingest(UUID.randomUUID(), ChunkType.EXPERIENCE, "java backend");
 
@@ -46,7 +49,7 @@ class VectorIngestServiceTest {
     @Test
     @DisplayName("ingest should skip enqueue when worker is disabled")
     void shouldSkipWhenWorkerDisabled() {
-        VectorIngestService service = new VectorIngestService(taskRepository, vectorStoreService, true, false, 5000);
+        VectorIngestService service = new VectorIngestService(taskRepository, vectorStoreService, searchDataVersionService, true, false, 5000);
 
         service.ingest(UUID.randomUUID(), ChunkType.SKILL, "spring boot");
 
@@ -58,7 +61,7 @@ class VectorIngestServiceTest {
     @Test
     @DisplayName("ingest should enqueue when vector and worker are enabled and queue has capacity")
     void shouldEnqueueWhenEnabledAndQueueHasCapacity() {
-        VectorIngestService service = new VectorIngestService(taskRepository, vectorStoreService, true, true, 10);
+        VectorIngestService service = new VectorIngestService(taskRepository, vectorStoreService, searchDataVersionService, true, true, 10);
         UUID candidateId = UUID.randomUUID();
         when(taskRepository.countByStatusIn(eq(List.of(
                 VectorIngestTaskStatus.PENDING,
@@ -78,7 +81,7 @@ class VectorIngestServiceTest {
     @Test
     @DisplayName("ingest should fallback to inline persistence when queue is full")
     void shouldFallbackInlineWhenQueueIsFull() {
-        VectorIngestService service = new VectorIngestService(taskRepository, vectorStoreService, true, true, 2);
+        VectorIngestService service = new VectorIngestService(taskRepository, vectorStoreService, searchDataVersionService, true, true, 2);
         UUID candidateId = UUID.randomUUID();
         when(taskRepository.countByStatusIn(eq(List.of(
                 VectorIngestTaskStatus.PENDING,
@@ -89,12 +92,13 @@ class VectorIngestServiceTest {
 
         verify(taskRepository, never()).save(any());
         verify(vectorStoreService).save(candidateId, ChunkType.SKILL, "spring boot");
+        verify(searchDataVersionService).bumpForCandidate(candidateId);
     }
 
     @Test
     @DisplayName("ingest should fallback to inline persistence when enqueue fails")
     void shouldFallbackInlineWhenEnqueueFails() {
-        VectorIngestService service = new VectorIngestService(taskRepository, vectorStoreService, true, true, 10);
+        VectorIngestService service = new VectorIngestService(taskRepository, vectorStoreService, searchDataVersionService, true, true, 10);
         UUID candidateId = UUID.randomUUID();
         when(taskRepository.countByStatusIn(eq(List.of(
                 VectorIngestTaskStatus.PENDING,
@@ -1,5 +1,6 @@
 package com.walden.cvect.service.vector.queue;
 
+import com.walden.cvect.exception.EmbeddingCircuitOpenException;
 import com.walden.cvect.infra.vector.VectorStoreService;
 import com.walden.cvect.model.ChunkType;
 import com.walden.cvect.model.entity.vector.VectorIngestTask;
@@ -7,6 +8,7 @@ import com.walden.cvect.model.entity.vector.VectorIngestTaskStatus;
 import com.walden.cvect.repository.VectorIngestTaskJpaRepository;
 import com.walden.cvect.service.candidate.CandidateSnapshotService;
 import com.walden.cvect.service.matching.PersistedMatchScoreService;
+import com.walden.cvect.service.matching.SearchDataVersionService;
 import com.walden.cvect.service.vector.queue.VectorIngestQueueWorkerService;
 import com.walden.cvect.web.stream.CandidateStreamEvent;
 import com.walden.cvect.web.stream.CandidateStreamService;
@@ -24,14 +26,18 @@ import org.springframework.transaction.support.SimpleTransactionStatus;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -50,6 +56,8 @@ class VectorIngestQueueWorkerServiceTest {
     @Mock
     private PersistedMatchScoreService persistedMatchScoreService;
     @Mock
+    private SearchDataVersionService searchDataVersionService;
+    @Mock
     private JdbcTemplate jdbcTemplate;
     @Mock
     private PlatformTransactionManager transactionManager;
@@ -104,16 +112,20 @@ class VectorIngestQueueWorkerServiceTest {
                 snapshotService,
                 streamService,
                 persistedMatchScoreService,
+                searchDataVersionService,
                 jdbcTemplate,
                 transactionManager,
                 20,
                 3,
                 300_000,
-                5_000);
+                5_000,
+                true);
         service.consumePendingTasks();
 
         verify(taskRepository).completeSuccess(taskId, VectorIngestTaskStatus.DONE, VectorIngestTaskStatus.PROCESSING);
+        verify(vectorStoreService).refreshCandidateSummaries(candidateId);
         verify(persistedMatchScoreService).refreshForCandidate(candidateId);
+        verify(searchDataVersionService).bumpForCandidate(candidateId);
 
         ArgumentCaptor<com.walden.cvect.web.stream.VectorStatusStreamEvent> eventCaptor =
                 ArgumentCaptor.forClass(com.walden.cvect.web.stream.VectorStatusStreamEvent.class);
@@ -152,12 +164,14 @@ class VectorIngestQueueWorkerServiceTest {
                 snapshotService,
                 streamService,
                 persistedMatchScoreService,
+                searchDataVersionService,
                 jdbcTemplate,
                 transactionManager,
                 20,
                 3,
                 300_000,
-                5_000);
+                5_000,
+                true);
         service.consumePendingTasks();
 
         verify(taskRepository).completeFailure(
@@ -200,12 +214,14 @@ class VectorIngestQueueWorkerServiceTest {
                 snapshotService,
                 streamService,
                 persistedMatchScoreService,
+                searchDataVersionService,
                 jdbcTemplate,
                 transactionManager,
                 20,
                 3,
                 300_000,
-                5_000);
+                5_000,
+                true);
         service.consumePendingTasks();
 
         verify(taskRepository).completeFailure(
@@ -217,6 +233,38 @@ class VectorIngestQueueWorkerServiceTest {
         verify(streamService, never()).publishVectorStatus(any());
     }
 
+    @Test
+    @DisplayName("consumePendingTasks should release the task without consuming an attempt when the embedding circuit is open")
+    void shouldReleaseTaskAndBackOffWhenEmbeddingCircuitIsOpen() {
+        stubNoOpTransactions();
+        UUID candidateId = UUID.randomUUID();
+        VectorIngestTask processingTask = processingTask(candidateId);
+        UUID taskId = processingTask.getId();
+        processingTask.setAttempt(2);
+
+        when(taskRepository.findTop50ByStatusAndUpdatedAtBeforeOrderByUpdatedAtAsc(any(), any()))
+                .thenReturn(List.of());
+        when(taskRepository.findByStatusOrderByUpdatedAtAsc(any(), any(Pageable.class)))
+                .thenReturn(List.of(processingTask));
+        when(taskRepository.claimPendingTaskById(any(UUID.class), any(), any())).thenReturn(1);
+        when(taskRepository.findById(taskId)).thenReturn(Optional.of(processingTask));
+        when(vectorStoreService.save(candidateId, ChunkType.SKILL, "content"))
+                .thenThrow(new EmbeddingCircuitOpenException("Embedding service circuit is open", 30_000));
+        when(taskRepository.recoverStaleProcessing(
+                eq(taskId),
+                any(String.class),
+                eq(VectorIngestTaskStatus.PENDING),
+                eq(VectorIngestTaskStatus.PROCESSING))).thenReturn(1);
+
+        VectorIngestQueueWorkerService service = newService(false);
+        service.consumePendingTasks();
+
+        verify(taskRepository, never()).completeFailure(any(UUID.class), anyInt(), any(), any(), any());
+        assertTrue(service.backoffRemainingMs() > 20_000);
+        assertEquals(0, service.consumePendingTasks());
+        verify(taskRepository, times(1)).findByStatusOrderByUpdatedAtAsc(any(), any(Pageable.class));
+    }
+
     @Test
     @DisplayName("consumePendingTasks should skip publishing when success status transition is stale")
     void shouldSkipPublishWhenSuccessCommitIsStale() {
@@ -241,12 +289,14 @@ class VectorIngestQueueWorkerServiceTest {
                 snapshotService,
                 streamService,
                 persistedMatchScoreService,
+                searchDataVersionService,
                 jdbcTemplate,
                 transactionManager,
                 20,
                 3,
                 300_000,
-                5_000);
+                5_000,
+                true);
         service.consumePendingTasks();
 
         verify(taskRepository, never()).existsByCandidateIdAndStatusIn(any(UUID.class), anyCollection());
@@ -281,17 +331,189 @@ class VectorIngestQueueWorkerServiceTest {
                 snapshotService,
                 streamService,
                 persistedMatchScoreService,
+                searchDataVersionService,
                 jdbcTemplate,
                 transactionManager,
                 20,
                 3,
                 300_000,
-                5_000);
+                5_000,
+                true);
         service.consumePendingTasks();
 
         verify(streamService, never()).publishVectorStatus(any());
     }
 
+    @Test
+    @DisplayName("batch mode should save the claimed set at once and complete it with one status update")
+    void shouldProcessClaimedSetInOneBatch() {
+        stubNoOpTransactions();
+        UUID firstCandidateId = UUID.randomUUID();
+        UUID secondCandidateId = UUID.randomUUID();
+        VectorIngestTask first = processingTask(firstCandidateId);
+        VectorIngestTask second = processingTask(secondCandidateId);
+        List<UUID> taskIds = List.of(first.getId(), second.getId());
+
+        when(taskRepository.findTop50ByStatusAndUpdatedAtBeforeOrderByUpdatedAtAsc(any(), any()))
+                .thenReturn(List.of());
+        when(taskRepository.findByStatusOrderByUpdatedAtAsc(any(), any(Pageable.class)))
+                .thenReturn(List.of(first, second));
+        when(taskRepository.claimPendingTaskById(any(UUID.class), any(), any())).thenReturn(1);
+        when(taskRepository.findAllById(taskIds)).thenReturn(List.of(first, second));
+        List<VectorStoreService.ChunkWrite> writes = List.of(
+                new VectorStoreService.ChunkWrite(firstCandidateId, ChunkType.SKILL, "content"),
+                new VectorStoreService.ChunkWrite(secondCandidateId, ChunkType.SKILL, "content"));
+        List<float[]> embeddings = List.of(new float[] {0.1f}, new float[] {0.2f});
+        when(vectorStoreService.embedChunks(writes)).thenReturn(embeddings);
+        when(vectorStoreService.saveEmbedded(writes, embeddings)).thenReturn(2);
+        when(taskRepository.completeSuccessBatch(taskIds, VectorIngestTaskStatus.DONE, VectorIngestTaskStatus.PROCESSING))
+                .thenReturn(2);
+        when(taskRepository.findCandidateIdsByStatusIn(
+                anyCollection(),
+                eq(List.of(VectorIngestTaskStatus.PENDING, VectorIngestTaskStatus.PROCESSING))))
+                .thenReturn(List.of(secondCandidateId));
+
+        newService(true).consumePendingTasks();
+
+        verify(vectorStoreService, never()).save(any(), any(), any());
+        verify(taskRepository, never()).completeSuccess(any(), any(), any());
+        verify(persistedMatchScoreService).refreshForCandidate(firstCandidateId);
+        verify(persistedMatchScoreService, never()).refreshForCandidate(secondCandidateId);
+    }
+
+    @Test
+    @DisplayName("batch mode should fall back to per-task processing and isolate the failing task")
+    void shouldFallbackToPerTaskProcessingWhenBatchSaveFails() {
+        stubNoOpTransactions();
+        UUID candidateId = UUID.randomUUID();
+        VectorIngestTask good = processingTask(candidateId);
+        VectorIngestTask bad = new VectorIngestTask(candidateId, ChunkType.EXPERIENCE, "bad content");
+        bad.setStatus(VectorIngestTaskStatus.PROCESSING);
+        bad.setAttempt(0);
+
+        when(taskRepository.findTop50ByStatusAndUpdatedAtBeforeOrderByUpdatedAtAsc(any(), any()))
+                .thenReturn(List.of());
+        when(taskRepository.findByStatusOrderByUpdatedAtAsc(any(), any(Pageable.class)))
+                .thenReturn(List.of(good, bad));
+        when(taskRepository.claimPendingTaskById(any(UUID.class), any(), any())).thenReturn(1);
+        when(taskRepository.findAllById(List.of(good.getId(), bad.getId()))).thenReturn(List.of(good, bad));
+        when(vectorStoreService.embedChunks(anyList())).thenThrow(new IllegalArgumentException("embedding dimension mismatch"));
+        when(vectorStoreService.save(candidateId, ChunkType.SKILL, "content")).thenReturn(true);
+        when(vectorStoreService.save(candidateId, ChunkType.EXPERIENCE, "bad content"))
+                .thenThrow(new IllegalArgumentException("embedding dimension mismatch"));
+        when(taskRepository.completeSuccess(good.getId(), VectorIngestTaskStatus.DONE, VectorIngestTaskStatus.PROCESSING))
+                .thenReturn(1);
+        when(taskRepository.completeFailure(
+                bad.getId(),
+                1,
+                "embedding dimension mismatch",
+                VectorIngestTaskStatus.PENDING,
+                VectorIngestTaskStatus.PROCESSING)).thenReturn(1);
+        when(taskRepository.existsByCandidateIdAndStatusIn(
+                candidateId,
+                List.of(VectorIngestTaskStatus.PENDING, VectorIngestTaskStatus.PROCESSING)))
+                .thenReturn(true);
+
+        newService(true).consumePendingTasks();
+
+        verify(taskRepository).completeSuccess(good.getId(), VectorIngestTaskStatus.DONE, VectorIngestTaskStatus.PROCESSING);
+        verify(taskRepository).completeFailure(
+                bad.getId(),
+                1,
+                "embedding dimension mismatch",
+                VectorIngestTaskStatus.PENDING,
+                VectorIngestTaskStatus.PROCESSING);
+        verify(taskRepository, never()).completeSuccessBatch(anyCollection(), any(), any());
+    }
+
+    @Test
+    @DisplayName("batch mode should reuse the computed embeddings when only the batch write fails")
+    void shouldReuseBatchEmbeddingsWhenBatchWriteFails() {
+        stubNoOpTransactions();
+        UUID candidateId = UUID.randomUUID();
+        VectorIngestTask first = processingTask(candidateId);
+        VectorIngestTask second = processingTask(candidateId);
+        float[] firstEmbedding = {0.1f};
+        float[] secondEmbedding = {0.2f};
+        VectorStoreService.ChunkWrite write = new VectorStoreService.ChunkWrite(candidateId, ChunkType.SKILL, "content");
+
+        when(taskRepository.findTop50ByStatusAndUpdatedAtBeforeOrderByUpdatedAtAsc(any(), any()))
+                .thenReturn(List.of());
+        when(taskRepository.findByStatusOrderByUpdatedAtAsc(any(), any(Pageable.class)))
+                .thenReturn(List.of(first, second));
+        when(taskRepository.claimPendingTaskById(any(UUID.class), any(), any())).thenReturn(1);
+        when(taskRepository.findAllById(List.of(first.getId(), second.getId()))).thenReturn(List.of(first, second));
+        when(vectorStoreService.embedChunks(List.of(write, write))).thenReturn(List.of(firstEmbedding, secondEmbedding));
+        when(vectorStoreService.saveEmbedded(List.of(write, write), List.of(firstEmbedding, secondEmbedding)))
+                .thenThrow(new IllegalStateException("duplicate key"));
+        when(vectorStoreService.saveEmbedded(List.of(write), List.of(firstEmbedding))).thenReturn(1);
+        when(vectorStoreService.saveEmbedded(List.of(write), List.of(secondEmbedding))).thenReturn(1);
+        when(taskRepository.completeSuccess(any(UUID.class), eq(VectorIngestTaskStatus.DONE), eq(VectorIngestTaskStatus.PROCESSING)))
+                .thenReturn(1);
+        when(taskRepository.existsByCandidateIdAndStatusIn(
+                candidateId,
+                List.of(VectorIngestTaskStatus.PENDING, VectorIngestTaskStatus.PROCESSING)))
+                .thenReturn(true);
+
+        newService(true).consumePendingTasks();
+
+        verify(vectorStoreService, never()).save(any(), any(), any());
+        verify(vectorStoreService).embedChunks(anyList());
+        verify(taskRepository).completeSuccess(first.getId(), VectorIngestTaskStatus.DONE, VectorIngestTaskStatus.PROCESSING);
+        verify(taskRepository).completeSuccess(second.getId(), VectorIngestTaskStatus.DONE, VectorIngestTaskStatus.PROCESSING);
+    }
+
+    @Test
+    @DisplayName("batch mode should only publish VECTOR_DONE for tasks the status update actually completed")
+    void shouldOnlyPublishForTasksCompletedByBatchUpdate() {
+        stubNoOpTransactions();
+        UUID completedCandidateId = UUID.randomUUID();
+        UUID staleCandidateId = UUID.randomUUID();
+        VectorIngestTask completed = processingTask(completedCandidateId);
+        VectorIngestTask stale = processingTask(staleCandidateId);
+        List<UUID> taskIds = List.of(completed.getId(), stale.getId());
+
+        when(taskRepository.findTop50ByStatusAndUpdatedAtBeforeOrderByUpdatedAtAsc(any(), any()))
+                .thenReturn(List.of());
+        when(taskRepository.findByStatusOrderByUpdatedAtAsc(any(), any(Pageable.class)))
+                .thenReturn(List.of(completed, stale));
+        when(taskRepository.claimPendingTaskById(any(UUID.class), any(), any())).thenReturn(1);
+        when(taskRepository.findAllById(taskIds)).thenReturn(List.of(completed, stale));
+        when(vectorStoreService.embedChunks(anyList())).thenReturn(List.of(new float[] {0.1f}, new float[] {0.2f}));
+        when(vectorStoreService.saveEmbedded(anyList(), anyList())).thenReturn(2);
+        when(taskRepository.completeSuccessBatch(taskIds, VectorIngestTaskStatus.DONE, VectorIngestTaskStatus.PROCESSING))
+                .thenReturn(1);
+        when(taskRepository.findIdsByIdInAndStatus(taskIds, VectorIngestTaskStatus.DONE))
+                .thenReturn(List.of(completed.getId()));
+        when(taskRepository.findCandidateIdsByStatusIn(
+                anyCollection(),
+                eq(List.of(VectorIngestTaskStatus.PENDING, VectorIngestTaskStatus.PROCESSING))))
+                .thenReturn(List.of());
+
+        newService(true).consumePendingTasks();
+
+        verify(persistedMatchScoreService).refreshForCandidate(completedCandidateId);
+        verify(persistedMatchScoreService, never()).refreshForCandidate(staleCandidateId);
+        verify(searchDataVersionService).bumpForCandidates(Set.of(completedCandidateId));
+    }
+
+    private VectorIngestQueueWorkerService newService(boolean batchMode) {
+        return new VectorIngestQueueWorkerService(
+                taskRepository,
+                vectorStoreService,
+                snapshotService,
+                streamService,
+                persistedMatchScoreService,
+                searchDataVersionService,
+                jdbcTemplate,
+                transactionManager,
+                20,
+                3,
+                300_000,
+                5_000,
+                batchMode);
+    }
+
     private void stubNoOpTransactions() {
         TransactionStatus txStatus = new SimpleTransactionStatus();
         when(transactionManager.getTransaction(any())).thenReturn(txStatus);
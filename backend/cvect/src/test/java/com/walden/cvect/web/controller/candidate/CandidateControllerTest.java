@@ -28,6 +28,7 @@ import org.springframework.http.ResponseEntity;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -116,11 +117,11 @@ class CandidateControllerTest {
         assertEquals(candidateId, response.getBody().get(0).candidateId());
         assertEquals("READY", response.getBody().get(0).vectorStatus());
         assertEquals("1", response.getHeaders().getFirst("X-Total-Count"));
-        verify(persistedMatchScoreService).scheduleRefreshForJobDescription(jdId);
+        verify(persistedMatchScoreService).scheduleRefreshForCandidates(jdId, Set.of(candidateId));
     }
 
     @Test
-    @DisplayName("listByJd should schedule refresh when a vectorized candidate is missing a score even if another candidate has one")
+    @DisplayName("listByJd should schedule refresh for the vectorized candidate missing a score even if another candidate has one")
     void listByJdShouldScheduleRefreshWhenVectorizedCandidateMissingScoreButOtherCandidateHasScore() {
         UUID jdId = UUID.randomUUID();
         UUID vectorizedCandidateId = UUID.randomUUID();
@@ -162,7 +163,7 @@ class CandidateControllerTest {
         assertEquals(vectorizedCandidateId, response.getBody().get(0).candidateId());
         assertEquals(staleScoredCandidateId, response.getBody().get(1).candidateId());
         assertEquals("2", response.getHeaders().getFirst("X-Total-Count"));
-        verify(persistedMatchScoreService).scheduleRefreshForJobDescription(jdId);
+        verify(persistedMatchScoreService).scheduleRefreshForCandidates(jdId, Set.of(vectorizedCandidateId));
     }
 
     @Test
@@ -106,7 +106,7 @@ class CandidateControllerVectorStatusTest {
         assertEquals(candidateId, response.getBody().get(0).candidateId());
         assertEquals("PARTIAL", response.getBody().get(0).vectorStatus());
         assertFalse(response.getBody().get(0).noVectorChunk());
-        verify(persistedMatchScoreService, never()).scheduleRefreshForJobDescription(jdId);
+        verify(persistedMatchScoreService, never()).scheduleRefreshForCandidates(any(), any());
     }
 
     @Test
@@ -155,7 +155,7 @@ class CandidateControllerVectorStatusTest {
         assertEquals(candidateId, response.getBody().get(0).candidateId());
         assertEquals("PARTIAL", response.getBody().get(0).vectorStatus());
         assertFalse(response.getBody().get(0).noVectorChunk());
-        verify(persistedMatchScoreService, never()).scheduleRefreshForJobDescription(jdId);
+        verify(persistedMatchScoreService, never()).scheduleRefreshForCandidates(any(), any());
     }
 
     @Test
@@ -197,7 +197,7 @@ class CandidateControllerVectorStatusTest {
         assertEquals(candidateId, response.getBody().get(0).candidateId());
         assertEquals("FAILED", response.getBody().get(0).vectorStatus());
         assertTrue(response.getBody().get(0).noVectorChunk());
-        verify(persistedMatchScoreService, never()).scheduleRefreshForJobDescription(jdId);
+        verify(persistedMatchScoreService, never()).scheduleRefreshForCandidates(any(), any());
     }
 
     @Test
@@ -239,7 +239,7 @@ class CandidateControllerVectorStatusTest {
         assertEquals(candidateId, response.getBody().get(0).candidateId());
         assertEquals("PROCESSING", response.getBody().get(0).vectorStatus());
         assertTrue(response.getBody().get(0).noVectorChunk());
-        verify(persistedMatchScoreService, never()).scheduleRefreshForJobDescription(jdId);
+        verify(persistedMatchScoreService, never()).scheduleRefreshForCandidates(any(), any());
     }
 
     @Test
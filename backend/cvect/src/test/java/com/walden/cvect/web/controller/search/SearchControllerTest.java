@@ -10,6 +10,7 @@ import com.walden.cvect.security.JwtService;
 import com.walden.cvect.security.PermissionCodes;
 import com.walden.cvect.security.PermissionGuard;
 import com.walden.cvect.security.SecurityConfig;
+import com.walden.cvect.service.matching.JobDescriptionSearchService;
 import com.walden.cvect.service.matching.SemanticSearchService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -30,11 +31,13 @@ import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequ
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -57,6 +60,9 @@ class SearchControllerTest {
     @MockBean
     private SemanticSearchService semanticSearchService;
 
+    @MockBean
+    private JobDescriptionSearchService jobDescriptionSearchService;
+
     @MockBean(name = "permissionGuard")
     private PermissionGuard permissionGuard;
 
@@ -113,6 +119,40 @@ class SearchControllerTest {
                         && request.onlyVectorReadyCandidates()));
     }
 
+    @Test
+    @DisplayName("shouldSearchByJobDescriptionId")
+    void shouldSearchByJobDescriptionId() throws Exception {
+        UUID jdId = UUID.randomUUID();
+        when(jobDescriptionSearchService.search(eq(jdId), any())).thenReturn(Optional.of(
+                new SearchController.SearchResponse(0, 20, List.of())));
+
+        mockMvc.perform(post("/api/search/jds/{jdId}", jdId)
+                        .with(user("hr"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                  "topK": 20,
+                                  "filterBySkill": true
+                                }
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(20));
+
+        verify(jobDescriptionSearchService).search(eq(jdId), argThat(request ->
+                request.topK() == 20 && request.filterBySkill() && !request.filterByExperience()));
+        verifyNoInteractions(semanticSearchService);
+    }
+
+    @Test
+    @DisplayName("shouldReturnNotFoundForInvisibleJobDescription")
+    void shouldReturnNotFoundForInvisibleJobDescription() throws Exception {
+        UUID jdId = UUID.randomUUID();
+        when(jobDescriptionSearchService.search(eq(jdId), any())).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/api/search/jds/{jdId}", jdId).with(user("hr")))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @DisplayName("shouldRejectBlankQuery")
     void shouldRejectBlankQuery() throws Exception {